@@ -0,0 +1,76 @@
+package org.moodminds.elemental.benchmarks;
+
+import org.moodminds.elemental.BTreeMap;
+import org.moodminds.elemental.IntObjectMap;
+import org.moodminds.elemental.Map;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link org.moodminds.elemental.Association#containsValue(Object)} default method,
+ * which iterates the entries, through the {@link IntObjectMap#asMap()} view, against the
+ * overriding {@link BTreeMap} and the JDK maps. Every key is mapped to itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AssociationBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    int size;
+
+    @Param({"0.0", "0.5", "1.0"})
+    double hitRate;
+
+    Integer[] probes; int index;
+    Map<Integer, Integer> intObjectMap;
+    BTreeMap<Integer, Integer> bTreeMap;
+    HashMap<Integer, Integer> jdkHashMap;
+    TreeMap<Integer, Integer> jdkTreeMap;
+
+    @Setup
+    public void setup() {
+        probes = Probes.probes(size, hitRate, Probes.COUNT);
+        IntObjectMap<Integer> map = new IntObjectMap<>(size); bTreeMap = new BTreeMap<>();
+        jdkHashMap = new HashMap<>(); jdkTreeMap = new TreeMap<>();
+        for (Integer e : Probes.values(size)) {
+            map.put(e, e); bTreeMap.put(e, e); jdkHashMap.put(e, e); jdkTreeMap.put(e, e); }
+        intObjectMap = map.asMap();
+    }
+
+    @Benchmark
+    public boolean associationDefault() {
+        return intObjectMap.containsValue(probes[index++ & Probes.COUNT - 1]);
+    }
+
+    @Benchmark
+    public boolean bTreeMap() {
+        return bTreeMap.containsValue(probes[index++ & Probes.COUNT - 1]);
+    }
+
+    @Benchmark
+    public boolean jdkHashMap() {
+        return jdkHashMap.containsValue(probes[index++ & Probes.COUNT - 1]);
+    }
+
+    @Benchmark
+    public boolean jdkTreeMap() {
+        return jdkTreeMap.containsValue(probes[index++ & Probes.COUNT - 1]);
+    }
+}
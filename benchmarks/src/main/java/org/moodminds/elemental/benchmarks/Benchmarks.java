@@ -0,0 +1,35 @@
+package org.moodminds.elemental.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * The entry point of the benchmarks jar, running the benchmarks selected by the standard JMH
+ * command line options with the {@link GCProfiler} attached, so every result is published along
+ * with its allocation rate per operation.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {}
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args the JMH command line options
+     * @throws CommandLineOptionException if the options are illegal
+     * @throws RunnerException if a benchmark fails
+     * @throws IOException if listing the benchmarks fails
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions options = new CommandLineOptions(args);
+        if (options.shouldHelp() || options.shouldList() || options.shouldListProfilers()) {
+            org.openjdk.jmh.Main.main(args); return; }
+        new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+    }
+}
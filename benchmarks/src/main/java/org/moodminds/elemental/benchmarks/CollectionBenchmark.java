@@ -0,0 +1,97 @@
+package org.moodminds.elemental.benchmarks;
+
+import org.moodminds.elemental.HashCollection;
+import org.moodminds.elemental.TreeCollection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link org.moodminds.elemental.Collection#removeAll(java.util.Collection)} default method,
+ * which removes through {@code getAll} when the argument is smaller than the collection and
+ * through {@code removeIf} otherwise. As the operation is destructive, each measurement copies
+ * the collection first, and the {@code *Copy} benchmarks measure the copying alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CollectionBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    int size;
+
+    @Param({"0.0", "0.5", "1.0"})
+    double hitRate;
+
+    /**
+     * The size of the removed collection relative to the size of the one removed from.
+     */
+    @Param({"0.25", "2.0"})
+    double removedRatio;
+
+    List<Integer> values;
+    HashSet<Integer> removed;
+
+    @Setup
+    public void setup() {
+        values = Arrays.asList(Probes.values(size));
+        removed = new HashSet<>(Arrays.asList(Probes.distinctProbes(size, hitRate, Math.max(1, (int) (size * removedRatio)))));
+    }
+
+    @Benchmark
+    public Object hashCollection() {
+        HashCollection<Integer> c = new HashCollection<>(values); c.removeAll(removed); return c;
+    }
+
+    @Benchmark
+    public Object hashCollectionCopy() {
+        return new HashCollection<>(values);
+    }
+
+    @Benchmark
+    public Object treeCollection() {
+        TreeCollection<Integer> c = new TreeCollection<>(values); c.removeAll(removed); return c;
+    }
+
+    @Benchmark
+    public Object treeCollectionCopy() {
+        return new TreeCollection<>(values);
+    }
+
+    @Benchmark
+    public Object jdkHashSet() {
+        HashSet<Integer> c = new HashSet<>(values); c.removeAll(removed); return c;
+    }
+
+    @Benchmark
+    public Object jdkHashSetCopy() {
+        return new HashSet<>(values);
+    }
+
+    @Benchmark
+    public Object jdkArrayList() {
+        ArrayList<Integer> c = new ArrayList<>(values); c.removeAll(removed); return c;
+    }
+
+    @Benchmark
+    public Object jdkArrayListCopy() {
+        return new ArrayList<>(values);
+    }
+}
@@ -0,0 +1,55 @@
+package org.moodminds.elemental.benchmarks;
+
+import org.moodminds.elemental.Deque;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A {@link Deque} over an {@link ArrayDeque} implementing only the abstract methods, so the
+ * {@link Deque} and {@link org.moodminds.elemental.Queue} default methods are the ones measured.
+ *
+ * @param <E> the type of elements
+ */
+final class DequeAdapter<E> implements Deque<E> {
+
+    final ArrayDeque<E> deque;
+
+    DequeAdapter(ArrayDeque<E> deque) {
+        this.deque = deque;
+    }
+
+    @Override public int size() { return deque.size(); }
+    @Override public void clear() { deque.clear(); }
+    @Override public boolean add(E e) { return deque.add(e); }
+    @Override public boolean offer(E e) { return deque.offer(e); }
+    @Override public void addFirst(E e) { deque.addFirst(e); }
+    @Override public boolean offerFirst(E e) { return deque.offerFirst(e); }
+    @Override public boolean offerLast(E e) { return deque.offerLast(e); }
+    @Override public Iterator<E> iterator() { return deque.iterator(); }
+    @Override public Iterator<E> descendingIterator() { return deque.descendingIterator(); }
+    @Override public Iterator<E> getAll(Object o) { return matching(deque.iterator(), o); }
+    @Override public Iterator<E> getAllDescending(Object o) { return matching(deque.descendingIterator(), o); }
+
+    @Override public int getCount(Object o) {
+        int count = 0; for (E e : deque) if (Objects.equals(e, o)) count++; return count; }
+
+    @Override public int hashCode() { return System.identityHashCode(this); }
+    @Override public boolean equals(Object obj) { return obj == this; }
+
+    private static <E> Iterator<E> matching(Iterator<E> iterator, Object o) {
+        return new Iterator<E>() {
+            E next; boolean found;
+            @Override public boolean hasNext() {
+                while (!found && iterator.hasNext())
+                    if (Objects.equals(next = iterator.next(), o)) found = true;
+                return found; }
+            @Override public E next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                found = false; return next; }
+            @Override public void remove() { iterator.remove(); }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package org.moodminds.elemental.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link org.moodminds.elemental.Deque#pollLast()} default method, which polls through
+ * the {@code descendingIterator()}, and the {@link org.moodminds.elemental.Deque#contains(Object)}
+ * default method against the {@link ArrayDeque} they are adapting.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DequeBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    int size;
+
+    @Param({"0.0", "0.5", "1.0"})
+    double hitRate;
+
+    final Integer value = 1;
+
+    Integer[] probes; int index;
+    DequeAdapter<Integer> adapter;
+    ArrayDeque<Integer> jdkArrayDeque;
+
+    @Setup
+    public void setup() {
+        probes = Probes.probes(size, hitRate, Probes.COUNT);
+        adapter = new DequeAdapter<>(new ArrayDeque<>(size + 1));
+        jdkArrayDeque = new ArrayDeque<>(size + 1);
+        for (Integer e : Probes.values(size)) {
+            adapter.add(e); jdkArrayDeque.add(e); }
+    }
+
+    @Benchmark
+    public Integer pollLastDefault() {
+        adapter.offerLast(value); return adapter.pollLast();
+    }
+
+    @Benchmark
+    public Integer pollLastJdk() {
+        jdkArrayDeque.offerLast(value); return jdkArrayDeque.pollLast();
+    }
+
+    @Benchmark
+    public boolean containsDefault() {
+        return adapter.contains(probes[index++ & Probes.COUNT - 1]);
+    }
+
+    @Benchmark
+    public boolean containsJdk() {
+        return jdkArrayDeque.contains(probes[index++ & Probes.COUNT - 1]);
+    }
+}
@@ -0,0 +1,44 @@
+package org.moodminds.elemental.benchmarks;
+
+import java.util.Random;
+
+/**
+ * The generator of the benchmark data: the {@code size} distinct present values
+ * {@code 0, 2, 4, ...} and the probes, hitting a present value with the given rate
+ * and missing with an odd value otherwise.
+ */
+final class Probes {
+
+    /**
+     * The number of probes, a power of two so they are cycled by masking.
+     */
+    static final int COUNT = 1024;
+
+    private Probes() {}
+
+    static Integer[] values(int size) {
+        Integer[] values = new Integer[size];
+        for (int i = 0; i < size; i++) values[i] = i << 1;
+        return values;
+    }
+
+    static Integer[] probes(int size, double hitRate, int count) {
+        Random random = new Random(size * 31L + count); Integer[] probes = new Integer[count];
+        for (int i = 0; i < count; i++)
+            probes[i] = (random.nextInt(size) << 1) + (random.nextDouble() < hitRate ? 0 : 1);
+        return probes;
+    }
+
+    static Integer[] distinctProbes(int size, double hitRate, int count) {
+        Random random = new Random(size * 31L + count); Integer[] present = values(size), probes = new Integer[count];
+        shuffle(present, random); int hits = Math.min(size, (int) Math.round(count * hitRate));
+        for (int i = 0; i < count; i++)
+            probes[i] = i < hits ? present[i] : ((i - hits) << 1) + 1;
+        shuffle(probes, random); return probes;
+    }
+
+    private static void shuffle(Integer[] array, Random random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1); Integer e = array[i]; array[i] = array[j]; array[j] = e; }
+    }
+}
@@ -0,0 +1,72 @@
+package org.moodminds.elemental.benchmarks;
+
+import org.moodminds.elemental.RingBlockingQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link org.moodminds.elemental.Queue#poll()} default method, which polls through
+ * the {@code iterator()}, against the overriding {@link RingBlockingQueue} and the JDK queues.
+ * Each operation offers a value and polls one, keeping the queues at the given size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class QueueBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    int size;
+
+    final Integer value = 1;
+
+    DequeAdapter<Integer> adapter;
+    RingBlockingQueue<Integer> ringBlockingQueue;
+    ArrayDeque<Integer> jdkArrayDeque;
+    ArrayBlockingQueue<Integer> jdkArrayBlockingQueue;
+
+    @Setup
+    public void setup() {
+        adapter = new DequeAdapter<>(new ArrayDeque<>(size + 1));
+        ringBlockingQueue = new RingBlockingQueue<>(size + 1);
+        jdkArrayDeque = new ArrayDeque<>(size + 1);
+        jdkArrayBlockingQueue = new ArrayBlockingQueue<>(size + 1);
+        for (Integer e : Probes.values(size)) {
+            adapter.add(e); ringBlockingQueue.add(e); jdkArrayDeque.add(e); jdkArrayBlockingQueue.add(e); }
+    }
+
+    @Benchmark
+    public Integer queueDefault() {
+        adapter.offer(value); return adapter.poll();
+    }
+
+    @Benchmark
+    public Integer ringBlockingQueue() {
+        ringBlockingQueue.offer(value); return ringBlockingQueue.poll();
+    }
+
+    @Benchmark
+    public Integer jdkArrayDeque() {
+        jdkArrayDeque.offer(value); return jdkArrayDeque.poll();
+    }
+
+    @Benchmark
+    public Integer jdkArrayBlockingQueue() {
+        jdkArrayBlockingQueue.offer(value); return jdkArrayBlockingQueue.poll();
+    }
+}
@@ -0,0 +1,56 @@
+package org.moodminds.elemental.benchmarks;
+
+import org.moodminds.elemental.Sequence;
+import org.moodminds.elemental.SequenceIterator;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import static java.lang.String.format;
+
+/**
+ * A {@link Sequence} over an array range implementing only the abstract methods,
+ * so the {@link Sequence} default methods are the ones measured.
+ *
+ * @param <E> the type of elements
+ */
+final class SequenceAdapter<E> implements Sequence<E> {
+
+    final E[] elements; final int offset, size;
+
+    SequenceAdapter(E[] elements, int offset, int size) {
+        this.elements = elements; this.offset = offset; this.size = size;
+    }
+
+    @Override public int size() { return size; }
+
+    @Override public E get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, size));
+        return elements[offset + index]; }
+
+    @Override public Sequence<E> sub(int fromIndex, int toIndex) {
+        return new SequenceAdapter<>(elements, offset + fromIndex, toIndex - fromIndex); }
+
+    @Override public Iterator<E> iterator() { return iterator(0); }
+
+    @Override public SequenceIterator<E> iterator(int index) {
+        return new SequenceIterator<E>() {
+            int next = index;
+            @Override public boolean hasNext() { return next < size; }
+            @Override public E next() {
+                if (next >= size) throw new NoSuchElementException();
+                return elements[offset + next++]; }
+            @Override public int nextIndex() { return next; }
+        }; }
+
+    @Override public int getCount(Object o) {
+        int count = 0; for (E e : this) if (Objects.equals(e, o)) count++; return count; }
+
+    @Override public Iterator<E> getAll(Object o) {
+        throw new UnsupportedOperationException(); }
+
+    @Override public int hashCode() { return System.identityHashCode(this); }
+    @Override public boolean equals(Object obj) { return obj == this; }
+}
@@ -0,0 +1,66 @@
+package org.moodminds.elemental.benchmarks;
+
+import org.moodminds.elemental.IntArraySequence;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link org.moodminds.elemental.Sequence#indexOf(Object)} default method, which searches
+ * through the {@code iterator(0)}, against the unboxed {@link IntArraySequence} search and
+ * the {@link ArrayList}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SequenceBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    int size;
+
+    @Param({"0.0", "0.5", "1.0"})
+    double hitRate;
+
+    Integer[] probes; int index;
+    SequenceAdapter<Integer> adapter;
+    IntArraySequence intArraySequence;
+    ArrayList<Integer> jdkArrayList;
+
+    @Setup
+    public void setup() {
+        Integer[] values = Probes.values(size); probes = Probes.probes(size, hitRate, Probes.COUNT);
+        adapter = new SequenceAdapter<>(values, 0, size);
+        intArraySequence = new IntArraySequence(Arrays.stream(values).mapToInt(Integer::intValue).toArray());
+        jdkArrayList = new ArrayList<>(Arrays.asList(values));
+    }
+
+    @Benchmark
+    public int sequenceDefault() {
+        return adapter.indexOf(probes[index++ & Probes.COUNT - 1]);
+    }
+
+    @Benchmark
+    public int intArraySequence() {
+        return intArraySequence.indexOf(probes[index++ & Probes.COUNT - 1]);
+    }
+
+    @Benchmark
+    public int jdkArrayList() {
+        return jdkArrayList.indexOf(probes[index++ & Probes.COUNT - 1]);
+    }
+}
@@ -0,0 +1,334 @@
+package org.moodminds.elemental;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+import static java.lang.String.format;
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The base of the open-addressing hash {@link Container} implementations, keeping each
+ * distinct element once in a linearly probed slot together with the number of its occurrences.
+ * Removal is done by backward shifting of the following probe run, so the table never
+ * contains tombstones.
+ *
+ * @param <E> the type of elements
+ */
+abstract class AbstractHashContainer<E> implements Container<E>, RandomMatch, DirectMatch {
+
+    static final int DEFAULT_CAPACITY = 16;
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+    static final float DEFAULT_LOAD_FACTOR = .75f;
+
+    /**
+     * The mask of the {@code null} element within the slots table.
+     */
+    static final Object NULL = new Object();
+
+    final float loadFactor;
+
+    Object[] keys;
+    int[] counts;
+    int distinct;
+    long size;
+    int threshold;
+    int modCount;
+
+    AbstractHashContainer(int expectedSize, float loadFactor) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException(format("Illegal expected size: %d", expectedSize));
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException(format("Illegal load factor: %s", loadFactor));
+        this.loadFactor = loadFactor; allocate(capacity(expectedSize, loadFactor));
+    }
+
+    @Override
+    public int getCount(Object o) {
+        int i = find(mask(o)); return i < 0 ? 0 : counts[i];
+    }
+
+    @Override
+    public Iterator<E> getAll(Object o) {
+        int i = find(mask(o)); return i < 0 ? emptyIterator() : new RunIterator(i);
+    }
+
+    @Override
+    public boolean containsOne(Object o) {
+        return find(mask(o)) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new HashIterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        requireNonNull(action); Object[] keys = this.keys; int[] counts = this.counts;
+        for (int i = keys.length - 1; i >= 0; i--)
+            if (keys[i] != null)
+                for (int c = counts[i]; c > 0; c--)
+                    action.accept(unmask(keys[i]));
+    }
+
+    @Override
+    public Object[] toArray() {
+        return fill(new Object[size()]);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        int size = size(); T[] array = a.length >= size ? a
+                : (T[]) Array.newInstance(a.getClass().getComponentType(), size);
+        if (array.length > size)
+            array[size] = null;
+        return fill(array);
+    }
+
+    /**
+     * Return the hash code value for this Container, which is the sum of the element hash codes
+     * xor-ed with their occurrence counts, so equal Containers produce equal hash codes
+     * regardless of their slots layout.
+     *
+     * @return the hash code value for this Container
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0; Object[] keys = this.keys;
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i] != null)
+                hash += (keys[i] == NULL ? 0 : keys[i].hashCode()) ^ counts[i];
+        return hash;
+    }
+
+    /**
+     * Compare the specified object with this Container for equality. Return {@code true}
+     * if the object is also a hash Container of the same size and every element occurs
+     * in both Containers the same number of times.
+     *
+     * @param obj the object to be compared for equality with this Container
+     * @return {@code true} if the specified object is equal to this Container
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof AbstractHashContainer)) return false;
+        AbstractHashContainer<?> c = (AbstractHashContainer<?>) obj;
+        if (c.size != size || c.distinct != distinct) return false;
+        Object[] keys = this.keys;
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i] != null) {
+                int j = c.find(keys[i]);
+                if (j < 0 || c.counts[j] != counts[i])
+                    return false;
+            }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (E e : this) joiner.add(e == this ? "(this Container)" : String.valueOf(e));
+        return joiner.toString();
+    }
+
+    /**
+     * Find the slot of the specified masked key.
+     *
+     * @param key the specified masked key
+     * @return the slot index of the key, or {@code -(insertion slot) - 1} if the key is absent
+     */
+    final int find(Object key) {
+        Object[] keys = this.keys; int mask = keys.length - 1;
+        for (int i = spread(key) & mask; ; i = (i + 1) & mask) {
+            Object k = keys[i];
+            if (k == null) return -1 - i;
+            if (k == key || k.equals(key)) return i;
+        }
+    }
+
+    /**
+     * Add the given number of occurrences of the specified masked key.
+     *
+     * @param key the specified masked key
+     * @param count the number of occurrences to add
+     */
+    final void insert(Object key, int count) {
+        int i = find(key);
+        if (i >= 0) counts[i] += count;
+        else {
+            keys[i = -1 - i] = key; counts[i] = count;
+            if (++distinct > threshold) rehash(keys.length << 1);
+        } size += count; modCount++;
+    }
+
+    /**
+     * Remove a single occurrence of the element at the specified slot.
+     *
+     * @param i the specified slot
+     */
+    final void decrement(int i) {
+        if (--counts[i] == 0) {
+            shift(i, null); distinct--;
+        } size--; modCount++;
+    }
+
+    /**
+     * Delete the slot at the specified position, shifting the following entries of the probe
+     * run backward. Entries wrapped from the table start to the vacated positions behind
+     * are reported to the given {@link HashIterator}, if any.
+     *
+     * @param pos the position to delete
+     * @param iterator the iterator traversing the table downward, or {@code null}
+     */
+    final void shift(int pos, HashIterator iterator) {
+        Object[] keys = this.keys; int[] counts = this.counts; int mask = keys.length - 1;
+        for (int last; ; ) {
+            pos = ((last = pos) + 1) & mask; Object k;
+            for (; ; pos = (pos + 1) & mask) {
+                if ((k = keys[pos]) == null) {
+                    keys[last] = null; counts[last] = 0; return; }
+                int slot = spread(k) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+                    break;
+            }
+            if (pos < last && iterator != null)
+                iterator.wrapped(k);
+            keys[last] = k; counts[last] = counts[pos];
+        }
+    }
+
+    final void rehash(int capacity) {
+        if (keys.length == MAXIMUM_CAPACITY)
+            throw new IllegalStateException("Maximum capacity exceeded");
+        Object[] keys = this.keys; int[] counts = this.counts; allocate(capacity);
+        Object[] newKeys = this.keys; int[] newCounts = this.counts; int mask = newKeys.length - 1;
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i] != null) {
+                int j = spread(keys[i]) & mask;
+                while (newKeys[j] != null) j = (j + 1) & mask;
+                newKeys[j] = keys[i]; newCounts[j] = counts[i];
+            }
+    }
+
+    final void allocate(int capacity) {
+        keys = new Object[capacity]; counts = new int[capacity];
+        threshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    final void erase() {
+        Arrays.fill(keys, null); Arrays.fill(counts, 0); distinct = 0; size = 0; modCount++;
+    }
+
+    private <T> T[] fill(T[] array) {
+        Object[] keys = this.keys; Object[] target = array; int index = 0;
+        for (int i = keys.length - 1; i >= 0; i--)
+            if (keys[i] != null)
+                for (int c = counts[i]; c > 0; c--)
+                    target[index++] = unmask(keys[i]);
+        return array;
+    }
+
+    static int capacity(int expectedSize, float loadFactor) {
+        long capacity = Math.max(2, (long) Math.ceil(expectedSize / (double) loadFactor) + 1);
+        return capacity >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY
+                : Integer.highestOneBit((int) capacity - 1) << 1;
+    }
+
+    static int spread(Object key) {
+        int h = key.hashCode() * 0x9E3779B9; return h ^ (h >>> 16);
+    }
+
+    static Object mask(Object o) {
+        return o == null ? NULL : o;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> E unmask(Object o) {
+        return o == NULL ? null : (E) o;
+    }
+
+
+    /**
+     * An iterator over the occurrences of a single slot element.
+     */
+    class RunIterator implements Iterator<E> {
+
+        final Object key; int slot, remaining, expectedModCount = modCount; boolean removable;
+
+        RunIterator(int slot) {
+            this.key = keys[slot]; this.slot = slot; this.remaining = counts[slot];
+        }
+
+        @Override public boolean hasNext() { return remaining > 0; }
+
+        @Override public E next() {
+            checkModCount();
+            if (remaining == 0) throw new NoSuchElementException();
+            remaining--; removable = true; return unmask(key); }
+
+        final void removeLast() {
+            if (!removable) throw new IllegalStateException();
+            checkModCount(); removable = false;
+            if (keys[slot] != key) slot = find(key);
+            decrement(slot); expectedModCount = modCount; }
+
+        final void checkModCount() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException(); }
+    }
+
+    /**
+     * An iterator over all the slots, traversing the table downward so the backward shifting
+     * on removal never moves unvisited entries behind, except of the ones wrapped around
+     * the table end, which are collected and visited at last.
+     */
+    class HashIterator implements Iterator<E> {
+
+        int index = keys.length, slot = -1, remaining, expectedModCount = modCount;
+        long left = size; Object key; boolean removable;
+        ArrayList<Object> wrapped; int wrappedIndex;
+
+        @Override public boolean hasNext() { return left > 0; }
+
+        @Override public E next() {
+            checkModCount();
+            if (left == 0) throw new NoSuchElementException();
+            if (remaining == 0) advance();
+            remaining--; left--; removable = true; return unmask(key); }
+
+        private void advance() {
+            Object[] keys = AbstractHashContainer.this.keys;
+            while (--index >= 0)
+                if (keys[index] != null) {
+                    key = keys[slot = index]; remaining = counts[index]; return; }
+            index = -1; slot = -1; key = wrapped.get(wrappedIndex++); remaining = counts[find(key)]; }
+
+        final void wrapped(Object key) {
+            if (wrapped == null) wrapped = new ArrayList<>(2);
+            wrapped.add(key); }
+
+        final void removeLast() {
+            if (!removable) throw new IllegalStateException();
+            checkModCount(); removable = false;
+            int i = slot < 0 ? find(key) : slot;
+            if (--counts[i] == 0) {
+                shift(i, slot < 0 ? null : this); distinct--;
+            } size--; modCount++; expectedModCount = modCount; }
+
+        final void checkModCount() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException(); }
+    }
+}
@@ -0,0 +1,331 @@
+package org.moodminds.elemental;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.StringJoiner;
+
+import static java.util.Collections.emptyIterator;
+
+/**
+ * The base of the boxing {@link Map} views of the primitive keyed or valued hash maps,
+ * accessing the backing table by its slot indexes. The views do not hold any state of their
+ * own, so they are created in constant time and reflect every change of the backing map.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ *
+ * @see IntObjectMap#asMap()
+ * @see LongObjectMap#asMap()
+ * @see ObjectIntMap#asMap()
+ * @see LongLongMap#asMap()
+ */
+abstract class AbstractMapView<K, V> implements Map<K, V> {
+
+    /**
+     * Find the slot of the specified key.
+     *
+     * @param key the specified key
+     * @return the slot index of the key, or a negative number if the key is absent
+     */
+    abstract int slot(Object key);
+
+    abstract K key(int slot);
+
+    abstract V value(int slot);
+
+    abstract V value(int slot, V value);
+
+    /**
+     * Return an iterator of the occupied slot indexes, which removes the mapping
+     * of the last returned slot from the backing map.
+     *
+     * @return an iterator of the occupied slot indexes
+     */
+    abstract PrimitiveIterator.OfInt slots();
+
+    @Override
+    public V get(Object key) {
+        int i = slot(key); return i < 0 ? null : value(i);
+    }
+
+    @Override
+    public int getCount(Object o) {
+        KeyValue<?, ?> kv = (KeyValue<?, ?>) o; return contains(kv.getKey(), kv.getValue()) ? 1 : 0;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> getAll(Object o) {
+        KeyValue<?, ?> kv = (KeyValue<?, ?>) o; int i = slot(kv.getKey());
+        return i >= 0 && Objects.equals(value(i), kv.getValue()) ? single(i) : emptyIterator();
+    }
+
+    @Override
+    public boolean contains(Object key, Object value) {
+        int i = slot(key); return i >= 0 && Objects.equals(value(i), value);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return slot(key) >= 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void putAll(java.util.Map<? extends K, ? extends V> m) {
+        for (java.util.Map.Entry<? extends K, ? extends V> entry : m.entrySet())
+            put(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * Return the value associated with the key, as the primitive keys have no instances to replace.
+     *
+     * @param key the key
+     * @return the value associated with the key, or {@code null} if there was no mapping for the key
+     */
+    @Override
+    public V replace(K key) {
+        return get(key);
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return new KeySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new Values();
+    }
+
+    @Override
+    public Set<java.util.Map.Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new SlotIterator<Map.Entry<K, V>>() {
+            @Override Map.Entry<K, V> element(int slot) { return new SlotEntry(slot); }
+        };
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (PrimitiveIterator.OfInt it = slots(); it.hasNext(); ) {
+            int i = it.nextInt(); hash += Objects.hashCode(key(i)) ^ Objects.hashCode(value(i));
+        } return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof java.util.Map)) return false;
+        java.util.Map<?, ?> m = (java.util.Map<?, ?>) obj;
+        if (m.size() != size()) return false;
+        try {
+            for (PrimitiveIterator.OfInt it = slots(); it.hasNext(); ) {
+                int i = it.nextInt(); K key = key(i); V value = value(i);
+                if (value == null ? m.get(key) != null || !m.containsKey(key) : !value.equals(m.get(key)))
+                    return false;
+            }
+        } catch (ClassCastException | NullPointerException e) {
+            return false;
+        } return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (PrimitiveIterator.OfInt it = slots(); it.hasNext(); ) {
+            int i = it.nextInt(); V value = value(i);
+            joiner.add(key(i) + "=" + (value == this ? "(this Map)" : String.valueOf(value)));
+        } return joiner.toString();
+    }
+
+    private Iterator<Map.Entry<K, V>> single(int slot) {
+        K key = key(slot);
+        return new Iterator<Map.Entry<K, V>>() {
+            int state; // 0 - before, 1 - returned, 2 - removed
+            @Override public boolean hasNext() { return state == 0; }
+            @Override public Map.Entry<K, V> next() {
+                if (state != 0) throw new NoSuchElementException();
+                state = 1; return new SlotEntry(slot); }
+            @Override public void remove() {
+                if (state != 1) throw new IllegalStateException();
+                state = 2; AbstractMapView.this.remove(key); }
+        };
+    }
+
+
+    /**
+     * An iterator of the elements of the occupied slots.
+     *
+     * @param <T> the type of elements
+     */
+    abstract class SlotIterator<T> implements Iterator<T> {
+
+        final PrimitiveIterator.OfInt slots = slots();
+
+        @Override public boolean hasNext() { return slots.hasNext(); }
+        @Override public T next() { return element(slots.nextInt()); }
+        @Override public void remove() { slots.remove(); }
+
+        abstract T element(int slot);
+    }
+
+    /**
+     * An entry of the iterated slot, writing the value through to the backing map.
+     */
+    final class SlotEntry extends SimpleEntry<K, V> {
+
+        SlotEntry(int slot) {
+            super(key(slot), value(slot));
+        }
+
+        @Override public V setValue(V value) {
+            int slot = slot(key); if (slot < 0) throw new IllegalStateException();
+            V old = this.value; value(slot, this.value = value); return old; }
+    }
+
+    /**
+     * The base of the {@link Set} views of this map.
+     *
+     * @param <E> the type of elements
+     */
+    abstract class SetView<E> implements Set<E> {
+
+        @Override public int size() { return AbstractMapView.this.size(); }
+        @Override public boolean isEmpty() { return AbstractMapView.this.isEmpty(); }
+        @Override public boolean add(E e) { throw new UnsupportedOperationException(); }
+        @Override public void clear() { AbstractMapView.this.clear(); }
+
+        @Override public int hashCode() {
+            int hash = 0; for (E e : this) hash += Objects.hashCode(e); return hash; }
+
+        @Override public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (!(obj instanceof java.util.Set)) return false;
+            java.util.Set<?> set = (java.util.Set<?>) obj;
+            if (set.size() != size()) return false;
+            try {
+                return containsAll(set);
+            } catch (ClassCastException | NullPointerException e) {
+                return false;
+            } }
+
+        @Override public String toString() {
+            StringJoiner joiner = new StringJoiner(", ", "[", "]");
+            for (E e : this) joiner.add(String.valueOf(e));
+            return joiner.toString(); }
+    }
+
+    /**
+     * The {@link Set} view of the keys of this map.
+     */
+    final class KeySet extends SetView<K> {
+
+        @Override public boolean contains(Object o) { return containsKey(o); }
+
+        @Override public Iterator<K> getAll(Object o) {
+            int i = slot(o); if (i < 0) return emptyIterator();
+            Iterator<Map.Entry<K, V>> single = single(i);
+            return new Iterator<K>() {
+                @Override public boolean hasNext() { return single.hasNext(); }
+                @Override public K next() { return single.next().getKey(); }
+                @Override public void remove() { single.remove(); }
+            }; }
+
+        @Override public boolean remove(Object o) {
+            if (slot(o) < 0) return false;
+            AbstractMapView.this.remove(o); return true; }
+
+        @Override public Iterator<K> iterator() {
+            return new SlotIterator<K>() {
+                @Override K element(int slot) { return key(slot); }
+            }; }
+    }
+
+    /**
+     * The {@link Set} view of the entries of this map.
+     */
+    final class EntrySet extends SetView<java.util.Map.Entry<K, V>> {
+
+        @Override public boolean contains(Object o) {
+            if (!(o instanceof java.util.Map.Entry)) return false;
+            java.util.Map.Entry<?, ?> entry = (java.util.Map.Entry<?, ?>) o;
+            return AbstractMapView.this.contains(entry.getKey(), entry.getValue()); }
+
+        @Override @SuppressWarnings("unchecked") public Iterator<java.util.Map.Entry<K, V>> getAll(Object o) {
+            return contains(o) ? cast(single(slot(((java.util.Map.Entry<?, ?>) o).getKey()))) : emptyIterator(); }
+
+        @Override public boolean remove(Object o) {
+            if (!contains(o)) return false;
+            AbstractMapView.this.remove(((java.util.Map.Entry<?, ?>) o).getKey()); return true; }
+
+        @Override public Iterator<java.util.Map.Entry<K, V>> iterator() { return cast(AbstractMapView.this.iterator()); }
+
+        @SuppressWarnings("unchecked")
+        Iterator<java.util.Map.Entry<K, V>> cast(Iterator<Map.Entry<K, V>> iterator) {
+            return (Iterator<java.util.Map.Entry<K, V>>) (Iterator<?>) iterator; }
+    }
+
+    /**
+     * The {@link Collection} view of the values of this map.
+     */
+    final class Values implements Collection<V> {
+
+        @Override public int size() { return AbstractMapView.this.size(); }
+        @Override public boolean isEmpty() { return AbstractMapView.this.isEmpty(); }
+        @Override public boolean add(V v) { throw new UnsupportedOperationException(); }
+        @Override public void clear() { AbstractMapView.this.clear(); }
+
+        @Override public Iterator<V> iterator() {
+            return new SlotIterator<V>() {
+                @Override V element(int slot) { return value(slot); }
+            }; }
+
+        @Override public boolean contains(Object o) {
+            for (PrimitiveIterator.OfInt it = slots(); it.hasNext(); )
+                if (Objects.equals(value(it.nextInt()), o)) return true;
+            return false; }
+
+        @Override public int getCount(Object o) {
+            int count = 0;
+            for (PrimitiveIterator.OfInt it = slots(); it.hasNext(); )
+                if (Objects.equals(value(it.nextInt()), o)) count++;
+            return count; }
+
+        /**
+         * Return an iterator of the values equal to the given object, collected with their keys
+         * in advance, so the iterator removes the mappings of the returned values by their keys.
+         */
+        @Override public Iterator<V> getAll(Object o) {
+            ArrayList<K> keys = new ArrayList<>(); ArrayList<V> values = new ArrayList<>();
+            for (PrimitiveIterator.OfInt it = slots(); it.hasNext(); ) {
+                int i = it.nextInt(); V value = value(i);
+                if (Objects.equals(value, o)) { keys.add(key(i)); values.add(value); } }
+            return new Iterator<V>() {
+                int index, last = -1;
+                @Override public boolean hasNext() { return index < keys.size(); }
+                @Override public V next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return values.get(last = index++); }
+                @Override public void remove() {
+                    if (last < 0) throw new IllegalStateException();
+                    AbstractMapView.this.remove(keys.get(last)); last = -1; }
+            }; }
+
+        @Override public String toString() {
+            StringJoiner joiner = new StringJoiner(", ", "[", "]");
+            for (V v : this) joiner.add(String.valueOf(v));
+            return joiner.toString(); }
+    }
+}
@@ -0,0 +1,718 @@
+package org.moodminds.elemental;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.StringJoiner;
+
+import static java.lang.String.format;
+import static java.util.Collections.emptyIterator;
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * The base of the counted balanced tree {@link NavigableContainer} implementations. Each
+ * distinct element is kept once in an AVL tree node together with the number of its occurrences
+ * and the total number of occurrences within the node subtree, which makes the counting and the
+ * positional access logarithmic.
+ * <p>
+ * An instance is a view of the shared {@link Tree}, restricted by the optional lower and upper
+ * bounds and possibly descending, so the range views are created in constant time and share
+ * the same tree.
+ *
+ * @param <E> the type of elements
+ */
+abstract class AbstractTreeContainer<E> implements NavigableContainer<E>, Ordered<E>, RandomMatch, DirectMatch {
+
+    /**
+     * The fence key of the iterators not restricted by the range end.
+     */
+    static final Object UNBOUNDED = new Object();
+
+    final Tree<E> tree;
+    final boolean fromStart, loInclusive, toEnd, hiInclusive, descending;
+    final E lo, hi;
+
+    AbstractTreeContainer(Tree<E> tree) {
+        this(tree, true, null, true, true, null, true, false);
+    }
+
+    AbstractTreeContainer(Tree<E> tree, boolean fromStart, E lo, boolean loInclusive,
+                          boolean toEnd, E hi, boolean hiInclusive, boolean descending) {
+        if (!fromStart && !toEnd) {
+            if (tree.compare(lo, hi) > 0)
+                throw new IllegalArgumentException("fromElement > toElement");
+        } else {
+            if (!fromStart) tree.compare(lo, lo);
+            if (!toEnd) tree.compare(hi, hi);
+        }
+        this.tree = tree; this.descending = descending;
+        this.fromStart = fromStart; this.lo = lo; this.loInclusive = loInclusive;
+        this.toEnd = toEnd; this.hi = hi; this.hiInclusive = hiInclusive;
+    }
+
+    /**
+     * Return a view of the shared tree restricted by the specified bounds.
+     *
+     * @return a view of the shared tree restricted by the specified bounds
+     */
+    abstract AbstractTreeContainer<E> view(boolean fromStart, E lo, boolean loInclusive,
+                                           boolean toEnd, E hi, boolean hiInclusive, boolean descending);
+
+    @Override
+    public int getCount(Object o) {
+        Node<E> node = node(o); return node != null ? node.count : 0;
+    }
+
+    @Override
+    public Iterator<E> getAll(Object o) {
+        return run(node(o));
+    }
+
+    @Override
+    public boolean containsOne(Object o) {
+        return node(o) != null;
+    }
+
+    @Override
+    public boolean contains() {
+        return firstNode() != null;
+    }
+
+    /**
+     * Return the number of elements in this Container. Takes logarithmic
+     * time if this Container is a range restricted view.
+     *
+     * @return the number of elements in this Container
+     */
+    @Override
+    public int size() {
+        long size = fromStart && toEnd ? Tree.size(tree.root) : Math.max(0, top() - base());
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+
+    /**
+     * Return the element at the specified position of the iteration order of this Container.
+     * Takes logarithmic time.
+     *
+     * @param index the index of the element to return
+     * @return the element at the specified position of the iteration order of this Container
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @param <R> the type of return value
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R extends E> R get(int index) {
+        long base = base(), top = top();
+        if (index < 0 || index >= top - base)
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, Math.max(0, top - base)));
+        return (R) tree.select(descending ? top - 1 - index : base + index).key;
+    }
+
+    @Override
+    public E first() {
+        return key(firstNode());
+    }
+
+    @Override
+    public Iterator<E> firstAll() {
+        return run(firstNode());
+    }
+
+    @Override
+    public E last() {
+        return key(lastNode());
+    }
+
+    @Override
+    public Iterator<E> lastAll() {
+        return run(lastNode());
+    }
+
+    @Override
+    public E lower(E e) {
+        Node<E> node = lowerNode(e); return node != null ? node.key : null;
+    }
+
+    @Override
+    public Iterator<E> lowerAll(E e) {
+        return run(lowerNode(e));
+    }
+
+    @Override
+    public E floor(E e) {
+        Node<E> node = floorNode(e); return node != null ? node.key : null;
+    }
+
+    @Override
+    public Iterator<E> floorAll(E e) {
+        return run(floorNode(e));
+    }
+
+    @Override
+    public E ceiling(E e) {
+        Node<E> node = ceilingNode(e); return node != null ? node.key : null;
+    }
+
+    @Override
+    public Iterator<E> ceilingAll(E e) {
+        return run(ceilingNode(e));
+    }
+
+    @Override
+    public E higher(E e) {
+        Node<E> node = higherNode(e); return node != null ? node.key : null;
+    }
+
+    @Override
+    public Iterator<E> higherAll(E e) {
+        return run(higherNode(e));
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return descending ? Collections.reverseOrder(tree.comparator) : tree.comparator;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return descending ? new TreeIterator(absHighest(), absLowFence(), false)
+                : new TreeIterator(absLowest(), absHighFence(), true);
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return java.util.Spliterators.spliterator(iterator(), size(), ORDERED);
+    }
+
+    /**
+     * Return the hash code value for this Container, calculated over the elements
+     * in the iteration order as the {@link Sequence#hashCode()} is.
+     *
+     * @return the hash code value for this Container
+     */
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (E e : this) hash = 31 * hash + (e == null ? 0 : e.hashCode());
+        return hash;
+    }
+
+    /**
+     * Compare the specified object with this Container for equality. Return {@code true}
+     * if the object is also a tree Container of the same size, containing equal elements
+     * in the same iteration order.
+     *
+     * @param obj the object to be compared for equality with this Container
+     * @return {@code true} if the specified object is equal to this Container
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof AbstractTreeContainer)) return false;
+        AbstractTreeContainer<?> c = (AbstractTreeContainer<?>) obj;
+        if (c.size() != size()) return false;
+        for (Iterator<?> i1 = iterator(), i2 = c.iterator(); i1.hasNext(); )
+            if (!i2.hasNext() || !Objects.equals(i1.next(), i2.next()))
+                return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (E e : this) joiner.add(e == this ? "(this Container)" : String.valueOf(e));
+        return joiner.toString();
+    }
+
+    final AbstractTreeContainer<E> subView(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        if (descending) {
+            E element = fromElement; fromElement = toElement; toElement = element;
+            boolean inclusive = fromInclusive; fromInclusive = toInclusive; toInclusive = inclusive;
+        }
+        if (!inRange(fromElement, fromInclusive))
+            throw new IllegalArgumentException("fromElement out of range");
+        if (!inRange(toElement, toInclusive))
+            throw new IllegalArgumentException("toElement out of range");
+        return view(false, fromElement, fromInclusive, false, toElement, toInclusive, descending);
+    }
+
+    final AbstractTreeContainer<E> headView(E toElement, boolean inclusive) {
+        if (!inRange(toElement, inclusive))
+            throw new IllegalArgumentException("toElement out of range");
+        return descending ? view(false, toElement, inclusive, toEnd, hi, hiInclusive, true)
+                : view(fromStart, lo, loInclusive, false, toElement, inclusive, false);
+    }
+
+    final AbstractTreeContainer<E> tailView(E fromElement, boolean inclusive) {
+        if (!inRange(fromElement, inclusive))
+            throw new IllegalArgumentException("fromElement out of range");
+        return descending ? view(fromStart, lo, loInclusive, false, fromElement, inclusive, true)
+                : view(false, fromElement, inclusive, toEnd, hi, hiInclusive, false);
+    }
+
+    final AbstractTreeContainer<E> descendingView() {
+        return view(fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+    }
+
+    /**
+     * Remove a single occurrence of the first element.
+     *
+     * @return the removed element, or {@code null} if this Container is empty
+     */
+    final E pollFirstNode() {
+        Node<E> node = firstNode(); if (node == null) return null;
+        E key = node.key; tree.decrement(node); return key;
+    }
+
+    /**
+     * Remove a single occurrence of the last element.
+     *
+     * @return the removed element, or {@code null} if this Container is empty
+     */
+    final E pollLastNode() {
+        Node<E> node = lastNode(); if (node == null) return null;
+        E key = node.key; tree.decrement(node); return key;
+    }
+
+    final Node<E> node(Object o) {
+        return inRange(o) ? tree.node(o) : null;
+    }
+
+    final Node<E> firstNode() { return descending ? absHighest() : absLowest(); }
+    final Node<E> lastNode() { return descending ? absLowest() : absHighest(); }
+    final Node<E> lowerNode(E e) { return descending ? absHigher(e) : absLower(e); }
+    final Node<E> floorNode(E e) { return descending ? absCeiling(e) : absFloor(e); }
+    final Node<E> ceilingNode(E e) { return descending ? absFloor(e) : absCeiling(e); }
+    final Node<E> higherNode(E e) { return descending ? absLower(e) : absHigher(e); }
+
+    final Node<E> absLowest() {
+        Node<E> node = fromStart ? tree.firstNode() : loInclusive ? tree.ceilingNode(lo) : tree.higherNode(lo);
+        return node == null || tooHigh(node.key) ? null : node;
+    }
+
+    final Node<E> absHighest() {
+        Node<E> node = toEnd ? tree.lastNode() : hiInclusive ? tree.floorNode(hi) : tree.lowerNode(hi);
+        return node == null || tooLow(node.key) ? null : node;
+    }
+
+    final Node<E> absCeiling(E e) {
+        if (tooLow(e)) return absLowest();
+        Node<E> node = tree.ceilingNode(e); return node == null || tooHigh(node.key) ? null : node;
+    }
+
+    final Node<E> absHigher(E e) {
+        if (tooLow(e)) return absLowest();
+        Node<E> node = tree.higherNode(e); return node == null || tooHigh(node.key) ? null : node;
+    }
+
+    final Node<E> absFloor(E e) {
+        if (tooHigh(e)) return absHighest();
+        Node<E> node = tree.floorNode(e); return node == null || tooLow(node.key) ? null : node;
+    }
+
+    final Node<E> absLower(E e) {
+        if (tooHigh(e)) return absHighest();
+        Node<E> node = tree.lowerNode(e); return node == null || tooLow(node.key) ? null : node;
+    }
+
+    final Node<E> absHighFence() {
+        return toEnd ? null : hiInclusive ? tree.higherNode(hi) : tree.ceilingNode(hi);
+    }
+
+    final Node<E> absLowFence() {
+        return fromStart ? null : loInclusive ? tree.lowerNode(lo) : tree.floorNode(lo);
+    }
+
+    /**
+     * Return the number of the tree elements preceding the range of this view.
+     *
+     * @return the number of the tree elements preceding the range of this view
+     */
+    final long base() {
+        return fromStart ? 0 : tree.below(lo, !loInclusive);
+    }
+
+    /**
+     * Return the number of the tree elements preceding the range end of this view, inclusive.
+     *
+     * @return the number of the tree elements preceding the range end of this view, inclusive
+     */
+    final long top() {
+        return toEnd ? Tree.size(tree.root) : tree.below(hi, hiInclusive);
+    }
+
+    final boolean tooLow(Object key) {
+        if (!fromStart) {
+            int c = tree.compare(key, lo);
+            return c < 0 || (c == 0 && !loInclusive);
+        } return false;
+    }
+
+    final boolean tooHigh(Object key) {
+        if (!toEnd) {
+            int c = tree.compare(key, hi);
+            return c > 0 || (c == 0 && !hiInclusive);
+        } return false;
+    }
+
+    final boolean inRange(Object key) {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    final boolean inRange(Object key, boolean inclusive) {
+        return inclusive ? inRange(key) : (fromStart || tree.compare(key, lo) >= 0)
+                && (toEnd || tree.compare(hi, key) >= 0);
+    }
+
+    Iterator<E> run(Node<E> node) {
+        return node != null ? new RunIterator(node) : emptyIterator();
+    }
+
+    static <E> E key(Node<E> node) {
+        if (node == null) throw new NoSuchElementException(); return node.key;
+    }
+
+
+    /**
+     * An iterator over the occurrences of a single node element.
+     */
+    class RunIterator implements Iterator<E> {
+
+        final Node<E> node; int remaining, expectedModCount = tree.modCount; boolean removable;
+
+        RunIterator(Node<E> node) {
+            this.node = node; this.remaining = node.count;
+        }
+
+        @Override public boolean hasNext() { return remaining > 0; }
+
+        @Override public E next() {
+            checkModCount();
+            if (remaining == 0) throw new NoSuchElementException();
+            remaining--; removable = true; return node.key; }
+
+        final void removeLast() {
+            if (!removable) throw new IllegalStateException();
+            checkModCount(); removable = false;
+            tree.decrement(node); expectedModCount = tree.modCount; }
+
+        final void checkModCount() {
+            if (tree.modCount != expectedModCount) throw new ConcurrentModificationException(); }
+    }
+
+    /**
+     * An iterator over the occurrences of the node elements in ascending or descending order,
+     * up to the fence node key.
+     */
+    class TreeIterator implements Iterator<E> {
+
+        final Object fenceKey; final boolean ascending;
+        Node<E> next, lastReturned; int remaining, expectedModCount = tree.modCount; boolean removable;
+
+        TreeIterator(Node<E> first, Node<E> fence, boolean ascending) {
+            this.next = first; this.fenceKey = fence == null ? UNBOUNDED : fence.key; this.ascending = ascending;
+        }
+
+        @Override public boolean hasNext() {
+            return remaining > 0 || next != null && next.key != fenceKey; }
+
+        @Override public E next() {
+            checkModCount();
+            if (remaining == 0) {
+                Node<E> node = next;
+                if (node == null || node.key == fenceKey) throw new NoSuchElementException();
+                next = ascending ? Tree.successor(node) : Tree.predecessor(node);
+                lastReturned = node; remaining = node.count;
+            } remaining--; removable = true; return lastReturned.key; }
+
+        final void removeLast() {
+            if (!removable) throw new IllegalStateException();
+            checkModCount(); removable = false;
+            if (ascending && lastReturned.count == 1 && lastReturned.left != null && lastReturned.right != null)
+                next = lastReturned; // the successor content is moved to the deleted node
+            tree.decrement(lastReturned); expectedModCount = tree.modCount; }
+
+        final void checkModCount() {
+            if (tree.modCount != expectedModCount) throw new ConcurrentModificationException(); }
+    }
+
+    /**
+     * A tree node keeping a distinct element and the number of its occurrences.
+     *
+     * @param <E> the type of elements
+     */
+    static final class Node<E> {
+
+        E key; int count, height = 1; long size;
+        Node<E> left, right, parent;
+
+        Node(E key, int count, Node<E> parent) {
+            this.key = key; this.count = count; this.size = count; this.parent = parent;
+        }
+    }
+
+    /**
+     * The AVL tree of the counted nodes, shared by the views.
+     *
+     * @param <E> the type of elements
+     */
+    static final class Tree<E> {
+
+        final Comparator<? super E> comparator;
+        Node<E> root; int modCount;
+
+        Tree(Comparator<? super E> comparator) {
+            this.comparator = comparator;
+        }
+
+        @SuppressWarnings("unchecked")
+        int compare(Object k1, Object k2) {
+            return comparator == null ? ((Comparable<Object>) k1).compareTo(k2)
+                    : comparator.compare((E) k1, (E) k2);
+        }
+
+        Node<E> node(Object key) {
+            for (Node<E> p = root; p != null; ) {
+                int c = compare(key, p.key);
+                if (c < 0) p = p.left;
+                else if (c > 0) p = p.right;
+                else return p;
+            } return null;
+        }
+
+        Node<E> firstNode() {
+            Node<E> p = root;
+            if (p != null) while (p.left != null) p = p.left;
+            return p;
+        }
+
+        Node<E> lastNode() {
+            Node<E> p = root;
+            if (p != null) while (p.right != null) p = p.right;
+            return p;
+        }
+
+        Node<E> ceilingNode(Object key) {
+            Node<E> found = null;
+            for (Node<E> p = root; p != null; ) {
+                int c = compare(key, p.key);
+                if (c < 0) { found = p; p = p.left; }
+                else if (c > 0) p = p.right;
+                else return p;
+            } return found;
+        }
+
+        Node<E> higherNode(Object key) {
+            Node<E> found = null;
+            for (Node<E> p = root; p != null; )
+                if (compare(key, p.key) < 0) { found = p; p = p.left; }
+                else p = p.right;
+            return found;
+        }
+
+        Node<E> floorNode(Object key) {
+            Node<E> found = null;
+            for (Node<E> p = root; p != null; ) {
+                int c = compare(key, p.key);
+                if (c > 0) { found = p; p = p.right; }
+                else if (c < 0) p = p.left;
+                else return p;
+            } return found;
+        }
+
+        Node<E> lowerNode(Object key) {
+            Node<E> found = null;
+            for (Node<E> p = root; p != null; )
+                if (compare(key, p.key) > 0) { found = p; p = p.right; }
+                else p = p.left;
+            return found;
+        }
+
+        /**
+         * Return the number of elements less than (or equal to, if inclusive) the specified key.
+         */
+        long below(Object key, boolean inclusive) {
+            long below = 0;
+            for (Node<E> p = root; p != null; ) {
+                int c = compare(key, p.key);
+                if (c < 0) p = p.left;
+                else if (c > 0) { below += size(p.left) + p.count; p = p.right; }
+                else return below + size(p.left) + (inclusive ? p.count : 0);
+            } return below;
+        }
+
+        /**
+         * Return the node of the element at the specified position of the ascending order.
+         */
+        Node<E> select(long index) {
+            for (Node<E> p = root; ; ) {
+                long left = size(p.left);
+                if (index < left) p = p.left;
+                else if ((index -= left) < p.count) return p;
+                else { index -= p.count; p = p.right; }
+            }
+        }
+
+        void add(E key, int count) {
+            Node<E> p = root, parent = null; int c = 0;
+            if (p == null)
+                compare(key, key); // type (and possibly null) check
+            while (p != null) {
+                c = compare(key, (parent = p).key);
+                if (c < 0) p = p.left;
+                else if (c > 0) p = p.right;
+                else {
+                    p.count += count; for (; p != null; p = p.parent) p.size += count;
+                    modCount++; return;
+                }
+            }
+            Node<E> node = new Node<>(key, count, parent);
+            if (parent == null) root = node;
+            else if (c < 0) parent.left = node;
+            else parent.right = node;
+            fixup(parent); modCount++;
+        }
+
+        /**
+         * Remove a single occurrence of the element of the specified node,
+         * deleting the node if it was the last one.
+         */
+        void decrement(Node<E> node) {
+            if (node.count > 1) {
+                node.count--; for (Node<E> p = node; p != null; p = p.parent) p.size--;
+                modCount++;
+            } else delete(node);
+        }
+
+        /**
+         * Delete the specified node. If the node has both children, the content of its successor
+         * is moved to it and the successor node is deleted instead.
+         */
+        void delete(Node<E> p) {
+            if (p.left != null && p.right != null) {
+                Node<E> s = successor(p); p.key = s.key; p.count = s.count; p = s;
+            }
+            Node<E> replacement = p.left != null ? p.left : p.right, parent = p.parent;
+            if (replacement != null) replacement.parent = parent;
+            link(parent, p, replacement);
+            p.left = p.right = p.parent = null;
+            fixup(parent); modCount++;
+        }
+
+        void clear() {
+            root = null; modCount++;
+        }
+
+        /**
+         * Build the tree of the given elements sorted by the comparator of this tree.
+         */
+        @SuppressWarnings("unchecked")
+        void build(Object[] sorted, int length) {
+            if (length == 1)
+                compare(sorted[0], sorted[0]); // type (and possibly null) check, as the sort compares none
+            Object[] keys = new Object[length]; int[] counts = new int[length]; int distinct = 0;
+            for (int i = 0; i < length; i++)
+                if (distinct > 0 && compare(sorted[i], keys[distinct - 1]) == 0) counts[distinct - 1]++;
+                else { keys[distinct] = sorted[i]; counts[distinct++] = 1; }
+            root = build((E[]) keys, counts, 0, distinct - 1, null); modCount++;
+        }
+
+        private Node<E> build(E[] keys, int[] counts, int lo, int hi, Node<E> parent) {
+            if (lo > hi) return null;
+            int mid = (lo + hi) >>> 1; Node<E> node = new Node<>(keys[mid], counts[mid], parent);
+            node.left = build(keys, counts, lo, mid - 1, node);
+            node.right = build(keys, counts, mid + 1, hi, node);
+            update(node); return node;
+        }
+
+        /**
+         * Restore the heights, sizes and balance of the specified node and all its ancestors.
+         */
+        private void fixup(Node<E> p) {
+            for (; p != null; p = p.parent) {
+                update(p); int balance = height(p.left) - height(p.right);
+                if (balance > 1) {
+                    if (height(p.left.left) < height(p.left.right)) rotateLeft(p.left);
+                    p = rotateRight(p);
+                } else if (balance < -1) {
+                    if (height(p.right.right) < height(p.right.left)) rotateRight(p.right);
+                    p = rotateLeft(p);
+                }
+            }
+        }
+
+        private Node<E> rotateLeft(Node<E> p) {
+            Node<E> r = p.right; p.right = r.left;
+            if (r.left != null) r.left.parent = p;
+            r.parent = p.parent; link(p.parent, p, r);
+            r.left = p; p.parent = r; update(p); update(r); return r;
+        }
+
+        private Node<E> rotateRight(Node<E> p) {
+            Node<E> l = p.left; p.left = l.right;
+            if (l.right != null) l.right.parent = p;
+            l.parent = p.parent; link(p.parent, p, l);
+            l.right = p; p.parent = l; update(p); update(l); return l;
+        }
+
+        private void link(Node<E> parent, Node<E> child, Node<E> replacement) {
+            if (parent == null) root = replacement;
+            else if (parent.left == child) parent.left = replacement;
+            else parent.right = replacement;
+        }
+
+        static void update(Node<?> p) {
+            p.height = Math.max(height(p.left), height(p.right)) + 1;
+            p.size = size(p.left) + size(p.right) + p.count;
+        }
+
+        static int height(Node<?> p) {
+            return p == null ? 0 : p.height;
+        }
+
+        static long size(Node<?> p) {
+            return p == null ? 0 : p.size;
+        }
+
+        static <E> Node<E> successor(Node<E> t) {
+            if (t.right != null) {
+                Node<E> p = t.right; while (p.left != null) p = p.left; return p;
+            }
+            Node<E> p = t.parent, ch = t;
+            while (p != null && ch == p.right) { ch = p; p = p.parent; }
+            return p;
+        }
+
+        static <E> Node<E> predecessor(Node<E> t) {
+            if (t.left != null) {
+                Node<E> p = t.left; while (p.right != null) p = p.right; return p;
+            }
+            Node<E> p = t.parent, ch = t;
+            while (p != null && ch == p.left) { ch = p; p = p.parent; }
+            return p;
+        }
+
+        /**
+         * Sort the given elements by the specified comparator.
+         */
+        @SuppressWarnings("unchecked")
+        static <E> Object[] sort(Iterable<? extends E> elements, Comparator<? super E> comparator) {
+            Object[] sorted = elements instanceof java.util.Collection ? ((java.util.Collection<?>) elements).toArray()
+                    : elements instanceof Container ? ((Container<?>) elements).toArray() : toArray(elements);
+            Arrays.sort(sorted, (Comparator<Object>) comparator); return sorted;
+        }
+
+        private static Object[] toArray(Iterable<?> elements) {
+            Object[] array = new Object[16]; int size = 0;
+            for (Object e : elements) {
+                if (size == array.length) array = Arrays.copyOf(array, size << 1);
+                array[size++] = e;
+            } return Arrays.copyOf(array, size);
+        }
+    }
+}
@@ -37,6 +37,45 @@ public interface Advancer<V> {
         while (true) if (!next(consumer)) return;
     }
 
+    /**
+     * Move up to the specified number of values forward in the current {@link Thread},
+     * applying the specified {@link Consumer} to each of them. Return the number of values
+     * advanced, which is less than the specified count only if no more values remain.
+     *
+     * @param count the maximum number of values to advance
+     * @param consumer the specified {@link Consumer} action
+     * @return the number of values advanced
+     * @throws IllegalArgumentException if the count is negative
+     */
+    default int next(int count, Consumer<? super V> consumer) {
+        Advancers.checkCount(count);
+        requireNonNull(consumer); int n = 0;
+        while (n < count && next(consumer)) n++;
+        return n;
+    }
+
+    /**
+     * Move up to the specified number of values forward in the current {@link Thread},
+     * storing them into the given array starting at the specified offset. Return the number
+     * of values stored, which is less than the specified length only if no more values remain.
+     * Unlike the {@link Consumer} accepting methods, the values are transferred without
+     * a call per value where the source permits.
+     *
+     * @param buffer the array to store the values into
+     * @param offset the index of the array to store the first value at
+     * @param length the maximum number of values to store
+     * @return the number of values stored
+     * @throws IndexOutOfBoundsException if the offset or length is negative,
+     *         or the length exceeds the array space behind the offset
+     */
+    default int next(V[] buffer, int offset, int length) {
+        Advancers.checkRange(buffer, offset, length);
+        int[] index = {offset}; Consumer<V> sink = value -> buffer[index[0]++] = value;
+        for (int end = offset + length; index[0] < end; )
+            if (!next(sink)) break;
+        return index[0] - offset;
+    }
+
     /**
      * Return an idle Advancer.
      *
@@ -67,6 +106,20 @@ public interface Advancer<V> {
                 if (index < values.length) {
                     consumer.accept(values[index++]); return true;
                 } return false; }
+
+            @Override public int next(int count, Consumer<? super V> consumer) {
+                Advancers.checkCount(count);
+                requireNonNull(consumer); int n = 0;
+                for (; n < count && index < values.length; n++) consumer.accept(values[index++]);
+                return n; }
+
+            @Override public int next(V[] buffer, int offset, int length) {
+                Advancers.checkRange(buffer, offset, length);
+                int n = Math.min(length, values.length - index);
+                System.arraycopy(values, index, buffer, offset, n); index += n; return n; }
+
+            @Override public void each(Consumer<? super V> consumer) {
+                next(values.length - index, consumer); }
         };
     }
 
@@ -81,6 +134,16 @@ public interface Advancer<V> {
         return new Advancer<V>() {
             @Override public boolean next(Consumer<? super V> consumer) {
                 requireNonNull(consumer); if (!iterator.hasNext()) return false; consumer.accept(iterator.next()); return true; }
+            @Override public int next(int count, Consumer<? super V> consumer) {
+                Advancers.checkCount(count);
+                requireNonNull(consumer); int n = 0;
+                for (; n < count && iterator.hasNext(); n++) consumer.accept(iterator.next());
+                return n; }
+            @Override public int next(V[] buffer, int offset, int length) {
+                Advancers.checkRange(buffer, offset, length);
+                int n = 0;
+                for (; n < length && iterator.hasNext(); n++) buffer[offset + n] = iterator.next();
+                return n; }
             @Override public void each(Consumer<? super V> consumer) {
                 iterator.forEachRemaining(consumer); }
         };
@@ -95,8 +158,28 @@ public interface Advancer<V> {
      */
     static <V> Advancer<V> advancer(Spliterator<? extends V> spliterator) {
         return new Advancer<V>() {
+
+            private V value; private Consumer<V> sink;
+
             @Override public boolean next(Consumer<? super V> consumer) {
                 return spliterator.tryAdvance(consumer); }
+
+            @Override public int next(int count, Consumer<? super V> consumer) {
+                Advancers.checkCount(count);
+                requireNonNull(consumer); int n = 0;
+                while (n < count && spliterator.tryAdvance(consumer)) n++;
+                return n; }
+
+            @Override public int next(V[] buffer, int offset, int length) {
+                Advancers.checkRange(buffer, offset, length);
+                long size = spliterator.getExactSizeIfKnown();
+                if (size >= 0 && size <= length) {
+                    int[] index = {offset}; spliterator.forEachRemaining(v -> buffer[index[0]++] = v);
+                    return index[0] - offset; }
+                Consumer<V> sink = this.sink != null ? this.sink : (this.sink = v -> value = v); int n = 0;
+                for (; n < length && spliterator.tryAdvance(sink); n++) buffer[offset + n] = value;
+                value = null; return n; }
+
             @Override public void each(Consumer<? super V> consumer) {
                 spliterator.forEachRemaining(consumer); }
         };
@@ -0,0 +1,36 @@
+package org.moodminds.elemental;
+
+import static java.lang.String.format;
+
+/**
+ * The holder of the argument checks of the {@link Advancer} methods.
+ */
+final class Advancers {
+
+    private Advancers() {}
+
+    /**
+     * Check the count of the values to advance.
+     *
+     * @param count the count of the values to advance
+     * @throws IllegalArgumentException if the count is negative
+     */
+    static void checkCount(int count) {
+        if (count < 0)
+            throw new IllegalArgumentException(format("Illegal count: %d", count));
+    }
+
+    /**
+     * Check the range of the given array to store the values into.
+     *
+     * @param buffer the given array
+     * @param offset the index of the array to store the first value at
+     * @param length the maximum number of values to store
+     * @throws IndexOutOfBoundsException if the offset or length is negative,
+     *         or the length exceeds the array space behind the offset
+     */
+    static void checkRange(Object[] buffer, int offset, int length) {
+        if (offset < 0 || length < 0 || length > buffer.length - offset)
+            throw new IndexOutOfBoundsException(format("Offset: %d, Length: %d, Size: %d", offset, length, buffer.length));
+    }
+}
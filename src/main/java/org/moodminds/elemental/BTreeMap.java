@@ -0,0 +1,1252 @@
+package org.moodminds.elemental;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.requireNonNull;
+import static java.util.Spliterator.DISTINCT;
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * A B+tree based {@link NavigableMap}. The map is sorted according to the {@linkplain Comparable natural
+ * ordering} of its keys, or by a {@link Comparator} provided at construction time.
+ * <p>
+ * The keys and values are kept in the arrays of the tree nodes of up to 32 entries each, and the leaf
+ * nodes are linked to each other. So a lookup binary searches a few contiguous arrays instead of chasing
+ * a pointer per comparison, while an iteration over the map or over a range view walks the leaf arrays
+ * sequentially without descending the tree again. The {@link #get(Object)}, {@link #put(Object, Object)},
+ * {@link #remove(Object)} and the navigation methods take logarithmic time. The map can be bulk loaded
+ * from a source sorted by the keys in linear time.
+ * <p>
+ * The range and descending views are created in constant time and are backed by this map. The
+ * {@link #size()} of a range view takes time proportional to the number of the leaf nodes it spans.
+ * <p>
+ * This implementation permits {@code null} values, while {@code null} keys are permitted only if the
+ * comparator does. This implementation is not synchronized. The iterators are <i>fail-fast</i>.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public class BTreeMap<K, V> implements NavigableMap<K, V> {
+
+    /**
+     * The maximum number of entries of a leaf node and of children of an inner node.
+     * The key array of a node spans a couple of cache lines, so that the binary
+     * search within the node touches few of them.
+     */
+    static final int CAPACITY = 32;
+
+    /**
+     * The number of entries or children below which a node is merged with, or
+     * replenished from, its sibling on removal.
+     */
+    static final int MINIMUM = CAPACITY / 2;
+
+    /**
+     * The result of the tree operations indicating the key absence.
+     */
+    static final Object ABSENT = new Object();
+
+    final BTree<K, V> tree;
+    final boolean fromStart, loInclusive, toEnd, hiInclusive, descending;
+    final K lo, hi;
+
+    /**
+     * Construct an empty map, sorted according to the natural ordering of its keys.
+     */
+    public BTreeMap() {
+        this((Comparator<? super K>) null);
+    }
+
+    /**
+     * Construct an empty map, sorted according to the specified comparator.
+     *
+     * @param comparator the comparator to sort the keys, or {@code null} for the natural ordering
+     */
+    public BTreeMap(Comparator<? super K> comparator) {
+        this(new BTree<>(comparator), true, null, true, true, null, true, false);
+    }
+
+    /**
+     * Construct a map of the mappings of the given {@link java.util.Map},
+     * sorted according to the natural ordering of its keys.
+     *
+     * @param m the given {@link java.util.Map}
+     * @throws ClassCastException if the keys are not mutually comparable
+     * @throws NullPointerException if any of the keys is {@code null}
+     */
+    public BTreeMap(java.util.Map<? extends K, ? extends V> m) {
+        this(); putAll(m);
+    }
+
+    /**
+     * Construct a map of the mappings of the given {@link java.util.SortedMap}, sorted according
+     * to the same ordering. The map is bulk loaded in linear time.
+     *
+     * @param m the given {@link java.util.SortedMap}
+     */
+    public BTreeMap(java.util.SortedMap<K, ? extends V> m) {
+        this(m.comparator()); putAll(m);
+    }
+
+    /**
+     * Construct a map bulk loaded in linear time from the entries of the given {@link Iterator},
+     * sorted according to the natural ordering of their keys.
+     *
+     * @param sorted the given {@link Iterator} of entries in the strictly ascending order of the keys
+     * @throws ClassCastException if the keys are not mutually comparable
+     * @throws NullPointerException if any of the keys is {@code null}
+     * @throws IllegalArgumentException if the keys are not in the strictly ascending order
+     */
+    public BTreeMap(Iterator<? extends java.util.Map.Entry<? extends K, ? extends V>> sorted) {
+        this(null, sorted);
+    }
+
+    /**
+     * Construct a map bulk loaded in linear time from the entries of the given {@link Iterator},
+     * sorted according to the specified comparator.
+     *
+     * @param comparator the comparator to sort the keys, or {@code null} for the natural ordering
+     * @param sorted the given {@link Iterator} of entries in the strictly ascending order of the keys
+     * @throws ClassCastException if the keys are not mutually comparable
+     * @throws IllegalArgumentException if the keys are not in the strictly ascending order
+     */
+    public BTreeMap(Comparator<? super K> comparator, Iterator<? extends java.util.Map.Entry<? extends K, ? extends V>> sorted) {
+        this(comparator);
+        while (sorted.hasNext()) {
+            java.util.Map.Entry<? extends K, ? extends V> entry = sorted.next();
+            tree.load(entry.getKey(), entry.getValue());
+        } tree.index();
+    }
+
+    /**
+     * Construct a map bulk loaded in linear time from the key-value pairs of the given {@link Advancer},
+     * sorted according to the natural ordering of their keys.
+     *
+     * @param sorted the given {@link Advancer} of key-value pairs in the strictly ascending order of the keys
+     * @throws ClassCastException if the keys are not mutually comparable
+     * @throws NullPointerException if any of the keys is {@code null}
+     * @throws IllegalArgumentException if the keys are not in the strictly ascending order
+     */
+    public BTreeMap(Advancer<? extends KeyValue<? extends K, ? extends V>> sorted) {
+        this(null, sorted);
+    }
+
+    /**
+     * Construct a map bulk loaded in linear time from the key-value pairs of the given {@link Advancer},
+     * sorted according to the specified comparator.
+     *
+     * @param comparator the comparator to sort the keys, or {@code null} for the natural ordering
+     * @param sorted the given {@link Advancer} of key-value pairs in the strictly ascending order of the keys
+     * @throws ClassCastException if the keys are not mutually comparable
+     * @throws IllegalArgumentException if the keys are not in the strictly ascending order
+     */
+    public BTreeMap(Comparator<? super K> comparator, Advancer<? extends KeyValue<? extends K, ? extends V>> sorted) {
+        this(comparator); sorted.each(kv -> tree.load(kv.getKey(), kv.getValue())); tree.index();
+    }
+
+    private BTreeMap(BTree<K, V> tree, boolean fromStart, K lo, boolean loInclusive,
+                     boolean toEnd, K hi, boolean hiInclusive, boolean descending) {
+        if (!fromStart && !toEnd) {
+            if (tree.compare(lo, hi) > 0)
+                throw new IllegalArgumentException("fromKey > toKey");
+        } else {
+            if (!fromStart) tree.compare(lo, lo);
+            if (!toEnd) tree.compare(hi, hi);
+        }
+        this.tree = tree; this.descending = descending;
+        this.fromStart = fromStart; this.lo = lo; this.loInclusive = loInclusive;
+        this.toEnd = toEnd; this.hi = hi; this.hiInclusive = hiInclusive;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (!inRange(key)) return null;
+        Leaf leaf = tree.leaf(key); int i = tree.search(leaf, key);
+        return i >= 0 ? (V) leaf.values[i] : null;
+    }
+
+    @Override
+    public int getCount(Object o) {
+        KeyValue<?, ?> kv = (KeyValue<?, ?>) o; return contains(kv.getKey(), kv.getValue()) ? 1 : 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<Map.Entry<K, V>> getAll(Object o) {
+        KeyValue<K, ?> kv = (KeyValue<K, ?>) o; K key = kv.getKey();
+        return contains(key, kv.getValue()) ? single(key).iterator() : emptyIterator();
+    }
+
+    @Override
+    public boolean contains(Object key, Object value) {
+        if (!inRange(key)) return false;
+        Leaf leaf = tree.leaf(key); int i = tree.search(leaf, key);
+        return i >= 0 && Objects.equals(leaf.values[i], value);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return inRange(key) && tree.search(tree.leaf(key), key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return values().contains(value);
+    }
+
+    @Override
+    public boolean contains() {
+        return !isEmpty();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return fromStart && toEnd ? tree.size == 0 : absLowest() == null;
+    }
+
+    /**
+     * Return the number of mappings in this map. Takes time proportional to
+     * the number of the leaf nodes spanned if this map is a range restricted view.
+     *
+     * @return the number of mappings in this map
+     */
+    @Override
+    public int size() {
+        if (fromStart && toEnd) return tree.size;
+        Cursor first = absLowest(); if (first == null) return 0;
+        int size = 0;
+        for (Leaf leaf = first.leaf; leaf != null; leaf = leaf.next) {
+            int limit = highLimit(leaf); size += limit - (leaf == first.leaf ? first.index : 0);
+            if (limit < leaf.size) break;
+        } return size;
+    }
+
+    /**
+     * Associate the specified value with the specified key in this map.
+     *
+     * @param key the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @return the previous value associated with the key, or {@code null} if there was no mapping for the key
+     * @throws ClassCastException if the key cannot be compared with the keys of this map
+     * @throws NullPointerException if the key is {@code null} and this map does not permit {@code null} keys
+     * @throws IllegalArgumentException if the key is out of range of this view
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (!inRange(key))
+            throw new IllegalArgumentException("key out of range");
+        Object old = tree.put(key, value); return old != ABSENT ? (V) old : null;
+    }
+
+    /**
+     * Copy all the mappings from the specified map to this map. If this map is empty and the specified
+     * map is a {@link java.util.SortedMap} of the same ordering, this map is bulk loaded in linear time.
+     *
+     * @param m the mappings to be stored in this map
+     * @throws ClassCastException if a key cannot be compared with the keys of this map
+     * @throws NullPointerException if the specified map is {@code null}, or a key is {@code null}
+     *         and this map does not permit {@code null} keys
+     * @throws IllegalArgumentException if a key is out of range of this view
+     */
+    @Override
+    public void putAll(java.util.Map<? extends K, ? extends V> m) {
+        if (tree.size == 0 && fromStart && toEnd && m instanceof java.util.SortedMap
+                && Objects.equals(tree.comparator, ((java.util.SortedMap<?, ?>) m).comparator())) {
+            for (java.util.Map.Entry<? extends K, ? extends V> entry : m.entrySet())
+                tree.load(entry.getKey(), entry.getValue());
+            tree.index();
+        } else for (java.util.Map.Entry<? extends K, ? extends V> entry : m.entrySet())
+            put(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (!inRange(key)) return null;
+        Object old = tree.remove(key); return old != ABSENT ? (V) old : null;
+    }
+
+    /**
+     * Replace the existing key instance with the given equal one.
+     *
+     * @param key the equivalent key to replace the existing key
+     * @return the value associated with the key, or {@code null} if there was no mapping for the key
+     * @throws ClassCastException if the key cannot be compared with the keys of this map
+     * @throws NullPointerException if the key is {@code null} and this map does not permit {@code null} keys
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V replace(K key) {
+        if (!inRange(key)) return null;
+        Leaf leaf = tree.leaf(key); int i = tree.search(leaf, key);
+        if (i < 0) return null;
+        leaf.keys[i] = key; return (V) leaf.values[i];
+    }
+
+    @Override
+    public void clear() {
+        if (fromStart && toEnd) tree.clear();
+        else for (Iterator<K> it = keyIterator(); it.hasNext(); ) {
+            it.next(); it.remove();
+        }
+    }
+
+    @Override
+    public K firstKey() {
+        return key(firstCursor());
+    }
+
+    @Override
+    public K lastKey() {
+        return key(lastCursor());
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOrNull(lowerCursor(key));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOrNull(floorCursor(key));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOrNull(ceilingCursor(key));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOrNull(higherCursor(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return entry(firstCursor());
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return entry(lastCursor());
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return entry(lowerCursor(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return entry(floorCursor(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return entry(ceilingCursor(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return entry(higherCursor(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return poll(firstCursor());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return poll(lastCursor());
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return descending ? Collections.reverseOrder(tree.comparator) : tree.comparator;
+    }
+
+    @Override
+    public NavigableSet<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new KeySet();
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new Values();
+    }
+
+    @Override
+    public Set<java.util.Map.Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    @Override
+    public BTreeMap<K, V> descendingMap() {
+        return new BTreeMap<>(tree, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+    }
+
+    @Override
+    public BTreeMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        if (descending) {
+            K key = fromKey; fromKey = toKey; toKey = key;
+            boolean inclusive = fromInclusive; fromInclusive = toInclusive; toInclusive = inclusive;
+        }
+        if (!inRange(fromKey, fromInclusive))
+            throw new IllegalArgumentException("fromKey out of range");
+        if (!inRange(toKey, toInclusive))
+            throw new IllegalArgumentException("toKey out of range");
+        return new BTreeMap<>(tree, false, fromKey, fromInclusive, false, toKey, toInclusive, descending);
+    }
+
+    @Override
+    public BTreeMap<K, V> headMap(K toKey, boolean inclusive) {
+        if (!inRange(toKey, inclusive))
+            throw new IllegalArgumentException("toKey out of range");
+        return descending ? new BTreeMap<>(tree, false, toKey, inclusive, toEnd, hi, hiInclusive, true)
+                : new BTreeMap<>(tree, fromStart, lo, loInclusive, false, toKey, inclusive, false);
+    }
+
+    @Override
+    public BTreeMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        if (!inRange(fromKey, inclusive))
+            throw new IllegalArgumentException("fromKey out of range");
+        return descending ? new BTreeMap<>(tree, fromStart, lo, loInclusive, false, fromKey, inclusive, true)
+                : new BTreeMap<>(tree, false, fromKey, inclusive, toEnd, hi, hiInclusive, false);
+    }
+
+    @Override
+    public BTreeMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public BTreeMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public BTreeMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    @Override
+    public BTreeMap<K, V> descending() {
+        return descendingMap();
+    }
+
+    @Override
+    public BTreeMap<K, V> sub(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public BTreeMap<K, V> head(K toKey, boolean inclusive) {
+        return headMap(toKey, inclusive);
+    }
+
+    @Override
+    public BTreeMap<K, V> tail(K fromKey, boolean inclusive) {
+        return tailMap(fromKey, inclusive);
+    }
+
+    @Override
+    public BTreeMap<K, V> sub(K fromKey, K toKey) {
+        return subMap(fromKey, toKey);
+    }
+
+    @Override
+    public BTreeMap<K, V> head(K toKey) {
+        return headMap(toKey);
+    }
+
+    @Override
+    public BTreeMap<K, V> tail(K fromKey) {
+        return tailMap(fromKey);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new BTreeIterator<Map.Entry<K, V>>(firstCursor(), !descending) {
+            @Override Map.Entry<K, V> element(Leaf leaf, int index) { return new LeafEntry(leaf, index); }
+        };
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        return java.util.Spliterators.spliterator(iterator(), size(), DISTINCT | ORDERED);
+    }
+
+    /**
+     * Perform the given action for each mapping of this map in the iteration order, walking
+     * the leaf arrays directly without creating the entries.
+     *
+     * @param action the action to be performed for each mapping
+     * @throws NullPointerException if the specified action is {@code null}
+     * @throws ConcurrentModificationException if this map is modified during the iteration
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        requireNonNull(action); keyIterator().each(action);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (Map.Entry<K, V> entry : this) hash += entry.hashCode();
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof java.util.Map)) return false;
+        java.util.Map<?, ?> m = (java.util.Map<?, ?>) obj;
+        if (m.size() != size()) return false;
+        try {
+            for (Map.Entry<K, V> entry : this) {
+                K key = entry.getKey(); V value = entry.getValue();
+                if (value == null ? m.get(key) != null || !m.containsKey(key) : !value.equals(m.get(key)))
+                    return false;
+            }
+        } catch (ClassCastException | NullPointerException e) {
+            return false;
+        } return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (Map.Entry<K, V> entry : this) {
+            K key = entry.getKey(); V value = entry.getValue();
+            joiner.add((key == this ? "(this Map)" : String.valueOf(key))
+                    + "=" + (value == this ? "(this Map)" : String.valueOf(value)));
+        } return joiner.toString();
+    }
+
+    /**
+     * Return the view of the single mapping of the specified key of this map.
+     *
+     * @param key the specified key
+     * @return the view of the single mapping of the specified key of this map
+     */
+    final BTreeMap<K, V> single(K key) {
+        return new BTreeMap<>(tree, false, key, true, false, key, true, false);
+    }
+
+    final Map.Entry<K, V> poll(Cursor cursor) {
+        if (cursor == null) return null;
+        Map.Entry<K, V> entry = entry(cursor); tree.remove(cursor.key()); return entry;
+    }
+
+    @SuppressWarnings("unchecked")
+    final BTreeIterator<K> keyIterator() {
+        return new BTreeIterator<K>(firstCursor(), !descending) {
+            @Override K element(Leaf leaf, int index) { return (K) leaf.keys[index]; }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    final BTreeIterator<V> valueIterator() {
+        return new BTreeIterator<V>(firstCursor(), !descending) {
+            @Override V element(Leaf leaf, int index) { return (V) leaf.values[index]; }
+        };
+    }
+
+    final Cursor firstCursor() { return descending ? absHighest() : absLowest(); }
+    final Cursor lastCursor() { return descending ? absLowest() : absHighest(); }
+    final Cursor lowerCursor(Object key) { return descending ? absCeiling(key, false) : absFloor(key, false); }
+    final Cursor floorCursor(Object key) { return descending ? absCeiling(key, true) : absFloor(key, true); }
+    final Cursor ceilingCursor(Object key) { return descending ? absFloor(key, true) : absCeiling(key, true); }
+    final Cursor higherCursor(Object key) { return descending ? absFloor(key, false) : absCeiling(key, false); }
+
+    final Cursor absLowest() {
+        Cursor cursor = fromStart ? tree.first() : tree.ceiling(lo, loInclusive);
+        return cursor == null || tooHigh(cursor.key()) ? null : cursor;
+    }
+
+    final Cursor absHighest() {
+        Cursor cursor = toEnd ? tree.last() : tree.floor(hi, hiInclusive);
+        return cursor == null || tooLow(cursor.key()) ? null : cursor;
+    }
+
+    final Cursor absCeiling(Object key, boolean inclusive) {
+        if (tooLow(key)) return absLowest();
+        Cursor cursor = tree.ceiling(key, inclusive); return cursor == null || tooHigh(cursor.key()) ? null : cursor;
+    }
+
+    final Cursor absFloor(Object key, boolean inclusive) {
+        if (tooHigh(key)) return absHighest();
+        Cursor cursor = tree.floor(key, inclusive); return cursor == null || tooLow(cursor.key()) ? null : cursor;
+    }
+
+    /**
+     * Return the index of the leaf entries end within the upper bound of this view.
+     *
+     * @param leaf the non-empty leaf
+     * @return the index of the leaf entries end within the upper bound of this view
+     */
+    final int highLimit(Leaf leaf) {
+        if (toEnd || !tooHigh(leaf.keys[leaf.size - 1])) return leaf.size;
+        int i = tree.search(leaf, hi); return i >= 0 ? hiInclusive ? i + 1 : i : -i - 1;
+    }
+
+    /**
+     * Return the index of the leaf entries start within the lower bound of this view.
+     *
+     * @param leaf the non-empty leaf
+     * @return the index of the leaf entries start within the lower bound of this view
+     */
+    final int lowLimit(Leaf leaf) {
+        if (fromStart || !tooLow(leaf.keys[0])) return 0;
+        int i = tree.search(leaf, lo); return i >= 0 ? loInclusive ? i : i + 1 : -i - 1;
+    }
+
+    final boolean tooLow(Object key) {
+        if (!fromStart) {
+            int c = tree.compare(key, lo);
+            return c < 0 || (c == 0 && !loInclusive);
+        } return false;
+    }
+
+    final boolean tooHigh(Object key) {
+        if (!toEnd) {
+            int c = tree.compare(key, hi);
+            return c > 0 || (c == 0 && !hiInclusive);
+        } return false;
+    }
+
+    final boolean inRange(Object key) {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    final boolean inRange(Object key, boolean inclusive) {
+        return inclusive ? inRange(key) : (fromStart || tree.compare(key, lo) >= 0)
+                && (toEnd || tree.compare(hi, key) >= 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> Map.Entry<K, V> entry(Cursor cursor) {
+        return cursor != null ? new SimpleEntry<>((K) cursor.key(), (V) cursor.value()) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K> K key(Cursor cursor) {
+        if (cursor == null) throw new NoSuchElementException(); return (K) cursor.key();
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K> K keyOrNull(Cursor cursor) {
+        return cursor != null ? (K) cursor.key() : null;
+    }
+
+
+    /**
+     * An iterator over the leaf entries in ascending or descending order within the bounds of this view.
+     *
+     * @param <T> the type of elements
+     */
+    abstract class BTreeIterator<T> implements Iterator<T> {
+
+        final boolean ascending;
+        Leaf leaf; int index, limit, expectedModCount = tree.modCount; Object lastKey; boolean removable;
+
+        BTreeIterator(Cursor first, boolean ascending) {
+            this.ascending = ascending; if (first != null) enter(first.leaf, first.index);
+        }
+
+        abstract T element(Leaf leaf, int index);
+
+        @Override public boolean hasNext() {
+            return leaf != null && (ascending ? index < limit : index >= limit); }
+
+        @Override public T next() {
+            checkModCount();
+            if (!hasNext()) throw new NoSuchElementException();
+            Leaf leaf = this.leaf; int index = this.index;
+            lastKey = leaf.keys[index]; removable = true; advance(); return element(leaf, index); }
+
+        @Override public void remove() {
+            if (!removable) throw new IllegalStateException();
+            checkModCount(); removable = false; tree.remove(lastKey);
+            Cursor next = ascending ? tree.ceiling(lastKey, false) : tree.floor(lastKey, false);
+            if (next != null) enter(next.leaf, next.index); else leaf = null;
+            expectedModCount = tree.modCount; }
+
+        /**
+         * Perform the given action for each remaining mapping, walking the leaf arrays.
+         */
+        @SuppressWarnings("unchecked")
+        final void each(BiConsumer<? super K, ? super V> action) {
+            while (hasNext()) {
+                Object[] keys = leaf.keys, values = leaf.values;
+                if (ascending) {
+                    for (int i = index; i < limit; i++) action.accept((K) keys[i], (V) values[i]);
+                    index = limit - 1;
+                } else {
+                    for (int i = index; i >= limit; i--) action.accept((K) keys[i], (V) values[i]);
+                    index = limit;
+                } advance(); checkModCount();
+            }
+        }
+
+        final void advance() {
+            if (ascending) {
+                if (++index == leaf.size) enter(leaf.next, 0);
+            } else if (--index < 0) enter(leaf.prev, leaf.prev != null ? leaf.prev.size - 1 : 0);
+        }
+
+        final void enter(Leaf leaf, int index) {
+            this.leaf = leaf; this.index = index;
+            if (leaf != null) limit = ascending ? highLimit(leaf) : lowLimit(leaf);
+        }
+
+        final void checkModCount() {
+            if (tree.modCount != expectedModCount) throw new ConcurrentModificationException(); }
+    }
+
+    /**
+     * An entry of the iterated leaf, writing through to this map.
+     */
+    final class LeafEntry extends SimpleEntry<K, V> {
+
+        Leaf leaf; int index;
+
+        @SuppressWarnings("unchecked")
+        LeafEntry(Leaf leaf, int index) {
+            super((K) leaf.keys[index], (V) leaf.values[index]); this.leaf = leaf; this.index = index;
+        }
+
+        @Override public K setKey(K key) {
+            if (tree.compare(key, this.key) != 0)
+                throw new IllegalArgumentException("key is not equal to the existing key");
+            locate(); K old = this.key; leaf.keys[index] = this.key = key; return old; }
+
+        @Override public V setValue(V value) {
+            locate(); V old = this.value; leaf.values[index] = this.value = value; return old; }
+
+        /**
+         * Locate the leaf entry again, if it was moved since the iteration.
+         */
+        void locate() {
+            if (index < leaf.size && leaf.keys[index] == key) return;
+            Leaf leaf = tree.leaf(key); int index = tree.search(leaf, key);
+            if (index < 0) throw new IllegalStateException();
+            this.leaf = leaf; this.index = index; }
+    }
+
+    /**
+     * The {@link NavigableSet} view of the keys of this map.
+     */
+    final class KeySet extends SetView<K> implements NavigableSet<K> {
+
+        @Override public boolean contains(Object o) { return containsKey(o); }
+
+        @Override @SuppressWarnings("unchecked") public Iterator<K> getAll(Object o) {
+            return containsKey(o) ? single((K) o).keyIterator() : emptyIterator(); }
+
+        @Override public boolean remove(Object o) {
+            return inRange(o) && tree.remove(o) != ABSENT; }
+
+        @Override public Iterator<K> iterator() { return keyIterator(); }
+        @Override public Iterator<K> descendingIterator() { return descendingMap().keyIterator(); }
+        @Override public Comparator<? super K> comparator() { return BTreeMap.this.comparator(); }
+
+        @Override public K first() { return firstKey(); }
+        @Override public K last() { return lastKey(); }
+        @Override public K lower(K k) { return lowerKey(k); }
+        @Override public K floor(K k) { return floorKey(k); }
+        @Override public K ceiling(K k) { return ceilingKey(k); }
+        @Override public K higher(K k) { return higherKey(k); }
+
+        @Override public Iterator<K> firstAll() { return run(firstCursor()); }
+        @Override public Iterator<K> lastAll() { return run(lastCursor()); }
+        @Override public Iterator<K> lowerAll(K k) { return run(lowerCursor(k)); }
+        @Override public Iterator<K> floorAll(K k) { return run(floorCursor(k)); }
+        @Override public Iterator<K> ceilingAll(K k) { return run(ceilingCursor(k)); }
+        @Override public Iterator<K> higherAll(K k) { return run(higherCursor(k)); }
+
+        @Override public K pollFirst() { Map.Entry<K, V> entry = pollFirstEntry(); return entry != null ? entry.getKey() : null; }
+        @Override public K pollLast() { Map.Entry<K, V> entry = pollLastEntry(); return entry != null ? entry.getKey() : null; }
+
+        @Override public NavigableSet<K> descendingSet() { return descendingKeySet(); }
+
+        @Override public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet(); }
+        @Override public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return headMap(toElement, inclusive).navigableKeySet(); }
+        @Override public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return tailMap(fromElement, inclusive).navigableKeySet(); }
+        @Override public NavigableSet<K> subSet(K fromElement, K toElement) {
+            return subMap(fromElement, toElement).navigableKeySet(); }
+        @Override public NavigableSet<K> headSet(K toElement) {
+            return headMap(toElement).navigableKeySet(); }
+        @Override public NavigableSet<K> tailSet(K fromElement) {
+            return tailMap(fromElement).navigableKeySet(); }
+
+        @SuppressWarnings("unchecked")
+        Iterator<K> run(Cursor cursor) {
+            return cursor != null ? single((K) cursor.key()).keyIterator() : emptyIterator(); }
+    }
+
+    /**
+     * The {@link Set} view of the entries of this map.
+     */
+    final class EntrySet extends SetView<java.util.Map.Entry<K, V>> {
+
+        @Override public boolean contains(Object o) {
+            if (!(o instanceof java.util.Map.Entry)) return false;
+            java.util.Map.Entry<?, ?> entry = (java.util.Map.Entry<?, ?>) o;
+            return BTreeMap.this.contains(entry.getKey(), entry.getValue()); }
+
+        @Override @SuppressWarnings("unchecked") public Iterator<java.util.Map.Entry<K, V>> getAll(Object o) {
+            return contains(o) ? cast(single(((java.util.Map.Entry<K, V>) o).getKey()).iterator()) : emptyIterator(); }
+
+        @Override public boolean remove(Object o) {
+            return contains(o) && tree.remove(((java.util.Map.Entry<?, ?>) o).getKey()) != ABSENT; }
+
+        @Override public Iterator<java.util.Map.Entry<K, V>> iterator() { return cast(BTreeMap.this.iterator()); }
+
+        @SuppressWarnings("unchecked")
+        Iterator<java.util.Map.Entry<K, V>> cast(Iterator<Map.Entry<K, V>> iterator) {
+            return (Iterator<java.util.Map.Entry<K, V>>) (Iterator<?>) iterator; }
+    }
+
+    /**
+     * The base of the {@link Set} views of this map.
+     *
+     * @param <E> the type of elements
+     */
+    abstract class SetView<E> implements Set<E> {
+
+        @Override public int size() { return BTreeMap.this.size(); }
+        @Override public boolean isEmpty() { return BTreeMap.this.isEmpty(); }
+        @Override public boolean contains() { return BTreeMap.this.contains(); }
+        @Override public boolean add(E e) { throw new UnsupportedOperationException(); }
+        @Override public void clear() { BTreeMap.this.clear(); }
+
+        @Override public int hashCode() {
+            int hash = 0; for (E e : this) hash += Objects.hashCode(e); return hash; }
+
+        @Override public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (!(obj instanceof java.util.Set)) return false;
+            java.util.Set<?> set = (java.util.Set<?>) obj;
+            if (set.size() != size()) return false;
+            try {
+                return containsAll(set);
+            } catch (ClassCastException | NullPointerException e) {
+                return false;
+            } }
+
+        @Override public String toString() {
+            StringJoiner joiner = new StringJoiner(", ", "[", "]");
+            for (E e : this) joiner.add(String.valueOf(e));
+            return joiner.toString(); }
+    }
+
+    /**
+     * The {@link Collection} view of the values of this map.
+     */
+    final class Values implements Collection<V> {
+
+        @Override public int size() { return BTreeMap.this.size(); }
+        @Override public boolean isEmpty() { return BTreeMap.this.isEmpty(); }
+        @Override public boolean contains() { return BTreeMap.this.contains(); }
+        @Override public boolean add(V v) { throw new UnsupportedOperationException(); }
+        @Override public void clear() { BTreeMap.this.clear(); }
+        @Override public Iterator<V> iterator() { return valueIterator(); }
+
+        @Override public int getCount(Object o) {
+            int count = 0; for (Iterator<V> it = getAll(o); it.hasNext(); it.next()) count++; return count; }
+
+        @Override public Iterator<V> getAll(Object o) {
+            BTreeIterator<V> values = valueIterator();
+            return new Iterator<V>() {
+                @Override public boolean hasNext() {
+                    while (values.hasNext() && !Objects.equals(values.leaf.values[values.index], o)) values.advance();
+                    return values.hasNext(); }
+                @Override public V next() {
+                    if (!hasNext()) throw new NoSuchElementException(); return values.next(); }
+                @Override public void remove() { values.remove(); }
+            }; }
+
+        @Override public String toString() {
+            StringJoiner joiner = new StringJoiner(", ", "[", "]");
+            for (V v : this) joiner.add(String.valueOf(v));
+            return joiner.toString(); }
+    }
+
+    /**
+     * A position of an entry in a leaf.
+     */
+    static final class Cursor {
+
+        final Leaf leaf; final int index;
+
+        Cursor(Leaf leaf, int index) {
+            this.leaf = leaf; this.index = index;
+        }
+
+        Object key() { return leaf.keys[index]; }
+        Object value() { return leaf.values[index]; }
+    }
+
+    /**
+     * A tree node of the sorted keys. The arrays have a spare slot to insert
+     * into a full node before splitting it.
+     */
+    abstract static class Node {
+
+        final Object[] keys = new Object[CAPACITY + 1]; int size;
+    }
+
+    /**
+     * A leaf node of the keys and values, linked to its siblings.
+     */
+    static final class Leaf extends Node {
+
+        final Object[] values = new Object[CAPACITY + 1]; Leaf prev, next;
+    }
+
+    /**
+     * An inner node of the children, where the {@code keys[i]} key separates
+     * the keys of the {@code children[i]} and {@code children[i + 1]} subtrees.
+     * The size of an inner node is the number of its children.
+     */
+    static final class Inner extends Node {
+
+        final Node[] children = new Node[CAPACITY + 1];
+    }
+
+    /**
+     * The B+tree of the leaf-linked nodes, shared by the views.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     */
+    static final class BTree<K, V> {
+
+        final Comparator<? super K> comparator;
+        Node root; Leaf first, last; int size, modCount;
+        private Node split; private Object splitKey;
+
+        BTree(Comparator<? super K> comparator) {
+            this.comparator = comparator; this.root = this.first = this.last = new Leaf();
+        }
+
+        @SuppressWarnings("unchecked")
+        int compare(Object k1, Object k2) {
+            return comparator == null ? ((Comparable<Object>) k1).compareTo(k2)
+                    : comparator.compare((K) k1, (K) k2);
+        }
+
+        /**
+         * Return the leaf which contains, or would contain, the specified key.
+         */
+        Leaf leaf(Object key) {
+            Node node = root;
+            while (node instanceof Inner) {
+                Inner inner = (Inner) node; node = inner.children[child(inner, key)];
+            } return (Leaf) node;
+        }
+
+        /**
+         * Return the index of the child subtree of the inner node which contains, or would contain, the specified key.
+         */
+        int child(Inner inner, Object key) {
+            Object[] keys = inner.keys; int lo = 0, hi = inner.size - 2;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compare(key, keys[mid]) < 0) hi = mid - 1;
+                else lo = mid + 1;
+            } return lo;
+        }
+
+        /**
+         * Return the index of the specified key in the leaf, or {@code -(insertion point) - 1} if it is absent.
+         */
+        int search(Leaf leaf, Object key) {
+            Object[] keys = leaf.keys; int lo = 0, hi = leaf.size - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1, c = compare(key, keys[mid]);
+                if (c > 0) lo = mid + 1;
+                else if (c < 0) hi = mid - 1;
+                else return mid;
+            } return -(lo + 1);
+        }
+
+        Cursor first() {
+            return size > 0 ? new Cursor(first, 0) : null;
+        }
+
+        Cursor last() {
+            return size > 0 ? new Cursor(last, last.size - 1) : null;
+        }
+
+        Cursor ceiling(Object key, boolean inclusive) {
+            Leaf leaf = leaf(key); int i = search(leaf, key);
+            i = i >= 0 ? inclusive ? i : i + 1 : -i - 1;
+            if (i == leaf.size) { leaf = leaf.next; i = 0; }
+            return leaf != null ? new Cursor(leaf, i) : null;
+        }
+
+        Cursor floor(Object key, boolean inclusive) {
+            Leaf leaf = leaf(key); int i = search(leaf, key);
+            i = i >= 0 ? inclusive ? i : i - 1 : -i - 2;
+            if (i < 0 && (leaf = leaf.prev) != null) i = leaf.size - 1;
+            return leaf != null ? new Cursor(leaf, i) : null;
+        }
+
+        /**
+         * Associate the value with the key.
+         *
+         * @return the previous value, or {@link #ABSENT} if there was no mapping for the key
+         */
+        Object put(K key, V value) {
+            if (size == 0)
+                compare(key, key); // type (and possibly null) check
+            Object old = insert(root, key, value);
+            if (split != null) {
+                Inner root = new Inner(); root.size = 2;
+                root.children[0] = this.root; root.children[1] = split; root.keys[0] = splitKey;
+                this.root = root; split = null; splitKey = null;
+            } return old;
+        }
+
+        /**
+         * Remove the mapping of the key.
+         *
+         * @return the removed value, or {@link #ABSENT} if there was no mapping for the key
+         */
+        Object remove(Object key) {
+            Object old = delete(root, key);
+            if (root.size == 1 && root instanceof Inner)
+                root = ((Inner) root).children[0];
+            return old;
+        }
+
+        void clear() {
+            root = first = last = new Leaf(); size = 0; modCount++;
+        }
+
+        /**
+         * Append the mapping of a key greater than all the keys of this tree to its last leaf,
+         * leaving the inner nodes to be built by the {@link #index()} method.
+         */
+        void load(Object key, Object value) {
+            Leaf leaf = last;
+            if (size == 0)
+                compare(key, key); // type (and possibly null) check
+            else if (compare(leaf.keys[leaf.size - 1], key) >= 0)
+                throw new IllegalArgumentException("keys are not in strictly ascending order");
+            if (leaf.size == CAPACITY) {
+                Leaf next = new Leaf(); next.prev = leaf; leaf.next = next; last = leaf = next;
+            }
+            leaf.keys[leaf.size] = key; leaf.values[leaf.size++] = value; size++;
+        }
+
+        /**
+         * Build the inner nodes over the loaded leaves bottom-up, distributing
+         * the children of each level evenly among the nodes.
+         */
+        void index() {
+            if (last.prev != null && last.size < MINIMUM) balance(last.prev, last);
+            Node[] nodes = new Node[(size + CAPACITY - 1) / CAPACITY]; Object[] lows = new Object[nodes.length]; int n = 0;
+            for (Leaf leaf = first; n < nodes.length; leaf = leaf.next) {
+                nodes[n] = leaf; lows[n++] = leaf.keys[0];
+            }
+            while (n > 1) {
+                int count = (n + CAPACITY - 1) / CAPACITY;
+                for (int i = 0, from = 0; i < count; i++) {
+                    int to = (int) ((long) n * (i + 1) / count); Inner inner = new Inner(); inner.size = to - from;
+                    System.arraycopy(nodes, from, inner.children, 0, to - from);
+                    System.arraycopy(lows, from + 1, inner.keys, 0, to - from - 1);
+                    nodes[i] = inner; lows[i] = lows[from]; from = to;
+                } n = count;
+            }
+            if (n > 0) root = nodes[0];
+            modCount++;
+        }
+
+        private Object insert(Node node, Object key, Object value) {
+            if (node instanceof Inner) {
+                Inner inner = (Inner) node; int c = child(inner, key);
+                Object old = insert(inner.children[c], key, value);
+                if (split != null) insert(inner, c + 1, splitKey, split);
+                return old;
+            }
+            Leaf leaf = (Leaf) node; int i = search(leaf, key);
+            if (i >= 0) {
+                Object old = leaf.values[i]; leaf.values[i] = value; return old;
+            }
+            insert(leaf, -i - 1, key, value); size++; modCount++; return ABSENT;
+        }
+
+        /**
+         * Insert the mapping at the specified index of the leaf, splitting the leaf if it overflows.
+         * Appending to the last leaf leaves it full and starts a new one, so that the ascending
+         * insertions fill the leaves completely.
+         */
+        private void insert(Leaf leaf, int i, Object key, Object value) {
+            int size = leaf.size;
+            System.arraycopy(leaf.keys, i, leaf.keys, i + 1, size - i);
+            System.arraycopy(leaf.values, i, leaf.values, i + 1, size - i);
+            leaf.keys[i] = key; leaf.values[i] = value; leaf.size = ++size;
+            if (size > CAPACITY) {
+                int keep = i == CAPACITY && leaf.next == null ? CAPACITY : size >>> 1;
+                Leaf right = new Leaf(); right.size = size - keep; leaf.size = keep;
+                System.arraycopy(leaf.keys, keep, right.keys, 0, right.size);
+                System.arraycopy(leaf.values, keep, right.values, 0, right.size);
+                Arrays.fill(leaf.keys, keep, size, null); Arrays.fill(leaf.values, keep, size, null);
+                right.prev = leaf; right.next = leaf.next; leaf.next = right;
+                if (right.next != null) right.next.prev = right; else last = right;
+                split = right; splitKey = right.keys[0];
+            }
+        }
+
+        /**
+         * Insert the separator key and the child at the specified index of the inner node,
+         * splitting the node if it overflows.
+         */
+        private void insert(Inner inner, int c, Object key, Node child) {
+            int size = inner.size;
+            System.arraycopy(inner.keys, c - 1, inner.keys, c, size - c);
+            System.arraycopy(inner.children, c, inner.children, c + 1, size - c);
+            inner.keys[c - 1] = key; inner.children[c] = child; inner.size = ++size;
+            if (size > CAPACITY) {
+                int keep = size >>> 1; Inner right = new Inner(); right.size = size - keep; inner.size = keep;
+                System.arraycopy(inner.children, keep, right.children, 0, right.size);
+                System.arraycopy(inner.keys, keep, right.keys, 0, right.size - 1);
+                split = right; splitKey = inner.keys[keep - 1];
+                Arrays.fill(inner.children, keep, size, null); Arrays.fill(inner.keys, keep - 1, size - 1, null);
+            } else {
+                split = null; splitKey = null;
+            }
+        }
+
+        private Object delete(Node node, Object key) {
+            if (node instanceof Inner) {
+                Inner inner = (Inner) node; int c = child(inner, key);
+                Object old = delete(inner.children[c], key);
+                if (old != ABSENT && inner.children[c].size < MINIMUM) rebalance(inner, c);
+                return old;
+            }
+            Leaf leaf = (Leaf) node; int i = search(leaf, key);
+            if (i < 0) return ABSENT;
+            Object old = leaf.values[i]; int size = --leaf.size;
+            System.arraycopy(leaf.keys, i + 1, leaf.keys, i, size - i);
+            System.arraycopy(leaf.values, i + 1, leaf.values, i, size - i);
+            leaf.keys[size] = null; leaf.values[size] = null;
+            this.size--; modCount++; return old;
+        }
+
+        /**
+         * Restore the occupancy of the underflowed child at the specified index of the inner node,
+         * merging it with a sibling, or moving the entries of the sibling to it if they do not fit one node.
+         */
+        private void rebalance(Inner parent, int c) {
+            int l = c > 0 ? c - 1 : c; Node left = parent.children[l], right = parent.children[l + 1];
+            if (left.size + right.size <= CAPACITY) {
+                if (left instanceof Leaf) merge((Leaf) left, (Leaf) right);
+                else merge((Inner) left, parent.keys[l], (Inner) right);
+                int size = --parent.size;
+                System.arraycopy(parent.children, l + 2, parent.children, l + 1, size - l - 1);
+                System.arraycopy(parent.keys, l + 1, parent.keys, l, size - l - 1);
+                parent.children[size] = null; parent.keys[size - 1] = null;
+            } else if (left instanceof Leaf) {
+                balance((Leaf) left, (Leaf) right); parent.keys[l] = right.keys[0];
+            } else parent.keys[l] = balance((Inner) left, parent.keys[l], (Inner) right);
+        }
+
+        private void merge(Leaf left, Leaf right) {
+            System.arraycopy(right.keys, 0, left.keys, left.size, right.size);
+            System.arraycopy(right.values, 0, left.values, left.size, right.size);
+            left.size += right.size; right.size = 0;
+            left.next = right.next;
+            if (right.next != null) right.next.prev = left; else last = left;
+        }
+
+        private void merge(Inner left, Object separator, Inner right) {
+            left.keys[left.size - 1] = separator;
+            System.arraycopy(right.keys, 0, left.keys, left.size, right.size - 1);
+            System.arraycopy(right.children, 0, left.children, left.size, right.size);
+            left.size += right.size;
+        }
+
+        /**
+         * Distribute the entries of the adjacent leaves evenly.
+         */
+        private static void balance(Leaf left, Leaf right) {
+            int total = left.size + right.size, keep = total >>> 1;
+            if (left.size > keep) {
+                int n = left.size - keep;
+                System.arraycopy(right.keys, 0, right.keys, n, right.size);
+                System.arraycopy(right.values, 0, right.values, n, right.size);
+                System.arraycopy(left.keys, keep, right.keys, 0, n);
+                System.arraycopy(left.values, keep, right.values, 0, n);
+                Arrays.fill(left.keys, keep, left.size, null); Arrays.fill(left.values, keep, left.size, null);
+            } else {
+                int n = keep - left.size;
+                System.arraycopy(right.keys, 0, left.keys, left.size, n);
+                System.arraycopy(right.values, 0, left.values, left.size, n);
+                System.arraycopy(right.keys, n, right.keys, 0, right.size - n);
+                System.arraycopy(right.values, n, right.values, 0, right.size - n);
+                Arrays.fill(right.keys, right.size - n, right.size, null); Arrays.fill(right.values, right.size - n, right.size, null);
+            }
+            left.size = keep; right.size = total - keep;
+        }
+
+        /**
+         * Distribute the children of the adjacent inner nodes evenly.
+         *
+         * @return the new separator key of the nodes
+         */
+        private static Object balance(Inner left, Object separator, Inner right) {
+            int total = left.size + right.size, keep = total >>> 1;
+            if (left.size > keep) {
+                int n = left.size - keep;
+                System.arraycopy(right.children, 0, right.children, n, right.size);
+                System.arraycopy(right.keys, 0, right.keys, n, right.size - 1);
+                right.keys[n - 1] = separator;
+                System.arraycopy(left.children, keep, right.children, 0, n);
+                System.arraycopy(left.keys, keep, right.keys, 0, n - 1);
+                separator = left.keys[keep - 1];
+                Arrays.fill(left.children, keep, left.size, null); Arrays.fill(left.keys, keep - 1, left.size - 1, null);
+            } else {
+                int n = keep - left.size;
+                left.keys[left.size - 1] = separator;
+                System.arraycopy(right.children, 0, left.children, left.size, n);
+                System.arraycopy(right.keys, 0, left.keys, left.size, n - 1);
+                separator = right.keys[n - 1];
+                System.arraycopy(right.children, n, right.children, 0, right.size - n);
+                System.arraycopy(right.keys, n, right.keys, 0, right.size - n - 1);
+                Arrays.fill(right.children, right.size - n, right.size, null);
+                Arrays.fill(right.keys, right.size - n - 1, right.size - 1, null);
+            }
+            left.size = keep; right.size = total - keep; return separator;
+        }
+    }
+}
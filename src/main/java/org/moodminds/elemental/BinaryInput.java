@@ -0,0 +1,450 @@
+package org.moodminds.elemental;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static org.moodminds.elemental.AbstractHashContainer.mask;
+import static org.moodminds.elemental.BinaryOutput.ASSOCIATION;
+import static org.moodminds.elemental.BinaryOutput.CONTAINER;
+import static org.moodminds.elemental.BinaryOutput.DEFAULT_BUFFER_SIZE;
+import static org.moodminds.elemental.BinaryOutput.NAVIGABLE;
+import static org.moodminds.elemental.BinaryOutput.NAVIGABLE_DELTA;
+import static org.moodminds.elemental.BinaryOutput.SEQUENCE;
+import static org.moodminds.elemental.BinaryOutput.TUPLE;
+
+/**
+ * A buffered binary input of the structures written by a {@link BinaryOutput}, decoding their elements
+ * by the given {@link Codec}s directly from the heap buffer of the input, which is refilled from the
+ * underlying {@link InputStream} whenever it is consumed. Each structure is built in a single pass
+ * of its elements: a {@link HashContainer} is presized for the number of its distinct elements,
+ * a {@link RrbTreeSequence} is pushed by the full leaves and a {@link BTreeMap} is bulk loaded
+ * in linear time, not being rebalanced.
+ * <p>
+ * The structures must be read by the {@link Codec}s they are written by, in the order of writing.
+ * <p>
+ * This class is not synchronized.
+ *
+ * @see BinaryOutput
+ */
+public final class BinaryInput implements Closeable {
+
+    private final InputStream in;
+    private byte[] array;
+    private ByteBuffer buffer;
+    private int position, limit;
+
+    /**
+     * Construct the input from the given {@link InputStream} of the default buffer size.
+     *
+     * @param in the given {@link InputStream}
+     */
+    public BinaryInput(InputStream in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Construct the input from the given {@link InputStream} of the given buffer size. The buffer
+     * grows beyond the size for an encoded element which does not fit it.
+     *
+     * @param in the given {@link InputStream}
+     * @param bufferSize the given buffer size
+     * @throws IllegalArgumentException if the buffer size is less than {@code 16}
+     */
+    public BinaryInput(InputStream in, int bufferSize) {
+        if (bufferSize < 16)
+            throw new IllegalArgumentException(format("Illegal buffer size: %d", bufferSize));
+        this.in = requireNonNull(in); this.buffer = ByteBuffer.wrap(array = new byte[bufferSize]);
+    }
+
+    /**
+     * Read the {@link Container} written by the {@link BinaryOutput#writeContainer(Container, Codec)},
+     * decoding its elements by the given {@link Codec}.
+     *
+     * @param codec the given {@link Codec}
+     * @param <E> the type of elements
+     * @return the {@link HashContainer} of the read elements
+     * @throws IOException if an I/O error occurs, or the input is not of a Container
+     */
+    public <E> HashContainer<E> readContainer(Codec<E> codec) throws IOException {
+        requireNonNull(codec); readTag(CONTAINER);
+        int distinct = readSize(); HashContainer<E> container = new HashContainer<>(distinct);
+        for (int i = 0; i < distinct; i++) {
+            E element = readElement(codec); long count = readVariable();
+            if (count < 1 || count > Integer.MAX_VALUE)
+                throw new IOException(format("Illegal count: %d", count));
+            container.insert(mask(element), (int) count);
+        } return container;
+    }
+
+    /**
+     * Read the {@link Sequence} written by the {@link BinaryOutput#writeSequence(Sequence, Codec)},
+     * decoding its elements by the given {@link Codec}.
+     *
+     * @param codec the given {@link Codec}
+     * @param <E> the type of elements
+     * @return the {@link RrbTreeSequence} of the read elements
+     * @throws IOException if an I/O error occurs, or the input is not of a Sequence
+     */
+    @SuppressWarnings("unchecked")
+    public <E> RrbTreeSequence<E> readSequence(Codec<E> codec) throws IOException {
+        requireNonNull(codec); readTag(SEQUENCE);
+        Object[] elements = new Object[readSize()];
+        for (int i = 0; i < elements.length; i++) elements[i] = readElement(codec);
+        return RrbTreeSequence.sequence((E[]) elements);
+    }
+
+    /**
+     * Read the {@link Association} written by the {@link BinaryOutput#writeAssociation(Association, Codec, Codec)},
+     * decoding its keys and values by the given {@link Codec}s.
+     *
+     * @param keyCodec the key {@link Codec}
+     * @param valueCodec the value {@link Codec}
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @return the {@link HashTrieAssociation} of the read mappings
+     * @throws IOException if an I/O error occurs, or the input is not of an Association
+     */
+    public <K, V> HashTrieAssociation<K, V> readAssociation(Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        requireNonNull(keyCodec); requireNonNull(valueCodec); readTag(ASSOCIATION);
+        HashTrieAssociation.Builder<K, V> builder = HashTrieAssociation.builder();
+        for (int i = 0, size = readSize(); i < size; i++) {
+            K key = readElement(keyCodec); builder.put(key, readElement(valueCodec)); }
+        return builder.build();
+    }
+
+    /**
+     * Read the {@link NavigableAssociation} written by the
+     * {@link BinaryOutput#writeNavigableAssociation(NavigableAssociation, Codec, Codec)}, decoding its keys
+     * and values by the given {@link Codec}s, into a map of the natural ordering of the keys.
+     *
+     * @param keyCodec the key {@link Codec}
+     * @param valueCodec the value {@link Codec}
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @return the {@link BTreeMap} of the read mappings
+     * @throws IOException if an I/O error occurs, or the input is not of a NavigableAssociation
+     * @throws IllegalArgumentException if the keys are not in the strictly ascending natural order
+     */
+    public <K, V> BTreeMap<K, V> readNavigableAssociation(Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        return readNavigableAssociation(null, keyCodec, valueCodec);
+    }
+
+    /**
+     * Read the {@link NavigableAssociation} written by the
+     * {@link BinaryOutput#writeNavigableAssociation(NavigableAssociation, Codec, Codec)}, decoding its keys
+     * and values by the given {@link Codec}s, into a map of the given comparator.
+     *
+     * @param comparator the comparator to sort the keys, or {@code null} for the natural ordering
+     * @param keyCodec the key {@link Codec}
+     * @param valueCodec the value {@link Codec}
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @return the {@link BTreeMap} of the read mappings
+     * @throws IOException if an I/O error occurs, or the input is not of a NavigableAssociation
+     * @throws IllegalArgumentException if the keys are not in the strictly ascending order of the comparator
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> BTreeMap<K, V> readNavigableAssociation(Comparator<? super K> comparator,
+                                                          Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        requireNonNull(keyCodec); requireNonNull(valueCodec);
+        boolean delta = readTag(NAVIGABLE, NAVIGABLE_DELTA) == NAVIGABLE_DELTA;
+        if (delta && keyCodec != Codecs.INT && keyCodec != Codecs.LONG)
+            throw new IOException("Illegal key codec of the delta encoded keys");
+        int size = readSize();
+        Iterator<java.util.Map.Entry<K, V>> entries = new Iterator<java.util.Map.Entry<K, V>>() {
+            int remaining = size; long previous;
+            @Override public boolean hasNext() { return remaining > 0; }
+            @Override public java.util.Map.Entry<K, V> next() {
+                if (remaining == 0) throw new NoSuchElementException();
+                try {
+                    K key;
+                    if (delta) {
+                        long variable = readVariable();
+                        previous = remaining-- == size ? (variable >>> 1) ^ -(variable & 1) : previous + variable;
+                        key = (K) (keyCodec == Codecs.INT ? (Object) (int) previous : (Object) previous);
+                    } else {
+                        key = readElement(keyCodec); remaining--; }
+                    return new SimpleEntry<>(key, readElement(valueCodec));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); } }
+        };
+        try {
+            return new BTreeMap<>(comparator, entries);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Read the {@link Tuple1} written by the {@link BinaryOutput#writeTuple(Tuple1, Codec)},
+     * decoding its value by the given {@link Codec}.
+     *
+     * @param codec the {@link Codec} of the value
+     * @param <V> the type of the value
+     * @return the read {@link Tuple1}
+     * @throws IOException if an I/O error occurs, or the input is not of a Tuple of the width
+     */
+    @SuppressWarnings("unchecked")
+    public <V> Tuple1<V> readTuple(Codec<V> codec) throws IOException {
+        Object[] v = readValues(codec);
+        return Tuple.of((V) v[0]);
+    }
+
+    /**
+     * Read the {@link Tuple2} written by the {@link BinaryOutput#writeTuple(Tuple2, Codec, Codec)},
+     * decoding its values by the given {@link Codec}s.
+     *
+     * @param codec1 the {@link Codec} of the value 1
+     * @param codec2 the {@link Codec} of the value 2
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @return the read {@link Tuple2}
+     * @throws IOException if an I/O error occurs, or the input is not of a Tuple of the width
+     */
+    @SuppressWarnings("unchecked")
+    public <V1, V2> Tuple2<V1, V2> readTuple(Codec<V1> codec1, Codec<V2> codec2) throws IOException {
+        Object[] v = readValues(codec1, codec2);
+        return Tuple.of((V1) v[0], (V2) v[1]);
+    }
+
+    /**
+     * Read the {@link Tuple3} written by the {@link BinaryOutput#writeTuple(Tuple3, Codec, Codec, Codec)},
+     * decoding its values by the given {@link Codec}s.
+     *
+     * @param codec1 the {@link Codec} of the value 1
+     * @param codec2 the {@link Codec} of the value 2
+     * @param codec3 the {@link Codec} of the value 3
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @return the read {@link Tuple3}
+     * @throws IOException if an I/O error occurs, or the input is not of a Tuple of the width
+     */
+    @SuppressWarnings("unchecked")
+    public <V1, V2, V3> Tuple3<V1, V2, V3> readTuple(Codec<V1> codec1, Codec<V2> codec2, Codec<V3> codec3) throws IOException {
+        Object[] v = readValues(codec1, codec2, codec3);
+        return Tuple.of((V1) v[0], (V2) v[1], (V3) v[2]);
+    }
+
+    /**
+     * Read the {@link Tuple4} written by the {@link BinaryOutput#writeTuple(Tuple4, Codec, Codec, Codec, Codec)},
+     * decoding its values by the given {@link Codec}s.
+     *
+     * @param codec1 the {@link Codec} of the value 1
+     * @param codec2 the {@link Codec} of the value 2
+     * @param codec3 the {@link Codec} of the value 3
+     * @param codec4 the {@link Codec} of the value 4
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     * @return the read {@link Tuple4}
+     * @throws IOException if an I/O error occurs, or the input is not of a Tuple of the width
+     */
+    @SuppressWarnings("unchecked")
+    public <V1, V2, V3, V4> Tuple4<V1, V2, V3, V4> readTuple(Codec<V1> codec1, Codec<V2> codec2, Codec<V3> codec3,
+                                                             Codec<V4> codec4) throws IOException {
+        Object[] v = readValues(codec1, codec2, codec3, codec4);
+        return Tuple.of((V1) v[0], (V2) v[1], (V3) v[2], (V4) v[3]);
+    }
+
+    /**
+     * Read the {@link Tuple5} written by the {@link BinaryOutput#writeTuple(Tuple5, Codec, Codec, Codec, Codec, Codec)},
+     * decoding its values by the given {@link Codec}s.
+     *
+     * @param codec1 the {@link Codec} of the value 1
+     * @param codec2 the {@link Codec} of the value 2
+     * @param codec3 the {@link Codec} of the value 3
+     * @param codec4 the {@link Codec} of the value 4
+     * @param codec5 the {@link Codec} of the value 5
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     * @param <V5> the type of value 5
+     * @return the read {@link Tuple5}
+     * @throws IOException if an I/O error occurs, or the input is not of a Tuple of the width
+     */
+    @SuppressWarnings("unchecked")
+    public <V1, V2, V3, V4, V5> Tuple5<V1, V2, V3, V4, V5> readTuple(
+            Codec<V1> codec1, Codec<V2> codec2, Codec<V3> codec3, Codec<V4> codec4, Codec<V5> codec5) throws IOException {
+        Object[] v = readValues(codec1, codec2, codec3, codec4, codec5);
+        return Tuple.of((V1) v[0], (V2) v[1], (V3) v[2], (V4) v[3], (V5) v[4]);
+    }
+
+    /**
+     * Read the {@link Tuple6} written by the
+     * {@link BinaryOutput#writeTuple(Tuple6, Codec, Codec, Codec, Codec, Codec, Codec)},
+     * decoding its values by the given {@link Codec}s.
+     *
+     * @param codec1 the {@link Codec} of the value 1
+     * @param codec2 the {@link Codec} of the value 2
+     * @param codec3 the {@link Codec} of the value 3
+     * @param codec4 the {@link Codec} of the value 4
+     * @param codec5 the {@link Codec} of the value 5
+     * @param codec6 the {@link Codec} of the value 6
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     * @param <V5> the type of value 5
+     * @param <V6> the type of value 6
+     * @return the read {@link Tuple6}
+     * @throws IOException if an I/O error occurs, or the input is not of a Tuple of the width
+     */
+    @SuppressWarnings("unchecked")
+    public <V1, V2, V3, V4, V5, V6> Tuple6<V1, V2, V3, V4, V5, V6> readTuple(
+            Codec<V1> codec1, Codec<V2> codec2, Codec<V3> codec3, Codec<V4> codec4, Codec<V5> codec5,
+            Codec<V6> codec6) throws IOException {
+        Object[] v = readValues(codec1, codec2, codec3, codec4, codec5, codec6);
+        return Tuple.of((V1) v[0], (V2) v[1], (V3) v[2], (V4) v[3], (V5) v[4], (V6) v[5]);
+    }
+
+    /**
+     * Read the {@link Tuple7} written by the
+     * {@link BinaryOutput#writeTuple(Tuple7, Codec, Codec, Codec, Codec, Codec, Codec, Codec)},
+     * decoding its values by the given {@link Codec}s.
+     *
+     * @param codec1 the {@link Codec} of the value 1
+     * @param codec2 the {@link Codec} of the value 2
+     * @param codec3 the {@link Codec} of the value 3
+     * @param codec4 the {@link Codec} of the value 4
+     * @param codec5 the {@link Codec} of the value 5
+     * @param codec6 the {@link Codec} of the value 6
+     * @param codec7 the {@link Codec} of the value 7
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     * @param <V5> the type of value 5
+     * @param <V6> the type of value 6
+     * @param <V7> the type of value 7
+     * @return the read {@link Tuple7}
+     * @throws IOException if an I/O error occurs, or the input is not of a Tuple of the width
+     */
+    @SuppressWarnings("unchecked")
+    public <V1, V2, V3, V4, V5, V6, V7> Tuple7<V1, V2, V3, V4, V5, V6, V7> readTuple(
+            Codec<V1> codec1, Codec<V2> codec2, Codec<V3> codec3, Codec<V4> codec4, Codec<V5> codec5,
+            Codec<V6> codec6, Codec<V7> codec7) throws IOException {
+        Object[] v = readValues(codec1, codec2, codec3, codec4, codec5, codec6, codec7);
+        return Tuple.of((V1) v[0], (V2) v[1], (V3) v[2], (V4) v[3], (V5) v[4], (V6) v[5], (V7) v[6]);
+    }
+
+    /**
+     * Read the {@link Tuple8} written by the
+     * {@link BinaryOutput#writeTuple(Tuple8, Codec, Codec, Codec, Codec, Codec, Codec, Codec, Codec)},
+     * decoding its values by the given {@link Codec}s.
+     *
+     * @param codec1 the {@link Codec} of the value 1
+     * @param codec2 the {@link Codec} of the value 2
+     * @param codec3 the {@link Codec} of the value 3
+     * @param codec4 the {@link Codec} of the value 4
+     * @param codec5 the {@link Codec} of the value 5
+     * @param codec6 the {@link Codec} of the value 6
+     * @param codec7 the {@link Codec} of the value 7
+     * @param codec8 the {@link Codec} of the value 8
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     * @param <V5> the type of value 5
+     * @param <V6> the type of value 6
+     * @param <V7> the type of value 7
+     * @param <V8> the type of value 8
+     * @return the read {@link Tuple8}
+     * @throws IOException if an I/O error occurs, or the input is not of a Tuple of the width
+     */
+    @SuppressWarnings("unchecked")
+    public <V1, V2, V3, V4, V5, V6, V7, V8> Tuple8<V1, V2, V3, V4, V5, V6, V7, V8> readTuple(
+            Codec<V1> codec1, Codec<V2> codec2, Codec<V3> codec3, Codec<V4> codec4, Codec<V5> codec5,
+            Codec<V6> codec6, Codec<V7> codec7, Codec<V8> codec8) throws IOException {
+        Object[] v = readValues(codec1, codec2, codec3, codec4, codec5, codec6, codec7, codec8);
+        return Tuple.of((V1) v[0], (V2) v[1], (V3) v[2], (V4) v[3], (V5) v[4], (V6) v[5], (V7) v[6], (V8) v[7]);
+    }
+
+    /**
+     * Close the underlying {@link InputStream}.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private Object[] readValues(Codec<?>... codecs) throws IOException {
+        for (Codec<?> codec : codecs) requireNonNull(codec);
+        readTag(TUPLE); long width = readVariable();
+        if (width != codecs.length)
+            throw new IOException(format("Illegal tuple width: %d", width));
+        Object[] values = new Object[codecs.length];
+        for (int i = 0; i < values.length; i++) values[i] = readElement(codecs[i]);
+        return values;
+    }
+
+    private void readTag(int tag) throws IOException {
+        readTag(tag, tag);
+    }
+
+    private int readTag(int tag, int alternative) throws IOException {
+        require(1); int read = array[position++];
+        if (read != tag && read != alternative)
+            throw new IOException(format("Illegal structure tag: %d", read));
+        return read;
+    }
+
+    private int readSize() throws IOException {
+        long size = readVariable();
+        if (size < 0 || size > Integer.MAX_VALUE)
+            throw new IOException(format("Illegal size: %d", size));
+        return (int) size;
+    }
+
+    private <E> E readElement(Codec<E> codec) throws IOException {
+        long header = readVariable();
+        if (header == 0) return null;
+        if (header < 0 || header > Integer.MAX_VALUE || codec.size() >= 0 && header - 1 != codec.size())
+            throw new IOException(format("Illegal element length: %d", header - 1));
+        int length = (int) header - 1; require(length);
+        E element = codec.decode(buffer, position, length); position += length;
+        return element;
+    }
+
+    private long readVariable() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position == limit) require(1);
+            byte b = array[position++]; value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Malformed variable length number");
+    }
+
+    /**
+     * Make the buffer have at least the given number of unread bytes, moving the unread ones
+     * to its start, growing it if it is smaller, and reading the underlying {@link InputStream}.
+     */
+    private void require(int length) throws IOException {
+        int remaining = limit - position;
+        if (remaining >= length) return;
+        if (array.length < length) {
+            byte[] grown = new byte[Math.max(length, array.length << 1)];
+            System.arraycopy(array, position, grown, 0, remaining); buffer = ByteBuffer.wrap(array = grown);
+        } else System.arraycopy(array, position, array, 0, remaining);
+        position = 0; limit = remaining;
+        while (limit < length) {
+            int read = in.read(array, limit, array.length - limit);
+            if (read < 0) throw new EOFException();
+            limit += read;
+        }
+    }
+}
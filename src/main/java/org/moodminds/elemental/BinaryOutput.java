@@ -0,0 +1,408 @@
+package org.moodminds.elemental;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static org.moodminds.elemental.AbstractHashContainer.unmask;
+
+/**
+ * A buffered binary output of {@link Container}s, {@link Sequence}s, {@link Association}s,
+ * {@link NavigableAssociation}s and {@link Tuple1}...{@link Tuple8}s, encoding their elements by the given
+ * {@link Codec}s directly into the heap buffer of the output, which is written to the underlying
+ * {@link OutputStream} whenever it is full, so a structure of any size is written in a single pass
+ * with a constant footprint. The structures are read back by a {@link BinaryInput} in the order of writing.
+ * <p>
+ * Each structure starts with its tag byte and its number of elements, the numbers being written
+ * as the unsigned little-endian base 128 variable length numbers, and an element is written as the
+ * number of its encoded bytes plus one, or zero for {@code null}, followed by the encoded bytes:
+ * <pre>
+ *     Container             1, the number of distinct elements n, n times: element, number of its occurrences
+ *     Sequence              2, the number of elements n, n times: element
+ *     Association           3, the number of mappings n, n times: key element, value element
+ *     NavigableAssociation  4, the number of mappings n, n times: key element, value element
+ *                           5, the number of mappings n, n times: key delta, value element
+ *     Tuple                 6, the width n, n times: element
+ * </pre>
+ * The keys of a {@link NavigableAssociation} of the natural ordering, encoded by the {@link Codec#ints()}
+ * or {@link Codec#longs()}, are written as the differences to the preceding keys, the first key
+ * being zigzag encoded, so the dense keys take a single byte each. The {@link HashContainer}s
+ * and {@link HashCollection}s are written by their distinct elements and the counts of them.
+ * <p>
+ * This class is not synchronized.
+ *
+ * @see BinaryInput
+ */
+public final class BinaryOutput implements Closeable, Flushable {
+
+    static final int CONTAINER = 1, SEQUENCE = 2, ASSOCIATION = 3, NAVIGABLE = 4, NAVIGABLE_DELTA = 5, TUPLE = 6;
+
+    static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The maximum number of bytes of a variable length number.
+     */
+    static final int MAXIMUM_VARIABLE = 10;
+
+    private final OutputStream out;
+    private byte[] array;
+    private ByteBuffer buffer;
+    private int position;
+
+    /**
+     * Construct the output to the given {@link OutputStream} of the default buffer size.
+     *
+     * @param out the given {@link OutputStream}
+     */
+    public BinaryOutput(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Construct the output to the given {@link OutputStream} of the given buffer size. The buffer
+     * grows beyond the size for an encoded element which does not fit it.
+     *
+     * @param out the given {@link OutputStream}
+     * @param bufferSize the given buffer size
+     * @throws IllegalArgumentException if the buffer size is less than {@code 16}
+     */
+    public BinaryOutput(OutputStream out, int bufferSize) {
+        if (bufferSize < 16)
+            throw new IllegalArgumentException(format("Illegal buffer size: %d", bufferSize));
+        this.out = requireNonNull(out); this.buffer = ByteBuffer.wrap(array = new byte[bufferSize]);
+    }
+
+    /**
+     * Write the given {@link Container}, encoding its elements by the given {@link Codec}.
+     *
+     * @param container the given {@link Container}
+     * @param codec the given {@link Codec}
+     * @param <E> the type of elements
+     * @return this output
+     * @throws IOException if an I/O error occurs
+     */
+    @SuppressWarnings("unchecked")
+    public <E> BinaryOutput writeContainer(Container<? extends E> container, Codec<E> codec) throws IOException {
+        requireNonNull(codec); writeTag(CONTAINER);
+        if (container instanceof AbstractHashContainer) {
+            AbstractHashContainer<? extends E> hash = (AbstractHashContainer<? extends E>) container;
+            Object[] keys = hash.keys; int[] counts = hash.counts; writeVariable(hash.distinct);
+            for (int i = 0; i < keys.length; i++)
+                if (keys[i] != null) {
+                    writeElement((E) unmask(keys[i]), codec); writeVariable(counts[i]); }
+        } else {
+            writeVariable(container.size());
+            for (E element : container) {
+                writeElement(element, codec); writeVariable(1); }
+        } return this;
+    }
+
+    /**
+     * Write the given {@link Sequence}, encoding its elements by the given {@link Codec}.
+     *
+     * @param sequence the given {@link Sequence}
+     * @param codec the given {@link Codec}
+     * @param <E> the type of elements
+     * @return this output
+     * @throws IOException if an I/O error occurs
+     */
+    public <E> BinaryOutput writeSequence(Sequence<? extends E> sequence, Codec<E> codec) throws IOException {
+        requireNonNull(codec); writeTag(SEQUENCE); writeVariable(sequence.size());
+        for (E element : sequence) writeElement(element, codec);
+        return this;
+    }
+
+    /**
+     * Write the given {@link Association}, encoding its keys and values by the given {@link Codec}s.
+     *
+     * @param association the given {@link Association}
+     * @param keyCodec the key {@link Codec}
+     * @param valueCodec the value {@link Codec}
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @return this output
+     * @throws IOException if an I/O error occurs
+     */
+    public <K, V> BinaryOutput writeAssociation(Association<? extends K, ? extends V, ?> association,
+                                                Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        requireNonNull(keyCodec); requireNonNull(valueCodec); writeTag(ASSOCIATION); writeVariable(association.size());
+        for (KeyValue<? extends K, ? extends V> kv : association) {
+            writeElement(kv.getKey(), keyCodec); writeElement(kv.getValue(), valueCodec); }
+        return this;
+    }
+
+    /**
+     * Write the given {@link NavigableAssociation} in the order of its keys, encoding its keys and values by
+     * the given {@link Codec}s, or writing the keys as their differences if the Association is of the natural
+     * ordering and the key {@link Codec} is the {@link Codec#ints()} or {@link Codec#longs()}.
+     *
+     * @param association the given {@link NavigableAssociation}
+     * @param keyCodec the key {@link Codec}
+     * @param valueCodec the value {@link Codec}
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @return this output
+     * @throws IOException if an I/O error occurs
+     */
+    public <K, V> BinaryOutput writeNavigableAssociation(NavigableAssociation<? extends K, ? extends V, ?> association,
+                                                         Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        requireNonNull(keyCodec); requireNonNull(valueCodec);
+        boolean delta = association.comparator() == null && (keyCodec == Codecs.INT || keyCodec == Codecs.LONG);
+        writeTag(delta ? NAVIGABLE_DELTA : NAVIGABLE); writeVariable(association.size());
+        boolean first = true; long previous = 0;
+        for (KeyValue<? extends K, ? extends V> kv : association) {
+            if (delta) {
+                long key = ((Number) kv.getKey()).longValue();
+                writeVariable(first ? (key << 1) ^ (key >> 63) : key - previous); previous = key; first = false;
+            } else writeElement(kv.getKey(), keyCodec);
+            writeElement(kv.getValue(), valueCodec);
+        } return this;
+    }
+
+    /**
+     * Write the given {@link Tuple1}, encoding its value by the given {@link Codec}.
+     *
+     * @param tuple the given {@link Tuple1}
+     * @param codec the {@link Codec} of the value
+     * @param <V> the type of the value
+     * @return this output
+     * @throws IOException if an I/O error occurs
+     */
+    public <V> BinaryOutput writeTuple(Tuple1<? extends V> tuple, Codec<V> codec) throws IOException {
+        return writeValues(tuple, new Codec<?>[] {codec});
+    }
+
+    /**
+     * Write the given {@link Tuple2}, encoding its values by the given {@link Codec}s.
+     *
+     * @param tuple the given {@link Tuple2}
+     * @param codec1 the {@link Codec} of the value 1
+     * @param codec2 the {@link Codec} of the value 2
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @return this output
+     * @throws IOException if an I/O error occurs
+     */
+    public <V1, V2> BinaryOutput writeTuple(Tuple2<? extends V1, ? extends V2> tuple,
+                                            Codec<V1> codec1, Codec<V2> codec2) throws IOException {
+        return writeValues(tuple, new Codec<?>[] {codec1, codec2});
+    }
+
+    /**
+     * Write the given {@link Tuple3}, encoding its values by the given {@link Codec}s.
+     *
+     * @param tuple the given {@link Tuple3}
+     * @param codec1 the {@link Codec} of the value 1
+     * @param codec2 the {@link Codec} of the value 2
+     * @param codec3 the {@link Codec} of the value 3
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @return this output
+     * @throws IOException if an I/O error occurs
+     */
+    public <V1, V2, V3> BinaryOutput writeTuple(Tuple3<? extends V1, ? extends V2, ? extends V3> tuple,
+                                                Codec<V1> codec1, Codec<V2> codec2, Codec<V3> codec3) throws IOException {
+        return writeValues(tuple, new Codec<?>[] {codec1, codec2, codec3});
+    }
+
+    /**
+     * Write the given {@link Tuple4}, encoding its values by the given {@link Codec}s.
+     *
+     * @param tuple the given {@link Tuple4}
+     * @param codec1 the {@link Codec} of the value 1
+     * @param codec2 the {@link Codec} of the value 2
+     * @param codec3 the {@link Codec} of the value 3
+     * @param codec4 the {@link Codec} of the value 4
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     * @return this output
+     * @throws IOException if an I/O error occurs
+     */
+    public <V1, V2, V3, V4> BinaryOutput writeTuple(Tuple4<? extends V1, ? extends V2, ? extends V3, ? extends V4> tuple,
+                                                    Codec<V1> codec1, Codec<V2> codec2, Codec<V3> codec3,
+                                                    Codec<V4> codec4) throws IOException {
+        return writeValues(tuple, new Codec<?>[] {codec1, codec2, codec3, codec4});
+    }
+
+    /**
+     * Write the given {@link Tuple5}, encoding its values by the given {@link Codec}s.
+     *
+     * @param tuple the given {@link Tuple5}
+     * @param codec1 the {@link Codec} of the value 1
+     * @param codec2 the {@link Codec} of the value 2
+     * @param codec3 the {@link Codec} of the value 3
+     * @param codec4 the {@link Codec} of the value 4
+     * @param codec5 the {@link Codec} of the value 5
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     * @param <V5> the type of value 5
+     * @return this output
+     * @throws IOException if an I/O error occurs
+     */
+    public <V1, V2, V3, V4, V5> BinaryOutput writeTuple(
+            Tuple5<? extends V1, ? extends V2, ? extends V3, ? extends V4, ? extends V5> tuple,
+            Codec<V1> codec1, Codec<V2> codec2, Codec<V3> codec3, Codec<V4> codec4, Codec<V5> codec5) throws IOException {
+        return writeValues(tuple, new Codec<?>[] {codec1, codec2, codec3, codec4, codec5});
+    }
+
+    /**
+     * Write the given {@link Tuple6}, encoding its values by the given {@link Codec}s.
+     *
+     * @param tuple the given {@link Tuple6}
+     * @param codec1 the {@link Codec} of the value 1
+     * @param codec2 the {@link Codec} of the value 2
+     * @param codec3 the {@link Codec} of the value 3
+     * @param codec4 the {@link Codec} of the value 4
+     * @param codec5 the {@link Codec} of the value 5
+     * @param codec6 the {@link Codec} of the value 6
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     * @param <V5> the type of value 5
+     * @param <V6> the type of value 6
+     * @return this output
+     * @throws IOException if an I/O error occurs
+     */
+    public <V1, V2, V3, V4, V5, V6> BinaryOutput writeTuple(
+            Tuple6<? extends V1, ? extends V2, ? extends V3, ? extends V4, ? extends V5, ? extends V6> tuple,
+            Codec<V1> codec1, Codec<V2> codec2, Codec<V3> codec3, Codec<V4> codec4, Codec<V5> codec5,
+            Codec<V6> codec6) throws IOException {
+        return writeValues(tuple, new Codec<?>[] {codec1, codec2, codec3, codec4, codec5, codec6});
+    }
+
+    /**
+     * Write the given {@link Tuple7}, encoding its values by the given {@link Codec}s.
+     *
+     * @param tuple the given {@link Tuple7}
+     * @param codec1 the {@link Codec} of the value 1
+     * @param codec2 the {@link Codec} of the value 2
+     * @param codec3 the {@link Codec} of the value 3
+     * @param codec4 the {@link Codec} of the value 4
+     * @param codec5 the {@link Codec} of the value 5
+     * @param codec6 the {@link Codec} of the value 6
+     * @param codec7 the {@link Codec} of the value 7
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     * @param <V5> the type of value 5
+     * @param <V6> the type of value 6
+     * @param <V7> the type of value 7
+     * @return this output
+     * @throws IOException if an I/O error occurs
+     */
+    public <V1, V2, V3, V4, V5, V6, V7> BinaryOutput writeTuple(
+            Tuple7<? extends V1, ? extends V2, ? extends V3, ? extends V4, ? extends V5, ? extends V6, ? extends V7> tuple,
+            Codec<V1> codec1, Codec<V2> codec2, Codec<V3> codec3, Codec<V4> codec4, Codec<V5> codec5,
+            Codec<V6> codec6, Codec<V7> codec7) throws IOException {
+        return writeValues(tuple, new Codec<?>[] {codec1, codec2, codec3, codec4, codec5, codec6, codec7});
+    }
+
+    /**
+     * Write the given {@link Tuple8}, encoding its values by the given {@link Codec}s.
+     *
+     * @param tuple the given {@link Tuple8}
+     * @param codec1 the {@link Codec} of the value 1
+     * @param codec2 the {@link Codec} of the value 2
+     * @param codec3 the {@link Codec} of the value 3
+     * @param codec4 the {@link Codec} of the value 4
+     * @param codec5 the {@link Codec} of the value 5
+     * @param codec6 the {@link Codec} of the value 6
+     * @param codec7 the {@link Codec} of the value 7
+     * @param codec8 the {@link Codec} of the value 8
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     * @param <V5> the type of value 5
+     * @param <V6> the type of value 6
+     * @param <V7> the type of value 7
+     * @param <V8> the type of value 8
+     * @return this output
+     * @throws IOException if an I/O error occurs
+     */
+    public <V1, V2, V3, V4, V5, V6, V7, V8> BinaryOutput writeTuple(
+            Tuple8<? extends V1, ? extends V2, ? extends V3, ? extends V4, ? extends V5, ? extends V6, ? extends V7, ? extends V8> tuple,
+            Codec<V1> codec1, Codec<V2> codec2, Codec<V3> codec3, Codec<V4> codec4, Codec<V5> codec5,
+            Codec<V6> codec6, Codec<V7> codec7, Codec<V8> codec8) throws IOException {
+        return writeValues(tuple, new Codec<?>[] {codec1, codec2, codec3, codec4, codec5, codec6, codec7, codec8});
+    }
+
+    /**
+     * Write the buffered bytes and flush the underlying {@link OutputStream}.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        drain(); out.flush();
+    }
+
+    /**
+     * Write the buffered bytes and close the underlying {@link OutputStream}.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            out.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private BinaryOutput writeValues(Tuple tuple, Codec<?>[] codecs) throws IOException {
+        for (Codec<?> codec : codecs) requireNonNull(codec);
+        writeTag(TUPLE); writeVariable(codecs.length);
+        for (int i = 0; i < codecs.length; i++)
+            writeElement(tuple.get(i), (Codec<Object>) codecs[i]);
+        return this;
+    }
+
+    private void writeTag(int tag) throws IOException {
+        require(1); array[position++] = (byte) tag;
+    }
+
+    private <E> void writeElement(E element, Codec<E> codec) throws IOException {
+        if (element == null) {
+            writeVariable(0); return; }
+        int length = codec.sizeOf(element);
+        writeVariable(length + 1L); require(length);
+        codec.encode(element, buffer, position); position += length;
+    }
+
+    private void writeVariable(long value) throws IOException {
+        require(MAXIMUM_VARIABLE); byte[] array = this.array; int position = this.position;
+        for (; (value & ~0x7FL) != 0; value >>>= 7) array[position++] = (byte) (value | 0x80);
+        array[position++] = (byte) value; this.position = position;
+    }
+
+    /**
+     * Make the buffer have at least the given number of free bytes, writing the buffered ones
+     * and growing the buffer if it is smaller.
+     */
+    private void require(int length) throws IOException {
+        if (array.length - position < length) {
+            drain();
+            if (array.length < length)
+                buffer = ByteBuffer.wrap(array = new byte[Math.max(length, array.length << 1)]);
+        }
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(array, 0, position); position = 0; }
+    }
+}
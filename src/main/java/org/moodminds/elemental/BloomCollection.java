@@ -0,0 +1,158 @@
+package org.moodminds.elemental;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+
+import static java.util.Collections.emptyIterator;
+
+/**
+ * A {@link Collection} decorator fronting the backing {@link Collection} with a blocked Bloom filter
+ * of its elements, so the {@link #contains(Object)}, {@link #getCount(Object)}, {@link #getAll(Object)}
+ * and {@link #remove(Object)} methods return immediately for the most of the absent elements, not touching
+ * the backing Collection and not allocating.
+ * <p>
+ * The elements added by this Collection are added to the filter, while the removed ones are left in it,
+ * only raising the false positives rate. The filter is rebuilt of the backing Collection elements
+ * once the number of the added elements exceeds its capacity or the number of the removed ones
+ * exceeds the number of the present ones, so its maintenance takes amortized constant time.
+ * The backing Collection must not be modified other than through this decorator.
+ * <p>
+ * The filter is of the element hash codes, so it is maintained only if the backing Collection matches its elements
+ * by the {@link Object#equals(Object)} method, which is a hash based Collection or a {@link Sequence}; any other
+ * Collection, such as the one matching by a comparator, is looked up directly.
+ * <p>
+ * This class is not synchronized.
+ * <p>
+ * The decorator matches its elements in the time of the backing Collection matching the present ones,
+ * so the one returned by the {@link #collection(Collection)} method is {@link RandomMatch} only if the backing
+ * Collection is, while the one constructed directly never is.
+ *
+ * @param <E> the type of elements
+ *
+ * @see BloomContainer
+ */
+public class BloomCollection<E> implements Collection<E> {
+
+    private static final int MINIMUM_CAPACITY = 64;
+
+    private final Collection<E> collection;
+    private BloomFilter filter; // null if the backing Collection does not match by the hash codes
+    private int inserted; // the number of the elements added to the filter
+
+    /**
+     * Return the decorator of the given {@link Collection}, building the filter of its elements,
+     * which is {@link RandomMatch} if the given Collection is.
+     *
+     * @param collection the given {@link Collection}
+     * @return the decorator of the given {@link Collection}
+     * @param <E> the type of elements
+     */
+    public static <E> BloomCollection<E> collection(Collection<E> collection) {
+        return collection instanceof RandomMatch ? new RandomMatchBloomCollection<>(collection) : new BloomCollection<>(collection);
+    }
+
+    /**
+     * Construct the decorator of the given {@link Collection}, building the filter of its elements.
+     *
+     * @param collection the given {@link Collection}
+     */
+    public BloomCollection(Collection<E> collection) {
+        this.collection = collection; if (BloomFilter.consistent(collection)) rebuild();
+    }
+
+    @Override
+    public boolean add(E e) {
+        if (!collection.add(e)) return false;
+        if (filter == null) return true;
+        if (++inserted > filter.capacity()) rebuild(); else filter.add(e);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (absent(o) || !collection.remove(o)) return false;
+        if (filter != null && inserted - collection.size() > Math.max(collection.size(), MINIMUM_CAPACITY)) rebuild();
+        return true;
+    }
+
+    @Override
+    public int getCount(Object o) {
+        return absent(o) ? 0 : collection.getCount(o);
+    }
+
+    @Override
+    public Iterator<E> getAll(Object o) {
+        return absent(o) ? emptyIterator() : collection.getAll(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return !absent(o) && collection.contains(o);
+    }
+
+    @Override
+    public int size() {
+        return collection.size();
+    }
+
+    @Override
+    public void clear() {
+        collection.clear(); if (filter != null) filter.clear(); inserted = 0;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return collection.iterator();
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return collection.spliterator();
+    }
+
+    @Override
+    public int hashCode() {
+        return collection.hashCode();
+    }
+
+    /**
+     * Compare the specified object with this Collection for equality, which is the equality
+     * of the backing Collection with the object, or with the backing Collection of the object
+     * if it is also a {@link BloomCollection}.
+     *
+     * @param obj the object to be compared for equality with this Collection
+     * @return {@code true} if the specified object is equal to this Collection
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || collection.equals(obj instanceof BloomCollection ? ((BloomCollection<?>) obj).collection : obj);
+    }
+
+    @Override
+    public String toString() {
+        return collection.toString();
+    }
+
+    private boolean absent(Object o) {
+        return filter != null && !filter.mightContain(o);
+    }
+
+    private void rebuild() {
+        int size = collection.size();
+        filter = new BloomFilter(Math.max(size << 1, MINIMUM_CAPACITY));
+        for (E element : collection) filter.add(element);
+        inserted = size;
+    }
+
+    /**
+     * The decorator of a {@link RandomMatch} Collection.
+     *
+     * @param <E> the type of elements
+     */
+    private static final class RandomMatchBloomCollection<E> extends BloomCollection<E> implements RandomMatch {
+
+        RandomMatchBloomCollection(Collection<E> collection) {
+            super(collection);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.moodminds.elemental;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+
+import static java.util.Collections.emptyIterator;
+
+/**
+ * A {@link Container} decorator fronting the backing {@link Container} with a blocked Bloom filter
+ * of its elements, so the {@link #contains(Object)}, {@link #getCount(Object)} and {@link #getAll(Object)}
+ * methods return immediately for the most of the absent elements, not touching the backing Container
+ * and not allocating. The present elements are looked up in the backing Container after the filter check.
+ * <p>
+ * The filter is of the element hash codes, so it is built only if the backing Container matches its elements
+ * by the {@link Object#equals(Object)} method, which is a hash based Container or a {@link Sequence}; any other
+ * Container, such as the one matching by a comparator, is looked up directly.
+ * <p>
+ * The filter is built of the elements of the backing Container at construction time, so the backing
+ * Container is expected to be immutable. A {@link Collection} is decorated by a {@link BloomCollection}.
+ * The filter takes about {@code 10} bits per element and gives about {@code 1%} of false positives.
+ * <p>
+ * The decorator matches its elements in the time of the backing Container matching the present ones,
+ * so the one returned by the {@link #container(Container)} method is {@link RandomMatch} only if the backing
+ * Container is, while the one constructed directly never is.
+ *
+ * @param <E> the type of elements
+ *
+ * @see BloomCollection
+ */
+public class BloomContainer<E> implements Container<E> {
+
+    private final Container<E> container;
+    private final BloomFilter filter; // null if the backing Container does not match by the hash codes
+
+    /**
+     * Return the decorator of the given {@link Container}, building the filter of its elements,
+     * which is {@link RandomMatch} if the given Container is.
+     *
+     * @param container the given {@link Container}
+     * @return the decorator of the given {@link Container}
+     * @param <E> the type of elements
+     */
+    public static <E> BloomContainer<E> container(Container<E> container) {
+        return container instanceof RandomMatch ? new RandomMatchBloomContainer<>(container) : new BloomContainer<>(container);
+    }
+
+    /**
+     * Construct the decorator of the given {@link Container}, building the filter of its elements.
+     *
+     * @param container the given {@link Container}
+     */
+    public BloomContainer(Container<E> container) {
+        this.container = container; this.filter = BloomFilter.consistent(container) ? new BloomFilter(container.size()) : null;
+        if (filter != null) for (E element : container) filter.add(element);
+    }
+
+    @Override
+    public int getCount(Object o) {
+        return absent(o) ? 0 : container.getCount(o);
+    }
+
+    @Override
+    public Iterator<E> getAll(Object o) {
+        return absent(o) ? emptyIterator() : container.getAll(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return !absent(o) && container.contains(o);
+    }
+
+    @Override
+    public int size() {
+        return container.size();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return container.iterator();
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return container.spliterator();
+    }
+
+    @Override
+    public int hashCode() {
+        return container.hashCode();
+    }
+
+    /**
+     * Compare the specified object with this Container for equality, which is the equality
+     * of the backing Container with the object, or with the backing Container of the object
+     * if it is also a {@link BloomContainer}.
+     *
+     * @param obj the object to be compared for equality with this Container
+     * @return {@code true} if the specified object is equal to this Container
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || container.equals(obj instanceof BloomContainer ? ((BloomContainer<?>) obj).container : obj);
+    }
+
+    @Override
+    public String toString() {
+        return container.toString();
+    }
+
+    private boolean absent(Object o) {
+        return filter != null && !filter.mightContain(o);
+    }
+
+    /**
+     * The decorator of a {@link RandomMatch} Container.
+     *
+     * @param <E> the type of elements
+     */
+    private static final class RandomMatchBloomContainer<E> extends BloomContainer<E> implements RandomMatch {
+
+        RandomMatchBloomContainer(Container<E> container) {
+            super(container);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.moodminds.elemental;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A blocked Bloom filter of the element hash codes. Each element sets {@link #PROBES} bits
+ * within a single {@code 512} bits block, so a check touches one cache line only.
+ * <p>
+ * The filter has no false negatives: {@link #mightContain(Object)} returns {@code false}
+ * only for the elements which are not added since the last {@link #clear()}.
+ */
+final class BloomFilter {
+
+    static final int BITS_PER_ELEMENT = 10, PROBES = 6;
+
+    private static final int BLOCK_SHIFT = 3; // 8 longs of a block
+    private static final int MAXIMUM_BLOCKS = 1 << 24;
+
+    private final long[] bits;
+    private final int mask;
+    private final int capacity;
+
+    /**
+     * Construct the filter for the specified expected number of the elements.
+     *
+     * @param capacity the specified expected number of the elements
+     */
+    BloomFilter(int capacity) {
+        long blocks = ((long) Math.max(capacity, 1) * BITS_PER_ELEMENT + 511) >>> 9;
+        int n = (int) Math.min(MAXIMUM_BLOCKS, blocks);
+        n = n == 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+        this.bits = new long[n << BLOCK_SHIFT];
+        this.mask = n - 1;
+        this.capacity = (int) Math.max(capacity, ((long) n << 9) / BITS_PER_ELEMENT);
+    }
+
+    /**
+     * Return the number of the elements the filter is sized for.
+     *
+     * @return the number of the elements the filter is sized for
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Check if the given {@link Container} matches its elements by the {@link Object#equals(Object)} method
+     * consistent with the {@link Object#hashCode()} one, so the filter of the element hash codes
+     * has no false negatives for it.
+     *
+     * @param container the given {@link Container}
+     * @return {@code true} if the given {@link Container} matches its elements by the hash codes consistently
+     */
+    static boolean consistent(Container<?> container) {
+        return container instanceof AbstractHashContainer || container instanceof HashTrieContainer
+                || container instanceof Sequence;
+    }
+
+    void add(Object o) {
+        long h = hash(o), p = h * 0xFF51AFD7ED558CCDL; int block = ((int) (h >>> 40) & mask) << BLOCK_SHIFT;
+        for (int i = 0; i < PROBES; i++, p >>>= 9)
+            bits[block + ((int) p >>> 6 & 7)] |= 1L << p;
+    }
+
+    boolean mightContain(Object o) {
+        long h = hash(o), p = h * 0xFF51AFD7ED558CCDL; int block = ((int) (h >>> 40) & mask) << BLOCK_SHIFT;
+        for (int i = 0; i < PROBES; i++, p >>>= 9)
+            if ((bits[block + ((int) p >>> 6 & 7)] & 1L << p) == 0)
+                return false;
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(bits, 0);
+    }
+
+    /**
+     * Return the 64 bits mix of the hash code of the given object. Its bits {@code 40..63} select
+     * the block, while the probes are taken from its product with another odd constant.
+     *
+     * @param o the given object
+     * @return the 64 bits mix of the hash code of the given object
+     */
+    private static long hash(Object o) {
+        long h = Objects.hashCode(o) * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32; h *= 0xC2B2AE3D27D4EB4FL;
+        return h ^ h >>> 29;
+    }
+}
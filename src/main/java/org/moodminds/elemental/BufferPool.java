@@ -0,0 +1,47 @@
+package org.moodminds.elemental;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of the direct buffers of the {@link #BUFFER_SIZE}, shared by the channel writers
+ * and readers, so streaming neither allocates nor waits for the release of the direct memory.
+ * <p>
+ * The buffers are addressed absolutely, while their position and limit are set through the
+ * {@link Buffer} methods only, which link to the same signatures on every Java version.
+ */
+final class BufferPool {
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The maximum number of the pooled buffers.
+     */
+    static final int MAXIMUM_POOLED = 64;
+
+    private static final ConcurrentLinkedQueue<ByteBuffer> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
+
+    private BufferPool() {}
+
+    /**
+     * Return a pooled or a new direct buffer of the {@link #BUFFER_SIZE}, of the zero position and the full limit.
+     */
+    static ByteBuffer acquire() {
+        ByteBuffer buffer = POOL.poll();
+        if (buffer == null) return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        POOLED.decrementAndGet(); ((Buffer) buffer).clear(); return buffer;
+    }
+
+    /**
+     * Return the given buffer to the pool, if it is a direct one of the {@link #BUFFER_SIZE} and the pool is not full.
+     */
+    static void release(ByteBuffer buffer) {
+        if (buffer.isDirect() && buffer.capacity() == BUFFER_SIZE) {
+            if (POOLED.incrementAndGet() <= MAXIMUM_POOLED) POOL.offer(buffer);
+            else POOLED.decrementAndGet();
+        }
+    }
+}
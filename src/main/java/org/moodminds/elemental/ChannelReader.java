@@ -0,0 +1,138 @@
+package org.moodminds.elemental;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.function.Consumer;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static org.moodminds.elemental.BufferPool.BUFFER_SIZE;
+import static org.moodminds.elemental.OffHeapHashAssociation.copy;
+
+/**
+ * An {@link Advancer} of the elements written by a {@link ChannelWriter}, reading them from a
+ * {@link ReadableByteChannel} into a pooled direct buffer and decoding them by the given {@link Codec}
+ * directly from the buffer, one by one as their bytes arrive, so an element is provided as soon
+ * as it is read, while the buffer is refilled only when it holds no whole element. The Advancer
+ * is exhausted at the end of the channel.
+ * <p>
+ * An element which does not fit the buffer is read into a heap buffer of its own. The I/O errors
+ * are thrown as the {@link UncheckedIOException}s, and the end of the channel within an element
+ * as the {@link UncheckedIOException} of the {@link EOFException}.
+ * <p>
+ * This class is not synchronized.
+ *
+ * @param <E> the type of elements
+ *
+ * @see ChannelWriter
+ */
+public final class ChannelReader<E> implements Advancer<E>, Closeable {
+
+    private final ReadableByteChannel channel;
+    private final Codec<E> codec;
+    private ByteBuffer buffer;
+    private int position, limit;
+    private boolean closed;
+
+    /**
+     * Construct the reader of the given {@link ReadableByteChannel}, decoding the elements
+     * by the given {@link Codec}.
+     *
+     * @param channel the given {@link ReadableByteChannel}
+     * @param codec the given {@link Codec}
+     */
+    public ChannelReader(ReadableByteChannel channel, Codec<E> codec) {
+        this.channel = requireNonNull(channel); this.codec = requireNonNull(codec);
+        this.buffer = BufferPool.acquire();
+    }
+
+    /**
+     * Read the next element, if any, and provide it to the given {@link Consumer}.
+     *
+     * @param consumer the given {@link Consumer}
+     * @return {@code false} if the channel ends, {@code true} otherwise
+     * @throws UncheckedIOException if an I/O error occurs, or the channel ends within an element
+     * @throws IllegalStateException if this reader is closed
+     */
+    @Override
+    public boolean next(Consumer<? super E> consumer) {
+        requireNonNull(consumer);
+        if (closed)
+            throw new IllegalStateException("Reader is closed");
+        try {
+            if (position == limit && !fill(1)) return false;
+            long header = readVariable();
+            if (header == 0) {
+                consumer.accept(null); return true; }
+            if (header < 0 || header > Integer.MAX_VALUE)
+                throw new IOException(format("Illegal element length: %d", header - 1));
+            int length = (int) header - 1;
+            if (length > BUFFER_SIZE) {
+                consumer.accept(readLarge(length)); return true; }
+            if (limit - position < length && !fill(length)) throw new EOFException();
+            E element = codec.decode(buffer, position, length); position += length;
+            consumer.accept(element); return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Return the buffer to the pool and close the channel.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return; closed = true;
+        try {
+            BufferPool.release(buffer);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private long readVariable() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position == limit && !fill(1)) throw new EOFException();
+            byte b = buffer.get(position++); value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Malformed variable length number");
+    }
+
+    /**
+     * Read the element of the given length, greater than the buffer, into a heap buffer of its own.
+     */
+    private E readLarge(int length) throws IOException {
+        ByteBuffer large = ByteBuffer.allocate(length); int remaining = limit - position;
+        copy(buffer, position, large, 0, remaining); position = limit = 0;
+        ((Buffer) large).position(remaining);
+        while (large.hasRemaining())
+            if (channel.read(large) < 0) throw new EOFException();
+        return codec.decode(large, 0, length);
+    }
+
+    /**
+     * Make the buffer have at least the given number of unread bytes, moving the unread ones
+     * to its start and reading the channel, unless the channel ends.
+     *
+     * @return {@code false} if the channel ends before the bytes are read
+     */
+    private boolean fill(int length) throws IOException {
+        int remaining = limit - position;
+        copy(buffer, position, buffer, 0, remaining); position = 0; limit = remaining;
+        ((Buffer) buffer).limit(BUFFER_SIZE).position(limit);
+        while (limit < length) {
+            int read = channel.read(buffer);
+            if (read < 0) return false;
+            limit += read;
+        } return true;
+    }
+}
@@ -0,0 +1,219 @@
+package org.moodminds.elemental;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static org.moodminds.elemental.BinaryOutput.MAXIMUM_VARIABLE;
+import static org.moodminds.elemental.BufferPool.BUFFER_SIZE;
+
+/**
+ * A writer of the elements of {@link Sequence}s, {@link Producer}s and {@link Advancer}s to a
+ * {@link WritableByteChannel}, encoding them by the given {@link Codec} directly into the pooled direct
+ * buffers, which are written by a single gathering write once they are all full, so the elements are
+ * copied neither to the heap nor between the buffers. The elements are read back by a {@link ChannelReader}.
+ * <p>
+ * An element is written as the number of its encoded bytes plus one, or zero for {@code null},
+ * in the unsigned little-endian base 128 variable length format, followed by the encoded bytes.
+ * The stream of elements ends with the end of the channel. An element which does not fit
+ * a buffer is written from a heap buffer of its own, after the preceding ones.
+ * <p>
+ * The channel must be in the blocking mode. The elements of a {@link Producer} may be provided
+ * in different threads, each being written under the lock of this writer; otherwise this class
+ * is not synchronized.
+ *
+ * @param <E> the type of elements
+ *
+ * @see ChannelReader
+ */
+public final class ChannelWriter<E> implements Closeable, Flushable {
+
+    static final int DEFAULT_BUFFERS = 8;
+
+    private final WritableByteChannel channel;
+    private final Codec<E> codec;
+    private final ByteBuffer[] buffers;
+    private int current, position;
+    private boolean closed;
+
+    /**
+     * Construct the writer to the given {@link WritableByteChannel} of the default number of buffers,
+     * encoding the elements by the given {@link Codec}.
+     *
+     * @param channel the given {@link WritableByteChannel}
+     * @param codec the given {@link Codec}
+     */
+    public ChannelWriter(WritableByteChannel channel, Codec<E> codec) {
+        this(channel, codec, DEFAULT_BUFFERS);
+    }
+
+    /**
+     * Construct the writer to the given {@link WritableByteChannel} of the given number of buffers,
+     * each of 64 KiB, encoding the elements by the given {@link Codec}.
+     *
+     * @param channel the given {@link WritableByteChannel}
+     * @param codec the given {@link Codec}
+     * @param buffers the given number of buffers written by a single gathering write
+     * @throws IllegalArgumentException if the number of buffers is not positive
+     */
+    public ChannelWriter(WritableByteChannel channel, Codec<E> codec, int buffers) {
+        if (buffers < 1)
+            throw new IllegalArgumentException(format("Illegal buffer count: %d", buffers));
+        this.channel = requireNonNull(channel); this.codec = requireNonNull(codec);
+        this.buffers = new ByteBuffer[buffers];
+        for (int i = 0; i < buffers; i++) this.buffers[i] = BufferPool.acquire();
+    }
+
+    /**
+     * Write the given element.
+     *
+     * @param element the given element
+     * @return this writer
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalStateException if this writer is closed
+     */
+    public ChannelWriter<E> write(E element) throws IOException {
+        if (closed)
+            throw new IllegalStateException("Writer is closed");
+        if (element == null) {
+            require(1); writeVariable(0); return this; }
+        int length = codec.sizeOf(element);
+        if (length > BUFFER_SIZE - MAXIMUM_VARIABLE) {
+            require(MAXIMUM_VARIABLE); writeVariable(length + 1L); drain();
+            ByteBuffer large = ByteBuffer.allocate(length); codec.encode(element, large, 0);
+            while (large.hasRemaining()) channel.write(large);
+        } else {
+            require(MAXIMUM_VARIABLE + length); writeVariable(length + 1L);
+            codec.encode(element, buffers[current], position); position += length;
+        } return this;
+    }
+
+    /**
+     * Write the elements of the given {@link Sequence} in its order.
+     *
+     * @param sequence the given {@link Sequence}
+     * @return this writer
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalStateException if this writer is closed
+     */
+    public ChannelWriter<E> writeAll(Sequence<? extends E> sequence) throws IOException {
+        for (E element : sequence) write(element);
+        return this;
+    }
+
+    /**
+     * Write the elements of the given {@link Advancer} until it is exhausted.
+     *
+     * @param advancer the given {@link Advancer}
+     * @return this writer
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalStateException if this writer is closed
+     */
+    public ChannelWriter<E> writeAll(Advancer<? extends E> advancer) throws IOException {
+        try {
+            advancer.each(this::writeUnchecked);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } return this;
+    }
+
+    /**
+     * Write the elements the given {@link Producer} provides, until it returns. The elements
+     * provided in different threads are written in the order of acquiring the lock of this writer.
+     *
+     * @param producer the given {@link Producer}
+     * @return this writer
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalStateException if this writer is closed
+     */
+    public ChannelWriter<E> writeProvided(Producer<? extends E> producer) throws IOException {
+        try {
+            producer.provide(element -> {
+                synchronized (this) {
+                    writeUnchecked(element); } });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } return this;
+    }
+
+    /**
+     * Write the buffered elements to the channel.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if (!closed) drain();
+    }
+
+    /**
+     * Write the buffered elements, return the buffers to the pool and close the channel.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        try {
+            drain();
+        } finally {
+            closed = true;
+            for (ByteBuffer buffer : buffers) BufferPool.release(buffer);
+            channel.close();
+        }
+    }
+
+    private void writeUnchecked(E element) {
+        try {
+            write(element);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeVariable(long value) {
+        ByteBuffer buffer = buffers[current]; int position = this.position;
+        for (; (value & ~0x7FL) != 0; value >>>= 7) buffer.put(position++, (byte) (value | 0x80));
+        buffer.put(position++, (byte) value); this.position = position;
+    }
+
+    /**
+     * Make the current buffer have at least the given number of free bytes, sealing it and
+     * moving to the next one, and writing all the buffers if there is no next one.
+     */
+    private void require(int length) throws IOException {
+        if (BUFFER_SIZE - position < length) {
+            ((Buffer) buffers[current]).limit(position);
+            if (++current == buffers.length) {
+                current--; gather(); } else position = 0;
+        }
+    }
+
+    /**
+     * Write the buffers up to the current one, sealing it at the current position.
+     */
+    private void drain() throws IOException {
+        ((Buffer) buffers[current]).limit(position); gather();
+    }
+
+    /**
+     * Write the sealed buffers up to the current one and rewind them all.
+     */
+    private void gather() throws IOException {
+        int count = current + 1; long remaining = 0;
+        for (int i = 0; i < count; i++) remaining += buffers[i].remaining();
+        if (channel instanceof GatheringByteChannel)
+            while (remaining > 0) remaining -= ((GatheringByteChannel) channel).write(buffers, 0, count);
+        else for (int i = 0; i < count; i++)
+            while (buffers[i].hasRemaining()) channel.write(buffers[i]);
+        for (int i = 0; i < count; i++) ((Buffer) buffers[i]).clear();
+        current = 0; position = 0;
+    }
+}
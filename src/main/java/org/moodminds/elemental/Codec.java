@@ -0,0 +1,103 @@
+package org.moodminds.elemental;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A binary encoding of values of a type into {@link ByteBuffer}s, addressing the buffers absolutely,
+ * so neither their position nor their limit is used or changed.
+ * <p>
+ * The encoding must be canonical: two values are equal if and only if their encodings are equal
+ * byte by byte, so the encoded values can be hashed and matched without being decoded.
+ *
+ * @param <T> the type of values
+ *
+ * @see OffHeapHashAssociation
+ */
+public interface Codec<T> {
+
+    /**
+     * Return the number of bytes of every encoded value, or {@code -1} if it is variable.
+     *
+     * @return the number of bytes of every encoded value, or {@code -1} if it is variable
+     */
+    int size();
+
+    /**
+     * Return the number of bytes of the encoding of the given value.
+     *
+     * @param value the given value
+     * @return the number of bytes of the encoding of the given value
+     */
+    default int sizeOf(T value) {
+        return size();
+    }
+
+    /**
+     * Write the encoding of the given value into the given buffer at the given index.
+     *
+     * @param value the given value
+     * @param buffer the given buffer
+     * @param index the given index
+     * @throws IndexOutOfBoundsException if the buffer has not enough bytes after the index
+     */
+    void encode(T value, ByteBuffer buffer, int index);
+
+    /**
+     * Return the value decoded from the given number of bytes of the given buffer at the given index.
+     *
+     * @param buffer the given buffer
+     * @param index the given index
+     * @param length the given number of bytes
+     * @return the value decoded from the given number of bytes of the given buffer at the given index
+     * @throws IndexOutOfBoundsException if the buffer has not enough bytes after the index
+     */
+    T decode(ByteBuffer buffer, int index, int length);
+
+    /**
+     * Return the fixed size Codec of {@link Integer}s.
+     *
+     * @return the fixed size Codec of {@link Integer}s
+     */
+    static Codec<Integer> ints() {
+        return Codecs.INT;
+    }
+
+    /**
+     * Return the fixed size Codec of {@link Long}s.
+     *
+     * @return the fixed size Codec of {@link Long}s
+     */
+    static Codec<Long> longs() {
+        return Codecs.LONG;
+    }
+
+    /**
+     * Return the fixed size Codec of {@link Double}s, encoding them by {@link Double#doubleToLongBits(double)},
+     * consistently with {@link Double#equals(Object)}.
+     *
+     * @return the fixed size Codec of {@link Double}s
+     */
+    static Codec<Double> doubles() {
+        return Codecs.DOUBLE;
+    }
+
+    /**
+     * Return the variable size Codec of {@link String}s, encoding them in UTF-8, with the unpaired surrogates
+     * encoded as the three bytes sequences of their values (the WTF-8), so every String is encoded losslessly.
+     *
+     * @return the variable size Codec of {@link String}s
+     */
+    static Codec<String> strings() {
+        return Codecs.STRING;
+    }
+
+    /**
+     * Return the variable size Codec of byte arrays, encoding their contents, so the arrays
+     * of equal contents have equal encodings.
+     *
+     * @return the variable size Codec of byte arrays
+     */
+    static Codec<byte[]> bytes() {
+        return Codecs.BYTES;
+    }
+}
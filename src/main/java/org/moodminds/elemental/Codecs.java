@@ -0,0 +1,86 @@
+package org.moodminds.elemental;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The holder of the standard {@link Codec}s.
+ */
+final class Codecs {
+
+    static final Codec<Integer> INT = new Codec<Integer>() {
+        @Override public int size() { return Integer.BYTES; }
+        @Override public void encode(Integer value, ByteBuffer buffer, int index) { buffer.putInt(index, value); }
+        @Override public Integer decode(ByteBuffer buffer, int index, int length) { return buffer.getInt(index); }
+    };
+
+    static final Codec<Long> LONG = new Codec<Long>() {
+        @Override public int size() { return Long.BYTES; }
+        @Override public void encode(Long value, ByteBuffer buffer, int index) { buffer.putLong(index, value); }
+        @Override public Long decode(ByteBuffer buffer, int index, int length) { return buffer.getLong(index); }
+    };
+
+    static final Codec<Double> DOUBLE = new Codec<Double>() {
+        @Override public int size() { return Double.BYTES; }
+        @Override public void encode(Double value, ByteBuffer buffer, int index) { buffer.putLong(index, Double.doubleToLongBits(value)); }
+        @Override public Double decode(ByteBuffer buffer, int index, int length) { return Double.longBitsToDouble(buffer.getLong(index)); }
+    };
+
+    static final Codec<String> STRING = new Codec<String>() {
+        @Override public int size() { return -1; }
+
+        @Override public int sizeOf(String value) {
+            int size = 0;
+            for (int i = 0, length = value.length(); i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) size += 1;
+                else if (c < 0x800) size += 2;
+                else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    size += 4; i++; }
+                else size += 3;
+            } return size; }
+
+        @Override public void encode(String value, ByteBuffer buffer, int index) {
+            for (int i = 0, length = value.length(); i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) buffer.put(index++, (byte) c);
+                else if (c < 0x800) {
+                    buffer.put(index++, (byte) (0xC0 | c >> 6)); buffer.put(index++, (byte) (0x80 | c & 0x3F)); }
+                else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    buffer.put(index++, (byte) (0xF0 | cp >> 18)); buffer.put(index++, (byte) (0x80 | cp >> 12 & 0x3F));
+                    buffer.put(index++, (byte) (0x80 | cp >> 6 & 0x3F)); buffer.put(index++, (byte) (0x80 | cp & 0x3F)); }
+                else {
+                    buffer.put(index++, (byte) (0xE0 | c >> 12)); buffer.put(index++, (byte) (0x80 | c >> 6 & 0x3F));
+                    buffer.put(index++, (byte) (0x80 | c & 0x3F)); }
+            } }
+
+        @Override public String decode(ByteBuffer buffer, int index, int length) {
+            char[] chars = new char[length]; int n = 0;
+            for (int end = index + length; index < end; ) {
+                int b = buffer.get(index++);
+                if (b >= 0) chars[n++] = (char) b;
+                else if ((b & 0xE0) == 0xC0) chars[n++] = (char) ((b & 0x1F) << 6 | buffer.get(index++) & 0x3F);
+                else if ((b & 0xF0) == 0xE0) {
+                    chars[n++] = (char) ((b & 0x0F) << 12 | (buffer.get(index++) & 0x3F) << 6 | buffer.get(index++) & 0x3F); }
+                else {
+                    int cp = (b & 0x07) << 18 | (buffer.get(index++) & 0x3F) << 12
+                            | (buffer.get(index++) & 0x3F) << 6 | buffer.get(index++) & 0x3F;
+                    chars[n++] = Character.highSurrogate(cp); chars[n++] = Character.lowSurrogate(cp); }
+            } return new String(chars, 0, n); }
+    };
+
+    static final Codec<byte[]> BYTES = new Codec<byte[]>() {
+        @Override public int size() { return -1; }
+        @Override public int sizeOf(byte[] value) { return value.length; }
+
+        @Override public void encode(byte[] value, ByteBuffer buffer, int index) {
+            for (byte b : value) buffer.put(index++, b); }
+
+        @Override public byte[] decode(ByteBuffer buffer, int index, int length) {
+            byte[] value = new byte[length];
+            for (int i = 0; i < length; i++) value[i] = buffer.get(index + i);
+            return value; }
+    };
+
+    private Codecs() {}
+}
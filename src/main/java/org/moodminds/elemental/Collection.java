@@ -127,6 +127,8 @@ public interface Collection<E> extends Container<E>, java.util.Collection<E> {
 
     /**
      * {@inheritDoc}
+     * The default implementation calls the {@link DirectMatch#removeOne(Object)} method
+     * if this collection is a {@link DirectMatch}, or removes by the {@link #getAll(Object)} iterator.
      *
      * @param o {@inheritDoc}
      * @return {@inheritDoc}
@@ -136,6 +138,8 @@ public interface Collection<E> extends Container<E>, java.util.Collection<E> {
      */
     @Override
     default boolean remove(Object o) {
+        if (this instanceof DirectMatch)
+            return ((DirectMatch) this).removeOne(o);
         Iterator<E> it = getAll(o);
         if (!it.hasNext())
             return false;
@@ -160,6 +164,12 @@ public interface Collection<E> extends Container<E>, java.util.Collection<E> {
      */
     default boolean removeAll(Iterable<?> elements) {
         boolean modified = false;
+        if (this instanceof DirectMatch) {
+            DirectMatch match = (DirectMatch) this;
+            for (Object element : elements)
+                while (match.removeOne(element)) modified = true;
+            return modified;
+        }
         for (Object element : elements)
             for (Iterator<E> it = getAll(element); it.hasNext(); ) {
                 it.next(); it.remove(); modified = true;
@@ -0,0 +1,490 @@
+package org.moodminds.elemental;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+import static java.lang.String.format;
+
+/**
+ * An immutable {@link Sequence} of {@link Tuple} rows of the same width from {@code 2} to {@code 8},
+ * stored column-wise: each tuple position is kept in its own array, so there are no per row objects.
+ * The columns declared of the {@code int} and {@code long} types are kept in the primitive arrays,
+ * the others in the {@code Object} arrays.
+ * <p>
+ * The {@link #get(int)} method and the iterators return the flyweight {@link Tuple} views of the rows,
+ * implementing the {@link Tuple2}...{@link Tuple8} interface of the width and reading the column arrays
+ * on each access. The columns are accessible directly by the {@link #get(int, int)}, {@link #getInt(int, int)}
+ * and {@link #getLong(int, int)} methods, and the primitive columns as a whole by the {@link #intColumn(int)}
+ * and {@link #longColumn(int)} methods, which share the column arrays, so the per column scans and aggregations
+ * read a single array linearly. The {@link #sub(int, int)} views are created in constant time and share
+ * the columns as well.
+ * <p>
+ * A row view is equal to any {@link Tuple} of the same width and the equal values at each position,
+ * and its hash code is {@code 31 * h + hash} of its values, like the one of a {@link java.util.List}.
+ *
+ * @param <T> the type of the row tuples
+ */
+public final class ColumnarTupleSequence<T extends Tuple> implements Sequence<T>, RandomGet, DirectMatch {
+
+    private final Object[] columns; // int[], long[] or Object[] each
+    private final int offset, size;
+
+    private ColumnarTupleSequence(Object[] columns, int offset, int size) {
+        this.columns = columns; this.offset = offset; this.size = size;
+    }
+
+    /**
+     * Return a new {@link Builder} of the Sequence of the specified column types.
+     *
+     * @param types the types of the columns, {@code int.class} and {@code long.class} declaring the primitive ones
+     * @return a new {@link Builder} of the Sequence of the specified column types
+     * @throws IllegalArgumentException if the number of the types is less than {@code 2} or greater than {@code 8}
+     * @param <T> the type of the row tuples
+     */
+    public static <T extends Tuple> Builder<T> builder(Class<?>... types) {
+        return new Builder<>(types);
+    }
+
+    /**
+     * Return the Sequence of the specified column types of the tuples of the given {@link Iterable}.
+     *
+     * @param types the types of the columns, {@code int.class} and {@code long.class} declaring the primitive ones
+     * @param tuples the given {@link Iterable} of tuples
+     * @return the Sequence of the specified column types of the tuples of the given {@link Iterable}
+     * @throws IllegalArgumentException if the number of the types is less than {@code 2} or greater than {@code 8},
+     *         or a tuple is of a different width
+     * @param <T> the type of the row tuples
+     */
+    public static <T extends Tuple> ColumnarTupleSequence<T> sequence(Class<?>[] types, Iterable<? extends T> tuples) {
+        return ColumnarTupleSequence.<T>builder(types).addAll(tuples).build();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R extends T> R get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, size));
+        return (R) row(offset + index);
+    }
+
+    /**
+     * Return the value of the specified column at the specified row.
+     *
+     * @param index the index of the row
+     * @param column the index of the column
+     * @return the value of the specified column at the specified row
+     * @throws IndexOutOfBoundsException if the row or the column index is out of range
+     * @param <R> the type of return value
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R get(int index, int column) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, size));
+        return (R) value(column(column), offset + index);
+    }
+
+    /**
+     * Return the value of the specified {@code int} column at the specified row.
+     *
+     * @param index the index of the row
+     * @param column the index of the column
+     * @return the value of the specified {@code int} column at the specified row
+     * @throws IndexOutOfBoundsException if the row or the column index is out of range
+     * @throws IllegalArgumentException if the column is not an {@code int} one
+     */
+    public int getInt(int index, int column) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, size));
+        return ints(column)[offset + index];
+    }
+
+    /**
+     * Return the value of the specified {@code long} column at the specified row.
+     *
+     * @param index the index of the row
+     * @param column the index of the column
+     * @return the value of the specified {@code long} column at the specified row
+     * @throws IndexOutOfBoundsException if the row or the column index is out of range
+     * @throws IllegalArgumentException if the column is not a {@code long} one
+     */
+    public long getLong(int index, int column) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, size));
+        return longs(column)[offset + index];
+    }
+
+    /**
+     * Return the {@link IntSequence} of the specified {@code int} column, sharing the column array.
+     *
+     * @param column the index of the column
+     * @return the {@link IntSequence} of the specified {@code int} column
+     * @throws IndexOutOfBoundsException if the column index is out of range
+     * @throws IllegalArgumentException if the column is not an {@code int} one
+     */
+    public IntSequence intColumn(int column) {
+        return new IntArraySequence(ints(column), offset, size);
+    }
+
+    /**
+     * Return the {@link LongSequence} of the specified {@code long} column, sharing the column array.
+     *
+     * @param column the index of the column
+     * @return the {@link LongSequence} of the specified {@code long} column
+     * @throws IndexOutOfBoundsException if the column index is out of range
+     * @throws IllegalArgumentException if the column is not a {@code long} one
+     */
+    public LongSequence longColumn(int column) {
+        return new LongArraySequence(longs(column), offset, size);
+    }
+
+    /**
+     * Return the width of the row tuples.
+     *
+     * @return the width of the row tuples
+     */
+    public int width() {
+        return columns.length;
+    }
+
+    @Override
+    public int getCount(Object o) {
+        if (!(o instanceof Tuple) || ((Tuple) o).width() != columns.length) return 0;
+        int count = 0;
+        for (int i = offset, end = offset + size; i < end; i++)
+            if (matches(i, (Tuple) o)) count++;
+        return count;
+    }
+
+    @Override
+    public boolean containsOne(Object o) {
+        if (!(o instanceof Tuple) || ((Tuple) o).width() != columns.length) return false;
+        for (int i = offset, end = offset + size; i < end; i++)
+            if (matches(i, (Tuple) o)) return true;
+        return false;
+    }
+
+    @Override
+    public Iterator<T> getAll(Object o) {
+        Tuple tuple = o instanceof Tuple && ((Tuple) o).width() == columns.length ? (Tuple) o : null;
+        return new Iterator<T>() {
+            int index = seek(offset);
+            @Override public boolean hasNext() { return index >= 0; }
+            @Override @SuppressWarnings("unchecked") public T next() {
+                if (index < 0) throw new NoSuchElementException();
+                T next = (T) row(index); index = seek(index + 1); return next; }
+            private int seek(int from) {
+                if (tuple != null)
+                    for (int i = from, end = offset + size; i < end; i++)
+                        if (matches(i, tuple)) return i;
+                return -1; }
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ColumnarTupleSequence<T> sub(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+            throw new IndexOutOfBoundsException(format("From: %d, To: %d, Size: %d", fromIndex, toIndex, size));
+        return new ColumnarTupleSequence<>(columns, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new RowIterator(0);
+    }
+
+    @Override
+    public SequenceIterator<T> iterator(int index) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, size));
+        return new RowIterator(index);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = offset, end = offset + size; i < end; i++)
+            hash = 31 * hash + hash(columns, i);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof Sequence)) return false;
+        Sequence<?> s = (Sequence<?>) obj;
+        if (s.size() != size) return false;
+        Iterator<?> it = s.iterator();
+        for (int i = offset, end = offset + size; i < end; i++) {
+            if (!it.hasNext()) return false;
+            Object o = it.next();
+            if (!(o instanceof Tuple) || ((Tuple) o).width() != columns.length || !matches(i, (Tuple) o))
+                return false;
+        }
+        return !it.hasNext();
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int i = offset, end = offset + size; i < end; i++)
+            joiner.add(row(i).toString());
+        return joiner.toString();
+    }
+
+    private Row row(int index) {
+        switch (columns.length) {
+            case 2: return new Row2(columns, index);
+            case 3: return new Row3(columns, index);
+            case 4: return new Row4(columns, index);
+            case 5: return new Row5(columns, index);
+            case 6: return new Row6(columns, index);
+            case 7: return new Row7(columns, index);
+            default: return new Row8(columns, index);
+        }
+    }
+
+    private boolean matches(int index, Tuple tuple) {
+        for (int c = 0; c < columns.length; c++)
+            if (!Objects.equals(value(columns[c], index), tuple.get(c))) return false;
+        return true;
+    }
+
+    private Object column(int column) {
+        if (column < 0 || column >= columns.length)
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", column, columns.length));
+        return columns[column];
+    }
+
+    private int[] ints(int column) {
+        Object values = column(column);
+        if (!(values instanceof int[]))
+            throw new IllegalArgumentException(format("Not an int column: %d", column));
+        return (int[]) values;
+    }
+
+    private long[] longs(int column) {
+        Object values = column(column);
+        if (!(values instanceof long[]))
+            throw new IllegalArgumentException(format("Not a long column: %d", column));
+        return (long[]) values;
+    }
+
+    static Object value(Object column, int index) {
+        if (column instanceof int[]) return ((int[]) column)[index];
+        if (column instanceof long[]) return ((long[]) column)[index];
+        return ((Object[]) column)[index];
+    }
+
+    static int hash(Object[] columns, int index) {
+        int hash = 1;
+        for (Object column : columns) {
+            int h;
+            if (column instanceof int[]) h = Integer.hashCode(((int[]) column)[index]);
+            else if (column instanceof long[]) h = Long.hashCode(((long[]) column)[index]);
+            else h = Objects.hashCode(((Object[]) column)[index]);
+            hash = 31 * hash + h;
+        }
+        return hash;
+    }
+
+
+    /**
+     * A builder of {@link ColumnarTupleSequence}s, appending the rows to the growing column arrays.
+     * The Builder may be used further after the {@link #build()} method, which copies the columns.
+     * <p>
+     * This class is not synchronized.
+     *
+     * @param <T> the type of the row tuples
+     */
+    public static final class Builder<T extends Tuple> {
+
+        private final Object[] columns;
+        private int size, capacity = 16;
+
+        Builder(Class<?>[] types) {
+            if (types.length < 2 || types.length > 8)
+                throw new IllegalArgumentException(format("Illegal width: %d", types.length));
+            this.columns = new Object[types.length];
+            for (int c = 0; c < types.length; c++)
+                columns[c] = types[c] == int.class ? new int[16]
+                        : types[c] == long.class ? new long[16] : new Object[16];
+        }
+
+        /**
+         * Append the row of the values of the specified tuple.
+         *
+         * @param tuple the specified tuple
+         * @return this Builder
+         * @throws IllegalArgumentException if the tuple is of a different width
+         * @throws NullPointerException if a value of a primitive column is {@code null}
+         * @throws ClassCastException if a value of a primitive column is not an {@link Integer} or a {@link Long}
+         */
+        public Builder<T> add(T tuple) {
+            if (tuple.width() != columns.length)
+                throw new IllegalArgumentException(format("Illegal width: %d", tuple.width()));
+            grow();
+            for (int c = 0; c < columns.length; c++) set(columns[c], size, tuple.get(c));
+            size++;
+            return this;
+        }
+
+        /**
+         * Append the row of the specified values.
+         *
+         * @param values the specified values, one per column
+         * @return this Builder
+         * @throws IllegalArgumentException if the number of the values differs from the number of the columns
+         * @throws NullPointerException if a value of a primitive column is {@code null}
+         * @throws ClassCastException if a value of a primitive column is not an {@link Integer} or a {@link Long}
+         */
+        public Builder<T> addValues(Object... values) {
+            if (values.length != columns.length)
+                throw new IllegalArgumentException(format("Illegal width: %d", values.length));
+            grow();
+            for (int c = 0; c < columns.length; c++) set(columns[c], size, values[c]);
+            size++;
+            return this;
+        }
+
+        /**
+         * Append the rows of the tuples of the given {@link Iterable}.
+         *
+         * @param tuples the given {@link Iterable} of tuples
+         * @return this Builder
+         * @throws IllegalArgumentException if a tuple is of a different width
+         */
+        public Builder<T> addAll(Iterable<? extends T> tuples) {
+            for (T tuple : tuples) add(tuple);
+            return this;
+        }
+
+        /**
+         * Return the number of the rows.
+         *
+         * @return the number of the rows
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Return the {@link ColumnarTupleSequence} of the current rows.
+         *
+         * @return the {@link ColumnarTupleSequence} of the current rows
+         */
+        public ColumnarTupleSequence<T> build() {
+            Object[] columns = new Object[this.columns.length];
+            for (int c = 0; c < columns.length; c++) columns[c] = copy(this.columns[c], size);
+            return new ColumnarTupleSequence<>(columns, 0, size);
+        }
+
+        private void grow() {
+            if (size == capacity) {
+                capacity += capacity >> 1;
+                for (int c = 0; c < columns.length; c++) columns[c] = copy(columns[c], capacity);
+            }
+        }
+
+        private static void set(Object column, int index, Object value) {
+            if (column instanceof int[]) ((int[]) column)[index] = (Integer) value;
+            else if (column instanceof long[]) ((long[]) column)[index] = (Long) value;
+            else ((Object[]) column)[index] = value;
+        }
+
+        private static Object copy(Object column, int length) {
+            if (column instanceof int[]) return Arrays.copyOf((int[]) column, length);
+            if (column instanceof long[]) return Arrays.copyOf((long[]) column, length);
+            return Arrays.copyOf((Object[]) column, length);
+        }
+    }
+
+    /**
+     * The flyweight {@link Tuple} view of a row, reading the column arrays.
+     */
+    private abstract static class Row implements Tuple {
+
+        final Object[] columns; final int index;
+
+        Row(Object[] columns, int index) {
+            this.columns = columns; this.index = index;
+        }
+
+        @Override @SuppressWarnings("unchecked") public <R> R get(int position) {
+            if (position < 0 || position >= columns.length)
+                throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", position, columns.length));
+            return (R) value(columns[position], index); }
+
+        @Override public int hashCode() { return hash(columns, index); }
+
+        @Override public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (!(obj instanceof Tuple) || ((Tuple) obj).width() != columns.length) return false;
+            Tuple tuple = (Tuple) obj;
+            for (int c = 0; c < columns.length; c++)
+                if (!Objects.equals(value(columns[c], index), tuple.get(c))) return false;
+            return true; }
+
+        @Override public String toString() {
+            StringJoiner joiner = new StringJoiner(", ", "(", ")");
+            for (Object column : columns) joiner.add(String.valueOf(value(column, index)));
+            return joiner.toString(); }
+    }
+
+    private static final class Row2 extends Row implements Tuple2<Object, Object> {
+        Row2(Object[] columns, int index) { super(columns, index); }
+    }
+
+    private static final class Row3 extends Row implements Tuple3<Object, Object, Object> {
+        Row3(Object[] columns, int index) { super(columns, index); }
+    }
+
+    private static final class Row4 extends Row implements Tuple4<Object, Object, Object, Object> {
+        Row4(Object[] columns, int index) { super(columns, index); }
+    }
+
+    private static final class Row5 extends Row implements Tuple5<Object, Object, Object, Object, Object> {
+        Row5(Object[] columns, int index) { super(columns, index); }
+    }
+
+    private static final class Row6 extends Row implements Tuple6<Object, Object, Object, Object, Object, Object> {
+        Row6(Object[] columns, int index) { super(columns, index); }
+    }
+
+    private static final class Row7 extends Row implements Tuple7<Object, Object, Object, Object, Object, Object, Object> {
+        Row7(Object[] columns, int index) { super(columns, index); }
+    }
+
+    private static final class Row8 extends Row implements Tuple8<Object, Object, Object, Object, Object, Object, Object, Object> {
+        Row8(Object[] columns, int index) { super(columns, index); }
+    }
+
+    /**
+     * The {@link SequenceIterator} over the row views of this Sequence.
+     */
+    private final class RowIterator implements SequenceIterator<T> {
+
+        private int index;
+
+        private RowIterator(int index) {
+            this.index = index;
+        }
+
+        @Override public boolean hasNext() { return index < size; }
+
+        @Override @SuppressWarnings("unchecked") public T next() {
+            if (index >= size) throw new NoSuchElementException();
+            return (T) row(offset + index++); }
+
+        @Override public int nextIndex() { return index; }
+
+        @Override public void remove() { throw new UnsupportedOperationException("remove"); }
+    }
+}
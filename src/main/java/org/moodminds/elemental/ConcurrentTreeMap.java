@@ -0,0 +1,1073 @@
+package org.moodminds.elemental;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.requireNonNull;
+import static java.util.Spliterator.DISTINCT;
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * A lock-free {@link ConcurrentNavigableMap} of a persistent weight balanced tree. The map is sorted
+ * according to the {@linkplain Comparable natural ordering} of its keys, or by a {@link Comparator}
+ * provided at construction time, and does not permit the {@code null} keys and values.
+ * <p>
+ * The tree nodes are immutable and keep the sizes of their subtrees, which both balance the tree
+ * and rank the keys. An update copies the path from the root to the updated node and installs
+ * the new root by a compare-and-set, retrying on a concurrent update, so the retrievals take no locks
+ * and every operation sees a consistent snapshot of the whole map. The {@link #get(Object)},
+ * {@link #put(Object, Object)}, {@link #remove(Object)} and the navigation methods take logarithmic time.
+ * The functions of the {@link #compute}, {@link #computeIfAbsent}, {@link #computeIfPresent} and
+ * {@link #merge} methods may be applied more than once under contention.
+ * <p>
+ * The range and descending views are created in constant time and are backed by this map. The
+ * {@link #size()} of a range view takes logarithmic time, as it is the difference of the ranks of its bounds.
+ * The iterators and the bulk operations traverse the snapshot taken at their start, never throwing
+ * {@link java.util.ConcurrentModificationException}, while the {@link #snapshot()} copy of the map is
+ * taken in constant time. The entries returned by the iterators and the navigation methods are
+ * the immutable snapshots of the mappings.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public class ConcurrentTreeMap<K, V> implements ConcurrentNavigableMap<K, V> {
+
+    /**
+     * The weight ratio of the sibling subtrees beyond which they are rebalanced by a rotation.
+     */
+    static final int DELTA = 3;
+
+    /**
+     * The weight ratio of the inner subtrees of the heavier sibling beyond which the rotation is double.
+     */
+    static final int RATIO = 2;
+
+    /**
+     * The value of the absent mapping in the tree updates.
+     */
+    static final Object ABSENT = new Object();
+
+    final Tree<K> tree;
+    final boolean fromStart, loInclusive, toEnd, hiInclusive, descending;
+    final K lo, hi;
+
+    /**
+     * Construct an empty map, sorted according to the natural ordering of its keys.
+     */
+    public ConcurrentTreeMap() {
+        this((Comparator<? super K>) null);
+    }
+
+    /**
+     * Construct an empty map, sorted according to the specified comparator.
+     *
+     * @param comparator the comparator to sort the keys, or {@code null} for the natural ordering
+     */
+    public ConcurrentTreeMap(Comparator<? super K> comparator) {
+        this(new Tree<>(comparator, null), true, null, true, true, null, true, false);
+    }
+
+    /**
+     * Construct a map of the mappings of the given {@link java.util.Map},
+     * sorted according to the natural ordering of its keys.
+     *
+     * @param m the given {@link java.util.Map}
+     * @throws ClassCastException if the keys are not mutually comparable
+     * @throws NullPointerException if any of the keys or values is {@code null}
+     */
+    public ConcurrentTreeMap(java.util.Map<? extends K, ? extends V> m) {
+        this(); putAll(m);
+    }
+
+    /**
+     * Construct a map of the mappings of the given {@link java.util.SortedMap}, sorted according
+     * to the same ordering. The map is built in linear time.
+     *
+     * @param m the given {@link java.util.SortedMap}
+     * @throws NullPointerException if any of the keys or values is {@code null}
+     */
+    public ConcurrentTreeMap(java.util.SortedMap<K, ? extends V> m) {
+        this(m.comparator()); putAll(m);
+    }
+
+    private ConcurrentTreeMap(Tree<K> tree, boolean fromStart, K lo, boolean loInclusive,
+                              boolean toEnd, K hi, boolean hiInclusive, boolean descending) {
+        if (!fromStart && !toEnd) {
+            if (tree.compare(lo, hi) > 0)
+                throw new IllegalArgumentException("fromKey > toKey");
+        } else {
+            if (!fromStart) tree.compare(lo, lo);
+            if (!toEnd) tree.compare(hi, hi);
+        }
+        this.tree = tree; this.descending = descending;
+        this.fromStart = fromStart; this.lo = lo; this.loInclusive = loInclusive;
+        this.toEnd = toEnd; this.hi = hi; this.hiInclusive = hiInclusive;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (!inRange(key)) return null;
+        Node node = tree.find(tree.get(), key); return node != null ? (V) node.value : null;
+    }
+
+    @Override
+    public int getCount(Object o) {
+        KeyValue<?, ?> kv = (KeyValue<?, ?>) o; return contains(kv.getKey(), kv.getValue()) ? 1 : 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<Map.Entry<K, V>> getAll(Object o) {
+        KeyValue<K, ?> kv = (KeyValue<K, ?>) o; K key = kv.getKey();
+        return contains(key, kv.getValue()) ? single(key).iterator() : emptyIterator();
+    }
+
+    @Override
+    public boolean contains(Object key, Object value) {
+        V v = get(key); return v != null && v.equals(value);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return inRange(key) && tree.find(tree.get(), key) != null;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        requireNonNull(value);
+        for (Iterator<Node> it = nodeIterator(tree.get()); it.hasNext(); )
+            if (value.equals(it.next().value)) return true;
+        return false;
+    }
+
+    @Override
+    public boolean contains() {
+        return !isEmpty();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        Node root = tree.get(); return fromStart && toEnd ? root == null : absLowest(root) == null;
+    }
+
+    /**
+     * Return the number of mappings in this map. Takes logarithmic time if this map
+     * is a range restricted view.
+     *
+     * @return the number of mappings in this map
+     */
+    @Override
+    public int size() {
+        return size(tree.get());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        requireNonNull(value); checkRange(key);
+        return (V) orNull(update(key, (k, v) -> value).old);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(K key, V value) {
+        requireNonNull(value); checkRange(key);
+        return (V) orNull(update(key, (k, v) -> v != ABSENT ? v : value).old);
+    }
+
+    /**
+     * Copy all the mappings from the specified map to this map. If this map is empty and the specified
+     * map is a {@link java.util.SortedMap} of the same ordering, this map is built in linear time.
+     *
+     * @param m the mappings to be stored in this map
+     * @throws ClassCastException if a key cannot be compared with the keys of this map
+     * @throws NullPointerException if the specified map is {@code null}, or a key or a value is {@code null}
+     * @throws IllegalArgumentException if a key is out of range of this view
+     */
+    @Override
+    public void putAll(java.util.Map<? extends K, ? extends V> m) {
+        if (fromStart && toEnd && m instanceof java.util.SortedMap && tree.get() == null
+                && java.util.Objects.equals(tree.comparator, ((java.util.SortedMap<?, ?>) m).comparator())) {
+            Object[] keys = new Object[m.size()], values = new Object[m.size()]; int size = 0;
+            for (java.util.Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+                keys[size] = requireNonNull(entry.getKey()); values[size++] = requireNonNull(entry.getValue()); }
+            if (size == keys.length && tree.compareAndSet(null, Tree.build(keys, values, 0, size))) return;
+        }
+        for (java.util.Map.Entry<? extends K, ? extends V> entry : m.entrySet())
+            put(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (!inRange(key)) return null;
+        return (V) orNull(update(key, (k, v) -> ABSENT).old);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (value == null || !inRange(key)) return false;
+        Update update = update(key, (k, v) -> value.equals(v) ? ABSENT : v);
+        return update.old != ABSENT && update.value == ABSENT;
+    }
+
+    /**
+     * Return the value associated with the key, as the keys are not replaced by this map.
+     *
+     * @param key the key
+     * @return the value associated with the key, or {@code null} if there was no mapping for the key
+     */
+    @Override
+    public V replace(K key) {
+        return get(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V replace(K key, V value) {
+        requireNonNull(value);
+        if (!inRange(key)) return null;
+        return (V) orNull(update(key, (k, v) -> v != ABSENT ? value : ABSENT).old);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        requireNonNull(oldValue); requireNonNull(newValue);
+        if (!inRange(key)) return false;
+        Update update = update(key, (k, v) -> oldValue.equals(v) ? newValue : v);
+        return update.old != ABSENT && oldValue.equals(update.old);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        requireNonNull(mappingFunction); checkRange(key);
+        return (V) orNull(update(key, (k, v) -> v != ABSENT ? v : orAbsent(mappingFunction.apply((K) k))).value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        requireNonNull(remappingFunction);
+        if (!inRange(key)) return null;
+        return (V) orNull(update(key, (k, v) -> v == ABSENT ? ABSENT : orAbsent(remappingFunction.apply((K) k, (V) v))).value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        requireNonNull(remappingFunction); checkRange(key);
+        return (V) orNull(update(key, (k, v) -> orAbsent(remappingFunction.apply((K) k, (V) orNull(v)))).value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        requireNonNull(value); requireNonNull(remappingFunction); checkRange(key);
+        return (V) orNull(update(key, (k, v) -> v == ABSENT ? value : orAbsent(remappingFunction.apply((V) v, value))).value);
+    }
+
+    @Override
+    public void clear() {
+        if (fromStart && toEnd) tree.set(null);
+        else for (Iterator<K> it = keyIterator(tree.get()); it.hasNext(); ) {
+            it.next(); it.remove();
+        }
+    }
+
+    @Override
+    public K firstKey() {
+        return key(firstNode(tree.get()));
+    }
+
+    @Override
+    public K lastKey() {
+        return key(lastNode(tree.get()));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOrNull(lowerNode(tree.get(), key));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOrNull(floorNode(tree.get(), key));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOrNull(ceilingNode(tree.get(), key));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOrNull(higherNode(tree.get(), key));
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return entry(firstNode(tree.get()));
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return entry(lastNode(tree.get()));
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return entry(lowerNode(tree.get(), key));
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return entry(floorNode(tree.get(), key));
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return entry(ceilingNode(tree.get(), key));
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return entry(higherNode(tree.get(), key));
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return poll(false);
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return poll(true);
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return descending ? Collections.reverseOrder(tree.comparator) : tree.comparator;
+    }
+
+    @Override
+    public NavigableSet<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new KeySet();
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new Values();
+    }
+
+    @Override
+    public Set<java.util.Map.Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    @Override
+    public ConcurrentTreeMap<K, V> descendingMap() {
+        return new ConcurrentTreeMap<>(tree, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+    }
+
+    @Override
+    public ConcurrentTreeMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        requireNonNull(fromKey); requireNonNull(toKey);
+        if (descending) {
+            K key = fromKey; fromKey = toKey; toKey = key;
+            boolean inclusive = fromInclusive; fromInclusive = toInclusive; toInclusive = inclusive;
+        }
+        if (!inRange(fromKey, fromInclusive))
+            throw new IllegalArgumentException("fromKey out of range");
+        if (!inRange(toKey, toInclusive))
+            throw new IllegalArgumentException("toKey out of range");
+        return new ConcurrentTreeMap<>(tree, false, fromKey, fromInclusive, false, toKey, toInclusive, descending);
+    }
+
+    @Override
+    public ConcurrentTreeMap<K, V> headMap(K toKey, boolean inclusive) {
+        requireNonNull(toKey);
+        if (!inRange(toKey, inclusive))
+            throw new IllegalArgumentException("toKey out of range");
+        return descending ? new ConcurrentTreeMap<>(tree, false, toKey, inclusive, toEnd, hi, hiInclusive, true)
+                : new ConcurrentTreeMap<>(tree, fromStart, lo, loInclusive, false, toKey, inclusive, false);
+    }
+
+    @Override
+    public ConcurrentTreeMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        requireNonNull(fromKey);
+        if (!inRange(fromKey, inclusive))
+            throw new IllegalArgumentException("fromKey out of range");
+        return descending ? new ConcurrentTreeMap<>(tree, fromStart, lo, loInclusive, false, fromKey, inclusive, true)
+                : new ConcurrentTreeMap<>(tree, false, fromKey, inclusive, toEnd, hi, hiInclusive, false);
+    }
+
+    @Override
+    public ConcurrentTreeMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public ConcurrentTreeMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public ConcurrentTreeMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    @Override
+    public ConcurrentTreeMap<K, V> descending() {
+        return descendingMap();
+    }
+
+    @Override
+    public ConcurrentTreeMap<K, V> sub(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public ConcurrentTreeMap<K, V> head(K toKey, boolean inclusive) {
+        return headMap(toKey, inclusive);
+    }
+
+    @Override
+    public ConcurrentTreeMap<K, V> tail(K fromKey, boolean inclusive) {
+        return tailMap(fromKey, inclusive);
+    }
+
+    @Override
+    public ConcurrentTreeMap<K, V> sub(K fromKey, K toKey) {
+        return subMap(fromKey, toKey);
+    }
+
+    @Override
+    public ConcurrentTreeMap<K, V> head(K toKey) {
+        return headMap(toKey);
+    }
+
+    @Override
+    public ConcurrentTreeMap<K, V> tail(K fromKey) {
+        return tailMap(fromKey);
+    }
+
+    /**
+     * Return an independent copy of this map, or of the current mappings of this range or descending view
+     * restricted to the same range and order. Takes constant time, as the copy shares the immutable tree
+     * nodes with this map.
+     *
+     * @return an independent copy of this map
+     */
+    public ConcurrentTreeMap<K, V> snapshot() {
+        return new ConcurrentTreeMap<>(new Tree<>(tree.comparator, tree.get()),
+                fromStart, lo, loInclusive, toEnd, hi, hiInclusive, descending);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return entryIterator(tree.get());
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        Node root = tree.get();
+        return java.util.Spliterators.spliterator(entryIterator(root), size(root), DISTINCT | ORDERED);
+    }
+
+    /**
+     * Perform the given action for each mapping of the snapshot of this map in the iteration order,
+     * not creating the entries.
+     *
+     * @param action the action to be performed for each mapping
+     * @throws NullPointerException if the specified action is {@code null}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        requireNonNull(action);
+        for (Iterator<Node> it = nodeIterator(tree.get()); it.hasNext(); ) {
+            Node node = it.next(); action.accept((K) node.key, (V) node.value); }
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (Iterator<Node> it = nodeIterator(tree.get()); it.hasNext(); ) {
+            Node node = it.next(); hash += node.key.hashCode() ^ node.value.hashCode(); }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof java.util.Map)) return false;
+        java.util.Map<?, ?> m = (java.util.Map<?, ?>) obj; Node root = tree.get();
+        if (m.size() != size(root)) return false;
+        try {
+            for (Iterator<Node> it = nodeIterator(root); it.hasNext(); ) {
+                Node node = it.next(); if (!node.value.equals(m.get(node.key))) return false; }
+        } catch (ClassCastException | NullPointerException e) {
+            return false;
+        } return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (Iterator<Node> it = nodeIterator(tree.get()); it.hasNext(); ) {
+            Node node = it.next();
+            joiner.add((node.key == this ? "(this Map)" : String.valueOf(node.key))
+                    + "=" + (node.value == this ? "(this Map)" : String.valueOf(node.value)));
+        } return joiner.toString();
+    }
+
+    /**
+     * Return the view of the single mapping of the specified key of this map.
+     *
+     * @param key the specified key
+     * @return the view of the single mapping of the specified key of this map
+     */
+    final ConcurrentTreeMap<K, V> single(K key) {
+        return new ConcurrentTreeMap<>(tree, false, key, true, false, key, true, false);
+    }
+
+    /**
+     * Return the number of mappings of the given tree snapshot within the bounds of this view,
+     * as the difference of the ranks of the bounds.
+     */
+    final int size(Node root) {
+        if (root == null) return 0;
+        int high = toEnd ? root.size : tree.rank(root, hi, hiInclusive);
+        int low = fromStart ? 0 : tree.rank(root, lo, !loInclusive);
+        return Math.max(high - low, 0);
+    }
+
+    /**
+     * Apply the given function to the current value of the key, or to {@link #ABSENT} if there is none,
+     * and install the tree of its result, which is the new value or {@link #ABSENT} to remove the mapping,
+     * retrying on a concurrent update.
+     *
+     * @return the update holding the value the function was applied to and its result
+     */
+    final Update update(Object key, BiFunction<Object, Object, Object> function) {
+        Update update = new Update(requireNonNull(key), function);
+        for (Node root = tree.get(), updated; ; root = tree.get())
+            if ((updated = tree.update(root, update)) == root || tree.compareAndSet(root, updated))
+                return update;
+    }
+
+    final Map.Entry<K, V> poll(boolean last) {
+        for (Node root = tree.get(); ; root = tree.get()) {
+            Node node = last ? lastNode(root) : firstNode(root);
+            if (node == null) return null;
+            if (tree.compareAndSet(root, tree.update(root, new Update(node.key, (k, v) -> ABSENT))))
+                return entry(node);
+        }
+    }
+
+    final Iterator<Node> nodeIterator(Node root) {
+        return new TreeIterator<Node>(root) {
+            @Override Node element(Node node) { return node; }
+        };
+    }
+
+    final Iterator<Map.Entry<K, V>> entryIterator(Node root) {
+        return new TreeIterator<Map.Entry<K, V>>(root) {
+            @Override Map.Entry<K, V> element(Node node) { return entry(node); }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    final Iterator<K> keyIterator(Node root) {
+        return new TreeIterator<K>(root) {
+            @Override K element(Node node) { return (K) node.key; }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    final Iterator<V> valueIterator(Node root) {
+        return new TreeIterator<V>(root) {
+            @Override V element(Node node) { return (V) node.value; }
+        };
+    }
+
+    final Node firstNode(Node root) { return descending ? absHighest(root) : absLowest(root); }
+    final Node lastNode(Node root) { return descending ? absLowest(root) : absHighest(root); }
+    final Node lowerNode(Node root, Object key) { return descending ? absCeiling(root, key, false) : absFloor(root, key, false); }
+    final Node floorNode(Node root, Object key) { return descending ? absCeiling(root, key, true) : absFloor(root, key, true); }
+    final Node ceilingNode(Node root, Object key) { return descending ? absFloor(root, key, true) : absCeiling(root, key, true); }
+    final Node higherNode(Node root, Object key) { return descending ? absFloor(root, key, false) : absCeiling(root, key, false); }
+
+    final Node absLowest(Node root) {
+        Node node = fromStart ? Tree.first(root) : tree.ceiling(root, lo, loInclusive);
+        return node == null || tooHigh(node.key) ? null : node;
+    }
+
+    final Node absHighest(Node root) {
+        Node node = toEnd ? Tree.last(root) : tree.floor(root, hi, hiInclusive);
+        return node == null || tooLow(node.key) ? null : node;
+    }
+
+    final Node absCeiling(Node root, Object key, boolean inclusive) {
+        if (tooLow(requireNonNull(key))) return absLowest(root);
+        Node node = tree.ceiling(root, key, inclusive); return node == null || tooHigh(node.key) ? null : node;
+    }
+
+    final Node absFloor(Node root, Object key, boolean inclusive) {
+        if (tooHigh(requireNonNull(key))) return absHighest(root);
+        Node node = tree.floor(root, key, inclusive); return node == null || tooLow(node.key) ? null : node;
+    }
+
+    final boolean tooLow(Object key) {
+        if (!fromStart) {
+            int c = tree.compare(key, lo);
+            return c < 0 || (c == 0 && !loInclusive);
+        } return false;
+    }
+
+    final boolean tooHigh(Object key) {
+        if (!toEnd) {
+            int c = tree.compare(key, hi);
+            return c > 0 || (c == 0 && !hiInclusive);
+        } return false;
+    }
+
+    final boolean inRange(Object key) {
+        return !tooLow(requireNonNull(key)) && !tooHigh(key);
+    }
+
+    final boolean inRange(Object key, boolean inclusive) {
+        return inclusive ? inRange(key) : (fromStart || tree.compare(key, lo) >= 0)
+                && (toEnd || tree.compare(hi, key) >= 0);
+    }
+
+    final void checkRange(Object key) {
+        if (!inRange(key))
+            throw new IllegalArgumentException("key out of range");
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> Map.Entry<K, V> entry(Node node) {
+        return node != null ? new SimpleEntry<>((K) node.key, (V) node.value) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K> K key(Node node) {
+        if (node == null) throw new NoSuchElementException(); return (K) node.key;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K> K keyOrNull(Node node) {
+        return node != null ? (K) node.key : null;
+    }
+
+    static Object orNull(Object value) {
+        return value != ABSENT ? value : null;
+    }
+
+    static Object orAbsent(Object value) {
+        return value != null ? value : ABSENT;
+    }
+
+
+    /**
+     * An iterator over the nodes of a tree snapshot in ascending or descending order within the bounds
+     * of this view, keeping the stack of the ancestors of the next node.
+     *
+     * @param <T> the type of elements
+     */
+    abstract class TreeIterator<T> implements Iterator<T> {
+
+        final ArrayDeque<Node> stack = new ArrayDeque<>();
+        Node next, last;
+
+        TreeIterator(Node root) {
+            if (descending) {
+                for (Node node = root; node != null; )
+                    if (tooHigh(node.key)) node = node.left; else { stack.push(node); node = node.right; }
+            } else {
+                for (Node node = root; node != null; )
+                    if (tooLow(node.key)) node = node.right; else { stack.push(node); node = node.left; }
+            } advance();
+        }
+
+        abstract T element(Node node);
+
+        @Override public boolean hasNext() { return next != null; }
+
+        @Override public T next() {
+            Node node = next; if (node == null) throw new NoSuchElementException();
+            last = node; advance(); return element(node); }
+
+        @Override public void remove() {
+            if (last == null) throw new IllegalStateException();
+            ConcurrentTreeMap.this.remove(last.key); last = null; }
+
+        final void advance() {
+            Node node = next = stack.poll();
+            if (node == null) return;
+            if (descending) {
+                if (tooLow(node.key)) { next = null; return; }
+                for (node = node.left; node != null; node = node.right) stack.push(node);
+            } else {
+                if (tooHigh(node.key)) { next = null; return; }
+                for (node = node.right; node != null; node = node.left) stack.push(node);
+            }
+        }
+    }
+
+    /**
+     * The {@link NavigableSet} view of the keys of this map.
+     */
+    final class KeySet extends SetView<K> implements NavigableSet<K> {
+
+        @Override public boolean contains(Object o) { return containsKey(o); }
+
+        @Override @SuppressWarnings("unchecked") public Iterator<K> getAll(Object o) {
+            return containsKey(o) ? single((K) o).keyIterator(tree.get()) : emptyIterator(); }
+
+        @Override public boolean remove(Object o) { return ConcurrentTreeMap.this.remove(o) != null; }
+
+        @Override public Iterator<K> iterator() { return keyIterator(tree.get()); }
+        @Override public Iterator<K> descendingIterator() { return descendingMap().keyIterator(tree.get()); }
+        @Override public Comparator<? super K> comparator() { return ConcurrentTreeMap.this.comparator(); }
+
+        @Override public K first() { return firstKey(); }
+        @Override public K last() { return lastKey(); }
+        @Override public K lower(K k) { return lowerKey(k); }
+        @Override public K floor(K k) { return floorKey(k); }
+        @Override public K ceiling(K k) { return ceilingKey(k); }
+        @Override public K higher(K k) { return higherKey(k); }
+
+        @Override public Iterator<K> firstAll() { return run(firstNode(tree.get())); }
+        @Override public Iterator<K> lastAll() { return run(lastNode(tree.get())); }
+        @Override public Iterator<K> lowerAll(K k) { return run(lowerNode(tree.get(), k)); }
+        @Override public Iterator<K> floorAll(K k) { return run(floorNode(tree.get(), k)); }
+        @Override public Iterator<K> ceilingAll(K k) { return run(ceilingNode(tree.get(), k)); }
+        @Override public Iterator<K> higherAll(K k) { return run(higherNode(tree.get(), k)); }
+
+        @Override public K pollFirst() { Map.Entry<K, V> entry = pollFirstEntry(); return entry != null ? entry.getKey() : null; }
+        @Override public K pollLast() { Map.Entry<K, V> entry = pollLastEntry(); return entry != null ? entry.getKey() : null; }
+
+        @Override public NavigableSet<K> descendingSet() { return descendingKeySet(); }
+
+        @Override public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet(); }
+        @Override public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return headMap(toElement, inclusive).navigableKeySet(); }
+        @Override public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return tailMap(fromElement, inclusive).navigableKeySet(); }
+        @Override public NavigableSet<K> subSet(K fromElement, K toElement) {
+            return subMap(fromElement, toElement).navigableKeySet(); }
+        @Override public NavigableSet<K> headSet(K toElement) {
+            return headMap(toElement).navigableKeySet(); }
+        @Override public NavigableSet<K> tailSet(K fromElement) {
+            return tailMap(fromElement).navigableKeySet(); }
+
+        @SuppressWarnings("unchecked")
+        Iterator<K> run(Node node) {
+            return node != null ? single((K) node.key).keyIterator(tree.get()) : emptyIterator(); }
+    }
+
+    /**
+     * The {@link Set} view of the entries of this map.
+     */
+    final class EntrySet extends SetView<java.util.Map.Entry<K, V>> {
+
+        @Override public boolean contains(Object o) {
+            if (!(o instanceof java.util.Map.Entry)) return false;
+            java.util.Map.Entry<?, ?> entry = (java.util.Map.Entry<?, ?>) o;
+            return entry.getKey() != null && ConcurrentTreeMap.this.contains(entry.getKey(), entry.getValue()); }
+
+        @Override @SuppressWarnings("unchecked") public Iterator<java.util.Map.Entry<K, V>> getAll(Object o) {
+            return contains(o) ? cast(single(((java.util.Map.Entry<K, V>) o).getKey()).iterator()) : emptyIterator(); }
+
+        @Override public boolean remove(Object o) {
+            if (!(o instanceof java.util.Map.Entry)) return false;
+            java.util.Map.Entry<?, ?> entry = (java.util.Map.Entry<?, ?>) o;
+            return entry.getKey() != null && ConcurrentTreeMap.this.remove(entry.getKey(), entry.getValue()); }
+
+        @Override public Iterator<java.util.Map.Entry<K, V>> iterator() { return cast(ConcurrentTreeMap.this.iterator()); }
+
+        @SuppressWarnings("unchecked")
+        Iterator<java.util.Map.Entry<K, V>> cast(Iterator<Map.Entry<K, V>> iterator) {
+            return (Iterator<java.util.Map.Entry<K, V>>) (Iterator<?>) iterator; }
+    }
+
+    /**
+     * The base of the {@link Set} views of this map.
+     *
+     * @param <E> the type of elements
+     */
+    abstract class SetView<E> implements Set<E> {
+
+        @Override public int size() { return ConcurrentTreeMap.this.size(); }
+        @Override public boolean isEmpty() { return ConcurrentTreeMap.this.isEmpty(); }
+        @Override public boolean contains() { return ConcurrentTreeMap.this.contains(); }
+        @Override public boolean add(E e) { throw new UnsupportedOperationException(); }
+        @Override public void clear() { ConcurrentTreeMap.this.clear(); }
+
+        @Override public int hashCode() {
+            int hash = 0; for (E e : this) hash += e.hashCode(); return hash; }
+
+        @Override public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (!(obj instanceof java.util.Set)) return false;
+            java.util.Set<?> set = (java.util.Set<?>) obj;
+            if (set.size() != size()) return false;
+            try {
+                return containsAll(set);
+            } catch (ClassCastException | NullPointerException e) {
+                return false;
+            } }
+
+        @Override public String toString() {
+            StringJoiner joiner = new StringJoiner(", ", "[", "]");
+            for (E e : this) joiner.add(String.valueOf(e));
+            return joiner.toString(); }
+    }
+
+    /**
+     * The {@link Collection} view of the values of this map.
+     */
+    final class Values implements Collection<V> {
+
+        @Override public int size() { return ConcurrentTreeMap.this.size(); }
+        @Override public boolean isEmpty() { return ConcurrentTreeMap.this.isEmpty(); }
+        @Override public boolean contains() { return ConcurrentTreeMap.this.contains(); }
+        @Override public boolean add(V v) { throw new UnsupportedOperationException(); }
+        @Override public void clear() { ConcurrentTreeMap.this.clear(); }
+        @Override public Iterator<V> iterator() { return valueIterator(tree.get()); }
+
+        @Override public int getCount(Object o) {
+            int count = 0; for (Iterator<V> it = getAll(o); it.hasNext(); it.next()) count++; return count; }
+
+        @Override public Iterator<V> getAll(Object o) {
+            Iterator<V> values = iterator();
+            return new Iterator<V>() {
+                V next; boolean found;
+                @Override public boolean hasNext() {
+                    while (!found && values.hasNext())
+                        found = (next = values.next()).equals(o);
+                    return found; }
+                @Override public V next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    found = false; return next; }
+                @Override public void remove() { values.remove(); }
+            }; }
+
+        @Override public String toString() {
+            StringJoiner joiner = new StringJoiner(", ", "[", "]");
+            for (V v : this) joiner.add(String.valueOf(v));
+            return joiner.toString(); }
+    }
+
+    /**
+     * An update of the value of a key, holding the value the function was last applied to
+     * and its result.
+     */
+    static final class Update {
+
+        final Object key;
+        final BiFunction<Object, Object, Object> function;
+        Object old, value;
+
+        Update(Object key, BiFunction<Object, Object, Object> function) {
+            this.key = key; this.function = function;
+        }
+
+        Object apply(Object current) {
+            return value = function.apply(key, old = current);
+        }
+    }
+
+    /**
+     * An immutable tree node, keeping the size of its subtree.
+     */
+    static final class Node {
+
+        final Object key, value;
+        final Node left, right;
+        final int size;
+
+        Node(Object key, Object value, Node left, Node right) {
+            this.key = key; this.value = value; this.left = left; this.right = right;
+            this.size = size(left) + size(right) + 1;
+        }
+
+        static int size(Node node) {
+            return node != null ? node.size : 0;
+        }
+    }
+
+    /**
+     * The reference to the root of the current weight balanced tree, shared by the views.
+     * The balancing follows the weight balanced trees of Adams, where the sizes of the sibling
+     * subtrees differ at most by the {@link #DELTA} factor, so the height is logarithmic.
+     *
+     * @param <K> the type of keys
+     */
+    @SuppressWarnings("serial")
+    static final class Tree<K> extends AtomicReference<Node> {
+
+        final Comparator<? super K> comparator;
+
+        Tree(Comparator<? super K> comparator, Node root) {
+            super(root); this.comparator = comparator;
+        }
+
+        @SuppressWarnings("unchecked")
+        int compare(Object k1, Object k2) {
+            return comparator == null ? ((Comparable<Object>) k1).compareTo(k2)
+                    : comparator.compare((K) k1, (K) k2);
+        }
+
+        Node find(Node node, Object key) {
+            while (node != null) {
+                int c = compare(key, node.key);
+                if (c == 0) return node;
+                node = c < 0 ? node.left : node.right;
+            } return null;
+        }
+
+        Node ceiling(Node node, Object key, boolean inclusive) {
+            Node ceiling = null;
+            while (node != null) {
+                int c = compare(key, node.key);
+                if (c == 0 && inclusive) return node;
+                if (c < 0) { ceiling = node; node = node.left; } else node = node.right;
+            } return ceiling;
+        }
+
+        Node floor(Node node, Object key, boolean inclusive) {
+            Node floor = null;
+            while (node != null) {
+                int c = compare(key, node.key);
+                if (c == 0 && inclusive) return node;
+                if (c > 0) { floor = node; node = node.right; } else node = node.left;
+            } return floor;
+        }
+
+        /**
+         * Return the number of keys of the tree less than the given key, or not greater than it if inclusive.
+         */
+        int rank(Node node, Object key, boolean inclusive) {
+            int rank = 0;
+            while (node != null) {
+                int c = compare(key, node.key);
+                if (c < 0) node = node.left;
+                else if (c == 0) return rank + Node.size(node.left) + (inclusive ? 1 : 0);
+                else { rank += Node.size(node.left) + 1; node = node.right; }
+            } return rank;
+        }
+
+        /**
+         * Return the tree with the given update applied, copying the path to the key,
+         * or the same tree if the value of the key is not changed.
+         */
+        Node update(Node node, Update update) {
+            if (node == null) {
+                Object value = update.apply(ABSENT);
+                return value != ABSENT ? new Node(update.key, value, null, null) : null;
+            }
+            int c = compare(update.key, node.key);
+            if (c < 0) {
+                Node left = update(node.left, update);
+                return left == node.left ? node : balance(node.key, node.value, left, node.right);
+            }
+            if (c > 0) {
+                Node right = update(node.right, update);
+                return right == node.right ? node : balance(node.key, node.value, node.left, right);
+            }
+            Object value = update.apply(node.value);
+            if (value == node.value) return node;
+            return value != ABSENT ? new Node(node.key, value, node.left, node.right) : glue(node.left, node.right);
+        }
+
+        static Node first(Node node) {
+            if (node != null) while (node.left != null) node = node.left;
+            return node;
+        }
+
+        static Node last(Node node) {
+            if (node != null) while (node.right != null) node = node.right;
+            return node;
+        }
+
+        /**
+         * Return the perfectly balanced tree of the given sorted keys and values range.
+         */
+        static Node build(Object[] keys, Object[] values, int from, int to) {
+            if (from == to) return null;
+            int middle = (from + to) >>> 1;
+            return new Node(keys[middle], values[middle], build(keys, values, from, middle), build(keys, values, middle + 1, to));
+        }
+
+        /**
+         * Return the tree of the given node and subtrees, which were balanced before a single
+         * insertion or removal in one of them.
+         */
+        static Node balance(Object key, Object value, Node left, Node right) {
+            int ls = Node.size(left), rs = Node.size(right);
+            if (ls + rs > 1) {
+                if (rs > DELTA * ls) {
+                    Node rl = right.left, rr = right.right;
+                    if (Node.size(rl) < RATIO * Node.size(rr))
+                        return new Node(right.key, right.value, new Node(key, value, left, rl), rr);
+                    return new Node(rl.key, rl.value, new Node(key, value, left, rl.left),
+                            new Node(right.key, right.value, rl.right, rr));
+                }
+                if (ls > DELTA * rs) {
+                    Node ll = left.left, lr = left.right;
+                    if (Node.size(lr) < RATIO * Node.size(ll))
+                        return new Node(left.key, left.value, ll, new Node(key, value, lr, right));
+                    return new Node(lr.key, lr.value, new Node(left.key, left.value, ll, lr.left),
+                            new Node(key, value, lr.right, right));
+                }
+            } return new Node(key, value, left, right);
+        }
+
+        /**
+         * Return the tree of the given balanced sibling subtrees of a removed node,
+         * rooted by the nearest node of the larger one.
+         */
+        static Node glue(Node left, Node right) {
+            if (left == null) return right;
+            if (right == null) return left;
+            if (left.size > right.size) {
+                Node max = last(left); return balance(max.key, max.value, removeLast(left), right);
+            }
+            Node min = first(right); return balance(min.key, min.value, left, removeFirst(right));
+        }
+
+        static Node removeFirst(Node node) {
+            return node.left == null ? node.right : balance(node.key, node.value, removeFirst(node.left), node.right);
+        }
+
+        static Node removeLast(Node node) {
+            return node.right == null ? node.left : balance(node.key, node.value, node.left, removeLast(node.right));
+        }
+    }
+}
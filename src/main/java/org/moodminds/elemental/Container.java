@@ -129,6 +129,8 @@ public interface Container<V> extends Iterable<V> {
 
     /**
      * Determine whether this Container includes an element that matches the provided example.
+     * The default implementation calls the {@link DirectMatch#containsOne(Object)} method
+     * if this Container is a {@link DirectMatch}, or checks the {@link #getAll(Object)} iterator.
      *
      * @param o the object to be examined
      * @return {@code true} if this Container contains the examined element
@@ -138,7 +140,7 @@ public interface Container<V> extends Iterable<V> {
      *         if it contains {@code null} values internally, and this Container does not allow it (optionally)
      */
     default boolean contains(Object o) {
-        return getAll(o).hasNext();
+        return this instanceof DirectMatch ? ((DirectMatch) this).containsOne(o) : getAll(o).hasNext();
     }
 
     /**
@@ -161,6 +163,9 @@ public interface Container<V> extends Iterable<V> {
 
     /**
      * Determine whether this Container includes all the specified elements.
+     * The default implementation delegates to the {@link SetAlgebra#containsAll(Container, Container)}
+     * method, which merges the Containers sorted by equal comparators in linear time, and otherwise
+     * checks each of the specified elements by the {@link #contains(Object)} method.
      *
      * @param c the elements to be checked
      * @return {@code true} if this Container contains all the specified elements
@@ -171,7 +176,7 @@ public interface Container<V> extends Iterable<V> {
      *         allow this (optionally)
      */
     default boolean containsAll(Container<?> c) {
-        return containsAll((Iterable<?>) c);
+        return SetAlgebra.containsAll(this, c);
     }
 
     /**
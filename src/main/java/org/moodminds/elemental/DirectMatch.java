@@ -0,0 +1,47 @@
+package org.moodminds.elemental;
+
+/**
+ * Capability interface used by implementations of {@link Container} to provide the single element
+ * matching operations which do not create the {@link Container#getAll(Object)} iterators.
+ * <p>
+ * The default {@link Container#contains(Object)}, {@link Collection#remove(Object)} and
+ * {@link Collection#removeAll(Iterable)} methods, as well as the ones of the {@link Set}, {@link List},
+ * {@link Queue}, {@link Deque} and {@link BlockingQueue} interfaces delegating to them, check whether
+ * the Container is an {@code instanceof DirectMatch} and route through its methods if so, so an
+ * implementation gets the allocation-free membership checks and removals without overriding each of them.
+ * The hash and tree based Containers and Collections, as well as the array based Sequences, implement it.
+ *
+ * @see RandomMatch
+ */
+public interface DirectMatch {
+
+    /**
+     * Check if the Container has at least one element matching the provided example,
+     * not allocating the matching iterator.
+     *
+     * @param o the object to be examined
+     * @return {@code true} if the Container has at least one element matching the provided example
+     * @throws ClassCastException if the type of the given element
+     *         is not compatible with the Container
+     * @throws NullPointerException if the given element is {@code null} and the Container
+     *         does not allow it (optionally)
+     */
+    boolean containsOne(Object o);
+
+    /**
+     * Remove a single element matching the provided example from the Container,
+     * not allocating the matching iterator (optional operation).
+     *
+     * @param o the object to be examined
+     * @return {@code true} if an element was removed
+     * @throws UnsupportedOperationException if the Container does not support the removal,
+     *         which is the default
+     * @throws ClassCastException if the type of the given element
+     *         is not compatible with the Container
+     * @throws NullPointerException if the given element is {@code null} and the Container
+     *         does not allow it (optionally)
+     */
+    default boolean removeOne(Object o) {
+        throw new UnsupportedOperationException("removeOne");
+    }
+}
@@ -0,0 +1,372 @@
+package org.moodminds.elemental;
+
+import java.util.Objects;
+import java.util.StringJoiner;
+
+import static java.lang.String.format;
+
+/**
+ * The base of the field based {@link Tuple1}...{@link Tuple8} implementations, which keep the values
+ * in final fields, return them by the direct getters and cache the hash code once it is calculated.
+ * <p>
+ * A Tuple is equal to any {@link Tuple} of the same width and the equal values at each position,
+ * and its hash code is {@code 31 * h + hash} of its values, like the one of a {@link java.util.List}.
+ *
+ * @see Tuple#of(Object, Object)
+ */
+abstract class FieldTuple implements Tuple {
+
+    private int hash; // 0 while not calculated
+
+    @Override
+    public int hashCode() {
+        int hash = this.hash;
+        if (hash == 0) {
+            hash = 1;
+            for (int i = 0, width = width(); i < width; i++)
+                hash = 31 * hash + Objects.hashCode(get(i));
+            this.hash = hash;
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof Tuple)) return false;
+        Tuple tuple = (Tuple) obj; int width = width();
+        if (tuple.width() != width) return false;
+        for (int i = 0; i < width; i++)
+            if (!Objects.equals(get(i), tuple.get(i))) return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "(", ")");
+        for (int i = 0, width = width(); i < width; i++) {
+            Object value = get(i); joiner.add(String.valueOf(value)); }
+        return joiner.toString();
+    }
+
+    /**
+     * Return the hash of the tuples equal to this one if it is calculated already, or {@code 0}.
+     *
+     * @return the hash of the tuples equal to this one if it is calculated already, or {@code 0}
+     */
+    final int cachedHash() {
+        return hash;
+    }
+
+    static IndexOutOfBoundsException outOfBounds(int index, int width) {
+        return new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, width));
+    }
+
+
+    /**
+     * The field based {@link Tuple1}.
+     */
+    static final class Of1<V> extends FieldTuple implements Tuple1<V> {
+
+        final V value;
+
+        Of1(V value) {
+            this.value = value;
+        }
+
+        @Override public V get1st() { return value; }
+
+        @Override @SuppressWarnings("unchecked") public <R> R get(int index) {
+            switch (index) {
+                case 0: return (R) value;
+                default: throw outOfBounds(index, 1);
+            } }
+
+        @Override public boolean equals(Object obj) {
+            if (!(obj instanceof Of1)) return super.equals(obj);
+            Of1<?> t = (Of1<?>) obj; int hash = cachedHash(), h = t.cachedHash();
+            return (hash == 0 || h == 0 || hash == h) && Objects.equals(value, t.value); }
+    }
+
+    /**
+     * The field based {@link Tuple2}.
+     */
+    static final class Of2<V1, V2> extends FieldTuple implements Tuple2<V1, V2> {
+
+        final V1 value1;
+        final V2 value2;
+
+        Of2(V1 value1, V2 value2) {
+            this.value1 = value1; this.value2 = value2;
+        }
+
+        @Override public V1 get1st() { return value1; }
+        @Override public V2 get2nd() { return value2; }
+
+        @Override @SuppressWarnings("unchecked") public <R> R get(int index) {
+            switch (index) {
+                case 0: return (R) value1;
+                case 1: return (R) value2;
+                default: throw outOfBounds(index, 2);
+            } }
+
+        @Override public boolean equals(Object obj) {
+            if (!(obj instanceof Of2)) return super.equals(obj);
+            Of2<?, ?> t = (Of2<?, ?>) obj; int hash = cachedHash(), h = t.cachedHash();
+            return (hash == 0 || h == 0 || hash == h)
+                    && Objects.equals(value1, t.value1) && Objects.equals(value2, t.value2); }
+    }
+
+    /**
+     * The field based {@link Tuple3}.
+     */
+    static final class Of3<V1, V2, V3> extends FieldTuple implements Tuple3<V1, V2, V3> {
+
+        final V1 value1;
+        final V2 value2;
+        final V3 value3;
+
+        Of3(V1 value1, V2 value2, V3 value3) {
+            this.value1 = value1; this.value2 = value2; this.value3 = value3;
+        }
+
+        @Override public V1 get1st() { return value1; }
+        @Override public V2 get2nd() { return value2; }
+        @Override public V3 get3rd() { return value3; }
+
+        @Override @SuppressWarnings("unchecked") public <R> R get(int index) {
+            switch (index) {
+                case 0: return (R) value1;
+                case 1: return (R) value2;
+                case 2: return (R) value3;
+                default: throw outOfBounds(index, 3);
+            } }
+
+        @Override public boolean equals(Object obj) {
+            if (!(obj instanceof Of3)) return super.equals(obj);
+            Of3<?, ?, ?> t = (Of3<?, ?, ?>) obj; int hash = cachedHash(), h = t.cachedHash();
+            return (hash == 0 || h == 0 || hash == h)
+                    && Objects.equals(value1, t.value1) && Objects.equals(value2, t.value2)
+                    && Objects.equals(value3, t.value3); }
+    }
+
+    /**
+     * The field based {@link Tuple4}.
+     */
+    static final class Of4<V1, V2, V3, V4> extends FieldTuple implements Tuple4<V1, V2, V3, V4> {
+
+        final V1 value1;
+        final V2 value2;
+        final V3 value3;
+        final V4 value4;
+
+        Of4(V1 value1, V2 value2, V3 value3, V4 value4) {
+            this.value1 = value1; this.value2 = value2; this.value3 = value3; this.value4 = value4;
+        }
+
+        @Override public V1 get1st() { return value1; }
+        @Override public V2 get2nd() { return value2; }
+        @Override public V3 get3rd() { return value3; }
+        @Override public V4 get4th() { return value4; }
+
+        @Override @SuppressWarnings("unchecked") public <R> R get(int index) {
+            switch (index) {
+                case 0: return (R) value1;
+                case 1: return (R) value2;
+                case 2: return (R) value3;
+                case 3: return (R) value4;
+                default: throw outOfBounds(index, 4);
+            } }
+
+        @Override public boolean equals(Object obj) {
+            if (!(obj instanceof Of4)) return super.equals(obj);
+            Of4<?, ?, ?, ?> t = (Of4<?, ?, ?, ?>) obj; int hash = cachedHash(), h = t.cachedHash();
+            return (hash == 0 || h == 0 || hash == h)
+                    && Objects.equals(value1, t.value1) && Objects.equals(value2, t.value2)
+                    && Objects.equals(value3, t.value3) && Objects.equals(value4, t.value4); }
+    }
+
+    /**
+     * The field based {@link Tuple5}.
+     */
+    static final class Of5<V1, V2, V3, V4, V5> extends FieldTuple implements Tuple5<V1, V2, V3, V4, V5> {
+
+        final V1 value1;
+        final V2 value2;
+        final V3 value3;
+        final V4 value4;
+        final V5 value5;
+
+        Of5(V1 value1, V2 value2, V3 value3, V4 value4, V5 value5) {
+            this.value1 = value1; this.value2 = value2; this.value3 = value3; this.value4 = value4;
+            this.value5 = value5;
+        }
+
+        @Override public V1 get1st() { return value1; }
+        @Override public V2 get2nd() { return value2; }
+        @Override public V3 get3rd() { return value3; }
+        @Override public V4 get4th() { return value4; }
+        @Override public V5 get5th() { return value5; }
+
+        @Override @SuppressWarnings("unchecked") public <R> R get(int index) {
+            switch (index) {
+                case 0: return (R) value1;
+                case 1: return (R) value2;
+                case 2: return (R) value3;
+                case 3: return (R) value4;
+                case 4: return (R) value5;
+                default: throw outOfBounds(index, 5);
+            } }
+
+        @Override public boolean equals(Object obj) {
+            if (!(obj instanceof Of5)) return super.equals(obj);
+            Of5<?, ?, ?, ?, ?> t = (Of5<?, ?, ?, ?, ?>) obj; int hash = cachedHash(), h = t.cachedHash();
+            return (hash == 0 || h == 0 || hash == h)
+                    && Objects.equals(value1, t.value1) && Objects.equals(value2, t.value2)
+                    && Objects.equals(value3, t.value3) && Objects.equals(value4, t.value4)
+                    && Objects.equals(value5, t.value5); }
+    }
+
+    /**
+     * The field based {@link Tuple6}.
+     */
+    static final class Of6<V1, V2, V3, V4, V5, V6> extends FieldTuple implements Tuple6<V1, V2, V3, V4, V5, V6> {
+
+        final V1 value1;
+        final V2 value2;
+        final V3 value3;
+        final V4 value4;
+        final V5 value5;
+        final V6 value6;
+
+        Of6(V1 value1, V2 value2, V3 value3, V4 value4, V5 value5, V6 value6) {
+            this.value1 = value1; this.value2 = value2; this.value3 = value3; this.value4 = value4;
+            this.value5 = value5; this.value6 = value6;
+        }
+
+        @Override public V1 get1st() { return value1; }
+        @Override public V2 get2nd() { return value2; }
+        @Override public V3 get3rd() { return value3; }
+        @Override public V4 get4th() { return value4; }
+        @Override public V5 get5th() { return value5; }
+        @Override public V6 get6th() { return value6; }
+
+        @Override @SuppressWarnings("unchecked") public <R> R get(int index) {
+            switch (index) {
+                case 0: return (R) value1;
+                case 1: return (R) value2;
+                case 2: return (R) value3;
+                case 3: return (R) value4;
+                case 4: return (R) value5;
+                case 5: return (R) value6;
+                default: throw outOfBounds(index, 6);
+            } }
+
+        @Override public boolean equals(Object obj) {
+            if (!(obj instanceof Of6)) return super.equals(obj);
+            Of6<?, ?, ?, ?, ?, ?> t = (Of6<?, ?, ?, ?, ?, ?>) obj; int hash = cachedHash(), h = t.cachedHash();
+            return (hash == 0 || h == 0 || hash == h)
+                    && Objects.equals(value1, t.value1) && Objects.equals(value2, t.value2)
+                    && Objects.equals(value3, t.value3) && Objects.equals(value4, t.value4)
+                    && Objects.equals(value5, t.value5) && Objects.equals(value6, t.value6); }
+    }
+
+    /**
+     * The field based {@link Tuple7}.
+     */
+    static final class Of7<V1, V2, V3, V4, V5, V6, V7> extends FieldTuple implements Tuple7<V1, V2, V3, V4, V5, V6, V7> {
+
+        final V1 value1;
+        final V2 value2;
+        final V3 value3;
+        final V4 value4;
+        final V5 value5;
+        final V6 value6;
+        final V7 value7;
+
+        Of7(V1 value1, V2 value2, V3 value3, V4 value4, V5 value5, V6 value6, V7 value7) {
+            this.value1 = value1; this.value2 = value2; this.value3 = value3; this.value4 = value4;
+            this.value5 = value5; this.value6 = value6; this.value7 = value7;
+        }
+
+        @Override public V1 get1st() { return value1; }
+        @Override public V2 get2nd() { return value2; }
+        @Override public V3 get3rd() { return value3; }
+        @Override public V4 get4th() { return value4; }
+        @Override public V5 get5th() { return value5; }
+        @Override public V6 get6th() { return value6; }
+        @Override public V7 get7th() { return value7; }
+
+        @Override @SuppressWarnings("unchecked") public <R> R get(int index) {
+            switch (index) {
+                case 0: return (R) value1;
+                case 1: return (R) value2;
+                case 2: return (R) value3;
+                case 3: return (R) value4;
+                case 4: return (R) value5;
+                case 5: return (R) value6;
+                case 6: return (R) value7;
+                default: throw outOfBounds(index, 7);
+            } }
+
+        @Override public boolean equals(Object obj) {
+            if (!(obj instanceof Of7)) return super.equals(obj);
+            Of7<?, ?, ?, ?, ?, ?, ?> t = (Of7<?, ?, ?, ?, ?, ?, ?>) obj; int hash = cachedHash(), h = t.cachedHash();
+            return (hash == 0 || h == 0 || hash == h)
+                    && Objects.equals(value1, t.value1) && Objects.equals(value2, t.value2)
+                    && Objects.equals(value3, t.value3) && Objects.equals(value4, t.value4)
+                    && Objects.equals(value5, t.value5) && Objects.equals(value6, t.value6)
+                    && Objects.equals(value7, t.value7); }
+    }
+
+    /**
+     * The field based {@link Tuple8}.
+     */
+    static final class Of8<V1, V2, V3, V4, V5, V6, V7, V8> extends FieldTuple implements Tuple8<V1, V2, V3, V4, V5, V6, V7, V8> {
+
+        final V1 value1;
+        final V2 value2;
+        final V3 value3;
+        final V4 value4;
+        final V5 value5;
+        final V6 value6;
+        final V7 value7;
+        final V8 value8;
+
+        Of8(V1 value1, V2 value2, V3 value3, V4 value4, V5 value5, V6 value6, V7 value7, V8 value8) {
+            this.value1 = value1; this.value2 = value2; this.value3 = value3; this.value4 = value4;
+            this.value5 = value5; this.value6 = value6; this.value7 = value7; this.value8 = value8;
+        }
+
+        @Override public V1 get1st() { return value1; }
+        @Override public V2 get2nd() { return value2; }
+        @Override public V3 get3rd() { return value3; }
+        @Override public V4 get4th() { return value4; }
+        @Override public V5 get5th() { return value5; }
+        @Override public V6 get6th() { return value6; }
+        @Override public V7 get7th() { return value7; }
+        @Override public V8 get8th() { return value8; }
+
+        @Override @SuppressWarnings("unchecked") public <R> R get(int index) {
+            switch (index) {
+                case 0: return (R) value1;
+                case 1: return (R) value2;
+                case 2: return (R) value3;
+                case 3: return (R) value4;
+                case 4: return (R) value5;
+                case 5: return (R) value6;
+                case 6: return (R) value7;
+                case 7: return (R) value8;
+                default: throw outOfBounds(index, 8);
+            } }
+
+        @Override public boolean equals(Object obj) {
+            if (!(obj instanceof Of8)) return super.equals(obj);
+            Of8<?, ?, ?, ?, ?, ?, ?, ?> t = (Of8<?, ?, ?, ?, ?, ?, ?, ?>) obj; int hash = cachedHash(), h = t.cachedHash();
+            return (hash == 0 || h == 0 || hash == h)
+                    && Objects.equals(value1, t.value1) && Objects.equals(value2, t.value2)
+                    && Objects.equals(value3, t.value3) && Objects.equals(value4, t.value4)
+                    && Objects.equals(value5, t.value5) && Objects.equals(value6, t.value6)
+                    && Objects.equals(value7, t.value7) && Objects.equals(value8, t.value8); }
+    }
+}
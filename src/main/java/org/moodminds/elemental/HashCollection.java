@@ -0,0 +1,109 @@
+package org.moodminds.elemental;
+
+import java.util.Iterator;
+
+import static java.util.Collections.emptyIterator;
+
+/**
+ * A hash table based {@link Collection}, which permits duplicates and the {@code null} element.
+ * This Collection is not a {@link java.util.Set}.
+ * <p>
+ * Each distinct element is kept once in an open-addressing (linear probing) slot along with the
+ * number of its occurrences, so adding a duplicate does not allocate, while the {@link #getCount(Object)},
+ * {@link #contains(Object)}, {@link #add(Object)} and {@link #remove(Object)} methods take constant
+ * time and do not iterate. The {@link #getAll(Object)} iterator returns the stored instance of the
+ * distinct element as many times as it occurs. There are no guarantees concerning the iteration order.
+ * <p>
+ * This implementation is not synchronized. The iterators are <i>fail-fast</i>.
+ *
+ * @param <E> the type of elements
+ *
+ * @see HashContainer
+ */
+public class HashCollection<E> extends AbstractHashContainer<E> implements Collection<E> {
+
+    /**
+     * Construct an empty Collection with the default expected size and load factor (0.75).
+     */
+    public HashCollection() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct an empty Collection able to hold the given number of distinct elements
+     * without rehashing, with the default load factor (0.75).
+     *
+     * @param expectedSize the expected number of distinct elements
+     * @throws IllegalArgumentException if the expected size is negative
+     */
+    public HashCollection(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Construct an empty Collection able to hold the given number of distinct elements
+     * without rehashing, with the given load factor.
+     *
+     * @param expectedSize the expected number of distinct elements
+     * @param loadFactor the load factor, greater than 0 and less than 1
+     * @throws IllegalArgumentException if the expected size is negative or the load factor is illegal
+     */
+    public HashCollection(int expectedSize, float loadFactor) {
+        super(expectedSize, loadFactor);
+    }
+
+    /**
+     * Construct a Collection of the elements of the given {@link Iterable}.
+     *
+     * @param elements the given {@link Iterable} of elements
+     */
+    public HashCollection(Iterable<? extends E> elements) {
+        this(elements instanceof Container ? ((Container<?>) elements).size()
+                : elements instanceof java.util.Collection ? ((java.util.Collection<?>) elements).size()
+                : DEFAULT_CAPACITY);
+        for (E element : elements) insert(mask(element), 1);
+    }
+
+    /**
+     * Add a single occurrence of the specified element to this Collection.
+     *
+     * @param e the element to add
+     * @return {@code true} always
+     */
+    @Override
+    public boolean add(E e) {
+        insert(mask(e), 1); return true;
+    }
+
+    /**
+     * Remove a single occurrence of the specified element from this Collection.
+     *
+     * @param o the element to remove an occurrence of
+     * @return {@code true} if an occurrence was removed
+     */
+    @Override
+    public boolean removeOne(Object o) {
+        int i = find(mask(o));
+        if (i < 0) return false;
+        decrement(i); return true;
+    }
+
+    @Override
+    public void clear() {
+        erase();
+    }
+
+    @Override
+    public Iterator<E> getAll(Object o) {
+        int i = find(mask(o)); return i < 0 ? emptyIterator() : new RunIterator(i) {
+            @Override public void remove() { removeLast(); }
+        };
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new HashIterator() {
+            @Override public void remove() { removeLast(); }
+        };
+    }
+}
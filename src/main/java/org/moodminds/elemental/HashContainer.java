@@ -0,0 +1,52 @@
+package org.moodminds.elemental;
+
+import static org.moodminds.elemental.AbstractHashContainer.DEFAULT_LOAD_FACTOR;
+
+/**
+ * An immutable hash table based {@link Container}, which permits duplicates and the {@code null} element.
+ * <p>
+ * Each distinct element is kept once in an open-addressing (linear probing) slot along with the
+ * number of its occurrences, so the {@link #getCount(Object)} and {@link #contains(Object)} methods
+ * take constant time and do not iterate. The {@link #getAll(Object)} iterator returns the stored
+ * instance of the distinct element as many times as it occurs. There are no guarantees concerning
+ * the iteration order.
+ *
+ * @param <E> the type of elements
+ *
+ * @see HashCollection
+ */
+public final class HashContainer<E> extends AbstractHashContainer<E> {
+
+    /**
+     * Construct the Container of the given elements.
+     *
+     * @param elements the given elements
+     */
+    @SafeVarargs
+    public HashContainer(E... elements) {
+        super(elements.length, DEFAULT_LOAD_FACTOR);
+        for (E element : elements) insert(mask(element), 1);
+    }
+
+    /**
+     * Construct the Container of the elements of the given {@link Iterable}.
+     *
+     * @param elements the given {@link Iterable} of elements
+     */
+    public HashContainer(Iterable<? extends E> elements) {
+        super(elements instanceof Container ? ((Container<?>) elements).size()
+                : elements instanceof java.util.Collection ? ((java.util.Collection<?>) elements).size()
+                : DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+        for (E element : elements) insert(mask(element), 1);
+    }
+
+    /**
+     * Construct an empty Container presized for the given expected number of distinct elements,
+     * to be filled through {@link #insert(Object, int)} by the readers of this package.
+     *
+     * @param expectedSize the given expected number of distinct elements
+     */
+    HashContainer(int expectedSize) {
+        super(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+}
@@ -0,0 +1,324 @@
+package org.moodminds.elemental;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * The persistent hash array mapped trie of key-value pairs underlying the {@link HashTrieAssociation}
+ * and the {@link HashTrieContainer}. The trie is kept compressed and canonical: every bitmap node keeps
+ * its inlined pairs in front of its array and its sub-nodes in reverse order behind, a sub-node always
+ * holds at least two pairs, and the keys of the same full hash are kept together in a collision node
+ * below the last level.
+ * <p>
+ * The updates copy the nodes along the path to the changed pair only, sharing the rest of the trie.
+ * The nodes created by an update with an owner token are owned by it, and the further updates with
+ * the same owner modify them in place, which lets the builders construct tries without copying
+ * and freeze them by merely dropping the token.
+ */
+final class HashTrie {
+
+    static final int BITS = 5, MASK = (1 << BITS) - 1;
+
+    /**
+     * The maximum depth of a trie, counting the levels of the bitmap nodes and the collision level.
+     */
+    static final int DEPTH = (Integer.SIZE + BITS - 1) / BITS + 1;
+
+    /**
+     * The marker of an absent key, as the keys and values may be {@code null}.
+     */
+    static final Object ABSENT = new Object();
+
+    static final Node EMPTY = new BitmapNode(null, 0, 0, new Object[0]);
+
+    private HashTrie() {}
+
+    static int hash(Object key) {
+        int h = Objects.hashCode(key) * 0x9E3779B9; return h ^ (h >>> 16);
+    }
+
+    static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    static int index(int map, int bit) {
+        return Integer.bitCount(map & (bit - 1));
+    }
+
+    /**
+     * Create the node of the two pairs of the distinct keys at the specified shift.
+     */
+    static Node merge(Object owner, Object k1, Object v1, int h1, Object k2, Object v2, int h2, int shift) {
+        if (shift >= Integer.SIZE)
+            return new CollisionNode(owner, h1, new Object[] {k1, v1, k2, v2});
+        int m1 = (h1 >>> shift) & MASK, m2 = (h2 >>> shift) & MASK;
+        if (m1 == m2)
+            return new BitmapNode(owner, 0, 1 << m1, new Object[] {merge(owner, k1, v1, h1, k2, v2, h2, shift + BITS)});
+        return new BitmapNode(owner, 1 << m1 | 1 << m2, 0, m1 < m2 ? new Object[] {k1, v1, k2, v2} : new Object[] {k2, v2, k1, v1});
+    }
+
+    /**
+     * The outcome of an update: whether a pair was added or removed and the previous value of the key.
+     */
+    static final class Change {
+
+        boolean added, removed; Object old = ABSENT;
+    }
+
+
+    /**
+     * A trie node holding pairs and sub-nodes.
+     */
+    abstract static class Node {
+
+        final Object owner;
+
+        Node(Object owner) {
+            this.owner = owner;
+        }
+
+        abstract int payloadArity();
+
+        abstract int nodeArity();
+
+        abstract Object key(int i);
+
+        abstract Object value(int i);
+
+        abstract Node node(int i);
+
+        /**
+         * Find the key or the value of the pair of the specified key.
+         *
+         * @param key the specified key
+         * @param hash the hash of the key
+         * @param shift the shift of this node level
+         * @param offset {@code 0} for the stored key, {@code 1} for the value
+         * @return the stored key or the value, or {@link #ABSENT} if the key is absent
+         */
+        abstract Object get(Object key, int hash, int shift, int offset);
+
+        abstract Node put(Object owner, Object key, Object value, int hash, int shift, Change change);
+
+        abstract Node remove(Object owner, Object key, int hash, int shift, Change change);
+
+        final boolean editable(Object owner) {
+            return owner != null && this.owner == owner;
+        }
+    }
+
+    /**
+     * The node mapping the hash fragments of its level to the inlined pairs or the sub-nodes by two bitmaps.
+     */
+    static final class BitmapNode extends Node {
+
+        int dataMap, nodeMap; Object[] array;
+
+        BitmapNode(Object owner, int dataMap, int nodeMap, Object[] array) {
+            super(owner); this.dataMap = dataMap; this.nodeMap = nodeMap; this.array = array;
+        }
+
+        @Override int payloadArity() { return Integer.bitCount(dataMap); }
+        @Override int nodeArity() { return Integer.bitCount(nodeMap); }
+        @Override Object key(int i) { return array[i << 1]; }
+        @Override Object value(int i) { return array[(i << 1) + 1]; }
+        @Override Node node(int i) { return (Node) array[array.length - 1 - i]; }
+
+        @Override
+        Object get(Object key, int hash, int shift, int offset) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = index(dataMap, bit) << 1;
+                return Objects.equals(array[i], key) ? array[i + offset] : ABSENT;
+            }
+            if ((nodeMap & bit) != 0)
+                return node(index(nodeMap, bit)).get(key, hash, shift + BITS, offset);
+            return ABSENT;
+        }
+
+        @Override
+        Node put(Object owner, Object key, Object value, int hash, int shift, Change change) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = index(dataMap, bit) << 1; Object k = array[i];
+                if (Objects.equals(k, key)) {
+                    Object old = change.old = array[i + 1];
+                    if (old == value) return this;
+                    BitmapNode node = copy(owner); node.array[i + 1] = value; return node;
+                }
+                change.added = true;
+                return dataToNode(owner, bit, i, merge(owner, k, array[i + 1], hash(k), key, value, hash, shift + BITS));
+            }
+            if ((nodeMap & bit) != 0) {
+                int j = array.length - 1 - index(nodeMap, bit); Node sub = (Node) array[j];
+                Node updated = sub.put(owner, key, value, hash, shift + BITS, change);
+                if (updated == sub) return this;
+                BitmapNode node = copy(owner); node.array[j] = updated; return node;
+            }
+            change.added = true;
+            int i = index(dataMap, bit) << 1; Object[] array = this.array, copy = new Object[array.length + 2];
+            System.arraycopy(array, 0, copy, 0, i); copy[i] = key; copy[i + 1] = value;
+            System.arraycopy(array, i, copy, i + 2, array.length - i);
+            return update(owner, dataMap | bit, nodeMap, copy);
+        }
+
+        @Override
+        Node remove(Object owner, Object key, int hash, int shift, Change change) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = index(dataMap, bit) << 1;
+                if (!Objects.equals(array[i], key)) return this;
+                change.removed = true; change.old = array[i + 1];
+                if (shift > 0 && nodeMap == 0 && Integer.bitCount(dataMap) == 2) {
+                    Object k = array[i ^ 2]; // the node is to be inlined by the parent, so it is positioned as the root
+                    return new BitmapNode(owner, bit(hash(k), 0), 0, new Object[] {k, array[(i ^ 2) + 1]});
+                }
+                Object[] array = this.array, copy = new Object[array.length - 2];
+                System.arraycopy(array, 0, copy, 0, i);
+                System.arraycopy(array, i + 2, copy, i, copy.length - i);
+                return update(owner, dataMap ^ bit, nodeMap, copy);
+            }
+            if ((nodeMap & bit) != 0) {
+                int j = array.length - 1 - index(nodeMap, bit); Node sub = (Node) array[j];
+                Node updated = sub.remove(owner, key, hash, shift + BITS, change);
+                if (updated == sub) return this;
+                if (updated.nodeArity() == 0 && updated.payloadArity() == 1) {
+                    if (shift > 0 && dataMap == 0 && Integer.bitCount(nodeMap) == 1) return updated;
+                    return nodeToData(owner, bit, j, updated.key(0), updated.value(0));
+                }
+                BitmapNode node = copy(owner); node.array[j] = updated; return node;
+            }
+            return this;
+        }
+
+        private BitmapNode copy(Object owner) {
+            return editable(owner) ? this : new BitmapNode(owner, dataMap, nodeMap, array.clone());
+        }
+
+        private BitmapNode update(Object owner, int dataMap, int nodeMap, Object[] array) {
+            if (!editable(owner)) return new BitmapNode(owner, dataMap, nodeMap, array);
+            this.dataMap = dataMap; this.nodeMap = nodeMap; this.array = array; return this;
+        }
+
+        /**
+         * Replace the pair at the specified array index by the given sub-node.
+         */
+        private BitmapNode dataToNode(Object owner, int bit, int i, Node node) {
+            Object[] array = this.array, copy = new Object[array.length - 1];
+            int j = copy.length - 1 - index(nodeMap | bit, bit);
+            System.arraycopy(array, 0, copy, 0, i);
+            System.arraycopy(array, i + 2, copy, i, j - i); copy[j] = node;
+            System.arraycopy(array, j + 2, copy, j + 1, array.length - j - 2);
+            return update(owner, dataMap ^ bit, nodeMap | bit, copy);
+        }
+
+        /**
+         * Replace the sub-node at the specified array index by the given pair.
+         */
+        private BitmapNode nodeToData(Object owner, int bit, int j, Object key, Object value) {
+            Object[] array = this.array, copy = new Object[array.length + 1];
+            int i = index(dataMap | bit, bit) << 1;
+            System.arraycopy(array, 0, copy, 0, i); copy[i] = key; copy[i + 1] = value;
+            System.arraycopy(array, i, copy, i + 2, j - i);
+            System.arraycopy(array, j + 1, copy, j + 2, array.length - j - 1);
+            return update(owner, dataMap | bit, nodeMap ^ bit, copy);
+        }
+    }
+
+    /**
+     * The node of the pairs of the keys of the same full hash.
+     */
+    static final class CollisionNode extends Node {
+
+        final int hash; Object[] array;
+
+        CollisionNode(Object owner, int hash, Object[] array) {
+            super(owner); this.hash = hash; this.array = array;
+        }
+
+        @Override int payloadArity() { return array.length >> 1; }
+        @Override int nodeArity() { return 0; }
+        @Override Object key(int i) { return array[i << 1]; }
+        @Override Object value(int i) { return array[(i << 1) + 1]; }
+        @Override Node node(int i) { throw new IndexOutOfBoundsException(); }
+
+        @Override
+        Object get(Object key, int hash, int shift, int offset) {
+            int i = find(key); return i < 0 ? ABSENT : array[i + offset];
+        }
+
+        @Override
+        Node put(Object owner, Object key, Object value, int hash, int shift, Change change) {
+            int i = find(key);
+            if (i >= 0) {
+                Object old = change.old = array[i + 1];
+                if (old == value) return this;
+                CollisionNode node = editable(owner) ? this : new CollisionNode(owner, hash, array.clone());
+                node.array[i + 1] = value; return node;
+            }
+            change.added = true;
+            Object[] array = this.array, copy = java.util.Arrays.copyOf(array, array.length + 2);
+            copy[array.length] = key; copy[array.length + 1] = value;
+            if (!editable(owner)) return new CollisionNode(owner, hash, copy);
+            this.array = copy; return this;
+        }
+
+        @Override
+        Node remove(Object owner, Object key, int hash, int shift, Change change) {
+            int i = find(key);
+            if (i < 0) return this;
+            change.removed = true; change.old = array[i + 1];
+            if (array.length == 4)
+                return new BitmapNode(owner, bit(hash, 0), 0, new Object[] {array[i ^ 2], array[(i ^ 2) + 1]});
+            Object[] array = this.array, copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, i);
+            System.arraycopy(array, i + 2, copy, i, copy.length - i);
+            if (!editable(owner)) return new CollisionNode(owner, hash, copy);
+            this.array = copy; return this;
+        }
+
+        private int find(Object key) {
+            for (int i = 0; i < array.length; i += 2)
+                if (Objects.equals(array[i], key)) return i;
+            return -1;
+        }
+    }
+
+    /**
+     * An iterator over the pairs of a trie, traversing the inlined pairs of every node
+     * before its sub-nodes.
+     *
+     * @param <T> the type of elements
+     */
+    abstract static class TrieIterator<T> implements Iterator<T> {
+
+        final Node[] nodes = new Node[DEPTH]; final int[] children = new int[DEPTH]; int depth;
+        Node node; int index, count;
+
+        TrieIterator(Node root) {
+            nodes[0] = node = root; count = root.payloadArity();
+        }
+
+        @Override public boolean hasNext() {
+            return index < count || advance(); }
+
+        @Override public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return element(node, index++); }
+
+        private boolean advance() {
+            while (depth >= 0) {
+                Node parent = nodes[depth];
+                if (children[depth] < parent.nodeArity()) {
+                    Node child = parent.node(children[depth]++);
+                    nodes[++depth] = child; children[depth] = 0;
+                    if ((count = child.payloadArity()) > 0) {
+                        node = child; index = 0; return true; }
+                } else depth--;
+            }
+            return false; }
+
+        abstract T element(Node node, int i);
+    }
+}
@@ -0,0 +1,354 @@
+package org.moodminds.elemental;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+import static java.util.Collections.emptyIterator;
+import static java.util.Collections.singleton;
+import static org.moodminds.elemental.HashTrie.ABSENT;
+import static org.moodminds.elemental.HashTrie.hash;
+
+/**
+ * A persistent {@link Association} of a hash array mapped trie, which permits the {@code null}
+ * key and values.
+ * <p>
+ * The Association is immutable, while the {@link #with(Object, Object)} and {@link #without(Object)}
+ * methods return its modified copies in {@code O(log32 n)} time, copying only the trie path to the
+ * changed key and sharing the rest of the trie with this Association. Many modifications at once are
+ * done by a {@link Builder}, which modifies its own trie nodes in place and freezes them into an
+ * Association in constant time, so the bulk construction does not produce intermediate copies.
+ * The lookups take {@code O(log32 n)} time. There are no guarantees concerning the iteration order.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ *
+ * @see HashTrieContainer
+ */
+public final class HashTrieAssociation<K, V> implements Association<K, V, KeyValue<K, V>>, RandomMatch {
+
+    private static final HashTrieAssociation<?, ?> EMPTY = new HashTrieAssociation<>(HashTrie.EMPTY, 0);
+
+    final HashTrie.Node root;
+    final int size;
+
+    HashTrieAssociation(HashTrie.Node root, int size) {
+        this.root = root; this.size = size;
+    }
+
+    /**
+     * Return the empty Association.
+     *
+     * @return the empty Association
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> HashTrieAssociation<K, V> empty() {
+        return (HashTrieAssociation<K, V>) EMPTY;
+    }
+
+    /**
+     * Return the Association of the mappings of the given {@link java.util.Map}.
+     *
+     * @param map the given {@link java.util.Map}
+     * @return the Association of the mappings of the given {@link java.util.Map}
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     */
+    public static <K, V> HashTrieAssociation<K, V> association(java.util.Map<? extends K, ? extends V> map) {
+        return HashTrieAssociation.<K, V>builder().putAll(map).build();
+    }
+
+    /**
+     * Return a new {@link Builder} starting with no mappings.
+     *
+     * @return a new {@link Builder} starting with no mappings
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     */
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>(HashTrie.EMPTY, 0);
+    }
+
+    /**
+     * Return a new {@link Builder} starting with the mappings of this Association.
+     * The Builder shares the trie with this Association, copying its nodes on the first
+     * modification only.
+     *
+     * @return a new {@link Builder} starting with the mappings of this Association
+     */
+    public Builder<K, V> toBuilder() {
+        return new Builder<>(root, size);
+    }
+
+    /**
+     * Return the Association with the specified key associated with the specified value,
+     * which is this Association if the key is already associated with the same value instance.
+     *
+     * @param key the specified key
+     * @param value the specified value
+     * @return the Association with the specified key associated with the specified value
+     */
+    public HashTrieAssociation<K, V> with(K key, V value) {
+        HashTrie.Change change = new HashTrie.Change();
+        HashTrie.Node root = this.root.put(null, key, value, hash(key), 0, change);
+        return root == this.root ? this : new HashTrieAssociation<>(root, change.added ? size + 1 : size);
+    }
+
+    /**
+     * Return the Association without the mapping of the specified key,
+     * which is this Association if the key is absent.
+     *
+     * @param key the specified key
+     * @return the Association without the mapping of the specified key
+     */
+    public HashTrieAssociation<K, V> without(Object key) {
+        HashTrie.Change change = new HashTrie.Change();
+        HashTrie.Node root = this.root.remove(null, key, hash(key), 0, change);
+        return root == this.root ? this : new HashTrieAssociation<>(root, size - 1);
+    }
+
+    @Override
+    public int getCount(Object o) {
+        KeyValue<?, ?> kv = (KeyValue<?, ?>) o; return contains(kv.getKey(), kv.getValue()) ? 1 : 0;
+    }
+
+    @Override
+    public Iterator<KeyValue<K, V>> getAll(Object o) {
+        KeyValue<?, ?> kv = (KeyValue<?, ?>) o; Object key = kv.getKey(); int hash = hash(key);
+        Object value = root.get(key, hash, 0, 1);
+        return value != ABSENT && Objects.equals(value, kv.getValue())
+                ? singleton(HashTrieAssociation.<K, V>entry(root.get(key, hash, 0, 0), value)).iterator() : emptyIterator();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R extends V> R get(Object key) {
+        Object value = root.get(key, hash(key), 0, 1); return value == ABSENT ? null : (R) value;
+    }
+
+    @Override
+    public boolean contains(Object key, Object value) {
+        Object v = root.get(key, hash(key), 0, 1); return v != ABSENT && Objects.equals(v, value);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return root.get(key, hash(key), 0, 1) != ABSENT;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<KeyValue<K, V>> iterator() {
+        return new HashTrie.TrieIterator<KeyValue<K, V>>(root) {
+            @Override KeyValue<K, V> element(HashTrie.Node node, int i) { return entry(node.key(i), node.value(i)); }
+        };
+    }
+
+    @Override
+    public Container<K> keys() {
+        return new Keys();
+    }
+
+    @Override
+    public Container<V> values() {
+        return new Values();
+    }
+
+    /**
+     * Return the hash code value for this Association, which is the sum of the hash codes
+     * of its mappings, each being the hash code of the key xor-ed with the hash code of the value.
+     *
+     * @return the hash code value for this Association
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (KeyValue<K, V> kv : this) hash += kv.hashCode();
+        return hash;
+    }
+
+    /**
+     * Compare the specified object with this Association for equality. Return {@code true}
+     * if the object is also a {@link HashTrieAssociation} of the same mappings.
+     *
+     * @param obj the object to be compared for equality with this Association
+     * @return {@code true} if the specified object is equal to this Association
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof HashTrieAssociation)) return false;
+        HashTrieAssociation<?, ?> a = (HashTrieAssociation<?, ?>) obj;
+        if (a.size != size) return false;
+        if (a.root == root) return true;
+        for (KeyValue<K, V> kv : this)
+            if (!a.contains(kv.getKey(), kv.getValue()))
+                return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (KeyValue<K, V> kv : this) joiner.add(kv.getKey() + "=" + kv.getValue());
+        return joiner.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> KeyValue<K, V> entry(Object key, Object value) {
+        return new SimpleEntry<>((K) key, (V) value);
+    }
+
+
+    /**
+     * A builder of {@link HashTrieAssociation}s, modifying the trie nodes created by itself in place.
+     * The {@link #build()} method freezes the current trie in constant time, after which the Builder
+     * may be used further, copying the frozen nodes on their first modification.
+     * <p>
+     * This class is not synchronized.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     */
+    public static final class Builder<K, V> {
+
+        private final HashTrie.Change change = new HashTrie.Change();
+        private Object owner = new Object();
+        private HashTrie.Node root;
+        private int size;
+
+        Builder(HashTrie.Node root, int size) {
+            this.root = root; this.size = size;
+        }
+
+        /**
+         * Associate the specified value with the specified key.
+         *
+         * @param key the specified key
+         * @param value the specified value
+         * @return this Builder
+         */
+        public Builder<K, V> put(K key, V value) {
+            change.added = false; root = root.put(owner, key, value, hash(key), 0, change);
+            if (change.added) size++;
+            return this;
+        }
+
+        /**
+         * Associate the values with the keys of the given {@link java.util.Map}.
+         *
+         * @param map the given {@link java.util.Map}
+         * @return this Builder
+         */
+        public Builder<K, V> putAll(java.util.Map<? extends K, ? extends V> map) {
+            for (java.util.Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+                put(entry.getKey(), entry.getValue());
+            return this;
+        }
+
+        /**
+         * Remove the mapping of the specified key.
+         *
+         * @param key the specified key
+         * @return this Builder
+         */
+        public Builder<K, V> remove(Object key) {
+            change.removed = false; root = root.remove(owner, key, hash(key), 0, change);
+            if (change.removed) size--;
+            return this;
+        }
+
+        /**
+         * Return the value associated with the specified key.
+         *
+         * @param key the specified key
+         * @return the value associated with the specified key, or {@code null} if there is no mapping for the key
+         */
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            Object value = root.get(key, hash(key), 0, 1); return value == ABSENT ? null : (V) value;
+        }
+
+        /**
+         * Check if there is a mapping for the specified key.
+         *
+         * @param key the specified key
+         * @return {@code true} if there is a mapping for the specified key
+         */
+        public boolean containsKey(Object key) {
+            return root.get(key, hash(key), 0, 1) != ABSENT;
+        }
+
+        /**
+         * Return the number of the mappings.
+         *
+         * @return the number of the mappings
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Return the {@link HashTrieAssociation} of the current mappings, freezing the trie.
+         *
+         * @return the {@link HashTrieAssociation} of the current mappings
+         */
+        public HashTrieAssociation<K, V> build() {
+            owner = new Object(); return size == 0 ? empty() : new HashTrieAssociation<>(root, size);
+        }
+    }
+
+    /**
+     * The {@link Container} view of the keys.
+     */
+    private final class Keys implements Container<K>, RandomMatch {
+
+        @Override public int size() { return size; }
+        @Override public boolean contains(Object o) { return containsKey(o); }
+        @Override public int getCount(Object o) { return containsKey(o) ? 1 : 0; }
+
+        @Override @SuppressWarnings("unchecked") public Iterator<K> getAll(Object o) {
+            Object key = root.get(o, hash(o), 0, 0);
+            return key == ABSENT ? emptyIterator() : singleton((K) key).iterator(); }
+
+        @Override public Iterator<K> iterator() {
+            return new HashTrie.TrieIterator<K>(root) {
+                @Override @SuppressWarnings("unchecked") K element(HashTrie.Node node, int i) { return (K) node.key(i); }
+            }; }
+    }
+
+    /**
+     * The {@link Container} view of the values.
+     */
+    private final class Values implements Container<V> {
+
+        @Override public int size() { return size; }
+
+        @Override public int getCount(Object o) {
+            int count = 0; for (V v : this) if (Objects.equals(v, o)) count++; return count; }
+
+        @Override public Iterator<V> getAll(Object o) {
+            Iterator<V> values = iterator();
+            return new Iterator<V>() {
+                V next; boolean found;
+                @Override public boolean hasNext() {
+                    while (!found && values.hasNext())
+                        found = Objects.equals(next = values.next(), o);
+                    return found; }
+                @Override public V next() {
+                    if (!hasNext()) throw new java.util.NoSuchElementException();
+                    found = false; return next; }
+            }; }
+
+        @Override public Iterator<V> iterator() {
+            return new HashTrie.TrieIterator<V>(root) {
+                @Override @SuppressWarnings("unchecked") V element(HashTrie.Node node, int i) { return (V) node.value(i); }
+            }; }
+    }
+}
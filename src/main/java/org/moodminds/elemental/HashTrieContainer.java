@@ -0,0 +1,269 @@
+package org.moodminds.elemental;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.StringJoiner;
+
+import static java.util.Collections.emptyIterator;
+import static java.util.Collections.singleton;
+import static java.util.Spliterator.DISTINCT;
+import static java.util.Spliterator.IMMUTABLE;
+import static org.moodminds.elemental.HashTrie.ABSENT;
+import static org.moodminds.elemental.HashTrie.hash;
+
+/**
+ * A persistent {@link Container} of distinct elements of a hash array mapped trie, which permits
+ * the {@code null} element.
+ * <p>
+ * The Container is immutable, while the {@link #with(Object)} and {@link #without(Object)} methods
+ * return its modified copies in {@code O(log32 n)} time, copying only the trie path to the changed
+ * element and sharing the rest of the trie with this Container. Many modifications at once are done
+ * by a {@link Builder}, which modifies its own trie nodes in place and freezes them into a Container
+ * in constant time. The lookups take {@code O(log32 n)} time. There are no guarantees concerning
+ * the iteration order.
+ *
+ * @param <E> the type of elements
+ *
+ * @see HashTrieAssociation
+ */
+public final class HashTrieContainer<E> implements Container<E>, RandomMatch, DirectMatch {
+
+    private static final HashTrieContainer<?> EMPTY = new HashTrieContainer<>(HashTrie.EMPTY, 0);
+
+    /**
+     * The value of every element pair, so adding a present element changes nothing.
+     */
+    private static final Object PRESENT = Boolean.TRUE;
+
+    final HashTrie.Node root;
+    final int size;
+
+    HashTrieContainer(HashTrie.Node root, int size) {
+        this.root = root; this.size = size;
+    }
+
+    /**
+     * Return the empty Container.
+     *
+     * @return the empty Container
+     * @param <E> the type of elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> HashTrieContainer<E> empty() {
+        return (HashTrieContainer<E>) EMPTY;
+    }
+
+    /**
+     * Return the Container of the distinct elements of the given {@link Iterable}.
+     *
+     * @param elements the given {@link Iterable} of elements
+     * @return the Container of the distinct elements of the given {@link Iterable}
+     * @param <E> the type of elements
+     */
+    public static <E> HashTrieContainer<E> container(Iterable<? extends E> elements) {
+        return HashTrieContainer.<E>builder().addAll(elements).build();
+    }
+
+    /**
+     * Return a new {@link Builder} starting with no elements.
+     *
+     * @return a new {@link Builder} starting with no elements
+     * @param <E> the type of elements
+     */
+    public static <E> Builder<E> builder() {
+        return new Builder<>(HashTrie.EMPTY, 0);
+    }
+
+    /**
+     * Return a new {@link Builder} starting with the elements of this Container.
+     * The Builder shares the trie with this Container, copying its nodes on the first
+     * modification only.
+     *
+     * @return a new {@link Builder} starting with the elements of this Container
+     */
+    public Builder<E> toBuilder() {
+        return new Builder<>(root, size);
+    }
+
+    /**
+     * Return the Container with the specified element, which is this Container if the element is present.
+     *
+     * @param element the specified element
+     * @return the Container with the specified element
+     */
+    public HashTrieContainer<E> with(E element) {
+        HashTrie.Change change = new HashTrie.Change();
+        HashTrie.Node root = this.root.put(null, element, PRESENT, hash(element), 0, change);
+        return root == this.root ? this : new HashTrieContainer<>(root, size + 1);
+    }
+
+    /**
+     * Return the Container without the specified element, which is this Container if the element is absent.
+     *
+     * @param element the specified element
+     * @return the Container without the specified element
+     */
+    public HashTrieContainer<E> without(Object element) {
+        HashTrie.Change change = new HashTrie.Change();
+        HashTrie.Node root = this.root.remove(null, element, hash(element), 0, change);
+        return root == this.root ? this : new HashTrieContainer<>(root, size - 1);
+    }
+
+    @Override
+    public int getCount(Object o) {
+        return contains(o) ? 1 : 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> getAll(Object o) {
+        Object element = root.get(o, hash(o), 0, 0);
+        return element == ABSENT ? emptyIterator() : singleton((E) element).iterator();
+    }
+
+    @Override
+    public boolean containsOne(Object o) {
+        return root.get(o, hash(o), 0, 1) != ABSENT;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new HashTrie.TrieIterator<E>(root) {
+            @Override @SuppressWarnings("unchecked") E element(HashTrie.Node node, int i) { return (E) node.key(i); }
+        };
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return java.util.Spliterators.spliterator(iterator(), size, IMMUTABLE | DISTINCT);
+    }
+
+    /**
+     * Return the hash code value for this Container, which is the sum of the element hash codes.
+     *
+     * @return the hash code value for this Container
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (E e : this) hash += e == null ? 0 : e.hashCode();
+        return hash;
+    }
+
+    /**
+     * Compare the specified object with this Container for equality. Return {@code true}
+     * if the object is also a {@link HashTrieContainer} of the same elements.
+     *
+     * @param obj the object to be compared for equality with this Container
+     * @return {@code true} if the specified object is equal to this Container
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof HashTrieContainer)) return false;
+        HashTrieContainer<?> c = (HashTrieContainer<?>) obj;
+        if (c.size != size) return false;
+        if (c.root == root) return true;
+        for (E e : this)
+            if (!c.contains(e))
+                return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (E e : this) joiner.add(String.valueOf(e));
+        return joiner.toString();
+    }
+
+
+    /**
+     * A builder of {@link HashTrieContainer}s, modifying the trie nodes created by itself in place.
+     * The {@link #build()} method freezes the current trie in constant time, after which the Builder
+     * may be used further, copying the frozen nodes on their first modification.
+     * <p>
+     * This class is not synchronized.
+     *
+     * @param <E> the type of elements
+     */
+    public static final class Builder<E> {
+
+        private final HashTrie.Change change = new HashTrie.Change();
+        private Object owner = new Object();
+        private HashTrie.Node root;
+        private int size;
+
+        Builder(HashTrie.Node root, int size) {
+            this.root = root; this.size = size;
+        }
+
+        /**
+         * Add the specified element if it is absent.
+         *
+         * @param element the specified element
+         * @return this Builder
+         */
+        public Builder<E> add(E element) {
+            change.added = false; root = root.put(owner, element, PRESENT, hash(element), 0, change);
+            if (change.added) size++;
+            return this;
+        }
+
+        /**
+         * Add the absent elements of the given {@link Iterable}.
+         *
+         * @param elements the given {@link Iterable} of elements
+         * @return this Builder
+         */
+        public Builder<E> addAll(Iterable<? extends E> elements) {
+            for (E element : elements) add(element);
+            return this;
+        }
+
+        /**
+         * Remove the specified element.
+         *
+         * @param element the specified element
+         * @return this Builder
+         */
+        public Builder<E> remove(Object element) {
+            change.removed = false; root = root.remove(owner, element, hash(element), 0, change);
+            if (change.removed) size--;
+            return this;
+        }
+
+        /**
+         * Check if the specified element is present.
+         *
+         * @param element the specified element
+         * @return {@code true} if the specified element is present
+         */
+        public boolean contains(Object element) {
+            return root.get(element, hash(element), 0, 1) != ABSENT;
+        }
+
+        /**
+         * Return the number of the elements.
+         *
+         * @return the number of the elements
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Return the {@link HashTrieContainer} of the current elements, freezing the trie.
+         *
+         * @return the {@link HashTrieContainer} of the current elements
+         */
+        public HashTrieContainer<E> build() {
+            owner = new Object(); return size == 0 ? empty() : new HashTrieContainer<>(root, size);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.moodminds.elemental;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.StringJoiner;
+
+import static java.lang.String.format;
+
+/**
+ * An immutable array based {@link IntSequence}. The values are copied at construction time,
+ * while the {@link #sub(int, int)} views are created in constant time and share the array.
+ * <p>
+ * The values are kept unboxed, so the {@link #getInt(int)}, the {@link PrimitiveIterator.OfInt}
+ * iteration and the {@link Spliterator.OfInt} traversal do not allocate per value.
+ *
+ * @see LongArraySequence
+ */
+public final class IntArraySequence implements IntSequence, RandomGet, DirectMatch {
+
+    private final int[] values;
+    private final int offset, size;
+
+    /**
+     * Construct the Sequence of the given values.
+     *
+     * @param values the given values
+     */
+    public IntArraySequence(int... values) {
+        this(values.clone(), 0, values.length);
+    }
+
+    IntArraySequence(int[] values, int offset, int size) {
+        this.values = values; this.offset = offset; this.size = size;
+    }
+
+    @Override
+    public int getInt(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, size));
+        return values[offset + index];
+    }
+
+    @Override
+    public int getCount(int value) {
+        int count = 0;
+        for (int i = offset, end = offset + size; i < end; i++)
+            if (values[i] == value) count++;
+        return count;
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt getAll(int value) {
+        return new PrimitiveIterator.OfInt() {
+            int index = seek(offset);
+            @Override public boolean hasNext() { return index >= 0; }
+            @Override public int nextInt() {
+                if (index < 0) throw new NoSuchElementException();
+                index = seek(index + 1); return value; }
+            private int seek(int from) {
+                for (int i = from, end = offset + size; i < end; i++)
+                    if (values[i] == value) return i;
+                return -1; }
+        };
+    }
+
+    @Override
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+
+    @Override
+    public boolean containsOne(Object o) {
+        return o instanceof Integer && contains(((Integer) o).intValue());
+    }
+
+    @Override
+    public int indexOf(int value) {
+        for (int i = 0; i < size; i++)
+            if (values[offset + i] == value) return i;
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public IntArraySequence sub(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+            throw new IndexOutOfBoundsException(format("From: %d, To: %d, Size: %d", fromIndex, toIndex, size));
+        return new IntArraySequence(values, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new ArrayIterator(0);
+    }
+
+    @Override
+    public SequenceIterator<Integer> iterator(int index) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, size));
+        return new ArrayIterator(index);
+    }
+
+    @Override
+    public Spliterator.OfInt spliterator() {
+        return Arrays.spliterator(values, offset, offset + size);
+    }
+
+    @Override
+    public int[] toIntArray() {
+        return Arrays.copyOfRange(values, offset, offset + size);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = offset, end = offset + size; i < end; i++)
+            hash = 31 * hash + Integer.hashCode(values[i]);
+        return hash;
+    }
+
+    /**
+     * Compare the specified object with this Sequence for equality by the general {@link Sequence} contract,
+     * so this Sequence is equal to any Sequence of the equal {@link Integer} elements in the same order,
+     * which is equal to it in turn. A {@link java.util.List} is not equal to this Sequence, as it is equal
+     * only to the other Lists by its own contract.
+     *
+     * @param obj the object to be compared for equality with this Sequence
+     * @return {@code true} if the specified object is equal to this Sequence
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (obj instanceof IntArraySequence) {
+            IntArraySequence s = (IntArraySequence) obj;
+            if (s.size != size) return false;
+            for (int i = 0; i < size; i++)
+                if (values[offset + i] != s.values[s.offset + i]) return false;
+            return true;
+        }
+        if (!(obj instanceof Sequence) || obj instanceof java.util.List) return false;
+        Sequence<?> s = (Sequence<?>) obj;
+        if (s.size() != size) return false;
+        Iterator<?> it = s.iterator();
+        for (int i = offset, end = offset + size; i < end; i++)
+            if (!it.hasNext() || !Integer.valueOf(values[i]).equals(it.next())) return false;
+        return !it.hasNext();
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int i = offset, end = offset + size; i < end; i++)
+            joiner.add(String.valueOf(values[i]));
+        return joiner.toString();
+    }
+
+
+    /**
+     * The {@link SequenceIterator} over the values of this Sequence, which is also
+     * a {@link PrimitiveIterator.OfInt}.
+     */
+    private final class ArrayIterator implements SequenceIterator<Integer>, PrimitiveIterator.OfInt {
+
+        private int index;
+
+        private ArrayIterator(int index) {
+            this.index = index;
+        }
+
+        @Override public boolean hasNext() { return index < size; }
+
+        @Override public int nextInt() {
+            if (index >= size) throw new NoSuchElementException();
+            return values[offset + index++]; }
+
+        @Override public Integer next() { return nextInt(); }
+
+        @Override public int nextIndex() { return index; }
+
+        @Override public void remove() { throw new UnsupportedOperationException("remove"); }
+    }
+}
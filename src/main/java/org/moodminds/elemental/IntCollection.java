@@ -0,0 +1,81 @@
+package org.moodminds.elemental;
+
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+
+/**
+ * A mutative extension of the {@link IntContainer} interface, which also extends
+ * the {@link Collection} interface, providing the primitive counterparts of its
+ * modification methods.
+ *
+ * @see IntHashCollection
+ */
+public interface IntCollection extends IntContainer, Collection<Integer> {
+
+    /**
+     * Add the specified value to this Collection (optional operation).
+     *
+     * @param value the value to add
+     * @return {@code true} if this Collection changed as a result of the call
+     * @throws UnsupportedOperationException if the {@code add} operation
+     *         is not supported by this Collection
+     */
+    boolean add(int value);
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param value {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    default boolean add(Integer value) {
+        return add(value.intValue());
+    }
+
+    /**
+     * Remove a single occurrence of the specified value from this Collection (optional operation).
+     *
+     * @param value the value to remove an occurrence of
+     * @return {@code true} if an occurrence was removed
+     * @throws UnsupportedOperationException if the {@code remove} operation
+     *         is not supported by this Collection
+     */
+    default boolean remove(int value) {
+        PrimitiveIterator.OfInt it = getAll(value);
+        if (!it.hasNext()) return false;
+        it.nextInt(); it.remove(); return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param o {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    default boolean remove(Object o) {
+        return o instanceof Integer && remove(((Integer) o).intValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param o {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    default boolean contains(Object o) {
+        return IntContainer.super.contains(o);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    default Spliterator.OfInt spliterator() {
+        return IntContainer.super.spliterator();
+    }
+}
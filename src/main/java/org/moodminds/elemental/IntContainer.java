@@ -0,0 +1,129 @@
+package org.moodminds.elemental;
+
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Spliterator.IMMUTABLE;
+
+/**
+ * A {@link Container} of {@code int} values, providing the primitive counterparts
+ * of the Container methods, which neither box the values nor allocate the wrappers
+ * to look them up. The {@link Object} accepting methods delegate to the primitive ones
+ * for the {@link Integer} examples and treat any other examples as absent.
+ *
+ * @see IntSequence
+ * @see IntCollection
+ */
+public interface IntContainer extends Container<Integer> {
+
+    /**
+     * Retrieve the number of occurrences of the specified value.
+     *
+     * @param value the specified value
+     * @return the number of occurrences of the specified value
+     */
+    int getCount(int value);
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param o {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    default int getCount(Object o) {
+        return o instanceof Integer ? getCount(((Integer) o).intValue()) : 0;
+    }
+
+    /**
+     * Retrieve the occurrences of the specified value.
+     *
+     * @param value the specified value
+     * @return a {@link PrimitiveIterator.OfInt} of the occurrences of the specified value
+     */
+    PrimitiveIterator.OfInt getAll(int value);
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param o {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    default PrimitiveIterator.OfInt getAll(Object o) {
+        return o instanceof Integer ? getAll(((Integer) o).intValue())
+                : java.util.Spliterators.iterator(java.util.Spliterators.emptyIntSpliterator());
+    }
+
+    /**
+     * Check if this Container contains the specified value.
+     *
+     * @param value the specified value
+     * @return {@code true} if this Container contains the specified value
+     */
+    default boolean contains(int value) {
+        return getAll(value).hasNext();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param o {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    default boolean contains(Object o) {
+        return o instanceof Integer && contains(((Integer) o).intValue());
+    }
+
+    /**
+     * Return a {@link PrimitiveIterator.OfInt} over the values in this Container. There are no
+     * guarantees concerning the order in which the values are returned.
+     *
+     * @return a {@link PrimitiveIterator.OfInt} over the values in this Container
+     */
+    @Override
+    PrimitiveIterator.OfInt iterator();
+
+    /**
+     * Return a {@link Spliterator.OfInt} over the values described by this Container.
+     *
+     * @return a {@code Spliterator.OfInt} over the values described by this Container
+     */
+    @Override
+    default Spliterator.OfInt spliterator() {
+        return java.util.Spliterators.spliterator(iterator(), size(), IMMUTABLE);
+    }
+
+    /**
+     * Return a sequential {@link IntStream} with this Container as its source.
+     *
+     * @return a sequential {@link IntStream} with this Container as its source
+     */
+    default IntStream intStream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    /**
+     * Return a possible parallel {@link IntStream} with this Container as its source.
+     *
+     * @return a possible parallel {@link IntStream} with this Container as its source
+     */
+    default IntStream parallelIntStream() {
+        return StreamSupport.intStream(spliterator(), true);
+    }
+
+    /**
+     * Return an array containing the values of this Container, in the order of its iterator.
+     *
+     * @return an array containing the values of this Container
+     */
+    default int[] toIntArray() {
+        int[] array = new int[size()]; int i = 0;
+        for (PrimitiveIterator.OfInt it = iterator(); it.hasNext(); )
+            array[i++] = it.nextInt();
+        return array;
+    }
+}
@@ -0,0 +1,361 @@
+package org.moodminds.elemental;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.StringJoiner;
+
+import static java.lang.String.format;
+import static org.moodminds.elemental.AbstractHashContainer.DEFAULT_CAPACITY;
+import static org.moodminds.elemental.AbstractHashContainer.DEFAULT_LOAD_FACTOR;
+import static org.moodminds.elemental.AbstractHashContainer.MAXIMUM_CAPACITY;
+import static org.moodminds.elemental.AbstractHashContainer.capacity;
+
+/**
+ * A hash table based {@link IntCollection}, which permits duplicates.
+ * This Collection is not a {@link java.util.Set}.
+ * <p>
+ * Each distinct value is kept once in a linearly probed slot of a primitive array together
+ * with the number of its occurrences, so neither adding nor looking a value up boxes it,
+ * while the {@link #getCount(int)}, {@link #contains(int)}, {@link #add(int)} and
+ * {@link #remove(int)} methods take constant time on average. Removal is done by backward
+ * shifting of the following probe run, so the table never contains tombstones. There are
+ * no guarantees concerning the iteration order.
+ * <p>
+ * This implementation is not synchronized. The iterators are <i>fail-fast</i>.
+ *
+ * @see HashCollection
+ * @see LongHashCollection
+ */
+public class IntHashCollection implements IntCollection, RandomMatch {
+
+    final float loadFactor;
+
+    int[] keys;
+    int[] counts; // a zero count marks an empty slot
+    int distinct;
+    long size;
+    int threshold;
+    int modCount;
+
+    /**
+     * Construct an empty Collection with the default expected size and load factor.
+     */
+    public IntHashCollection() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct an empty Collection able to hold the specified number of distinct values
+     * without resizing, with the default load factor.
+     *
+     * @param expectedSize the expected number of distinct values
+     * @throws IllegalArgumentException if the expected size is negative
+     */
+    public IntHashCollection(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Construct an empty Collection able to hold the specified number of distinct values
+     * without resizing, with the specified load factor.
+     *
+     * @param expectedSize the expected number of distinct values
+     * @param loadFactor the load factor of the table, between {@code 0} and {@code 1} exclusively
+     * @throws IllegalArgumentException if the expected size is negative or the load factor is illegal
+     */
+    public IntHashCollection(int expectedSize, float loadFactor) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException(format("Illegal expected size: %d", expectedSize));
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException(format("Illegal load factor: %s", loadFactor));
+        this.loadFactor = loadFactor; allocate(capacity(expectedSize, loadFactor));
+    }
+
+    /**
+     * Construct a Collection of the values of the given {@link Iterable}.
+     *
+     * @param values the given {@link Iterable} of values
+     * @throws NullPointerException if any of the values is {@code null}
+     */
+    public IntHashCollection(Iterable<? extends Integer> values) {
+        this(values instanceof Container ? ((Container<?>) values).size()
+                : values instanceof java.util.Collection ? ((java.util.Collection<?>) values).size() : DEFAULT_CAPACITY);
+        if (values instanceof IntContainer)
+            for (PrimitiveIterator.OfInt it = ((IntContainer) values).iterator(); it.hasNext(); )
+                insert(it.nextInt(), 1);
+        else for (Integer value : values) insert(value, 1);
+    }
+
+    @Override
+    public int getCount(int value) {
+        int i = find(value); return i < 0 ? 0 : counts[i];
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt getAll(int value) {
+        int i = find(value); return i < 0 ? java.util.Spliterators.iterator(java.util.Spliterators.emptyIntSpliterator())
+                : new RunIterator(i);
+    }
+
+    @Override
+    public boolean contains(int value) {
+        return find(value) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+
+    /**
+     * Add a single occurrence of the specified value to this Collection.
+     *
+     * @param value the value to add
+     * @return {@code true} always
+     */
+    @Override
+    public boolean add(int value) {
+        insert(value, 1); return true;
+    }
+
+    /**
+     * Remove a single occurrence of the specified value from this Collection.
+     *
+     * @param value the value to remove an occurrence of
+     * @return {@code true} if an occurrence was removed
+     */
+    @Override
+    public boolean remove(int value) {
+        int i = find(value);
+        if (i < 0) return false;
+        decrement(i); return true;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(counts, 0); distinct = 0; size = 0; modCount++;
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new HashIterator();
+    }
+
+    @Override
+    public int[] toIntArray() {
+        int[] array = new int[size()], keys = this.keys, counts = this.counts; int index = 0;
+        for (int i = keys.length - 1; i >= 0; i--)
+            for (int c = counts[i]; c > 0; c--)
+                array[index++] = keys[i];
+        return array;
+    }
+
+    /**
+     * Return the hash code value for this Collection, which is the sum of the value hash codes
+     * xor-ed with their occurrence counts, so equal Collections produce equal hash codes
+     * regardless of their slots layout.
+     *
+     * @return the hash code value for this Collection
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0; int[] keys = this.keys, counts = this.counts;
+        for (int i = 0; i < keys.length; i++)
+            if (counts[i] != 0)
+                hash += Integer.hashCode(keys[i]) ^ counts[i];
+        return hash;
+    }
+
+    /**
+     * Compare the specified object with this Collection for equality. Return {@code true}
+     * if the object is also an {@link IntHashCollection} of the same size and every value
+     * occurs in both Collections the same number of times.
+     *
+     * @param obj the object to be compared for equality with this Collection
+     * @return {@code true} if the specified object is equal to this Collection
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof IntHashCollection)) return false;
+        IntHashCollection c = (IntHashCollection) obj;
+        if (c.size != size || c.distinct != distinct) return false;
+        int[] keys = this.keys, counts = this.counts;
+        for (int i = 0; i < keys.length; i++)
+            if (counts[i] != 0) {
+                int j = c.find(keys[i]);
+                if (j < 0 || c.counts[j] != counts[i])
+                    return false;
+            }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (PrimitiveIterator.OfInt it = iterator(); it.hasNext(); )
+            joiner.add(String.valueOf(it.nextInt()));
+        return joiner.toString();
+    }
+
+    /**
+     * Find the slot of the specified key.
+     *
+     * @param key the specified key
+     * @return the slot index of the key, or {@code -(insertion slot) - 1} if the key is absent
+     */
+    final int find(int key) {
+        int[] keys = this.keys, counts = this.counts; int mask = keys.length - 1;
+        for (int i = spread(key) & mask; ; i = (i + 1) & mask) {
+            if (counts[i] == 0) return -1 - i;
+            if (keys[i] == key) return i;
+        }
+    }
+
+    /**
+     * Add the given number of occurrences of the specified key.
+     *
+     * @param key the specified key
+     * @param count the number of occurrences to add
+     */
+    final void insert(int key, int count) {
+        int i = find(key);
+        if (i >= 0) counts[i] += count;
+        else {
+            keys[i = -1 - i] = key; counts[i] = count;
+            if (++distinct > threshold) rehash(keys.length << 1);
+        } size += count; modCount++;
+    }
+
+    /**
+     * Remove a single occurrence of the value at the specified slot.
+     *
+     * @param i the specified slot
+     */
+    final void decrement(int i) {
+        if (--counts[i] == 0) {
+            shift(i, null); distinct--;
+        } size--; modCount++;
+    }
+
+    /**
+     * Delete the slot at the specified position, shifting the following entries of the probe
+     * run backward. Entries wrapped from the table start to the vacated positions behind
+     * are reported to the given {@link HashIterator}, if any.
+     *
+     * @param pos the position to delete
+     * @param iterator the iterator traversing the table downward, or {@code null}
+     */
+    final void shift(int pos, HashIterator iterator) {
+        int[] keys = this.keys, counts = this.counts; int mask = keys.length - 1;
+        for (int last; ; ) {
+            pos = ((last = pos) + 1) & mask; int k;
+            for (; ; pos = (pos + 1) & mask) {
+                if (counts[pos] == 0) {
+                    counts[last] = 0; return; }
+                int slot = spread(k = keys[pos]) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+                    break;
+            }
+            if (pos < last && iterator != null)
+                iterator.wrapped(k);
+            keys[last] = k; counts[last] = counts[pos];
+        }
+    }
+
+    final void rehash(int capacity) {
+        if (keys.length == MAXIMUM_CAPACITY)
+            throw new IllegalStateException("Maximum capacity exceeded");
+        int[] keys = this.keys, counts = this.counts; allocate(capacity);
+        int[] newKeys = this.keys, newCounts = this.counts; int mask = newKeys.length - 1;
+        for (int i = 0; i < keys.length; i++)
+            if (counts[i] != 0) {
+                int j = spread(keys[i]) & mask;
+                while (newCounts[j] != 0) j = (j + 1) & mask;
+                newKeys[j] = keys[i]; newCounts[j] = counts[i];
+            }
+    }
+
+    final void allocate(int capacity) {
+        keys = new int[capacity]; counts = new int[capacity];
+        threshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    static int spread(int key) {
+        int h = key * 0x9E3779B9; return h ^ (h >>> 16);
+    }
+
+
+    /**
+     * An iterator over the occurrences of a single slot value.
+     */
+    class RunIterator implements PrimitiveIterator.OfInt {
+
+        final int key; int slot, remaining, expectedModCount = modCount; boolean removable;
+
+        RunIterator(int slot) {
+            this.key = keys[slot]; this.slot = slot; this.remaining = counts[slot];
+        }
+
+        @Override public boolean hasNext() { return remaining > 0; }
+
+        @Override public int nextInt() {
+            checkModCount();
+            if (remaining == 0) throw new NoSuchElementException();
+            remaining--; removable = true; return key; }
+
+        @Override public void remove() {
+            if (!removable) throw new IllegalStateException();
+            checkModCount(); removable = false;
+            if (counts[slot] == 0 || keys[slot] != key) slot = find(key);
+            decrement(slot); expectedModCount = modCount; }
+
+        final void checkModCount() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException(); }
+    }
+
+    /**
+     * An iterator over all the slots, traversing the table downward so the backward shifting
+     * on removal never moves unvisited entries behind, except of the ones wrapped around
+     * the table end, which are collected and visited at last.
+     */
+    class HashIterator implements PrimitiveIterator.OfInt {
+
+        int index = keys.length, slot = -1, remaining, expectedModCount = modCount, key;
+        long left = size; boolean removable;
+        int[] wrapped; int wrappedSize, wrappedIndex;
+
+        @Override public boolean hasNext() { return left > 0; }
+
+        @Override public int nextInt() {
+            checkModCount();
+            if (left == 0) throw new NoSuchElementException();
+            if (remaining == 0) advance();
+            remaining--; left--; removable = true; return key; }
+
+        private void advance() {
+            int[] counts = IntHashCollection.this.counts;
+            while (--index >= 0)
+                if (counts[index] != 0) {
+                    key = keys[slot = index]; remaining = counts[index]; return; }
+            index = -1; slot = -1; key = wrapped[wrappedIndex++]; remaining = counts[find(key)]; }
+
+        final void wrapped(int key) {
+            if (wrapped == null) wrapped = new int[2];
+            else if (wrappedSize == wrapped.length) wrapped = Arrays.copyOf(wrapped, wrappedSize << 1);
+            wrapped[wrappedSize++] = key; }
+
+        @Override public void remove() {
+            if (!removable) throw new IllegalStateException();
+            checkModCount(); removable = false;
+            int i = slot < 0 ? find(key) : slot;
+            if (--counts[i] == 0) {
+                shift(i, slot < 0 ? null : this); distinct--;
+            } size--; modCount++; expectedModCount = modCount; }
+
+        final void checkModCount() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException(); }
+    }
+}
@@ -0,0 +1,432 @@
+package org.moodminds.elemental;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.StringJoiner;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+
+import static java.lang.String.format;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+import static java.util.Objects.requireNonNull;
+import static org.moodminds.elemental.AbstractHashContainer.DEFAULT_CAPACITY;
+import static org.moodminds.elemental.AbstractHashContainer.DEFAULT_LOAD_FACTOR;
+import static org.moodminds.elemental.AbstractHashContainer.MAXIMUM_CAPACITY;
+import static org.moodminds.elemental.AbstractHashContainer.capacity;
+
+/**
+ * A hash table based map of {@code int} keys to object values.
+ * <p>
+ * The keys and values are kept in the parallel linearly probed slot arrays, so neither
+ * looking a key up nor associating a value with it boxes the key or allocates an entry,
+ * while the {@link #get(int)}, {@link #put(int, Object)}, {@link #remove(int)} and
+ * {@link #merge(int, Object, BiFunction)} methods take constant time on average. The zero
+ * key marks the empty slots and is kept in a dedicated slot behind the table. Removal is done
+ * by backward shifting of the following probe run, so the table never contains tombstones.
+ * There are no guarantees concerning the iteration order.
+ * <p>
+ * The map integrates with the {@link Map} hierarchy through the boxing {@link #asMap()} view.
+ * <p>
+ * This implementation is not synchronized. The iterators of the view are <i>fail-fast</i>.
+ *
+ * @param <V> the type of values
+ *
+ * @see LongObjectMap
+ */
+public class IntObjectMap<V> {
+
+    final float loadFactor;
+
+    int[] keys;
+    Object[] values;
+    int mask;
+    boolean zero; // whether the zero key slot behind the table is occupied
+    int size;
+    int threshold;
+    int modCount;
+
+    /**
+     * Construct an empty map with the default expected size and load factor.
+     */
+    public IntObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct an empty map able to hold the specified number of mappings
+     * without resizing, with the default load factor.
+     *
+     * @param expectedSize the expected number of mappings
+     * @throws IllegalArgumentException if the expected size is negative
+     */
+    public IntObjectMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Construct an empty map able to hold the specified number of mappings
+     * without resizing, with the specified load factor.
+     *
+     * @param expectedSize the expected number of mappings
+     * @param loadFactor the load factor of the table, between {@code 0} and {@code 1} exclusively
+     * @throws IllegalArgumentException if the expected size is negative or the load factor is illegal
+     */
+    public IntObjectMap(int expectedSize, float loadFactor) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException(format("Illegal expected size: %d", expectedSize));
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException(format("Illegal load factor: %s", loadFactor));
+        this.loadFactor = loadFactor; allocate(capacity(expectedSize, loadFactor));
+    }
+
+    /**
+     * Return the number of mappings in this map.
+     *
+     * @return the number of mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if this map contains no mappings.
+     *
+     * @return {@code true} if this map contains no mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Check if this map contains a mapping for the specified key.
+     *
+     * @param key the specified key
+     * @return {@code true} if this map contains a mapping for the specified key
+     */
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Return the value to which the specified key is associated.
+     *
+     * @param key the specified key
+     * @return the value to which the specified key is associated, or {@code null}
+     * if the specified key is not associated with any value
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int i = find(key); return i < 0 ? null : (V) values[i];
+    }
+
+    /**
+     * Retrieve the value associated with the specified key, or return the default value if none is found.
+     *
+     * @param key the key whose associated value is to be retrieved
+     * @param defaultValue the default value to return if the key is not found
+     * @return the value associated with the specified key, or the default value if not found
+     */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(int key, V defaultValue) {
+        int i = find(key); return i < 0 ? defaultValue : (V) values[i];
+    }
+
+    /**
+     * Associate the specified value with the specified key in this map.
+     *
+     * @param key the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @return the previous value associated with the key, or {@code null} if there was no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        int i = find(key);
+        if (i < 0) {
+            insert(-1 - i, key, value); return null; }
+        V old = (V) values[i]; values[i] = value; return old;
+    }
+
+    /**
+     * Associate the specified value with the specified key, if the key is not already
+     * associated with a value or is associated with {@code null}.
+     *
+     * @param key the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @return the previous value associated with the key, or {@code null} if there was no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(int key, V value) {
+        int i = find(key);
+        if (i < 0) {
+            insert(-1 - i, key, value); return null; }
+        V old = (V) values[i]; if (old == null) values[i] = value; return old;
+    }
+
+    /**
+     * Remove the mapping for the specified key from this map, if present.
+     *
+     * @param key the key whose mapping is to be removed
+     * @return the previous value associated with the key, or {@code null} if there was no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = find(key); if (i < 0) return null;
+        V old = (V) values[i]; delete(i, null); return old;
+    }
+
+    /**
+     * Associate the specified value with the specified key if it is not already associated
+     * with a non-{@code null} value, otherwise replace the associated value with the result
+     * of the given remapping function, or remove the mapping if the result is {@code null}.
+     *
+     * @param key the key with which the resulting value is to be associated
+     * @param value the non-{@code null} value to be merged with the existing value
+     * @param remappingFunction the function to recompute a value if present
+     * @return the new value associated with the specified key, or {@code null} if no value is associated with the key
+     * @throws NullPointerException if the specified value or remapping function is {@code null}
+     * @throws ConcurrentModificationException if the remapping function modified this map
+     */
+    @SuppressWarnings("unchecked")
+    public V merge(int key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        requireNonNull(value); requireNonNull(remappingFunction); int i = find(key);
+        if (i < 0) {
+            insert(-1 - i, key, value); return value; }
+        int modCount = this.modCount; V old = (V) values[i], result = old == null ? value : remappingFunction.apply(old, value);
+        if (modCount != this.modCount) throw new ConcurrentModificationException();
+        if (result == null) delete(i, null);
+        else values[i] = result;
+        return result;
+    }
+
+    /**
+     * Associate the value computed by the given mapping function with the specified key,
+     * if the key is not already associated with a non-{@code null} value.
+     *
+     * @param key the key with which the computed value is to be associated
+     * @param mappingFunction the function to compute a value
+     * @return the current (existing or computed) value associated with the specified key,
+     * or {@code null} if the computed value is {@code null}
+     * @throws NullPointerException if the mapping function is {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(int key, IntFunction<? extends V> mappingFunction) {
+        requireNonNull(mappingFunction); int i = find(key); V value;
+        if (i >= 0 && (value = (V) values[i]) != null) return value;
+        if ((value = mappingFunction.apply(key)) != null) put(key, value);
+        return value;
+    }
+
+    /**
+     * Remove all the mappings from this map.
+     */
+    public void clear() {
+        fill(keys, 0); fill(values, null); zero = false; size = 0; modCount++;
+    }
+
+    /**
+     * Perform the given action for each mapping of this map, walking the slot arrays directly
+     * without boxing the keys or creating the entries.
+     *
+     * @param action the action to be performed for each mapping
+     * @throws NullPointerException if the specified action is {@code null}
+     * @throws ConcurrentModificationException if this map is modified during the iteration
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        requireNonNull(action); int[] keys = this.keys; Object[] values = this.values; int modCount = this.modCount;
+        if (zero) action.accept(0, (V) values[mask + 1]);
+        for (int i = mask; i >= 0; i--)
+            if (keys[i] != 0) action.accept(keys[i], (V) values[i]);
+        if (modCount != this.modCount) throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Return a {@link Map} view of this map, boxing the keys. The view is backed by this map,
+     * does not permit {@code null} keys and its iterators support removal.
+     *
+     * @return a {@link Map} view of this map
+     */
+    public Map<Integer, V> asMap() {
+        return new MapView();
+    }
+
+    @Override
+    public int hashCode() {
+        return asMap().hashCode();
+    }
+
+    /**
+     * Compare the specified object with this map for equality. Return {@code true}
+     * if the object is also an {@link IntObjectMap} containing the same mappings.
+     *
+     * @param obj the object to be compared for equality with this map
+     * @return {@code true} if the specified object is equal to this map
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof IntObjectMap)) return false;
+        IntObjectMap<?> m = (IntObjectMap<?>) obj;
+        if (m.size != size) return false;
+        for (PrimitiveIterator.OfInt it = new HashIterator(); it.hasNext(); ) {
+            int i = it.nextInt(), j = m.find(keys[i]);
+            if (j < 0 || !Objects.equals(values[i], m.values[j])) return false;
+        } return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEach((key, value) -> joiner.add(key + "=" + (value == this ? "(this Map)" : String.valueOf(value))));
+        return joiner.toString();
+    }
+
+    /**
+     * Find the slot of the specified key.
+     *
+     * @param key the specified key
+     * @return the slot index of the key, or {@code -(insertion slot) - 1} if the key is absent
+     */
+    final int find(int key) {
+        if (key == 0) return zero ? mask + 1 : -1 - (mask + 1);
+        int[] keys = this.keys; int mask = this.mask;
+        for (int i = spread(key) & mask; ; i = (i + 1) & mask) {
+            int k = keys[i];
+            if (k == 0) return -1 - i;
+            if (k == key) return i;
+        }
+    }
+
+    final void insert(int i, int key, Object value) {
+        keys[i] = key; values[i] = value; if (i > mask) zero = true;
+        if (++size > threshold) rehash((mask + 1) << 1);
+        modCount++;
+    }
+
+    final void delete(int i, HashIterator iterator) {
+        if (i > mask) {
+            values[i] = null; zero = false;
+        } else shift(i, iterator);
+        size--; modCount++;
+    }
+
+    /**
+     * Delete the slot at the specified position, shifting the following entries of the probe
+     * run backward. Entries wrapped from the table start to the vacated positions behind
+     * are reported to the given {@link HashIterator}, if any.
+     *
+     * @param pos the position to delete
+     * @param iterator the iterator traversing the table downward, or {@code null}
+     */
+    final void shift(int pos, HashIterator iterator) {
+        int[] keys = this.keys; Object[] values = this.values; int mask = this.mask;
+        for (int last; ; ) {
+            pos = ((last = pos) + 1) & mask; int k;
+            for (; ; pos = (pos + 1) & mask) {
+                if ((k = keys[pos]) == 0) {
+                    keys[last] = 0; values[last] = null; return; }
+                int slot = spread(k) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+                    break;
+            }
+            if (pos < last && iterator != null)
+                iterator.wrapped(k);
+            keys[last] = k; values[last] = values[pos];
+        }
+    }
+
+    final void rehash(int capacity) {
+        if (mask + 1 == MAXIMUM_CAPACITY)
+            throw new IllegalStateException("Maximum capacity exceeded");
+        int[] keys = this.keys; Object[] values = this.values; int n = mask + 1; allocate(capacity);
+        int[] newKeys = this.keys; Object[] newValues = this.values; int mask = this.mask;
+        newValues[mask + 1] = values[n];
+        for (int i = 0; i < n; i++)
+            if (keys[i] != 0) {
+                int j = spread(keys[i]) & mask;
+                while (newKeys[j] != 0) j = (j + 1) & mask;
+                newKeys[j] = keys[i]; newValues[j] = values[i];
+            }
+    }
+
+    final void allocate(int capacity) {
+        keys = new int[capacity + 1]; values = new Object[capacity + 1]; mask = capacity - 1;
+        threshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    static int spread(int key) {
+        int h = key * 0x9E3779B9; return h ^ (h >>> 16);
+    }
+
+
+    /**
+     * An operation accepting a mapping of an {@code int} key and an object value.
+     *
+     * @param <V> the type of values
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+
+        /**
+         * Perform this operation on the given mapping.
+         *
+         * @param key the key of the mapping
+         * @param value the value of the mapping
+         */
+        void accept(int key, V value);
+    }
+
+    /**
+     * An iterator of the occupied slot indexes, traversing the table downward so the backward shifting
+     * on removal never moves unvisited entries behind, except of the ones wrapped around
+     * the table end, which are collected and visited at last.
+     */
+    final class HashIterator implements PrimitiveIterator.OfInt {
+
+        int index = mask + 2, slot = -1, left = size, expectedModCount = modCount;
+        int[] wrapped; int wrappedSize, wrappedIndex;
+
+        @Override public boolean hasNext() { return left > 0; }
+
+        @Override public int nextInt() {
+            checkModCount();
+            if (left == 0) throw new NoSuchElementException();
+            left--; int[] keys = IntObjectMap.this.keys;
+            while (--index >= 0)
+                if (index > mask ? zero : keys[index] != 0) return slot = index;
+            index = -1; return slot = find(wrapped[wrappedIndex++]); }
+
+        void wrapped(int key) {
+            if (wrapped == null) wrapped = new int[2];
+            else if (wrappedSize == wrapped.length) wrapped = copyOf(wrapped, wrappedSize << 1);
+            wrapped[wrappedSize++] = key; }
+
+        @Override public void remove() {
+            if (slot < 0) throw new IllegalStateException();
+            checkModCount(); delete(slot, index < 0 ? null : this);
+            slot = -1; expectedModCount = modCount; }
+
+        void checkModCount() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException(); }
+    }
+
+    /**
+     * The {@link Map} view of this map.
+     */
+    final class MapView extends AbstractMapView<Integer, V> {
+
+        @Override int slot(Object key) { return key instanceof Integer ? find((Integer) key) : -1; }
+        @Override Integer key(int slot) { return keys[slot]; }
+        @Override @SuppressWarnings("unchecked") V value(int slot) { return (V) values[slot]; }
+        @Override V value(int slot, V value) { V old = value(slot); values[slot] = value; return old; }
+        @Override PrimitiveIterator.OfInt slots() { return new HashIterator(); }
+
+        @Override public int size() { return size; }
+        @Override public V put(Integer key, V value) { return IntObjectMap.this.put(key, value); }
+        @Override public V remove(Object key) { return key instanceof Integer ? IntObjectMap.this.remove((Integer) key) : null; }
+        @Override public void clear() { IntObjectMap.this.clear(); }
+    }
+}
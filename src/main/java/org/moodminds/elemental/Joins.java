@@ -0,0 +1,288 @@
+package org.moodminds.elemental;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The key joins of two {@link Association}s: the inner and the left outer joins, yielding the
+ * {@link Tuple3}s of the key, the left value and the right value, and the semi and the anti joins,
+ * yielding the left key-value pairs which have or have no mapping in the right Association.
+ * <p>
+ * The joins are evaluated lazily by the returned {@link Advancer}s, never materializing the result.
+ * If both Associations are {@link SortedAssociation}s of equal comparators, they are merged by a single
+ * linear pass over both in the key order, so the result keeps the order. Otherwise, the left Association
+ * is traversed and its keys are looked up in the right Association, which is a hash join: the {@link RandomMatch},
+ * {@link SortedAssociation} or {@link java.util.Map} right Association is probed by its own lookups, while any other
+ * one is first hashed into a temporary table.
+ * <p>
+ * The {@code parallel} variants return the {@link ParallelProducer}s partitioning the left Association
+ * by its {@link Spliterator} and probing the right one in the pool threads, so the Associations
+ * must not be modified while the results are provided.
+ */
+public final class Joins {
+
+    private static final int INNER = 0, LEFT = 1, SEMI = 2, ANTI = 3;
+
+    /**
+     * The probe result of a key without mapping, distinct from the {@code null} value.
+     */
+    private static final Object ABSENT = new Object();
+
+    private Joins() {}
+
+    /**
+     * Return the {@link Advancer} of the inner join of the given Associations, yielding a {@link Tuple3}
+     * of the key, the left value and the right value for each key mapped in both Associations.
+     *
+     * @param left the left Association
+     * @param right the right Association
+     * @return the {@link Advancer} of the inner join of the given Associations
+     * @param <K> the type of keys
+     * @param <V1> the type of the left values
+     * @param <V2> the type of the right values
+     */
+    public static <K, V1, V2> Advancer<Tuple3<K, V1, V2>> inner(Association<K, V1, ?> left, Association<K, V2, ?> right) {
+        return join(left, right, INNER);
+    }
+
+    /**
+     * Return the {@link Advancer} of the left outer join of the given Associations, yielding a {@link Tuple3}
+     * of the key, the left value and the right value, or {@code null} if the key is not mapped in the right
+     * Association, for each key of the left Association.
+     *
+     * @param left the left Association
+     * @param right the right Association
+     * @return the {@link Advancer} of the left outer join of the given Associations
+     * @param <K> the type of keys
+     * @param <V1> the type of the left values
+     * @param <V2> the type of the right values
+     */
+    public static <K, V1, V2> Advancer<Tuple3<K, V1, V2>> left(Association<K, V1, ?> left, Association<K, V2, ?> right) {
+        return join(left, right, LEFT);
+    }
+
+    /**
+     * Return the {@link Advancer} of the semi join of the given Associations, yielding the key-value pairs
+     * of the left Association whose keys are mapped in the right Association.
+     *
+     * @param left the left Association
+     * @param right the right Association
+     * @return the {@link Advancer} of the semi join of the given Associations
+     * @param <K> the type of keys
+     * @param <KV> the type of the left key-value pairs
+     */
+    public static <K, KV extends KeyValue<K, ?>> Advancer<KV> semi(Association<K, ?, KV> left, Association<K, ?, ?> right) {
+        return join(left, right, SEMI);
+    }
+
+    /**
+     * Return the {@link Advancer} of the anti join of the given Associations, yielding the key-value pairs
+     * of the left Association whose keys are not mapped in the right Association.
+     *
+     * @param left the left Association
+     * @param right the right Association
+     * @return the {@link Advancer} of the anti join of the given Associations
+     * @param <K> the type of keys
+     * @param <KV> the type of the left key-value pairs
+     */
+    public static <K, KV extends KeyValue<K, ?>> Advancer<KV> anti(Association<K, ?, KV> left, Association<K, ?, ?> right) {
+        return join(left, right, ANTI);
+    }
+
+    /**
+     * Return the unordered {@link ParallelProducer} of the inner join of the given Associations on the common pool.
+     *
+     * @param left the left Association
+     * @param right the right Association
+     * @return the {@link ParallelProducer} of the inner join of the given Associations
+     * @param <K> the type of keys
+     * @param <V1> the type of the left values
+     * @param <V2> the type of the right values
+     * @see #inner(Association, Association)
+     */
+    public static <K, V1, V2> ParallelProducer<Tuple3<K, V1, V2>> parallelInner(Association<K, V1, ?> left, Association<K, V2, ?> right) {
+        return parallel(left, right, INNER);
+    }
+
+    /**
+     * Return the unordered {@link ParallelProducer} of the left outer join of the given Associations on the common pool.
+     *
+     * @param left the left Association
+     * @param right the right Association
+     * @return the {@link ParallelProducer} of the left outer join of the given Associations
+     * @param <K> the type of keys
+     * @param <V1> the type of the left values
+     * @param <V2> the type of the right values
+     * @see #left(Association, Association)
+     */
+    public static <K, V1, V2> ParallelProducer<Tuple3<K, V1, V2>> parallelLeft(Association<K, V1, ?> left, Association<K, V2, ?> right) {
+        return parallel(left, right, LEFT);
+    }
+
+    /**
+     * Return the unordered {@link ParallelProducer} of the semi join of the given Associations on the common pool.
+     *
+     * @param left the left Association
+     * @param right the right Association
+     * @return the {@link ParallelProducer} of the semi join of the given Associations
+     * @param <K> the type of keys
+     * @param <KV> the type of the left key-value pairs
+     * @see #semi(Association, Association)
+     */
+    public static <K, KV extends KeyValue<K, ?>> ParallelProducer<KV> parallelSemi(Association<K, ?, KV> left, Association<K, ?, ?> right) {
+        return parallel(left, right, SEMI);
+    }
+
+    /**
+     * Return the unordered {@link ParallelProducer} of the anti join of the given Associations on the common pool.
+     *
+     * @param left the left Association
+     * @param right the right Association
+     * @return the {@link ParallelProducer} of the anti join of the given Associations
+     * @param <K> the type of keys
+     * @param <KV> the type of the left key-value pairs
+     * @see #anti(Association, Association)
+     */
+    public static <K, KV extends KeyValue<K, ?>> ParallelProducer<KV> parallelAnti(Association<K, ?, KV> left, Association<K, ?, ?> right) {
+        return parallel(left, right, ANTI);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> Advancer<R> join(Association<?, ?, ?> left, Association<?, ?, ?> right, int kind) {
+        requireNonNull(left); requireNonNull(right);
+        if (left instanceof SortedAssociation && right instanceof SortedAssociation) {
+            Comparator<?> comparator = ((SortedAssociation<?, ?, ?>) left).comparator();
+            if (Objects.equals(comparator, ((SortedAssociation<?, ?, ?>) right).comparator()))
+                return (Advancer<R>) new MergeJoin(left.iterator(), right.iterator(), order(comparator), kind);
+        }
+        return (Advancer<R>) new HashJoin(left.iterator(), probe(right), kind);
+    }
+
+    private static <R> ParallelProducer<R> parallel(Association<?, ?, ?> left, Association<?, ?, ?> right, int kind) {
+        requireNonNull(left); requireNonNull(right); Function<Object, Object> probe = probe(right);
+        return new ParallelProducer<>(() -> new JoinSpliterator<R>(left.spliterator(), probe, kind), ForkJoinPool.commonPool(), false);
+    }
+
+    /**
+     * Return the function of a key to its value in the given Association, or to {@link #ABSENT} if the key
+     * is not mapped, which is safe to apply concurrently while the Association is not modified.
+     */
+    private static Function<Object, Object> probe(Association<?, ?, ?> association) {
+        if (association instanceof RandomMatch || association instanceof SortedAssociation || association instanceof java.util.Map)
+            return key -> {
+                Object value = association.get(key);
+                return value != null || association.containsKey(key) ? value : ABSENT; };
+        HashMap<Object, Object> table = new HashMap<>(Math.max((int) (association.size() / .75f) + 1, 16));
+        for (KeyValue<?, ?> kv : association) table.put(kv.getKey(), kv.getValue());
+        return key -> table.getOrDefault(key, ABSENT);
+    }
+
+    /**
+     * Pass the join result of the given left key-value pair and its right value, or {@link #ABSENT},
+     * to the given consumer, if any.
+     *
+     * @return {@code true} if a result was passed to the consumer
+     */
+    private static boolean emit(int kind, KeyValue<?, ?> kv, Object value, Consumer<Object> consumer) {
+        if (kind == LEFT) {
+            consumer.accept(Tuple.of(kv.getKey(), kv.getValue(), value == ABSENT ? null : value)); return true; }
+        if (value == ABSENT != (kind == ANTI)) return false;
+        consumer.accept(kind == INNER ? Tuple.of(kv.getKey(), kv.getValue(), value) : kv); return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Object> order(Comparator<?> comparator) {
+        return comparator != null ? (Comparator<Object>) comparator : (x, y) -> ((Comparable<Object>) x).compareTo(y);
+    }
+
+
+    /**
+     * The merge join {@link Advancer}, traversing both Associations in the key order.
+     */
+    private static final class MergeJoin implements Advancer<Object> {
+
+        final Iterator<? extends KeyValue<?, ?>> left, right;
+        final Comparator<Object> comparator;
+        final int kind;
+        KeyValue<?, ?> next; // the current right pair, null when exhausted
+
+        MergeJoin(Iterator<? extends KeyValue<?, ?>> left, Iterator<? extends KeyValue<?, ?>> right, Comparator<Object> comparator, int kind) {
+            this.left = left; this.right = right; this.comparator = comparator; this.kind = kind;
+            this.next = right.hasNext() ? right.next() : null;
+        }
+
+        @Override public boolean next(Consumer<? super Object> consumer) {
+            requireNonNull(consumer);
+            while (left.hasNext()) {
+                KeyValue<?, ?> kv = left.next(); Object key = kv.getKey(); int c = 1;
+                while (next != null && (c = comparator.compare(next.getKey(), key)) < 0)
+                    next = right.hasNext() ? right.next() : null;
+                if (emit(kind, kv, c == 0 ? next.getValue() : ABSENT, consumer)) return true;
+            }
+            return false; }
+    }
+
+    /**
+     * The hash join {@link Advancer}, traversing the left Association and probing the right one.
+     */
+    private static final class HashJoin implements Advancer<Object> {
+
+        final Iterator<? extends KeyValue<?, ?>> left;
+        final Function<Object, Object> probe;
+        final int kind;
+
+        HashJoin(Iterator<? extends KeyValue<?, ?>> left, Function<Object, Object> probe, int kind) {
+            this.left = left; this.probe = probe; this.kind = kind;
+        }
+
+        @Override public boolean next(Consumer<? super Object> consumer) {
+            requireNonNull(consumer);
+            while (left.hasNext()) {
+                KeyValue<?, ?> kv = left.next();
+                if (emit(kind, kv, probe.apply(kv.getKey()), consumer)) return true;
+            }
+            return false; }
+    }
+
+    /**
+     * The hash join {@link Spliterator}, splitting the Spliterator of the left Association.
+     */
+    private static final class JoinSpliterator<R> implements Spliterator<R> {
+
+        final Spliterator<? extends KeyValue<?, ?>> left;
+        final Function<Object, Object> probe;
+        final int kind;
+        boolean emitted;
+
+        JoinSpliterator(Spliterator<? extends KeyValue<?, ?>> left, Function<Object, Object> probe, int kind) {
+            this.left = left; this.probe = probe; this.kind = kind;
+        }
+
+        @Override @SuppressWarnings("unchecked") public boolean tryAdvance(Consumer<? super R> action) {
+            requireNonNull(action); Consumer<Object> consumer = (Consumer<Object>) action;
+            emitted = false;
+            while (!emitted && left.tryAdvance(kv -> emitted = emit(kind, kv, probe.apply(kv.getKey()), consumer))) {}
+            return emitted; }
+
+        @Override @SuppressWarnings("unchecked") public void forEachRemaining(Consumer<? super R> action) {
+            requireNonNull(action); Consumer<Object> consumer = (Consumer<Object>) action;
+            left.forEachRemaining(kv -> emit(kind, kv, probe.apply(kv.getKey()), consumer)); }
+
+        @Override public Spliterator<R> trySplit() {
+            Spliterator<? extends KeyValue<?, ?>> prefix = left.trySplit();
+            return prefix == null ? null : new JoinSpliterator<>(prefix, probe, kind); }
+
+        @Override public long estimateSize() { return left.estimateSize(); }
+
+        @Override public int characteristics() {
+            return left.characteristics() & (ORDERED | IMMUTABLE | CONCURRENT) | (kind == LEFT ? left.characteristics() & (SIZED | SUBSIZED) : 0); }
+    }
+}
@@ -415,11 +415,17 @@ public interface List<E> extends Collection<E>, TailedSequence<E>, java.util.Lis
     /**
      * {@inheritDoc}
      *
+     * @implNote If this List is a {@link RandomGet} one, the Spliterator reads the elements
+     * by the {@link #get(int)} method and splits by halving the index range, having the
+     * {@link Spliterator#ORDERED}, {@link Spliterator#SIZED} and {@link Spliterator#SUBSIZED}
+     * characteristics.
+     *
      * @return {@inheritDoc}
      */
     @Override
     default Spliterator<E> spliterator() {
-        return java.util.List.super.spliterator();
+        return this instanceof RandomGet ? new RandomGetSpliterator<>(this)
+                : java.util.List.super.spliterator();
     }
 
     /**
@@ -0,0 +1,81 @@
+package org.moodminds.elemental;
+
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+
+/**
+ * A mutative extension of the {@link LongContainer} interface, which also extends
+ * the {@link Collection} interface, providing the primitive counterparts of its
+ * modification methods.
+ *
+ * @see LongHashCollection
+ */
+public interface LongCollection extends LongContainer, Collection<Long> {
+
+    /**
+     * Add the specified value to this Collection (optional operation).
+     *
+     * @param value the value to add
+     * @return {@code true} if this Collection changed as a result of the call
+     * @throws UnsupportedOperationException if the {@code add} operation
+     *         is not supported by this Collection
+     */
+    boolean add(long value);
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param value {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    default boolean add(Long value) {
+        return add(value.longValue());
+    }
+
+    /**
+     * Remove a single occurrence of the specified value from this Collection (optional operation).
+     *
+     * @param value the value to remove an occurrence of
+     * @return {@code true} if an occurrence was removed
+     * @throws UnsupportedOperationException if the {@code remove} operation
+     *         is not supported by this Collection
+     */
+    default boolean remove(long value) {
+        PrimitiveIterator.OfLong it = getAll(value);
+        if (!it.hasNext()) return false;
+        it.nextLong(); it.remove(); return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param o {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    default boolean remove(Object o) {
+        return o instanceof Long && remove(((Long) o).longValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param o {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    default boolean contains(Object o) {
+        return LongContainer.super.contains(o);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    default Spliterator.OfLong spliterator() {
+        return LongContainer.super.spliterator();
+    }
+}
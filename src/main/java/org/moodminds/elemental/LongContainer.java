@@ -0,0 +1,129 @@
+package org.moodminds.elemental;
+
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Spliterator.IMMUTABLE;
+
+/**
+ * A {@link Container} of {@code long} values, providing the primitive counterparts
+ * of the Container methods, which neither box the values nor allocate the wrappers
+ * to look them up. The {@link Object} accepting methods delegate to the primitive ones
+ * for the {@link Long} examples and treat any other examples as absent.
+ *
+ * @see LongSequence
+ * @see LongCollection
+ */
+public interface LongContainer extends Container<Long> {
+
+    /**
+     * Retrieve the number of occurrences of the specified value.
+     *
+     * @param value the specified value
+     * @return the number of occurrences of the specified value
+     */
+    int getCount(long value);
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param o {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    default int getCount(Object o) {
+        return o instanceof Long ? getCount(((Long) o).longValue()) : 0;
+    }
+
+    /**
+     * Retrieve the occurrences of the specified value.
+     *
+     * @param value the specified value
+     * @return a {@link PrimitiveIterator.OfLong} of the occurrences of the specified value
+     */
+    PrimitiveIterator.OfLong getAll(long value);
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param o {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    default PrimitiveIterator.OfLong getAll(Object o) {
+        return o instanceof Long ? getAll(((Long) o).longValue())
+                : java.util.Spliterators.iterator(java.util.Spliterators.emptyLongSpliterator());
+    }
+
+    /**
+     * Check if this Container contains the specified value.
+     *
+     * @param value the specified value
+     * @return {@code true} if this Container contains the specified value
+     */
+    default boolean contains(long value) {
+        return getAll(value).hasNext();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param o {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    default boolean contains(Object o) {
+        return o instanceof Long && contains(((Long) o).longValue());
+    }
+
+    /**
+     * Return a {@link PrimitiveIterator.OfLong} over the values in this Container. There are no
+     * guarantees concerning the order in which the values are returned.
+     *
+     * @return a {@link PrimitiveIterator.OfLong} over the values in this Container
+     */
+    @Override
+    PrimitiveIterator.OfLong iterator();
+
+    /**
+     * Return a {@link Spliterator.OfLong} over the values described by this Container.
+     *
+     * @return a {@code Spliterator.OfLong} over the values described by this Container
+     */
+    @Override
+    default Spliterator.OfLong spliterator() {
+        return java.util.Spliterators.spliterator(iterator(), size(), IMMUTABLE);
+    }
+
+    /**
+     * Return a sequential {@link LongStream} with this Container as its source.
+     *
+     * @return a sequential {@link LongStream} with this Container as its source
+     */
+    default LongStream longStream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    /**
+     * Return a possible parallel {@link LongStream} with this Container as its source.
+     *
+     * @return a possible parallel {@link LongStream} with this Container as its source
+     */
+    default LongStream parallelLongStream() {
+        return StreamSupport.longStream(spliterator(), true);
+    }
+
+    /**
+     * Return an array containing the values of this Container, in the order of its iterator.
+     *
+     * @return an array containing the values of this Container
+     */
+    default long[] toLongArray() {
+        long[] array = new long[size()]; int i = 0;
+        for (PrimitiveIterator.OfLong it = iterator(); it.hasNext(); )
+            array[i++] = it.nextLong();
+        return array;
+    }
+}
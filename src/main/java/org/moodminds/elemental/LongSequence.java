@@ -0,0 +1,88 @@
+package org.moodminds.elemental;
+
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * A {@link Sequence} of {@code long} values, providing the primitive counterparts
+ * of the positional Sequence methods.
+ *
+ * @see LongArraySequence
+ */
+public interface LongSequence extends LongContainer, Sequence<Long> {
+
+    /**
+     * Retrieve the value at the specified position in this Sequence.
+     *
+     * @param index the index of the value to return
+     * @return the value at the specified position in this Sequence
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *         ({@code index < 0 || index >= size()})
+     */
+    long getLong(int index);
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param index {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    default <R extends Long> R get(int index) {
+        return (R) Long.valueOf(getLong(index));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param fromIndex {@inheritDoc}
+     * @param toIndex {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    LongSequence sub(int fromIndex, int toIndex);
+
+    /**
+     * Return a {@link Spliterator.OfLong} over the values described by this Sequence.
+     *
+     * @implNote This Spliterator has {@link Spliterator#ORDERED} characteristic. If this Sequence
+     * is a {@link RandomGet} one, the Spliterator reads the values by the {@link #getLong(int)} method
+     * and splits by halving the index range, additionally having the {@link Spliterator#SIZED}
+     * and {@link Spliterator#SUBSIZED} characteristics.
+     *
+     * @return a {@code Spliterator.OfLong} over the values described by this Sequence
+     */
+    @Override
+    default Spliterator.OfLong spliterator() {
+        return this instanceof RandomGet ? new RandomGetSpliterator.OfLong(this)
+                : java.util.Spliterators.spliterator(iterator(), size(), ORDERED);
+    }
+
+    /**
+     * Return the first occurrence index position of the specified value.
+     *
+     * @param value the specified value
+     * @return the index position of the specified value, or -1 if this Sequence does not contain the value
+     */
+    default int indexOf(long value) {
+        PrimitiveIterator.OfLong it = iterator();
+        for (int i = 0; it.hasNext(); i++)
+            if (it.nextLong() == value)
+                return i;
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param o {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    default int indexOf(Object o) {
+        return o instanceof Long ? indexOf(((Long) o).longValue()) : -1;
+    }
+}
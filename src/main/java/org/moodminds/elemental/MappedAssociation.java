@@ -0,0 +1,471 @@
+package org.moodminds.elemental;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+
+import static java.lang.String.format;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.emptyIterator;
+import static java.util.Collections.singleton;
+import static java.util.Objects.requireNonNull;
+import static org.moodminds.elemental.AbstractHashContainer.DEFAULT_LOAD_FACTOR;
+import static org.moodminds.elemental.AbstractHashContainer.MAXIMUM_CAPACITY;
+import static org.moodminds.elemental.AbstractHashContainer.capacity;
+import static org.moodminds.elemental.MappedFile.MAXIMUM_RECORD;
+import static org.moodminds.elemental.OffHeapHashAssociation.SLOT;
+import static org.moodminds.elemental.OffHeapHashAssociation.SLOT_MASK;
+import static org.moodminds.elemental.OffHeapHashAssociation.SLOT_SHIFT;
+import static org.moodminds.elemental.OffHeapHashAssociation.equal;
+import static org.moodminds.elemental.OffHeapHashAssociation.hash;
+
+/**
+ * An immutable hash {@link Association} viewing the records of a memory mapped file, written by a {@link Writer}
+ * and decoded by the key and value {@link Codec}s on each access, so opening the Association takes constant
+ * time and does not read the records, while the mapped pages are shared through the page cache of the operating
+ * system between the processes and their restarts. It does not permit the {@code null} keys and values.
+ * <p>
+ * The file holds an open addressing table of linear probing, of the same slots as the {@link OffHeapHashAssociation}.
+ * The {@link #get(Object)} method encodes the key into a reused heap buffer of the thread, probes the mapped table,
+ * matches the key byte by byte against the mapped record and decodes the value directly from it, so the keys are
+ * equal if their encodings are equal. The {@link #containsKey(Object)} and {@link #contains(Object, Object)} methods
+ * do not decode. The iteration order is the order of writing. The Association is safe for the concurrent reads.
+ * <p>
+ * The file consists of the header, the records and the table, all the numbers being big-endian:
+ * <pre>
+ *     [0]  int      magic 0x454C4153
+ *     [4]  int      version 1
+ *     [8]  long     the number of records n
+ *     [16] long     the offset of the table
+ *     [24] int      the number of slots of the table c, a power of two
+ *     [28] int      reserved, 0
+ *     [32] records  n times: int key length k, int value length v, k bytes of the key, v bytes of the value
+ *     [table]       c times: int hash of the key bytes, long offset of the record or 0 for a free slot
+ * </pre>
+ * The file must not be modified while it is mapped. The mapping is released when the Association is collected.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ *
+ * @see MappedSequence
+ */
+public final class MappedAssociation<K, V> implements Association<K, V, KeyValue<K, V>>, RandomMatch {
+
+    static final int MAGIC = 0x454C4153, VERSION = 1, HEADER = 32, RECORD_HEADER = 8;
+
+    private final MappedFile file;
+    private final ByteBuffer[] table;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final long end;
+    private final int capacity, size;
+
+    private MappedAssociation(MappedFile file, ByteBuffer[] table, Codec<K> keyCodec, Codec<V> valueCodec,
+                              long end, int capacity, int size) {
+        this.file = file; this.table = table; this.keyCodec = keyCodec; this.valueCodec = valueCodec;
+        this.end = end; this.capacity = capacity; this.size = size;
+    }
+
+    /**
+     * Return the Association viewing the file of the given path, decoding the keys and values
+     * by the given {@link Codec}s.
+     *
+     * @param path the given path
+     * @param keyCodec the key {@link Codec}
+     * @param valueCodec the value {@link Codec}
+     * @return the Association viewing the file of the given path
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @throws IOException if the file cannot be mapped, or it is not of the Association format
+     */
+    public static <K, V> MappedAssociation<K, V> open(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        requireNonNull(keyCodec); requireNonNull(valueCodec);
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            long length = channel.size();
+            if (length < HEADER)
+                throw new IOException(format("Illegal file format: %s", path));
+            MappedFile file = new MappedFile(channel, length);
+            long size = file.getLong(8), end = file.getLong(16); int capacity = file.getInt(24);
+            if (file.getInt(0) != MAGIC || file.getInt(4) != VERSION || size < 0 || size >= capacity
+                    || capacity > MAXIMUM_CAPACITY || Integer.bitCount(capacity) != 1
+                    || end < HEADER || end + (long) capacity * SLOT > length)
+                throw new IOException(format("Illegal file format: %s", path));
+            return new MappedAssociation<>(file, table(channel, READ_ONLY, end, capacity), keyCodec, valueCodec,
+                    end, capacity, (int) size);
+        }
+    }
+
+    /**
+     * Write the mappings of the given {@link java.util.Map} into the file of the given path,
+     * encoding them by the given {@link Codec}s.
+     *
+     * @param path the given path
+     * @param map the given {@link java.util.Map}
+     * @param keyCodec the key {@link Codec}
+     * @param valueCodec the value {@link Codec}
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @throws IOException if an I/O error occurs
+     */
+    public static <K, V> void write(Path path, java.util.Map<? extends K, ? extends V> map,
+                                    Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        try (Writer<K, V> writer = writer(path, keyCodec, valueCodec)) {
+            for (java.util.Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+                writer.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Write the mappings of the given {@link Association} into the file of the given path,
+     * encoding them by the given {@link Codec}s.
+     *
+     * @param path the given path
+     * @param association the given {@link Association}
+     * @param keyCodec the key {@link Codec}
+     * @param valueCodec the value {@link Codec}
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @throws IOException if an I/O error occurs
+     */
+    public static <K, V> void write(Path path, Association<? extends K, ? extends V, ?> association,
+                                    Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        try (Writer<K, V> writer = writer(path, keyCodec, valueCodec)) {
+            for (KeyValue<? extends K, ? extends V> kv : association)
+                writer.put(kv.getKey(), kv.getValue());
+        }
+    }
+
+    /**
+     * Return a new {@link Writer} of the file of the given path, encoding the mappings by the given {@link Codec}s.
+     *
+     * @param path the given path
+     * @param keyCodec the key {@link Codec}
+     * @param valueCodec the value {@link Codec}
+     * @return a new {@link Writer} of the file of the given path
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @throws IOException if the file cannot be created
+     */
+    public static <K, V> Writer<K, V> writer(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        return new Writer<>(path, keyCodec, valueCodec);
+    }
+
+    @Override
+    public int getCount(Object o) {
+        KeyValue<?, ?> kv = (KeyValue<?, ?>) o; return contains(kv.getKey(), kv.getValue()) ? 1 : 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<KeyValue<K, V>> getAll(Object o) {
+        KeyValue<?, ?> kv = (KeyValue<?, ?>) o;
+        return contains(kv.getKey(), kv.getValue())
+                ? singleton(entry((K) kv.getKey(), (V) kv.getValue())).iterator() : emptyIterator();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R extends V> R get(Object key) {
+        long record = find(key); return record != 0 ? (R) value(record) : null;
+    }
+
+    /**
+     * Check if the key is mapped to the given value, matching the encoding of the value
+     * against the record, not decoding it.
+     *
+     * @param key the given key
+     * @param value the given value
+     * @return {@code true} if the key is mapped to the given value
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object key, Object value) {
+        if (value == null) return false;
+        long record = find(key); if (record == 0) return false;
+        int keyLength = file.getInt(record), valueLength = valueCodec.sizeOf((V) value);
+        ByteBuffer scratch = MappedFile.scratch(valueLength); valueCodec.encode((V) value, scratch, 0);
+        return file.getInt(record + 4) == valueLength && equal(file.region(record),
+                MappedFile.index(record) + RECORD_HEADER + keyLength, scratch, 0, valueLength);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) != 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<KeyValue<K, V>> iterator() {
+        return new RecordIterator<KeyValue<K, V>>() {
+            @Override KeyValue<K, V> element(long record) { return entry(key(record), value(record)); }
+        };
+    }
+
+    @Override
+    public Container<K> keys() {
+        return new Keys();
+    }
+
+    @Override
+    public Container<V> values() {
+        return new Values();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        requireNonNull(action);
+        for (long record = HEADER; record < end; record = following(record))
+            action.accept(key(record), value(record));
+    }
+
+    @Override
+    public int hashCode() {
+        int[] hash = {0}; forEach((key, value) -> hash[0] += key.hashCode() ^ value.hashCode());
+        return hash[0];
+    }
+
+    /**
+     * Compare the specified object with this Association for equality. Return {@code true}
+     * if the object is also a {@link MappedAssociation} of the same mappings.
+     *
+     * @param obj the object to be compared for equality with this Association
+     * @return {@code true} if the specified object is equal to this Association
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof MappedAssociation)) return false;
+        MappedAssociation<?, ?> a = (MappedAssociation<?, ?>) obj;
+        if (a.size != size) return false;
+        try {
+            for (KeyValue<K, V> kv : this)
+                if (!a.contains(kv.getKey(), kv.getValue()))
+                    return false;
+        } catch (ClassCastException e) {
+            return false;
+        } return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEach((key, value) -> joiner.add(key + "=" + value));
+        return joiner.toString();
+    }
+
+    /**
+     * Return the offset of the record of the given key, or {@code 0} if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    private long find(Object key) {
+        int length = keyCodec.sizeOf((K) requireNonNull(key));
+        ByteBuffer scratch = MappedFile.scratch(length); keyCodec.encode((K) key, scratch, 0);
+        int hash = hash(scratch, 0, length), mask = capacity - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            ByteBuffer buffer = table[slot >>> SLOT_SHIFT]; int index = (slot & SLOT_MASK) * SLOT;
+            long record = buffer.getLong(index + 4);
+            if (record == 0) return 0;
+            if (buffer.getInt(index) == hash && file.getInt(record) == length
+                    && equal(file.region(record), MappedFile.index(record) + RECORD_HEADER, scratch, 0, length))
+                return record;
+        }
+    }
+
+    private long following(long record) {
+        return record + RECORD_HEADER + file.getInt(record) + file.getInt(record + 4);
+    }
+
+    private K key(long record) {
+        return keyCodec.decode(file.region(record), MappedFile.index(record) + RECORD_HEADER, file.getInt(record));
+    }
+
+    private V value(long record) {
+        return valueCodec.decode(file.region(record),
+                MappedFile.index(record) + RECORD_HEADER + file.getInt(record), file.getInt(record + 4));
+    }
+
+    /**
+     * Map the table of the given number of slots at the given offset, in the buffers of up to 2<sup>26</sup> slots each.
+     */
+    static ByteBuffer[] table(FileChannel channel, FileChannel.MapMode mode, long offset, int capacity) throws IOException {
+        int buffers = Math.max(capacity >>> SLOT_SHIFT, 1), slots = Math.min(capacity, 1 << SLOT_SHIFT);
+        ByteBuffer[] table = new ByteBuffer[buffers];
+        for (int i = 0; i < buffers; i++)
+            table[i] = channel.map(mode, offset + (long) i * slots * SLOT, (long) slots * SLOT);
+        return table;
+    }
+
+    private static <K, V> KeyValue<K, V> entry(K key, V value) {
+        return new SimpleEntry<>(key, value);
+    }
+
+
+    /**
+     * A writer of the {@link MappedAssociation} files, appending the encoded records to the file sequentially,
+     * and writing the table and the header on the {@link #close()}, so the file is complete only then. The table
+     * is written through a mapping of the file, hashing the keys of the mapped records, so the Writer keeps
+     * no mappings on the heap.
+     * <p>
+     * This class is not synchronized.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     */
+    public static final class Writer<K, V> implements Closeable {
+
+        private final Path path;
+        private final Codec<K> keyCodec;
+        private final Codec<V> valueCodec;
+        private final DataOutputStream out;
+        private long position = HEADER;
+        private int size;
+        private boolean closed;
+
+        Writer(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+            this.path = path; this.keyCodec = requireNonNull(keyCodec); this.valueCodec = requireNonNull(valueCodec);
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+            out.writeInt(MAGIC); out.writeInt(VERSION); out.writeLong(0); out.writeLong(0); out.writeInt(0); out.writeInt(0);
+        }
+
+        /**
+         * Append the record of the given key and value. The keys must be distinct.
+         *
+         * @param key the given key
+         * @param value the given value
+         * @return this Writer
+         * @throws IOException if an I/O error occurs
+         * @throws NullPointerException if the key or the value is {@code null}
+         * @throws IllegalArgumentException if the record exceeds the maximum length
+         * @throws IllegalStateException if this Writer is closed or has the maximum number of records
+         */
+        public Writer<K, V> put(K key, V value) throws IOException {
+            if (closed)
+                throw new IllegalStateException("Writer is closed");
+            if (size == (int) (MAXIMUM_CAPACITY * DEFAULT_LOAD_FACTOR))
+                throw new IllegalStateException("Association is full");
+            int keyLength = keyCodec.sizeOf(requireNonNull(key)), valueLength = valueCodec.sizeOf(requireNonNull(value));
+            long length = (long) RECORD_HEADER + keyLength + valueLength;
+            if (length > MAXIMUM_RECORD)
+                throw new IllegalArgumentException(format("Illegal record length: %d", length));
+            ByteBuffer scratch = MappedFile.scratch(keyLength + valueLength);
+            keyCodec.encode(key, scratch, 0); valueCodec.encode(value, scratch, keyLength);
+            out.writeInt(keyLength); out.writeInt(valueLength); out.write(scratch.array(), 0, keyLength + valueLength);
+            position += length; size++;
+            return this;
+        }
+
+        /**
+         * Write the table and then the header, and close the file. The header keeps the zero capacity until
+         * the table is complete, so a file left by a failure is rejected by the {@link #open(Path, Codec, Codec)}.
+         *
+         * @throws IOException if an I/O error occurs
+         * @throws IllegalArgumentException if the keys are not distinct
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) return; closed = true;
+            out.close();
+            int capacity = capacity(size, DEFAULT_LOAD_FACTOR), mask = capacity - 1;
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                file.setLength(position + (long) capacity * SLOT);
+            }
+            try (FileChannel channel = FileChannel.open(path, READ, WRITE)) {
+                MappedFile file = new MappedFile(channel, position);
+                ByteBuffer[] table = table(channel, READ_WRITE, position, capacity);
+                for (long record = HEADER; record < position; ) {
+                    ByteBuffer region = file.region(record); int index = MappedFile.index(record);
+                    int keyLength = region.getInt(index), hash = hash(region, index + RECORD_HEADER, keyLength);
+                    int slot = hash & mask;
+                    for (long other; (other = table[slot >>> SLOT_SHIFT].getLong((slot & SLOT_MASK) * SLOT + 4)) != 0; slot = (slot + 1) & mask)
+                        if (table[slot >>> SLOT_SHIFT].getInt((slot & SLOT_MASK) * SLOT) == hash && file.getInt(other) == keyLength
+                                && equal(file.region(other), MappedFile.index(other) + RECORD_HEADER, region, index + RECORD_HEADER, keyLength))
+                            throw new IllegalArgumentException(format("Duplicate key at: %d", record));
+                    ByteBuffer buffer = table[slot >>> SLOT_SHIFT]; int offset = (slot & SLOT_MASK) * SLOT;
+                    buffer.putInt(offset, hash); buffer.putLong(offset + 4, record);
+                    record += RECORD_HEADER + keyLength + region.getInt(index + 4);
+                }
+                for (ByteBuffer buffer : table) ((MappedByteBuffer) buffer).force();
+            }
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                file.seek(8); file.writeLong(size); file.writeLong(position); file.writeInt(capacity);
+            }
+        }
+    }
+
+    /**
+     * An iterator over the records in the order of writing.
+     *
+     * @param <T> the type of elements
+     */
+    private abstract class RecordIterator<T> implements Iterator<T> {
+
+        long record = HEADER;
+
+        abstract T element(long record);
+
+        @Override public boolean hasNext() { return record < end; }
+
+        @Override public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            long record = this.record; this.record = following(record); return element(record); }
+    }
+
+    private final class Keys implements Container<K>, RandomMatch {
+
+        @Override public int size() { return size; }
+        @Override public boolean contains(Object o) { return containsKey(o); }
+        @Override public int getCount(Object o) { return containsKey(o) ? 1 : 0; }
+
+        @Override @SuppressWarnings("unchecked") public Iterator<K> getAll(Object o) {
+            return containsKey(o) ? singleton((K) o).iterator() : emptyIterator(); }
+
+        @Override public Iterator<K> iterator() {
+            return new RecordIterator<K>() {
+                @Override K element(long record) { return key(record); }
+            }; }
+    }
+
+    private final class Values implements Container<V> {
+
+        @Override public int size() { return size; }
+
+        @Override public int getCount(Object o) {
+            int count = 0; for (Iterator<V> it = getAll(o); it.hasNext(); it.next()) count++; return count; }
+
+        @Override public Iterator<V> getAll(Object o) {
+            Iterator<V> values = iterator();
+            return new Iterator<V>() {
+                V next; boolean found;
+                @Override public boolean hasNext() {
+                    while (!found && values.hasNext())
+                        found = (next = values.next()).equals(o);
+                    return found; }
+                @Override public V next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    found = false; return next; }
+            }; }
+
+        @Override public Iterator<V> iterator() {
+            return new RecordIterator<V>() {
+                @Override V element(long record) { return value(record); }
+            }; }
+    }
+}
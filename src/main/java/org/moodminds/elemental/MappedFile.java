@@ -0,0 +1,68 @@
+package org.moodminds.elemental;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+/**
+ * A read-only memory mapping of a file, in the regions of 2<sup>30</sup> bytes, each mapping
+ * also the following {@link #MAXIMUM_RECORD} bytes, so that a record of up to that length,
+ * starting in a region, is read from a single buffer of the region.
+ * <p>
+ * The buffers are addressed absolutely, so the mapping is safe for the concurrent reads.
+ */
+final class MappedFile {
+
+    static final int REGION_SHIFT = 30;
+    static final long REGION = 1L << REGION_SHIFT;
+
+    /**
+     * The maximum number of bytes of a record, with which a region mapping fits the {@code int} range.
+     */
+    static final int MAXIMUM_RECORD = (int) (Integer.MAX_VALUE - REGION);
+
+    /**
+     * The reused heap buffers of the threads to encode the matched keys and values into.
+     */
+    private static final ThreadLocal<ByteBuffer[]> SCRATCH = ThreadLocal.withInitial(() -> new ByteBuffer[] {ByteBuffer.allocate(64)});
+
+    final ByteBuffer[] regions;
+
+    MappedFile(FileChannel channel, long length) throws IOException {
+        regions = new ByteBuffer[(int) ((length + REGION - 1) >>> REGION_SHIFT)];
+        for (int i = 0; i < regions.length; i++) {
+            long from = (long) i << REGION_SHIFT;
+            regions[i] = channel.map(READ_ONLY, from, Math.min(length - from, REGION + MAXIMUM_RECORD));
+        }
+    }
+
+    ByteBuffer region(long position) {
+        return regions[(int) (position >>> REGION_SHIFT)];
+    }
+
+    int getInt(long position) {
+        return region(position).getInt(index(position));
+    }
+
+    long getLong(long position) {
+        return region(position).getLong(index(position));
+    }
+
+    static int index(long position) {
+        return (int) (position & (REGION - 1));
+    }
+
+    /**
+     * Return the heap buffer of the current thread of at least the given capacity,
+     * keeping its content if it is grown.
+     */
+    static ByteBuffer scratch(int capacity) {
+        ByteBuffer[] holder = SCRATCH.get(); ByteBuffer scratch = holder[0];
+        if (scratch.capacity() < capacity) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(capacity, scratch.capacity() << 1));
+            OffHeapHashAssociation.copy(scratch, 0, grown, 0, scratch.capacity()); holder[0] = scratch = grown;
+        } return scratch;
+    }
+}
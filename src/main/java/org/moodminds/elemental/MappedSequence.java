@@ -0,0 +1,290 @@
+package org.moodminds.elemental;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Objects.requireNonNull;
+import static org.moodminds.elemental.MappedFile.MAXIMUM_RECORD;
+
+/**
+ * An immutable {@link Sequence} viewing the records of a memory mapped file, written by a {@link Writer}
+ * and decoded by a {@link Codec} on each access, so opening the Sequence takes constant time and does not
+ * read the records, while the mapped pages are shared through the page cache of the operating system
+ * between the processes and their restarts. The {@link #get(int)} method reads the record offset from the index
+ * and decodes the record directly from the mapped buffer. The {@link #sub(int, int)} views are created in constant
+ * time and share the mapping. The Sequence is safe for the concurrent reads.
+ * <p>
+ * The file consists of the header, the records and the index, all the numbers being big-endian:
+ * <pre>
+ *     [0]  int      magic 0x454C5351
+ *     [4]  int      version 1
+ *     [8]  long     the number of records n
+ *     [16] long     the offset of the index
+ *     [24] records  n times: int length, length bytes of the encoded element
+ *     [index]       n times: long offset of the record
+ * </pre>
+ * The file must not be modified while it is mapped. The mapping is released when the Sequence
+ * and its views are collected.
+ *
+ * @param <E> the type of elements
+ *
+ * @see MappedAssociation
+ */
+public final class MappedSequence<E> implements Sequence<E>, RandomGet {
+
+    static final int MAGIC = 0x454C5351, VERSION = 1, HEADER = 24;
+
+    private final MappedFile file;
+    private final Codec<E> codec;
+    private final long index;
+    private final int offset, size;
+
+    private MappedSequence(MappedFile file, Codec<E> codec, long index, int offset, int size) {
+        this.file = file; this.codec = codec; this.index = index; this.offset = offset; this.size = size;
+    }
+
+    /**
+     * Return the Sequence viewing the file of the given path, decoding the elements by the given {@link Codec}.
+     *
+     * @param path the given path
+     * @param codec the given {@link Codec}
+     * @return the Sequence viewing the file of the given path
+     * @param <E> the type of elements
+     * @throws IOException if the file cannot be mapped, or it is not of the Sequence format
+     */
+    public static <E> MappedSequence<E> open(Path path, Codec<E> codec) throws IOException {
+        requireNonNull(codec);
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            long length = channel.size();
+            if (length < HEADER)
+                throw new IOException(format("Illegal file format: %s", path));
+            MappedFile file = new MappedFile(channel, length);
+            long size = file.getLong(8), index = file.getLong(16);
+            if (file.getInt(0) != MAGIC || file.getInt(4) != VERSION || size < 0 || size > Integer.MAX_VALUE
+                    || index < HEADER || index + size * Long.BYTES > length)
+                throw new IOException(format("Illegal file format: %s", path));
+            return new MappedSequence<>(file, codec, index, 0, (int) size);
+        }
+    }
+
+    /**
+     * Write the given elements into the file of the given path, encoding them by the given {@link Codec}.
+     *
+     * @param path the given path
+     * @param elements the given elements
+     * @param codec the given {@link Codec}
+     * @param <E> the type of elements
+     * @throws IOException if an I/O error occurs
+     */
+    public static <E> void write(Path path, Iterable<? extends E> elements, Codec<E> codec) throws IOException {
+        try (Writer<E> writer = writer(path, codec)) {
+            for (E element : elements) writer.add(element);
+        }
+    }
+
+    /**
+     * Return a new {@link Writer} of the file of the given path, encoding the elements by the given {@link Codec}.
+     *
+     * @param path the given path
+     * @param codec the given {@link Codec}
+     * @return a new {@link Writer} of the file of the given path
+     * @param <E> the type of elements
+     * @throws IOException if the file cannot be created
+     */
+    public static <E> Writer<E> writer(Path path, Codec<E> codec) throws IOException {
+        return new Writer<>(path, codec);
+    }
+
+    @Override
+    public E get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, size));
+        return element(offset + index);
+    }
+
+    @Override
+    public int getCount(Object o) {
+        int count = 0;
+        for (int i = offset, end = offset + size; i < end; i++)
+            if (Objects.equals(element(i), o)) count++;
+        return count;
+    }
+
+    @Override
+    public Iterator<E> getAll(Object o) {
+        return new Iterator<E>() {
+            int index = seek(offset); E next;
+            @Override public boolean hasNext() { return index >= 0; }
+            @Override public E next() {
+                if (index < 0) throw new NoSuchElementException();
+                E next = this.next; index = seek(index + 1); return next; }
+            private int seek(int from) {
+                for (int i = from, end = offset + size; i < end; i++)
+                    if (Objects.equals(next = element(i), o)) return i;
+                return -1; }
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public MappedSequence<E> sub(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+            throw new IndexOutOfBoundsException(format("From: %d, To: %d, Size: %d", fromIndex, toIndex, size));
+        return new MappedSequence<>(file, codec, index, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new RecordIterator(0);
+    }
+
+    @Override
+    public SequenceIterator<E> iterator(int index) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, size));
+        return new RecordIterator(index);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = offset, end = offset + size; i < end; i++)
+            hash = 31 * hash + element(i).hashCode();
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof Sequence)) return false;
+        Sequence<?> s = (Sequence<?>) obj;
+        if (s.size() != size) return false;
+        Iterator<?> it = s.iterator();
+        for (int i = offset, end = offset + size; i < end; i++)
+            if (!it.hasNext() || !element(i).equals(it.next())) return false;
+        return !it.hasNext();
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int i = offset, end = offset + size; i < end; i++)
+            joiner.add(String.valueOf(element(i)));
+        return joiner.toString();
+    }
+
+    private E element(int index) {
+        long record = file.getLong(this.index + (long) index * Long.BYTES);
+        return codec.decode(file.region(record), MappedFile.index(record) + Integer.BYTES, file.getInt(record));
+    }
+
+
+    /**
+     * A writer of the {@link MappedSequence} files, appending the encoded records to the file sequentially,
+     * and writing the index and the header on the {@link #close()}, so the file is complete only then.
+     * <p>
+     * This class is not synchronized.
+     *
+     * @param <E> the type of elements
+     */
+    public static final class Writer<E> implements Closeable {
+
+        private final Path path;
+        private final Codec<E> codec;
+        private final DataOutputStream out;
+        private long position = HEADER;
+        private int size;
+        private boolean closed;
+
+        Writer(Path path, Codec<E> codec) throws IOException {
+            this.path = path; this.codec = requireNonNull(codec);
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+            out.writeInt(MAGIC); out.writeInt(VERSION); out.writeLong(0); out.writeLong(0);
+        }
+
+        /**
+         * Append the record of the given element.
+         *
+         * @param element the given element
+         * @return this Writer
+         * @throws IOException if an I/O error occurs
+         * @throws NullPointerException if the element is {@code null}
+         * @throws IllegalArgumentException if the record of the element exceeds the maximum length
+         * @throws IllegalStateException if this Writer is closed or has the maximum number of records
+         */
+        public Writer<E> add(E element) throws IOException {
+            if (closed)
+                throw new IllegalStateException("Writer is closed");
+            if (size == Integer.MAX_VALUE)
+                throw new IllegalStateException("Sequence is full");
+            int length = codec.sizeOf(requireNonNull(element));
+            if (length > MAXIMUM_RECORD - Integer.BYTES)
+                throw new IllegalArgumentException(format("Illegal record length: %d", length));
+            ByteBuffer scratch = MappedFile.scratch(length); codec.encode(element, scratch, 0);
+            out.writeInt(length); out.write(scratch.array(), 0, length);
+            position += Integer.BYTES + length; size++;
+            return this;
+        }
+
+        /**
+         * Write the index and the header, and close the file.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) return; closed = true;
+            try (DataOutputStream out = this.out) {
+                out.flush();
+                try (FileChannel channel = FileChannel.open(path, READ)) {
+                    MappedFile file = new MappedFile(channel, position);
+                    long record = HEADER;
+                    for (int i = 0; i < size; i++) {
+                        out.writeLong(record); record += Integer.BYTES + file.getInt(record); }
+                }
+            }
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                file.seek(8); file.writeLong(size); file.writeLong(position);
+            }
+        }
+    }
+
+    /**
+     * The {@link SequenceIterator} over the elements of this Sequence.
+     */
+    private final class RecordIterator implements SequenceIterator<E> {
+
+        private int index;
+
+        private RecordIterator(int index) {
+            this.index = index;
+        }
+
+        @Override public boolean hasNext() { return index < size; }
+
+        @Override public E next() {
+            if (index >= size) throw new NoSuchElementException();
+            return element(offset + index++); }
+
+        @Override public int nextIndex() { return index; }
+
+        @Override public void remove() { throw new UnsupportedOperationException("remove"); }
+    }
+}
@@ -0,0 +1,410 @@
+package org.moodminds.elemental;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.StringJoiner;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+import static java.lang.String.format;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+import static java.util.Objects.requireNonNull;
+import static org.moodminds.elemental.AbstractHashContainer.DEFAULT_CAPACITY;
+import static org.moodminds.elemental.AbstractHashContainer.DEFAULT_LOAD_FACTOR;
+import static org.moodminds.elemental.AbstractHashContainer.MAXIMUM_CAPACITY;
+import static org.moodminds.elemental.AbstractHashContainer.capacity;
+import static org.moodminds.elemental.AbstractHashContainer.mask;
+import static org.moodminds.elemental.AbstractHashContainer.spread;
+import static org.moodminds.elemental.AbstractHashContainer.unmask;
+
+/**
+ * A hash table based map of object keys to {@code int} values, which permits the {@code null} key.
+ * <p>
+ * The keys and values are kept in the parallel linearly probed slot arrays, so neither
+ * looking a key up nor associating a value with it boxes the value or allocates an entry,
+ * while the {@link #get(Object)}, {@link #put(Object, int)}, {@link #remove(Object)} and
+ * {@link #merge(Object, int, IntBinaryOperator)} methods take constant time on average.
+ * Removal is done by backward shifting of the following probe run, so the table never
+ * contains tombstones. There are no guarantees concerning the iteration order.
+ * <p>
+ * The map integrates with the {@link Map} hierarchy through the boxing {@link #asMap()} view.
+ * <p>
+ * This implementation is not synchronized. The iterators of the view are <i>fail-fast</i>.
+ *
+ * @param <K> the type of keys
+ *
+ * @see IntObjectMap
+ */
+public class ObjectIntMap<K> {
+
+    final float loadFactor;
+
+    Object[] keys;
+    int[] values;
+    int size;
+    int threshold;
+    int modCount;
+
+    /**
+     * Construct an empty map with the default expected size and load factor.
+     */
+    public ObjectIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct an empty map able to hold the specified number of mappings
+     * without resizing, with the default load factor.
+     *
+     * @param expectedSize the expected number of mappings
+     * @throws IllegalArgumentException if the expected size is negative
+     */
+    public ObjectIntMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Construct an empty map able to hold the specified number of mappings
+     * without resizing, with the specified load factor.
+     *
+     * @param expectedSize the expected number of mappings
+     * @param loadFactor the load factor of the table, between {@code 0} and {@code 1} exclusively
+     * @throws IllegalArgumentException if the expected size is negative or the load factor is illegal
+     */
+    public ObjectIntMap(int expectedSize, float loadFactor) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException(format("Illegal expected size: %d", expectedSize));
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException(format("Illegal load factor: %s", loadFactor));
+        this.loadFactor = loadFactor; allocate(capacity(expectedSize, loadFactor));
+    }
+
+    /**
+     * Return the number of mappings in this map.
+     *
+     * @return the number of mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if this map contains no mappings.
+     *
+     * @return {@code true} if this map contains no mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Check if this map contains a mapping for the specified key.
+     *
+     * @param key the specified key
+     * @return {@code true} if this map contains a mapping for the specified key
+     */
+    public boolean containsKey(Object key) {
+        return find(mask(key)) >= 0;
+    }
+
+    /**
+     * Return the value to which the specified key is associated, or zero if the key
+     * is not associated with any value. Use {@link #containsKey(Object)} or
+     * {@link #getOrDefault(Object, int)} to tell an absent mapping from a zero value.
+     *
+     * @param key the specified key
+     * @return the value to which the specified key is associated, or zero
+     * if the specified key is not associated with any value
+     */
+    public int get(Object key) {
+        int i = find(mask(key)); return i < 0 ? 0 : values[i];
+    }
+
+    /**
+     * Retrieve the value associated with the specified key, or return the default value if none is found.
+     *
+     * @param key the key whose associated value is to be retrieved
+     * @param defaultValue the default value to return if the key is not found
+     * @return the value associated with the specified key, or the default value if not found
+     */
+    public int getOrDefault(Object key, int defaultValue) {
+        int i = find(mask(key)); return i < 0 ? defaultValue : values[i];
+    }
+
+    /**
+     * Associate the specified value with the specified key in this map.
+     *
+     * @param key the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @return the previous value associated with the key, or zero if there was no mapping for the key
+     */
+    public int put(K key, int value) {
+        Object k = mask(key); int i = find(k);
+        if (i < 0) {
+            insert(-1 - i, k, value); return 0; }
+        int old = values[i]; values[i] = value; return old;
+    }
+
+    /**
+     * Associate the specified value with the specified key, if the key is not already
+     * associated with a value.
+     *
+     * @param key the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @return the existing value associated with the key, or zero if there was no mapping for the key
+     */
+    public int putIfAbsent(K key, int value) {
+        Object k = mask(key); int i = find(k);
+        if (i < 0) {
+            insert(-1 - i, k, value); return 0; }
+        return values[i];
+    }
+
+    /**
+     * Remove the mapping for the specified key from this map, if present.
+     *
+     * @param key the key whose mapping is to be removed
+     * @return the previous value associated with the key, or zero if there was no mapping for the key
+     */
+    public int remove(Object key) {
+        int i = find(mask(key)); if (i < 0) return 0;
+        int old = values[i]; delete(i, null); return old;
+    }
+
+    /**
+     * Associate the specified value with the specified key if it is not already associated
+     * with a value, otherwise replace the associated value with the result of the given
+     * remapping function. For instance, {@code merge(key, 1, Integer::sum)} counts the key.
+     *
+     * @param key the key with which the resulting value is to be associated
+     * @param value the value to be merged with the existing value
+     * @param remappingFunction the function to recompute a value if present
+     * @return the new value associated with the specified key
+     * @throws NullPointerException if the remapping function is {@code null}
+     * @throws ConcurrentModificationException if the remapping function modified this map
+     */
+    public int merge(K key, int value, IntBinaryOperator remappingFunction) {
+        requireNonNull(remappingFunction); Object k = mask(key); int i = find(k);
+        if (i < 0) {
+            insert(-1 - i, k, value); return value; }
+        int modCount = this.modCount, result = remappingFunction.applyAsInt(values[i], value);
+        if (modCount != this.modCount) throw new ConcurrentModificationException();
+        return values[i] = result;
+    }
+
+    /**
+     * Associate the value computed by the given mapping function with the specified key,
+     * if the key is not already associated with a value.
+     *
+     * @param key the key with which the computed value is to be associated
+     * @param mappingFunction the function to compute a value
+     * @return the current (existing or computed) value associated with the specified key
+     * @throws NullPointerException if the mapping function is {@code null}
+     */
+    public int computeIfAbsent(K key, ToIntFunction<? super K> mappingFunction) {
+        requireNonNull(mappingFunction); int i = find(mask(key));
+        if (i >= 0) return values[i];
+        int value = mappingFunction.applyAsInt(key); put(key, value); return value;
+    }
+
+    /**
+     * Remove all the mappings from this map.
+     */
+    public void clear() {
+        fill(keys, null); fill(values, 0); size = 0; modCount++;
+    }
+
+    /**
+     * Perform the given action for each mapping of this map, walking the slot arrays directly
+     * without boxing the values or creating the entries.
+     *
+     * @param action the action to be performed for each mapping
+     * @throws NullPointerException if the specified action is {@code null}
+     * @throws ConcurrentModificationException if this map is modified during the iteration
+     */
+    public void forEach(ObjIntConsumer<? super K> action) {
+        requireNonNull(action); Object[] keys = this.keys; int[] values = this.values; int modCount = this.modCount;
+        for (int i = keys.length - 1; i >= 0; i--)
+            if (keys[i] != null) action.accept(unmask(keys[i]), values[i]);
+        if (modCount != this.modCount) throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Return a {@link Map} view of this map, boxing the values. The view is backed by this map,
+     * does not permit {@code null} values and its iterators support removal.
+     *
+     * @return a {@link Map} view of this map
+     */
+    public Map<K, Integer> asMap() {
+        return new MapView();
+    }
+
+    @Override
+    public int hashCode() {
+        return asMap().hashCode();
+    }
+
+    /**
+     * Compare the specified object with this map for equality. Return {@code true}
+     * if the object is also an {@link ObjectIntMap} containing the same mappings.
+     *
+     * @param obj the object to be compared for equality with this map
+     * @return {@code true} if the specified object is equal to this map
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof ObjectIntMap)) return false;
+        ObjectIntMap<?> m = (ObjectIntMap<?>) obj;
+        if (m.size != size) return false;
+        Object[] keys = this.keys;
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i] != null) {
+                int j = m.find(keys[i]);
+                if (j < 0 || m.values[j] != values[i]) return false;
+            }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEach((key, value) -> joiner.add((key == this ? "(this Map)" : String.valueOf(key)) + "=" + value));
+        return joiner.toString();
+    }
+
+    /**
+     * Find the slot of the specified masked key.
+     *
+     * @param key the specified masked key
+     * @return the slot index of the key, or {@code -(insertion slot) - 1} if the key is absent
+     */
+    final int find(Object key) {
+        Object[] keys = this.keys; int mask = keys.length - 1;
+        for (int i = spread(key) & mask; ; i = (i + 1) & mask) {
+            Object k = keys[i];
+            if (k == null) return -1 - i;
+            if (k == key || k.equals(key)) return i;
+        }
+    }
+
+    final void insert(int i, Object key, int value) {
+        keys[i] = key; values[i] = value;
+        if (++size > threshold) rehash(keys.length << 1);
+        modCount++;
+    }
+
+    final void delete(int i, HashIterator iterator) {
+        shift(i, iterator); size--; modCount++;
+    }
+
+    /**
+     * Delete the slot at the specified position, shifting the following entries of the probe
+     * run backward. Entries wrapped from the table start to the vacated positions behind
+     * are reported to the given {@link HashIterator}, if any.
+     *
+     * @param pos the position to delete
+     * @param iterator the iterator traversing the table downward, or {@code null}
+     */
+    final void shift(int pos, HashIterator iterator) {
+        Object[] keys = this.keys; int[] values = this.values; int mask = keys.length - 1;
+        for (int last; ; ) {
+            pos = ((last = pos) + 1) & mask; Object k;
+            for (; ; pos = (pos + 1) & mask) {
+                if ((k = keys[pos]) == null) {
+                    keys[last] = null; values[last] = 0; return; }
+                int slot = spread(k) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+                    break;
+            }
+            if (pos < last && iterator != null)
+                iterator.wrapped(k);
+            keys[last] = k; values[last] = values[pos];
+        }
+    }
+
+    final void rehash(int capacity) {
+        if (keys.length == MAXIMUM_CAPACITY)
+            throw new IllegalStateException("Maximum capacity exceeded");
+        Object[] keys = this.keys; int[] values = this.values; allocate(capacity);
+        Object[] newKeys = this.keys; int[] newValues = this.values; int mask = newKeys.length - 1;
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i] != null) {
+                int j = spread(keys[i]) & mask;
+                while (newKeys[j] != null) j = (j + 1) & mask;
+                newKeys[j] = keys[i]; newValues[j] = values[i];
+            }
+    }
+
+    final void allocate(int capacity) {
+        keys = new Object[capacity]; values = new int[capacity];
+        threshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+
+    /**
+     * An iterator of the occupied slot indexes, traversing the table downward so the backward shifting
+     * on removal never moves unvisited entries behind, except of the ones wrapped around
+     * the table end, which are collected and visited at last.
+     */
+    final class HashIterator implements PrimitiveIterator.OfInt {
+
+        int index = keys.length, slot = -1, left = size, expectedModCount = modCount;
+        Object[] wrapped; int wrappedSize, wrappedIndex;
+
+        @Override public boolean hasNext() { return left > 0; }
+
+        @Override public int nextInt() {
+            checkModCount();
+            if (left == 0) throw new NoSuchElementException();
+            left--; Object[] keys = ObjectIntMap.this.keys;
+            while (--index >= 0)
+                if (keys[index] != null) return slot = index;
+            index = -1; return slot = find(wrapped[wrappedIndex++]); }
+
+        void wrapped(Object key) {
+            if (wrapped == null) wrapped = new Object[2];
+            else if (wrappedSize == wrapped.length) wrapped = copyOf(wrapped, wrappedSize << 1);
+            wrapped[wrappedSize++] = key; }
+
+        @Override public void remove() {
+            if (slot < 0) throw new IllegalStateException();
+            checkModCount(); delete(slot, index < 0 ? null : this);
+            slot = -1; expectedModCount = modCount; }
+
+        void checkModCount() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException(); }
+    }
+
+    /**
+     * The {@link Map} view of this map.
+     */
+    final class MapView extends AbstractMapView<K, Integer> {
+
+        @Override int slot(Object key) { return find(mask(key)); }
+        @Override K key(int slot) { return unmask(keys[slot]); }
+        @Override Integer value(int slot) { return values[slot]; }
+        @Override Integer value(int slot, Integer value) { int old = values[slot]; values[slot] = value; return old; }
+        @Override PrimitiveIterator.OfInt slots() { return new HashIterator(); }
+
+        @Override public int size() { return size; }
+        @Override public void clear() { ObjectIntMap.this.clear(); }
+
+        @Override public Integer put(K key, Integer value) {
+            requireNonNull(value); Object k = mask(key); int i = find(k);
+            if (i < 0) {
+                insert(-1 - i, k, value); return null; }
+            int old = values[i]; values[i] = value; return old; }
+
+        @Override public Integer remove(Object key) {
+            int i = find(mask(key)); if (i < 0) return null;
+            int old = values[i]; delete(i, null); return old; }
+
+        @Override public Integer replace(K key) {
+            Object k = mask(key); int i = find(k); if (i < 0) return null;
+            keys[i] = k; return values[i]; }
+    }
+}
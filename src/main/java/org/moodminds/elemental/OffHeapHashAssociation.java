@@ -0,0 +1,551 @@
+package org.moodminds.elemental;
+
+import java.nio.ByteBuffer;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+
+import static java.lang.String.format;
+import static java.util.Collections.emptyIterator;
+import static java.util.Collections.singleton;
+import static java.util.Objects.requireNonNull;
+import static org.moodminds.elemental.AbstractHashContainer.DEFAULT_CAPACITY;
+import static org.moodminds.elemental.AbstractHashContainer.DEFAULT_LOAD_FACTOR;
+import static org.moodminds.elemental.AbstractHashContainer.MAXIMUM_CAPACITY;
+import static org.moodminds.elemental.AbstractHashContainer.capacity;
+
+/**
+ * A hash {@link Association} keeping its mappings off the heap, in direct {@link ByteBuffer}s, encoded by
+ * the key and value {@link Codec}s. It does not permit the {@code null} keys and values.
+ * <p>
+ * The Association is an open addressing table of linear probing, whose slots of the key hash and the
+ * record reference are kept in direct buffers of up to 2<sup>26</sup> slots each, while the records of the
+ * encoded key and value lengths, keys and values are appended to the direct buffers of an arena. So the heap
+ * footprint of the Association does not depend on the number of its mappings, and the garbage collector
+ * neither traverses nor copies them. The keys are encoded into a reused heap buffer to be hashed and
+ * matched byte by byte against the records, therefore the {@link #containsKey(Object)}, {@link #contains(Object, Object)},
+ * {@link #put(Object, Object)} and {@link #remove(Object)} methods do not allocate, while the {@link #get(Object)}
+ * method allocates the decoded value only. The keys are equal if their encodings are equal.
+ * <p>
+ * A value of the same encoded size is overwritten in its record, while a value of a different size is
+ * appended in a new record. The removed and overwritten records are reclaimed when the table is resized,
+ * or when they exceed the live records. The direct buffers are released when they are collected after
+ * the resizing or the {@link #clear()}.
+ * <p>
+ * This class is not synchronized. The iterators are <i>fail-fast</i>.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ *
+ * @see Codec
+ */
+public class OffHeapHashAssociation<K, V> implements Association<K, V, KeyValue<K, V>>, RandomMatch {
+
+    /**
+     * The number of bytes of a slot: the int hash and the long reference of the record,
+     * which is {@code 0} for the free slot.
+     */
+    static final int SLOT = 12;
+
+    /**
+     * The binary logarithm of the number of slots of a table buffer.
+     */
+    static final int SLOT_SHIFT = 26, SLOT_MASK = (1 << SLOT_SHIFT) - 1;
+
+    /**
+     * The number of bytes of a record header: the int key and value lengths.
+     */
+    static final int HEADER = 8;
+
+    /**
+     * The minimum and the maximum number of bytes of an arena buffer.
+     */
+    static final int MINIMUM_ARENA = 1 << 12, MAXIMUM_ARENA = 1 << 30;
+
+    /**
+     * The number of garbage bytes from which the arena is compacted if they exceed the live ones.
+     */
+    static final int COMPACTION_THRESHOLD = 1 << 20;
+
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final int initialCapacity;
+
+    private ByteBuffer[] table;
+    private int capacity, threshold, size, modCount;
+
+    private ByteBuffer[] arena;
+    private int chunk, position; // the current arena buffer and the position in it
+    private long live, garbage;
+
+    private ByteBuffer scratch = ByteBuffer.allocate(64);
+
+    /**
+     * Construct an empty Association of the given key and value {@link Codec}s.
+     *
+     * @param keyCodec the key {@link Codec}
+     * @param valueCodec the value {@link Codec}
+     */
+    public OffHeapHashAssociation(Codec<K> keyCodec, Codec<V> valueCodec) {
+        this(keyCodec, valueCodec, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct an empty Association of the given key and value {@link Codec}s, able to hold
+     * the given number of mappings without resizing.
+     *
+     * @param keyCodec the key {@link Codec}
+     * @param valueCodec the value {@link Codec}
+     * @param expectedSize the expected number of mappings
+     * @throws IllegalArgumentException if the expected size is negative
+     */
+    public OffHeapHashAssociation(Codec<K> keyCodec, Codec<V> valueCodec, int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException(format("Illegal expected size: %d", expectedSize));
+        this.keyCodec = requireNonNull(keyCodec); this.valueCodec = requireNonNull(valueCodec);
+        this.initialCapacity = capacity(expectedSize, DEFAULT_LOAD_FACTOR);
+        allocate(initialCapacity, (long) expectedSize * (HEADER + estimate(keyCodec) + estimate(valueCodec)));
+    }
+
+    @Override
+    public int getCount(Object o) {
+        KeyValue<?, ?> kv = (KeyValue<?, ?>) o; return contains(kv.getKey(), kv.getValue()) ? 1 : 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<KeyValue<K, V>> getAll(Object o) {
+        KeyValue<?, ?> kv = (KeyValue<?, ?>) o;
+        return contains(kv.getKey(), kv.getValue())
+                ? singleton(entry((K) kv.getKey(), (V) kv.getValue())).iterator() : emptyIterator();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R extends V> R get(Object key) {
+        int length = encode(key), slot = find(hash(scratch, 0, length), length);
+        if (slot < 0) return null;
+        long ref = ref(slot); ByteBuffer record = arena[chunk(ref)]; int offset = offset(ref);
+        return (R) valueCodec.decode(record, offset + HEADER + length, record.getInt(offset + 4));
+    }
+
+    /**
+     * Check if the key is mapped to the given value, matching the encoding of the value
+     * against the record, not decoding it.
+     *
+     * @param key the given key
+     * @param value the given value
+     * @return {@code true} if the key is mapped to the given value
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object key, Object value) {
+        if (value == null) return false;
+        int length = encode(key), slot = find(hash(scratch, 0, length), length);
+        if (slot < 0) return false;
+        int valueLength = valueCodec.sizeOf((V) value); reserve(length + valueLength);
+        valueCodec.encode((V) value, scratch, length);
+        long ref = ref(slot); ByteBuffer record = arena[chunk(ref)]; int offset = offset(ref);
+        return record.getInt(offset + 4) == valueLength && equal(record, offset + HEADER + length, scratch, length, valueLength);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int length = encode(key); return find(hash(scratch, 0, length), length) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Associate the given value with the given key.
+     *
+     * @param key the given key
+     * @param value the given value
+     * @return {@code true} if there was no mapping for the key
+     * @throws NullPointerException if the key or the value is {@code null}
+     * @throws IllegalArgumentException if the record of the key and the value exceeds the arena buffer size
+     * @throws IllegalStateException if the Association exceeds the maximum capacity
+     */
+    public boolean put(K key, V value) {
+        int length = encode(key), hash = hash(scratch, 0, length), valueLength = valueCodec.sizeOf(requireNonNull(value));
+        int slot = find(hash, length);
+        if (slot >= 0) {
+            long ref = ref(slot); ByteBuffer record = arena[chunk(ref)]; int offset = offset(ref);
+            int oldLength = record.getInt(offset + 4);
+            if (oldLength == valueLength) valueCodec.encode(value, record, offset + HEADER + length);
+            else {
+                setRef(slot, append(length, value, valueLength));
+                live += valueLength - oldLength; garbage += HEADER + length + oldLength; compact();
+            } return false;
+        }
+        if (size >= threshold) {
+            if (capacity == MAXIMUM_CAPACITY)
+                throw new IllegalStateException("Association is full");
+            rebuild(capacity << 1); slot = find(hash, length);
+        }
+        slot = -slot - 1; setSlot(slot, hash, append(length, value, valueLength));
+        live += HEADER + length + valueLength; size++; modCount++;
+        return true;
+    }
+
+    /**
+     * Copy all the mappings of the given {@link java.util.Map} to this Association.
+     *
+     * @param m the given {@link java.util.Map}
+     * @throws NullPointerException if a key or a value is {@code null}
+     */
+    public void putAll(java.util.Map<? extends K, ? extends V> m) {
+        for (java.util.Map.Entry<? extends K, ? extends V> entry : m.entrySet())
+            put(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * Remove the mapping of the given key.
+     *
+     * @param key the given key
+     * @return {@code true} if there was a mapping for the key
+     */
+    public boolean remove(Object key) {
+        int length = encode(key), slot = find(hash(scratch, 0, length), length);
+        if (slot < 0) return false;
+        long ref = ref(slot); int recordLength = HEADER + length + arena[chunk(ref)].getInt(offset(ref) + 4);
+        int mask = capacity - 1, hole = slot;
+        for (int i = (slot + 1) & mask; ref(i) != 0; i = (i + 1) & mask) {
+            int home = hash(i) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) { setSlot(hole, hash(i), ref(i)); hole = i; }
+        }
+        setSlot(hole, 0, 0);
+        live -= recordLength; garbage += recordLength; size--; modCount++; compact();
+        return true;
+    }
+
+    /**
+     * Remove all the mappings, releasing the table and the arena buffers for the collection.
+     */
+    public void clear() {
+        allocate(initialCapacity, 0); size = 0; live = 0; modCount++;
+    }
+
+    /**
+     * Return the number of bytes of the direct buffers allocated by this Association.
+     *
+     * @return the number of bytes of the direct buffers allocated by this Association
+     */
+    public long allocated() {
+        long allocated = 0;
+        for (ByteBuffer buffer : table) allocated += buffer.capacity();
+        for (int i = 0; i <= chunk; i++) allocated += arena[i].capacity();
+        return allocated;
+    }
+
+    @Override
+    public Iterator<KeyValue<K, V>> iterator() {
+        return new SlotIterator<KeyValue<K, V>>() {
+            @Override KeyValue<K, V> element(ByteBuffer record, int offset) { return entry(key(record, offset), value(record, offset)); }
+        };
+    }
+
+    @Override
+    public Container<K> keys() {
+        return new Keys();
+    }
+
+    @Override
+    public Container<V> values() {
+        return new Values();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        requireNonNull(action); int expectedModCount = modCount;
+        for (int slot = 0; slot < capacity; slot++) {
+            long ref = ref(slot); if (ref == 0) continue;
+            ByteBuffer record = arena[chunk(ref)]; int offset = offset(ref);
+            action.accept(key(record, offset), value(record, offset));
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        int[] hash = {0}; forEach((key, value) -> hash[0] += key.hashCode() ^ value.hashCode());
+        return hash[0];
+    }
+
+    /**
+     * Compare the specified object with this Association for equality. Return {@code true}
+     * if the object is also an {@link OffHeapHashAssociation} of the same mappings.
+     *
+     * @param obj the object to be compared for equality with this Association
+     * @return {@code true} if the specified object is equal to this Association
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof OffHeapHashAssociation)) return false;
+        OffHeapHashAssociation<?, ?> a = (OffHeapHashAssociation<?, ?>) obj;
+        if (a.size != size) return false;
+        try {
+            for (KeyValue<K, V> kv : this)
+                if (!a.contains(kv.getKey(), kv.getValue()))
+                    return false;
+        } catch (ClassCastException e) {
+            return false;
+        } return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEach((key, value) -> joiner.add(key + "=" + value));
+        return joiner.toString();
+    }
+
+    /**
+     * Encode the given key into the scratch buffer.
+     *
+     * @return the length of the encoding
+     */
+    @SuppressWarnings("unchecked")
+    private int encode(Object key) {
+        int length = keyCodec.sizeOf((K) requireNonNull(key)); reserve(length);
+        keyCodec.encode((K) key, scratch, 0); return length;
+    }
+
+    private void reserve(int length) {
+        if (scratch.capacity() < length) {
+            ByteBuffer scratch = ByteBuffer.allocate(Math.max(length, this.scratch.capacity() << 1));
+            copy(this.scratch, 0, scratch, 0, this.scratch.capacity()); this.scratch = scratch;
+        }
+    }
+
+    /**
+     * Return the slot of the record of the key encoded in the scratch buffer,
+     * or {@code -(insertion slot) - 1} if there is none.
+     */
+    private int find(int hash, int length) {
+        int mask = capacity - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long ref = ref(slot);
+            if (ref == 0) return -slot - 1;
+            if (hash(slot) == hash) {
+                ByteBuffer record = arena[chunk(ref)]; int offset = offset(ref);
+                if (record.getInt(offset) == length && equal(record, offset + HEADER, scratch, 0, length)) return slot;
+            }
+        }
+    }
+
+    /**
+     * Append the record of the key encoded in the scratch buffer and the given value.
+     *
+     * @return the reference of the record
+     */
+    private long append(int length, V value, int valueLength) {
+        long recordLength = (long) HEADER + length + valueLength;
+        if (recordLength > MAXIMUM_ARENA)
+            throw new IllegalArgumentException(format("Illegal record length: %d", recordLength));
+        ByteBuffer record = reserveArena((int) recordLength); int offset = position;
+        record.putInt(offset, length); record.putInt(offset + 4, valueLength);
+        copy(scratch, 0, record, offset + HEADER, length);
+        valueCodec.encode(value, record, offset + HEADER + length);
+        position += (int) recordLength;
+        return ref(chunk, offset);
+    }
+
+    /**
+     * Return the arena buffer with the given number of bytes free at the position,
+     * allocating a larger one if the current buffer has not enough of them.
+     */
+    private ByteBuffer reserveArena(int length) {
+        ByteBuffer current = arena[chunk];
+        if (current.capacity() - position >= length) return current;
+        if (++chunk == arena.length) arena = java.util.Arrays.copyOf(arena, chunk << 1);
+        int capacity = (int) Math.min(Math.max((long) current.capacity() << 1, length), MAXIMUM_ARENA);
+        position = 0; return arena[chunk] = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * Rebuild the table and the arena if the garbage records exceed the live ones.
+     */
+    private void compact() {
+        if (garbage > COMPACTION_THRESHOLD && garbage > live) rebuild(capacity);
+    }
+
+    /**
+     * Rebuild the table of the given capacity and the arena of the live records only.
+     */
+    private void rebuild(int capacity) {
+        ByteBuffer[] table = this.table, arena = this.arena; int oldCapacity = this.capacity;
+        allocate(capacity, live); int mask = capacity - 1;
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            ByteBuffer buffer = table[slot >>> SLOT_SHIFT]; int index = (slot & SLOT_MASK) * SLOT;
+            long ref = buffer.getLong(index + 4); if (ref == 0) continue;
+            int hash = buffer.getInt(index); ByteBuffer record = arena[chunk(ref)]; int offset = offset(ref);
+            int recordLength = HEADER + record.getInt(offset) + record.getInt(offset + 4);
+            ByteBuffer target = reserveArena(recordLength);
+            copy(record, offset, target, position, recordLength);
+            int i = hash & mask; while (ref(i) != 0) i = (i + 1) & mask;
+            setSlot(i, hash, ref(chunk, position)); position += recordLength;
+        }
+        modCount++;
+    }
+
+    /**
+     * Allocate the empty table of the given capacity and the arena of the given expected number of bytes.
+     */
+    private void allocate(int capacity, long bytes) {
+        int buffers = Math.max(capacity >>> SLOT_SHIFT, 1), slots = Math.min(capacity, 1 << SLOT_SHIFT);
+        table = new ByteBuffer[buffers];
+        for (int i = 0; i < buffers; i++) table[i] = ByteBuffer.allocateDirect(slots * SLOT);
+        arena = new ByteBuffer[4];
+        arena[0] = ByteBuffer.allocateDirect((int) Math.min(Math.max(bytes + (bytes >>> 3), MINIMUM_ARENA), MAXIMUM_ARENA));
+        this.capacity = capacity; this.threshold = (int) (capacity * DEFAULT_LOAD_FACTOR);
+        chunk = 0; position = 0; garbage = 0;
+    }
+
+    private int hash(int slot) {
+        return table[slot >>> SLOT_SHIFT].getInt((slot & SLOT_MASK) * SLOT);
+    }
+
+    private long ref(int slot) {
+        return table[slot >>> SLOT_SHIFT].getLong((slot & SLOT_MASK) * SLOT + 4);
+    }
+
+    private void setRef(int slot, long ref) {
+        table[slot >>> SLOT_SHIFT].putLong((slot & SLOT_MASK) * SLOT + 4, ref);
+    }
+
+    private void setSlot(int slot, int hash, long ref) {
+        ByteBuffer buffer = table[slot >>> SLOT_SHIFT]; int index = (slot & SLOT_MASK) * SLOT;
+        buffer.putInt(index, hash); buffer.putLong(index + 4, ref);
+    }
+
+    private K key(ByteBuffer record, int offset) {
+        return keyCodec.decode(record, offset + HEADER, record.getInt(offset));
+    }
+
+    private V value(ByteBuffer record, int offset) {
+        return valueCodec.decode(record, offset + HEADER + record.getInt(offset), record.getInt(offset + 4));
+    }
+
+    private static long ref(int chunk, int offset) {
+        return ((long) (chunk + 1) << 32) | offset;
+    }
+
+    private static int chunk(long ref) {
+        return (int) (ref >>> 32) - 1;
+    }
+
+    private static int offset(long ref) {
+        return (int) ref;
+    }
+
+    private static int estimate(Codec<?> codec) {
+        return codec.size() >= 0 ? codec.size() : 16;
+    }
+
+    /**
+     * Return the hash of the given number of bytes of the given buffer at the given index.
+     */
+    static int hash(ByteBuffer buffer, int index, int length) {
+        long h = length * 0x9E3779B97F4A7C15L; int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) h = (h ^ buffer.getLong(index + i)) * 0xBF58476D1CE4E5B9L;
+        for (; i < length; i++) h = (h ^ buffer.get(index + i)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31; return (int) (h ^ h >>> 32);
+    }
+
+    /**
+     * Check if the given number of bytes of the given buffers at the given indexes are equal.
+     */
+    static boolean equal(ByteBuffer a, int i, ByteBuffer b, int j, int length) {
+        int k = 0;
+        for (; k + Long.BYTES <= length; k += Long.BYTES)
+            if (a.getLong(i + k) != b.getLong(j + k)) return false;
+        for (; k < length; k++)
+            if (a.get(i + k) != b.get(j + k)) return false;
+        return true;
+    }
+
+    static void copy(ByteBuffer source, int from, ByteBuffer target, int to, int length) {
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) target.putLong(to + i, source.getLong(from + i));
+        for (; i < length; i++) target.put(to + i, source.get(from + i));
+    }
+
+    private static <K, V> KeyValue<K, V> entry(K key, V value) {
+        return new SimpleEntry<>(key, value);
+    }
+
+
+    /**
+     * An iterator over the records of the occupied slots.
+     *
+     * @param <T> the type of elements
+     */
+    private abstract class SlotIterator<T> implements Iterator<T> {
+
+        int slot = -1, expectedModCount = modCount;
+
+        SlotIterator() {
+            advance();
+        }
+
+        abstract T element(ByteBuffer record, int offset);
+
+        @Override public boolean hasNext() { return slot < capacity; }
+
+        @Override public T next() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (!hasNext()) throw new NoSuchElementException();
+            long ref = ref(slot); advance(); return element(arena[chunk(ref)], offset(ref)); }
+
+        private void advance() {
+            do slot++; while (slot < capacity && ref(slot) == 0); }
+    }
+
+    private final class Keys implements Container<K>, RandomMatch {
+
+        @Override public int size() { return size; }
+        @Override public boolean contains(Object o) { return containsKey(o); }
+        @Override public int getCount(Object o) { return containsKey(o) ? 1 : 0; }
+
+        @Override @SuppressWarnings("unchecked") public Iterator<K> getAll(Object o) {
+            return containsKey(o) ? singleton((K) o).iterator() : emptyIterator(); }
+
+        @Override public Iterator<K> iterator() {
+            return new SlotIterator<K>() {
+                @Override K element(ByteBuffer record, int offset) { return key(record, offset); }
+            }; }
+    }
+
+    private final class Values implements Container<V> {
+
+        @Override public int size() { return size; }
+
+        @Override public int getCount(Object o) {
+            int count = 0; for (Iterator<V> it = getAll(o); it.hasNext(); it.next()) count++; return count; }
+
+        @Override public Iterator<V> getAll(Object o) {
+            Iterator<V> values = iterator();
+            return new Iterator<V>() {
+                V next; boolean found;
+                @Override public boolean hasNext() {
+                    while (!found && values.hasNext())
+                        found = (next = values.next()).equals(o);
+                    return found; }
+                @Override public V next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    found = false; return next; }
+            }; }
+
+        @Override public Iterator<V> iterator() {
+            return new SlotIterator<V>() {
+                @Override V element(ByteBuffer record, int offset) { return value(record, offset); }
+            }; }
+    }
+}
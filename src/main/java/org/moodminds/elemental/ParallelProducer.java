@@ -0,0 +1,336 @@
+package org.moodminds.elemental;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Producer} partitioning its source into the parts of about equal size and providing
+ * them in parallel on a {@link ForkJoinPool}. The source is split by its {@link Spliterator},
+ * so arrays and {@link RandomGet} {@link Sequence}s are partitioned by halving their index range
+ * without copying, while other {@link Container}s are partitioned as their Spliterators permit.
+ * <p>
+ * In the <i>unordered</i> mode, which is the default, the {@link #provide(Consumer)} method applies
+ * the {@link Consumer} to the values concurrently in the pool threads, so the Consumer must be
+ * thread-safe. In the <i>ordered</i> mode, the Consumer is applied in the encounter order and never
+ * concurrently, while the parts behind the one being provided are traversed in parallel and buffered.
+ * The ordered source is split lazily into the parts of at most {@value #ORDERED_PART} values, and only
+ * a window of four parts per pool thread ahead of the one being provided is traversed, so the buffered
+ * values are bounded regardless of the source size.
+ * The {@link #collect(Supplier, BiConsumer, BinaryOperator)} method accumulates every part into its own
+ * container and combines them in the encounter order, requiring no synchronization in either mode.
+ * <p>
+ * The instances are immutable, the {@link #ordered()}, {@link #unordered()} and {@link #on(ForkJoinPool)}
+ * methods return the new ones.
+ *
+ * @param <V> the type of values
+ */
+public final class ParallelProducer<V> implements Producer<V> {
+
+    /**
+     * The maximum number of values of a part in the ordered mode.
+     */
+    static final long ORDERED_PART = 1 << 12;
+
+    private final Supplier<? extends Spliterator<? extends V>> source;
+    private final ForkJoinPool pool;
+    private final boolean ordered;
+
+    ParallelProducer(Supplier<? extends Spliterator<? extends V>> source, ForkJoinPool pool, boolean ordered) {
+        this.source = source; this.pool = pool; this.ordered = ordered;
+    }
+
+    /**
+     * Return an unordered ParallelProducer of the given values on the common pool.
+     *
+     * @param values the given values
+     * @return an unordered ParallelProducer of the given values
+     * @param <V> the type of values
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs") // the spliterator only reads the array
+    public static <V> ParallelProducer<V> producer(V... values) {
+        requireNonNull(values); return new ParallelProducer<>(() -> Arrays.spliterator(values), ForkJoinPool.commonPool(), false);
+    }
+
+    /**
+     * Return an unordered ParallelProducer of the values of the given {@link Container} on the common pool.
+     *
+     * @param container the given {@link Container}
+     * @return an unordered ParallelProducer of the values of the given {@link Container}
+     * @param <V> the type of values
+     */
+    public static <V> ParallelProducer<V> producer(Container<? extends V> container) {
+        requireNonNull(container); return new ParallelProducer<>(container::spliterator, ForkJoinPool.commonPool(), false);
+    }
+
+    /**
+     * Return an unordered ParallelProducer of the values of the given {@link Spliterator} on the common pool.
+     * As the Spliterator is consumed by the traversal, the returned Producer can provide its values once.
+     *
+     * @param spliterator the given {@link Spliterator}
+     * @return an unordered ParallelProducer of the values of the given {@link Spliterator}
+     * @param <V> the type of values
+     */
+    public static <V> ParallelProducer<V> producer(Spliterator<? extends V> spliterator) {
+        requireNonNull(spliterator); return new ParallelProducer<>(() -> spliterator, ForkJoinPool.commonPool(), false);
+    }
+
+    /**
+     * Return the ordered ParallelProducer of the same source and pool.
+     *
+     * @return the ordered ParallelProducer of the same source and pool
+     */
+    public ParallelProducer<V> ordered() {
+        return ordered ? this : new ParallelProducer<>(source, pool, true);
+    }
+
+    /**
+     * Return the unordered ParallelProducer of the same source and pool.
+     *
+     * @return the unordered ParallelProducer of the same source and pool
+     */
+    public ParallelProducer<V> unordered() {
+        return ordered ? new ParallelProducer<>(source, pool, false) : this;
+    }
+
+    /**
+     * Return the ParallelProducer of the same source and mode, running on the specified {@link ForkJoinPool}.
+     *
+     * @param pool the specified {@link ForkJoinPool}
+     * @return the ParallelProducer of the same source and mode, running on the specified pool
+     */
+    public ParallelProducer<V> on(ForkJoinPool pool) {
+        return new ParallelProducer<>(source, requireNonNull(pool), ordered);
+    }
+
+    /**
+     * Check if this ParallelProducer provides the values in the encounter order.
+     *
+     * @return {@code true} if this ParallelProducer provides the values in the encounter order
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Provide the values to the specified {@link Consumer}, returning when all of them are provided.
+     * In the unordered mode the Consumer is applied concurrently and must be thread-safe.
+     *
+     * @param consumer the specified {@link Consumer} of values
+     * @throws NullPointerException if the specified {@link Consumer} is {@code null}
+     */
+    @Override
+    public void provide(Consumer<? super V> consumer) {
+        requireNonNull(consumer); Spliterator<? extends V> spliterator = source.get();
+        long threshold = threshold(spliterator);
+        if (!ordered) pool.invoke(new ProvideTask<>(null, spliterator, threshold, consumer));
+        else pool.invoke(new OrderedTask<>(spliterator, Math.min(threshold, ORDERED_PART), pool.getParallelism() << 2, consumer));
+    }
+
+    /**
+     * Accumulate the values into the containers created by the given {@link Supplier}, one per part,
+     * combining the part containers in the encounter order.
+     *
+     * @param supplier the {@link Supplier} of the part containers
+     * @param accumulator the function accumulating a value into a part container
+     * @param combiner the function combining the two adjacent part containers, the left one first
+     * @return the combined container
+     * @param <A> the type of containers
+     * @throws NullPointerException if any of the arguments is {@code null}
+     */
+    public <A> A collect(Supplier<A> supplier, BiConsumer<A, ? super V> accumulator, BinaryOperator<A> combiner) {
+        requireNonNull(supplier); requireNonNull(accumulator); requireNonNull(combiner);
+        Spliterator<? extends V> spliterator = source.get();
+        return pool.invoke(new CollectTask<>(null, spliterator, threshold(spliterator), supplier, accumulator, combiner));
+    }
+
+    private long threshold(Spliterator<?> spliterator) {
+        return Math.max(1, spliterator.estimateSize() / ((long) pool.getParallelism() << 2));
+    }
+
+
+
+    /**
+     * The task providing its part to the Consumer and forking the split off prefixes.
+     */
+    static final class ProvideTask<V> extends CountedCompleter<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        final Spliterator<? extends V> spliterator; final long threshold; final Consumer<? super V> consumer;
+
+        ProvideTask(ProvideTask<V> parent, Spliterator<? extends V> spliterator, long threshold, Consumer<? super V> consumer) {
+            super(parent); this.spliterator = spliterator; this.threshold = threshold; this.consumer = consumer;
+        }
+
+        @Override
+        public void compute() {
+            Spliterator<? extends V> spliterator = this.spliterator, prefix;
+            while (spliterator.estimateSize() > threshold && (prefix = spliterator.trySplit()) != null) {
+                addToPendingCount(1); new ProvideTask<V>(this, prefix, threshold, consumer).fork();
+            }
+            spliterator.forEachRemaining(consumer); propagateCompletion();
+        }
+    }
+
+    /**
+     * The task accumulating its part or combining the results of its two halves.
+     */
+    static final class CollectTask<V, A> extends CountedCompleter<A> {
+
+        private static final long serialVersionUID = 1L;
+
+        final Spliterator<? extends V> spliterator; final long threshold;
+        final Supplier<A> supplier; final BiConsumer<A, ? super V> accumulator; final BinaryOperator<A> combiner;
+        CollectTask<V, A> left, right; A result;
+
+        CollectTask(CollectTask<V, A> parent, Spliterator<? extends V> spliterator, long threshold,
+                    Supplier<A> supplier, BiConsumer<A, ? super V> accumulator, BinaryOperator<A> combiner) {
+            super(parent); this.spliterator = spliterator; this.threshold = threshold;
+            this.supplier = supplier; this.accumulator = accumulator; this.combiner = combiner;
+        }
+
+        @Override
+        public void compute() {
+            Spliterator<? extends V> prefix;
+            if (spliterator.estimateSize() > threshold && (prefix = spliterator.trySplit()) != null) {
+                left = new CollectTask<>(this, prefix, threshold, supplier, accumulator, combiner);
+                right = new CollectTask<>(this, spliterator, threshold, supplier, accumulator, combiner);
+                setPendingCount(1); right.fork(); left.compute();
+            } else {
+                A result = supplier.get(); spliterator.forEachRemaining(value -> accumulator.accept(result, value));
+                this.result = result; tryComplete();
+            }
+        }
+
+        @Override
+        public void onCompletion(CountedCompleter<?> caller) {
+            if (left != null) {
+                result = combiner.apply(left.result, right.result); left = right = null; }
+        }
+
+        @Override
+        public A getRawResult() {
+            return result;
+        }
+    }
+
+    /**
+     * The task providing the parts in the encounter order. The source is split into the parts lazily,
+     * and the tasks of the parts are forked up to the window ahead of the next part to provide. The part
+     * which is next to provide is traversed directly into the Consumer, while the others are buffered
+     * by their tasks and drained in turn by whichever task finds the next part complete.
+     */
+    static final class OrderedTask<V> extends CountedCompleter<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        final ArrayDeque<Spliterator<? extends V>> rest = new ArrayDeque<>(); // the unsplit suffixes, nearest first
+        final long threshold; final Consumer<? super V> consumer;
+        final Object[][] buffers; final boolean[] done; // of the window parts, by the index modulo the window
+        int next, forked; boolean emitting; // guarded by this
+
+        OrderedTask(Spliterator<? extends V> spliterator, long threshold, int window, Consumer<? super V> consumer) {
+            this.threshold = threshold; this.consumer = consumer;
+            this.buffers = new Object[window][]; this.done = new boolean[window];
+            rest.push(spliterator);
+        }
+
+        @Override
+        public void compute() {
+            Spliterator<? extends V> part;
+            synchronized (this) {
+                if ((part = take()) != null) forked = 1; }
+            if (part != null) { schedule(); provide(0, part); }
+            tryComplete();
+        }
+
+        void provide(int index, Spliterator<? extends V> part) {
+            boolean direct;
+            synchronized (this) {
+                if (direct = next == index && !emitting) emitting = true; }
+            if (direct) {
+                try {
+                    part.forEachRemaining(consumer);
+                } finally {
+                    synchronized (this) {
+                        next = index + 1; emitting = false; }
+                }
+            } else {
+                ArrayList<V> buffer = new ArrayList<>(); part.forEachRemaining(buffer::add);
+                synchronized (this) {
+                    buffers[index % buffers.length] = buffer.toArray(); done[index % buffers.length] = true; }
+            } drain(); schedule();
+        }
+
+        @SuppressWarnings("unchecked")
+        void drain() {
+            while (true) {
+                Object[] buffer;
+                synchronized (this) {
+                    int slot = next % buffers.length;
+                    if (emitting || !done[slot]) return;
+                    emitting = true; buffer = buffers[slot]; buffers[slot] = null; done[slot] = false; }
+                try {
+                    for (Object value : buffer) consumer.accept((V) value);
+                } finally {
+                    synchronized (this) {
+                        next++; emitting = false; }
+                }
+            }
+        }
+
+        /**
+         * Fork the tasks of the parts up to the window ahead of the next part to provide.
+         */
+        void schedule() {
+            while (true) {
+                Spliterator<? extends V> part; int index;
+                synchronized (this) {
+                    if (forked - next >= buffers.length || (part = take()) == null) return;
+                    index = forked++; }
+                addToPendingCount(1); new PartTask(index, part).fork();
+            }
+        }
+
+        /**
+         * Split off the next part of the source, or return {@code null} if the source is exhausted.
+         */
+        private Spliterator<? extends V> take() { // guarded by this
+            Spliterator<? extends V> part = rest.poll(), prefix;
+            if (part == null) return null;
+            while (part.estimateSize() > threshold && (prefix = part.trySplit()) != null) {
+                rest.push(part); part = prefix; }
+            return part;
+        }
+
+        /**
+         * The task providing a single part.
+         */
+        final class PartTask extends CountedCompleter<Void> {
+
+            private static final long serialVersionUID = 1L;
+
+            final int index; final Spliterator<? extends V> part;
+
+            PartTask(int index, Spliterator<? extends V> part) {
+                super(OrderedTask.this); this.index = index; this.part = part;
+            }
+
+            @Override
+            public void compute() {
+                provide(index, part); tryComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.moodminds.elemental;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Spliterator} over the elements of a {@link RandomGet} {@link Sequence}, which reads
+ * the elements by their position index and splits by halving the index range. Unlike the iterator
+ * based Spliterator, it does not copy the elements into arrays to split, so the parallel traversal
+ * of a large Sequence is balanced across the threads.
+ * <p>
+ * The Spliterator is <em>late-binding</em>: the end of its range is bound to the size of the
+ * Sequence at the first traversal, split or size estimation. It reports the {@link Spliterator#ORDERED},
+ * {@link Spliterator#SIZED} and {@link Spliterator#SUBSIZED} characteristics.
+ *
+ * @param <E> the type of elements
+ *
+ * @see Sequence#spliterator()
+ * @see IntSequence#spliterator()
+ * @see LongSequence#spliterator()
+ */
+final class RandomGetSpliterator<E> implements Spliterator<E> {
+
+    private final Sequence<E> sequence;
+    private int index, fence; // fence is -1 until bound
+
+    RandomGetSpliterator(Sequence<E> sequence) {
+        this(sequence, 0, -1);
+    }
+
+    private RandomGetSpliterator(Sequence<E> sequence, int origin, int fence) {
+        this.sequence = sequence; this.index = origin; this.fence = fence;
+    }
+
+    @Override
+    public Spliterator<E> trySplit() {
+        int lo = index, mid = (lo + fence()) >>> 1;
+        return lo < mid ? new RandomGetSpliterator<>(sequence, lo, index = mid) : null;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+        requireNonNull(action); int i = index;
+        if (i < fence()) {
+            index = i + 1; action.accept(sequence.get(i)); return true;
+        } return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super E> action) {
+        requireNonNull(action); Sequence<E> sequence = this.sequence;
+        for (int i = index, fence = index = fence(); i < fence; i++)
+            action.accept(sequence.get(i));
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence() - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED;
+    }
+
+    private int fence() {
+        int fence = this.fence; return fence >= 0 ? fence : (this.fence = sequence.size());
+    }
+
+
+    /**
+     * The {@link Spliterator.OfInt} over the values of a {@link RandomGet} {@link IntSequence}.
+     */
+    static final class OfInt implements Spliterator.OfInt {
+
+        private final IntSequence sequence;
+        private int index, fence; // fence is -1 until bound
+
+        OfInt(IntSequence sequence) {
+            this(sequence, 0, -1);
+        }
+
+        private OfInt(IntSequence sequence, int origin, int fence) {
+            this.sequence = sequence; this.index = origin; this.fence = fence;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int lo = index, mid = (lo + fence()) >>> 1;
+            return lo < mid ? new RandomGetSpliterator.OfInt(sequence, lo, index = mid) : null;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            requireNonNull(action); int i = index;
+            if (i < fence()) {
+                index = i + 1; action.accept(sequence.getInt(i)); return true;
+            } return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            requireNonNull(action); IntSequence sequence = this.sequence;
+            for (int i = index, fence = index = fence(); i < fence; i++)
+                action.accept(sequence.getInt(i));
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence() - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+
+        private int fence() {
+            int fence = this.fence; return fence >= 0 ? fence : (this.fence = sequence.size());
+        }
+    }
+
+    /**
+     * The {@link Spliterator.OfLong} over the values of a {@link RandomGet} {@link LongSequence}.
+     */
+    static final class OfLong implements Spliterator.OfLong {
+
+        private final LongSequence sequence;
+        private int index, fence; // fence is -1 until bound
+
+        OfLong(LongSequence sequence) {
+            this(sequence, 0, -1);
+        }
+
+        private OfLong(LongSequence sequence, int origin, int fence) {
+            this.sequence = sequence; this.index = origin; this.fence = fence;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            int lo = index, mid = (lo + fence()) >>> 1;
+            return lo < mid ? new RandomGetSpliterator.OfLong(sequence, lo, index = mid) : null;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            requireNonNull(action); int i = index;
+            if (i < fence()) {
+                index = i + 1; action.accept(sequence.getLong(i)); return true;
+            } return false;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            requireNonNull(action); LongSequence sequence = this.sequence;
+            for (int i = index, fence = index = fence(); i < fence; i++)
+                action.accept(sequence.getLong(i));
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence() - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+
+        private int fence() {
+            int fence = this.fence; return fence >= 0 ? fence : (this.fence = sequence.size());
+        }
+    }
+}
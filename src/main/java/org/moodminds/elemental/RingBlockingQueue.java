@@ -0,0 +1,426 @@
+package org.moodminds.elemental;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A bounded lock-free {@link BlockingQueue} of a ring buffer of sequence numbered slots,
+ * safe for any number of concurrent producers and consumers.
+ * <p>
+ * Every slot carries a sequence number telling whether it is ready to be written at the given
+ * tail position or to be read at the given head position, so a producer or a consumer claims
+ * its slot by a single CAS of the tail or the head counter and publishes it by advancing
+ * the slot sequence. The head and the tail counters are kept apart on separate cache lines
+ * to avoid false sharing between producers and consumers. The capacity is rounded up to
+ * a power of two.
+ * <p>
+ * The non-blocking {@link #offer(Object)} and {@link #poll()} methods never lock. The blocking
+ * methods retry yielding for a while and fall back to parking on a lock condition only when
+ * the queue stays full or empty, while the opposite side takes the lock to signal them only
+ * if there are parked waiters.
+ * The {@link #drainTo(java.util.Collection, int)} method claims a run of available slots
+ * by a single CAS.
+ * <p>
+ * The {@link #size()} is an estimate under concurrent modifications. The iterators traverse
+ * a snapshot of the elements taken when they are created and do not support removal, so the
+ * {@link #remove(Object)} method is unsupported. The queue does not permit {@code null} elements.
+ *
+ * @param <E> the type of elements
+ */
+public class RingBlockingQueue<E> implements BlockingQueue<E> {
+
+    /**
+     * The distance in longs between the counters and from the counters array bounds,
+     * which covers a pair of adjacent cache lines.
+     */
+    private static final int PAD = 16;
+    private static final int HEAD = PAD, TAIL = PAD << 1;
+
+    /**
+     * The number of yielding retries of the blocking methods before they park.
+     */
+    private static final int SPINS = 64;
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray counters = new AtomicLongArray(PAD * 3);
+    private final int mask;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition(), notFull = lock.newCondition();
+    private volatile int takers, putters; // modified under the lock
+
+    /**
+     * Construct an empty queue of at least the specified capacity, and of at least two slots,
+     * since a single slot cannot tell the published element from the writable one.
+     *
+     * @param capacity the minimal capacity of this queue
+     * @throws IllegalArgumentException if the capacity is not positive or exceeds {@code 2^30}
+     */
+    public RingBlockingQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30)
+            throw new IllegalArgumentException(format("Illegal capacity: %d", capacity));
+        int length = Math.max(Integer.highestOneBit(capacity), 2);
+        if (length < capacity) length <<= 1;
+        elements = new Object[length]; sequences = new AtomicLongArray(length); mask = length - 1;
+        for (int i = 0; i < length; i++) sequences.lazySet(i, i);
+    }
+
+    /**
+     * Construct a queue of at least the specified capacity, initially containing the elements
+     * of the given {@link Iterable}, added in its traversal order.
+     *
+     * @param capacity the minimal capacity of this queue
+     * @param elements the given {@link Iterable} of elements
+     * @throws IllegalArgumentException if the capacity is illegal
+     * @throws IllegalStateException if the elements do not fit the capacity
+     * @throws NullPointerException if any of the elements is {@code null}
+     */
+    public RingBlockingQueue(int capacity, Iterable<? extends E> elements) {
+        this(capacity); for (E e : elements) add(e);
+    }
+
+    /**
+     * Return the capacity of this queue.
+     *
+     * @return the capacity of this queue
+     */
+    public int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Insert the specified element at the tail of this queue if there is room for it.
+     *
+     * @param e the element to add
+     * @return {@code true} if the element was added, {@code false} if this queue is full
+     * @throws NullPointerException if the specified element is {@code null}
+     */
+    @Override
+    public boolean offer(E e) {
+        requireNonNull(e); AtomicLongArray sequences = this.sequences; int mask = this.mask;
+        for (long pos = counters.get(TAIL); ; ) {
+            int i = (int) pos & mask; long dif = sequences.get(i) - pos;
+            if (dif == 0) {
+                if (counters.compareAndSet(TAIL, pos, pos + 1)) {
+                    elements[i] = e; sequences.set(i, pos + 1);
+                    if (takers != 0) signal(notEmpty, false);
+                    return true;
+                } pos = counters.get(TAIL);
+            } else if (dif < 0) return false;
+            else pos = counters.get(TAIL);
+        }
+    }
+
+    /**
+     * Retrieve and remove the head of this queue if it is available.
+     *
+     * @return the head of this queue, or {@code null} if this queue is empty
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        AtomicLongArray sequences = this.sequences; int mask = this.mask;
+        for (long pos = counters.get(HEAD); ; ) {
+            int i = (int) pos & mask; long dif = sequences.get(i) - (pos + 1);
+            if (dif == 0) {
+                if (counters.compareAndSet(HEAD, pos, pos + 1)) {
+                    Object e = elements[i]; elements[i] = null; sequences.set(i, pos + elements.length);
+                    if (putters != 0) signal(notFull, false);
+                    return (E) e;
+                } pos = counters.get(HEAD);
+            } else if (dif < 0) return null;
+            else pos = counters.get(HEAD);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        AtomicLongArray sequences = this.sequences;
+        for (long pos = counters.get(HEAD); ; pos = counters.get(HEAD)) {
+            int i = (int) pos & mask; long dif = sequences.get(i) - (pos + 1);
+            if (dif < 0) return null;
+            if (dif == 0) {
+                Object e = elements[i];
+                if (e != null && counters.get(HEAD) == pos) return (E) e;
+            }
+        }
+    }
+
+    @Override
+    public E remove() {
+        E e = poll(); if (e == null) throw new NoSuchElementException(); return e;
+    }
+
+    @Override
+    public E element() {
+        E e = peek(); if (e == null) throw new NoSuchElementException(); return e;
+    }
+
+    @Override
+    public boolean add(E e) {
+        if (offer(e)) return true;
+        throw new IllegalStateException("Queue full");
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        for (int spins = SPINS; spins > 0; spins--) {
+            if (offer(e)) return; Thread.yield(); }
+        ReentrantLock lock = this.lock; lock.lockInterruptibly();
+        try {
+            putters++;
+            try {
+                while (!offer(e)) notFull.await();
+            } finally { putters--; }
+        } finally { lock.unlock(); }
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        for (int spins = SPINS; spins > 0; spins--) {
+            if (offer(e)) return true; Thread.yield(); }
+        long nanos = unit.toNanos(timeout); ReentrantLock lock = this.lock; lock.lockInterruptibly();
+        try {
+            putters++;
+            try {
+                while (!offer(e)) {
+                    if (nanos <= 0) return false;
+                    nanos = notFull.awaitNanos(nanos);
+                }
+            } finally { putters--; }
+        } finally { lock.unlock(); }
+        return true;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E e;
+        for (int spins = SPINS; spins > 0; spins--) {
+            if ((e = poll()) != null) return e; Thread.yield(); }
+        ReentrantLock lock = this.lock; lock.lockInterruptibly();
+        try {
+            takers++;
+            try {
+                while ((e = poll()) == null) notEmpty.await();
+            } finally { takers--; }
+        } finally { lock.unlock(); }
+        return e;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E e;
+        for (int spins = SPINS; spins > 0; spins--) {
+            if ((e = poll()) != null) return e; Thread.yield(); }
+        long nanos = unit.toNanos(timeout); ReentrantLock lock = this.lock; lock.lockInterruptibly();
+        try {
+            takers++;
+            try {
+                while ((e = poll()) == null) {
+                    if (nanos <= 0) return null;
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+            } finally { takers--; }
+        } finally { lock.unlock(); }
+        return e;
+    }
+
+    @Override
+    public int drainTo(java.util.Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Remove at most the given number of available elements from this queue and add them
+     * to the given collection. The elements are claimed in runs of the consecutive published
+     * slots, each run by a single CAS of the head counter. If adding to the collection fails,
+     * the rest of the claimed run is lost.
+     *
+     * @param c the collection to transfer elements into
+     * @param maxElements the maximum number of elements to transfer
+     * @return the number of elements transferred
+     * @throws IllegalArgumentException if the collection is this queue
+     * @throws NullPointerException if the collection is {@code null}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public int drainTo(java.util.Collection<? super E> c, int maxElements) {
+        requireNonNull(c);
+        if (c == this) throw new IllegalArgumentException();
+        AtomicLongArray sequences = this.sequences; Object[] elements = this.elements;
+        int mask = this.mask, length = elements.length, drained = 0;
+        while (drained < maxElements) {
+            long pos = counters.get(HEAD); int max = Math.min(maxElements - drained, length), n = 0;
+            while (n < max && sequences.get((int) (pos + n) & mask) == pos + n + 1) n++;
+            if (n == 0) {
+                if (sequences.get((int) pos & mask) < pos + 1) break; continue; }
+            if (!counters.compareAndSet(HEAD, pos, pos + n)) continue;
+            Object[] batch = new Object[n];
+            for (int k = 0; k < n; k++) {
+                int i = (int) (pos + k) & mask;
+                batch[k] = elements[i]; elements[i] = null; sequences.set(i, pos + k + length);
+            }
+            if (putters != 0) signal(notFull, n > 1);
+            for (Object e : batch) {
+                c.add((E) e); drained++; }
+        }
+        return drained;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return elements.length - size();
+    }
+
+    @Override
+    public int size() {
+        long head, tail;
+        do {
+            head = counters.get(HEAD); tail = counters.get(TAIL);
+        } while (head != counters.get(HEAD));
+        return (int) Math.max(0, Math.min(elements.length, tail - head));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != null);
+    }
+
+    @Override
+    public int getCount(Object o) {
+        int count = 0;
+        if (o != null) for (Object e : snapshot()) if (o.equals(e)) count++;
+        return count;
+    }
+
+    @Override
+    public Iterator<E> getAll(Object o) {
+        ArrayList<E> matches = new ArrayList<>();
+        if (o != null) for (E e : snapshot()) if (o.equals(e)) matches.add(e);
+        return new SnapshotIterator(matches);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o != null) for (E e : snapshot()) if (o.equals(e)) return true;
+        return false;
+    }
+
+    /**
+     * Unsupported, as the elements can be removed at the head of this queue only.
+     *
+     * @param o the element to remove
+     * @return never returns normally
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Return an iterator over a snapshot of the elements of this queue in the head to tail order.
+     * The iterator does not support removal.
+     *
+     * @return an iterator over a snapshot of the elements of this queue
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new SnapshotIterator(snapshot());
+    }
+
+    @Override
+    public Object[] toArray() {
+        return snapshot().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return snapshot().toArray(a);
+    }
+
+    /**
+     * Return the hash code value of this queue, which is its identity hash code,
+     * as the contents of a concurrent queue are not a stable basis for one.
+     *
+     * @return the identity hash code of this queue
+     */
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    /**
+     * Compare the specified object with this queue for identity.
+     *
+     * @param obj the object to be compared with this queue
+     * @return {@code true} if the specified object is this queue
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (E e : snapshot()) joiner.add(e == this ? "(this Collection)" : String.valueOf(e));
+        return joiner.toString();
+    }
+
+    /**
+     * Collect the elements published between the head and the tail, skipping the slots
+     * being concurrently consumed.
+     *
+     * @return the list of the elements in the head to tail order
+     */
+    @SuppressWarnings("unchecked")
+    private ArrayList<E> snapshot() {
+        ArrayList<E> snapshot = new ArrayList<>(); AtomicLongArray sequences = this.sequences;
+        long head = counters.get(HEAD), tail = counters.get(TAIL);
+        for (long pos = head; pos < tail; pos++) {
+            int i = (int) pos & mask; Object e = elements[i];
+            if (sequences.get(i) == pos + 1 && e != null) snapshot.add((E) e);
+        }
+        return snapshot;
+    }
+
+    private void signal(Condition condition, boolean all) {
+        ReentrantLock lock = this.lock; lock.lock();
+        try {
+            if (all) condition.signalAll(); else condition.signal();
+        } finally { lock.unlock(); }
+    }
+
+
+    /**
+     * A read-only iterator over a list of elements.
+     */
+    private final class SnapshotIterator implements Iterator<E> {
+
+        final Iterator<E> iterator;
+
+        SnapshotIterator(ArrayList<E> elements) {
+            this.iterator = elements.iterator();
+        }
+
+        @Override public boolean hasNext() { return iterator.hasNext(); }
+        @Override public E next() { return iterator.next(); }
+    }
+}
@@ -0,0 +1,548 @@
+package org.moodminds.elemental;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+import static java.lang.String.format;
+
+/**
+ * A persistent {@link TailedSequence} of a relaxed radix balanced tree, which permits
+ * the {@code null} elements.
+ * <p>
+ * The elements are kept in the leaves of a tree of nodes of up to {@code 32} children, followed by
+ * a tail buffer of up to {@code 32} elements. The nodes of the full subtrees are indexed by the radix
+ * of the element index, while the others keep the table of their cumulative subtree sizes, so the
+ * {@link #get(int)} method takes effectively constant {@code O(log32 n)} time. The Sequence is
+ * immutable, while the {@link #append(Object)} method returns its copy in amortized constant time
+ * by copying the tail buffer only, and the {@link #prepend(Object)}, {@link #concat(Sequence)} and
+ * {@link #sub(int, int)} methods return the copies in {@code O(log n)} time, sharing the unaffected
+ * subtrees. The concatenation rebalances the nodes along the seam, keeping the tree height logarithmic.
+ *
+ * @param <E> the type of elements
+ */
+public final class RrbTreeSequence<E> implements TailedSequence<E>, RandomGet, DirectMatch {
+
+    static final int BITS = 5, WIDTH = 1 << BITS;
+
+    /**
+     * The number of the extra nodes a concatenation may leave over the optimal number,
+     * trading the search steps of the relaxed nodes for less copying.
+     */
+    static final int EXTRAS = 2;
+
+    private static final Object[] NONE = new Object[0];
+    private static final RrbTreeSequence<?> EMPTY = new RrbTreeSequence<>(null, 0, 0, NONE);
+
+    final Object root; // null, a leaf array or a Node
+    final int shift; // the shift of the root level, 0 for a leaf
+    final int treeSize;
+    final Object[] tail;
+
+    private RrbTreeSequence(Object root, int shift, int treeSize, Object[] tail) {
+        this.root = root; this.shift = shift; this.treeSize = treeSize; this.tail = tail;
+    }
+
+    /**
+     * Return the empty Sequence.
+     *
+     * @return the empty Sequence
+     * @param <E> the type of elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> RrbTreeSequence<E> empty() {
+        return (RrbTreeSequence<E>) EMPTY;
+    }
+
+    /**
+     * Return the Sequence of the given elements.
+     *
+     * @param elements the given elements
+     * @return the Sequence of the given elements
+     * @param <E> the type of elements
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs") // the list view only reads the array
+    public static <E> RrbTreeSequence<E> sequence(E... elements) {
+        return RrbTreeSequence.<E>empty().appendAll(Arrays.asList(elements));
+    }
+
+    /**
+     * Return the Sequence of the elements of the given {@link Iterable}.
+     *
+     * @param elements the given {@link Iterable} of elements
+     * @return the Sequence of the elements of the given {@link Iterable}
+     * @param <E> the type of elements
+     */
+    public static <E> RrbTreeSequence<E> sequence(Iterable<? extends E> elements) {
+        return RrbTreeSequence.<E>empty().appendAll(elements);
+    }
+
+    /**
+     * Return the Sequence with the specified element appended.
+     *
+     * @param element the specified element
+     * @return the Sequence with the specified element appended
+     */
+    public RrbTreeSequence<E> append(E element) {
+        if (tail.length == WIDTH)
+            return withLeaf(tail, new Object[] {element});
+        Object[] tail = Arrays.copyOf(this.tail, this.tail.length + 1);
+        tail[this.tail.length] = element;
+        return new RrbTreeSequence<>(root, shift, treeSize, tail);
+    }
+
+    /**
+     * Return the Sequence with the elements of the given {@link Iterable} appended, pushing
+     * them into the tree by the full leaves.
+     *
+     * @param elements the given {@link Iterable} of elements
+     * @return the Sequence with the elements of the given {@link Iterable} appended
+     */
+    public RrbTreeSequence<E> appendAll(Iterable<? extends E> elements) {
+        RrbTreeSequence<E> tree = this; Object[] buffer = Arrays.copyOf(tail, WIDTH); int length = tail.length;
+        for (E element : elements) {
+            if (length == WIDTH) {
+                tree = tree.withLeaf(buffer, NONE); buffer = new Object[WIDTH]; length = 0; }
+            buffer[length++] = element;
+        }
+        if (tree == this && length == tail.length) return this;
+        return new RrbTreeSequence<>(tree.root, tree.shift, tree.treeSize, length == WIDTH ? buffer : Arrays.copyOf(buffer, length));
+    }
+
+    /**
+     * Return the Sequence with the specified element prepended.
+     *
+     * @param element the specified element
+     * @return the Sequence with the specified element prepended
+     */
+    public RrbTreeSequence<E> prepend(E element) {
+        return new RrbTreeSequence<E>(null, 0, 0, new Object[] {element}).concat(this);
+    }
+
+    /**
+     * Return the concatenation of this Sequence and the given {@link Sequence}. If the given Sequence
+     * is also an RrbTreeSequence, the trees are joined in {@code O(log n)} time, otherwise its elements
+     * are appended.
+     *
+     * @param sequence the given {@link Sequence}
+     * @return the concatenation of this Sequence and the given {@link Sequence}
+     */
+    @SuppressWarnings("unchecked")
+    public RrbTreeSequence<E> concat(Sequence<? extends E> sequence) {
+        if (!(sequence instanceof RrbTreeSequence)) return appendAll(sequence);
+        RrbTreeSequence<E> other = (RrbTreeSequence<E>) sequence;
+        if (other.size() == 0) return this;
+        if (size() == 0) return other;
+        RrbTreeSequence<E> left = tail.length == 0 ? this : withLeaf(tail, NONE);
+        if (other.root == null)
+            return new RrbTreeSequence<>(left.root, left.shift, left.treeSize, other.tail);
+        Node joint = concat(left.root, left.shift, other.root, other.shift, true);
+        int shift = Math.max(left.shift, other.shift);
+        return joint.children.length == 1
+                ? new RrbTreeSequence<>(joint.children[0], shift, left.treeSize + other.treeSize, other.tail)
+                : new RrbTreeSequence<>(joint, shift + BITS, left.treeSize + other.treeSize, other.tail);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R extends E> R get(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, size()));
+        if (index >= treeSize) return (R) tail[index - treeSize];
+        Object node = root; int i = index;
+        for (int s = shift; s > 0; s -= BITS) {
+            Node n = (Node) node; int slot = i >>> s;
+            if (n.sizes == null) i &= (1 << s) - 1;
+            else {
+                while (n.sizes[slot] <= i) slot++;
+                if (slot > 0) i -= n.sizes[slot - 1];
+            } node = n.children[slot];
+        }
+        return (R) ((Object[]) node)[i];
+    }
+
+    @Override
+    public int getCount(Object o) {
+        int count = 0;
+        for (E e : this) if (Objects.equals(e, o)) count++;
+        return count;
+    }
+
+    @Override
+    public boolean containsOne(Object o) {
+        if (matches(root, o)) return true;
+        for (Object e : tail) if (Objects.equals(e, o)) return true;
+        return false;
+    }
+
+    @Override
+    public Iterator<E> getAll(Object o) {
+        return new MatchIterator(new TreeIterator(0), o, false);
+    }
+
+    @Override
+    public Iterator<E> getAllDescending(Object o) {
+        return new MatchIterator(new TreeIterator(size()), o, true);
+    }
+
+    @Override
+    public int size() {
+        return treeSize + tail.length;
+    }
+
+    /**
+     * Return the Sequence of the elements within the specified range, sharing
+     * the subtrees in between with this Sequence.
+     *
+     * @param fromIndex the start index of the range, inclusive
+     * @param toIndex the end index of the range, exclusive
+     * @return the Sequence of the elements within the specified range
+     * @throws IndexOutOfBoundsException if the range is illegal
+     */
+    @Override
+    public RrbTreeSequence<E> sub(int fromIndex, int toIndex) {
+        int size = size();
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+            throw new IndexOutOfBoundsException(format("From: %d, To: %d, Size: %d", fromIndex, toIndex, size));
+        if (fromIndex == 0 && toIndex == size) return this;
+        if (fromIndex == toIndex) return empty();
+        Object[] tail = toIndex > treeSize
+                ? Arrays.copyOfRange(this.tail, Math.max(fromIndex - treeSize, 0), toIndex - treeSize) : NONE;
+        if (fromIndex >= treeSize) return new RrbTreeSequence<>(null, 0, 0, tail);
+        int end = Math.min(toIndex, treeSize); Object root = this.root; int shift = this.shift;
+        if (end < treeSize) root = take(root, shift, end);
+        if (fromIndex > 0) root = drop(root, shift, fromIndex);
+        while (shift > 0 && ((Node) root).children.length == 1) {
+            root = ((Node) root).children[0]; shift -= BITS; }
+        return new RrbTreeSequence<>(root, shift, end - fromIndex, tail);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new TreeIterator(0);
+    }
+
+    @Override
+    public TailedSequenceIterator<E> iterator(int index) {
+        if (index < 0 || index > size())
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, size()));
+        return new TreeIterator(index);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (E e : this) hash = 31 * hash + (e == null ? 0 : e.hashCode());
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof Sequence)) return false;
+        Sequence<?> s = (Sequence<?>) obj;
+        if (s.size() != size()) return false;
+        Iterator<?> it = s.iterator();
+        for (E e : this)
+            if (!it.hasNext() || !Objects.equals(e, it.next())) return false;
+        return !it.hasNext();
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (E e : this) joiner.add(e == this ? "(this Sequence)" : String.valueOf(e));
+        return joiner.toString();
+    }
+
+    /**
+     * Return the Sequence of the tree of this Sequence with the given leaf pushed into it
+     * and of the given tail.
+     */
+    private RrbTreeSequence<E> withLeaf(Object[] leaf, Object[] tail) {
+        if (root == null) return new RrbTreeSequence<>(leaf, 0, leaf.length, tail);
+        Node pushed = push(root, shift, leaf);
+        if (pushed != null) return new RrbTreeSequence<>(pushed, shift, treeSize + leaf.length, tail);
+        return new RrbTreeSequence<>(node(new Object[] {root, path(leaf, shift)}, shift + BITS),
+                shift + BITS, treeSize + leaf.length, tail);
+    }
+
+    /**
+     * Return the leaf holding the tree element at the specified index, storing the index
+     * of the first element of the leaf into the given holder.
+     */
+    private Object[] leaf(int index, int[] start) {
+        Object node = root; int i = index;
+        for (int s = shift; s > 0; s -= BITS) {
+            Node n = (Node) node; int slot = i >>> s;
+            if (n.sizes == null) i &= (1 << s) - 1;
+            else {
+                while (n.sizes[slot] <= i) slot++;
+                if (slot > 0) i -= n.sizes[slot - 1];
+            } node = n.children[slot];
+        }
+        start[0] = index - i; return (Object[]) node;
+    }
+
+    /**
+     * Return the number of the elements of the specified subtree.
+     */
+    static int size(Object node, int shift) {
+        if (shift == 0) return ((Object[]) node).length;
+        Node n = (Node) node;
+        if (n.sizes != null) return n.sizes[n.sizes.length - 1];
+        int last = n.children.length - 1;
+        return (last << shift) + size(n.children[last], shift - BITS);
+    }
+
+    /**
+     * Create the node of the given children at the specified shift, keeping the size table
+     * only if any child but the last one is not full.
+     */
+    static Node node(Object[] children, int shift) {
+        int[] sizes = new int[children.length]; boolean strict = true;
+        for (int i = 0, total = 0; i < children.length; i++) {
+            int size = size(children[i], shift - BITS); sizes[i] = total += size;
+            if (size != 1 << shift && i < children.length - 1) strict = false;
+        }
+        return new Node(children, strict ? null : sizes);
+    }
+
+    /**
+     * Check if the specified subtree has an element equal to the given object.
+     */
+    static boolean matches(Object node, Object o) {
+        if (node instanceof Node) {
+            for (Object child : ((Node) node).children) if (matches(child, o)) return true;
+        } else if (node != null)
+            for (Object e : (Object[]) node) if (Objects.equals(e, o)) return true;
+        return false;
+    }
+
+    /**
+     * Create the path of the single child nodes from the specified shift down to the given leaf.
+     */
+    static Object path(Object[] leaf, int shift) {
+        Object node = leaf;
+        for (int s = BITS; s <= shift; s += BITS) node = new Node(new Object[] {node}, null);
+        return node;
+    }
+
+    /**
+     * Push the given leaf into the rightmost path of the specified subtree.
+     *
+     * @return the updated subtree, or {@code null} if the subtree is full
+     */
+    static Node push(Object node, int shift, Object[] leaf) {
+        if (shift == 0) return null;
+        Node n = (Node) node; Object[] children = n.children; int last = children.length - 1;
+        if (shift > BITS) {
+            Node child = push(children[last], shift - BITS, leaf);
+            if (child != null) {
+                Object[] copy = children.clone(); copy[last] = child; int[] sizes = n.sizes;
+                if (sizes != null) {
+                    sizes = sizes.clone(); sizes[last] += leaf.length; }
+                return new Node(copy, sizes);
+            }
+        }
+        if (children.length == WIDTH) return null;
+        Object[] copy = Arrays.copyOf(children, children.length + 1); copy[children.length] = path(leaf, shift - BITS);
+        int[] sizes = n.sizes;
+        if (sizes == null && size(children[last], shift - BITS) != 1 << shift) return node(copy, shift);
+        if (sizes != null) {
+            sizes = Arrays.copyOf(sizes, copy.length); sizes[last + 1] = sizes[last] + leaf.length; }
+        return new Node(copy, sizes);
+    }
+
+    /**
+     * Concatenate the given subtrees, rebalancing the nodes along the seam.
+     *
+     * @return the node of one or two children at the shift of the higher subtree
+     */
+    static Node concat(Object left, int leftShift, Object right, int rightShift, boolean top) {
+        if (leftShift > rightShift) {
+            Object[] lc = ((Node) left).children;
+            Node joint = concat(lc[lc.length - 1], leftShift - BITS, right, rightShift, false);
+            return rebalance(Arrays.copyOf(lc, lc.length - 1), joint, NONE, leftShift);
+        }
+        if (leftShift < rightShift) {
+            Object[] rc = ((Node) right).children;
+            Node joint = concat(left, leftShift, rc[0], rightShift - BITS, false);
+            return rebalance(NONE, joint, Arrays.copyOfRange(rc, 1, rc.length), rightShift);
+        }
+        if (leftShift == 0) {
+            Object[] l = (Object[]) left, r = (Object[]) right;
+            if (top && l.length + r.length <= WIDTH) {
+                Object[] leaf = Arrays.copyOf(l, l.length + r.length);
+                System.arraycopy(r, 0, leaf, l.length, r.length);
+                return new Node(new Object[] {leaf}, null);
+            }
+            return node(new Object[] {l, r}, BITS);
+        }
+        Object[] lc = ((Node) left).children, rc = ((Node) right).children;
+        Node joint = concat(lc[lc.length - 1], leftShift - BITS, rc[0], leftShift - BITS, false);
+        return rebalance(Arrays.copyOf(lc, lc.length - 1), joint, Arrays.copyOfRange(rc, 1, rc.length), leftShift);
+    }
+
+    /**
+     * Redistribute the items of the children of the given left nodes, joint node and right nodes,
+     * which are all at the level below the specified shift, so the number of the children is within
+     * {@link #EXTRAS} of the optimal one.
+     *
+     * @return the node of one or two children at the specified shift
+     */
+    static Node rebalance(Object[] left, Node joint, Object[] right, int shift) {
+        int childShift = shift - BITS, length = left.length + joint.children.length + right.length;
+        Object[] all = new Object[length];
+        System.arraycopy(left, 0, all, 0, left.length);
+        System.arraycopy(joint.children, 0, all, left.length, joint.children.length);
+        System.arraycopy(right, 0, all, left.length + joint.children.length, right.length);
+        int[] counts = new int[length]; int total = 0;
+        for (int i = 0; i < length; i++) total += counts[i] = items(all[i], childShift).length;
+        int optimal = (total - 1) / WIDTH + 1;
+        for (int i = 0; optimal + EXTRAS < length; length--, i--) {
+            while (counts[i] > WIDTH - EXTRAS / 2) i++;
+            for (int remaining = counts[i]; remaining > 0; i++) {
+                int count = Math.min(remaining + counts[i + 1], WIDTH);
+                remaining += counts[i + 1] - count; counts[i] = count;
+            }
+            System.arraycopy(counts, i + 1, counts, i, length - i - 1);
+        }
+        Object[] children = new Object[length];
+        for (int k = 0, source = 0, offset = 0; k < length; k++) {
+            Object[] items = items(all[source], childShift);
+            if (offset == 0 && items.length == counts[k]) {
+                children[k] = all[source++]; continue; }
+            Object[] merged = new Object[counts[k]];
+            for (int filled = 0; filled < merged.length; ) {
+                items = items(all[source], childShift);
+                int count = Math.min(merged.length - filled, items.length - offset);
+                System.arraycopy(items, offset, merged, filled, count); filled += count; offset += count;
+                if (offset == items.length) {
+                    source++; offset = 0; }
+            }
+            children[k] = childShift == 0 ? merged : node(merged, childShift);
+        }
+        if (length <= WIDTH)
+            return new Node(new Object[] {node(children, shift)}, null);
+        return node(new Object[] {node(Arrays.copyOf(children, WIDTH), shift),
+                node(Arrays.copyOfRange(children, WIDTH, length), shift)}, shift + BITS);
+    }
+
+    static Object[] items(Object node, int shift) {
+        return shift == 0 ? (Object[]) node : ((Node) node).children;
+    }
+
+    /**
+     * Return the subtree of the first {@code n} elements of the specified subtree.
+     */
+    static Object take(Object node, int shift, int n) {
+        if (shift == 0) {
+            Object[] leaf = (Object[]) node; return n == leaf.length ? leaf : Arrays.copyOf(leaf, n); }
+        Node nd = (Node) node; int i = n - 1, slot = i >>> shift, before;
+        if (nd.sizes == null) before = slot << shift;
+        else {
+            while (nd.sizes[slot] <= i) slot++;
+            before = slot == 0 ? 0 : nd.sizes[slot - 1];
+        }
+        Object[] children = Arrays.copyOf(nd.children, slot + 1);
+        children[slot] = take(children[slot], shift - BITS, n - before);
+        int[] sizes = nd.sizes == null ? null : Arrays.copyOf(nd.sizes, slot + 1);
+        if (sizes != null) sizes[slot] = n;
+        return new Node(children, sizes);
+    }
+
+    /**
+     * Return the subtree of the specified subtree without its first {@code n} elements.
+     */
+    static Object drop(Object node, int shift, int n) {
+        if (shift == 0) {
+            Object[] leaf = (Object[]) node; return Arrays.copyOfRange(leaf, n, leaf.length); }
+        Node nd = (Node) node; int slot = n >>> shift, before;
+        if (nd.sizes == null) before = slot << shift;
+        else {
+            while (nd.sizes[slot] <= n) slot++;
+            before = slot == 0 ? 0 : nd.sizes[slot - 1];
+        }
+        Object[] children = Arrays.copyOfRange(nd.children, slot, nd.children.length);
+        if (n > before) children[0] = drop(children[0], shift - BITS, n - before);
+        return node(children, shift);
+    }
+
+
+    /**
+     * A tree node of up to {@link #WIDTH} children, with the cumulative sizes of the child subtrees
+     * if the node is relaxed, or {@code null} sizes if every child but the last one is full.
+     */
+    static final class Node {
+
+        final Object[] children; final int[] sizes;
+
+        Node(Object[] children, int[] sizes) {
+            this.children = children; this.sizes = sizes;
+        }
+    }
+
+    /**
+     * The {@link TailedSequenceIterator} over the elements of this Sequence, caching the current leaf.
+     */
+    private final class TreeIterator implements TailedSequenceIterator<E> {
+
+        final int[] start = new int[1];
+        Object[] leaf = NONE; int index, from, to;
+
+        TreeIterator(int index) {
+            this.index = index;
+        }
+
+        @Override public boolean hasNext() { return index < size(); }
+        @Override public boolean hasPrevious() { return index > 0; }
+        @Override public int nextIndex() { return index; }
+        @Override public int previousIndex() { return index - 1; }
+
+        @Override public E next() {
+            if (index >= size()) throw new NoSuchElementException();
+            return element(index++); }
+
+        @Override public E previous() {
+            if (index <= 0) throw new NoSuchElementException();
+            return element(--index); }
+
+        @Override public void remove() { throw new UnsupportedOperationException("remove"); }
+
+        @SuppressWarnings("unchecked")
+        private E element(int i) {
+            if (i < from || i >= to) {
+                if (i >= treeSize) {
+                    leaf = tail; from = treeSize; }
+                else {
+                    leaf = leaf(i, start); from = start[0]; }
+                to = from + leaf.length;
+            } return (E) leaf[i - from]; }
+    }
+
+    /**
+     * The iterator over the elements equal to the given object, in either direction.
+     */
+    private final class MatchIterator implements Iterator<E> {
+
+        final TreeIterator iterator; final Object o; final boolean descending;
+        E next; boolean found;
+
+        MatchIterator(TreeIterator iterator, Object o, boolean descending) {
+            this.iterator = iterator; this.o = o; this.descending = descending;
+        }
+
+        @Override public boolean hasNext() {
+            while (!found && (descending ? iterator.hasPrevious() : iterator.hasNext()))
+                found = Objects.equals(next = descending ? iterator.previous() : iterator.next(), o);
+            return found; }
+
+        @Override public E next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            found = false; return next; }
+    }
+}
@@ -0,0 +1,600 @@
+package org.moodminds.elemental;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.zip.CRC32;
+
+import static java.lang.String.format;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An append-only persistent {@link TailedSequence} of the records of the segment files of a directory,
+ * encoded and decoded by a {@link Codec}. It does not permit the {@code null} elements.
+ * <p>
+ * Each segment file is preallocated and memory mapped, so an appended element is encoded directly
+ * into the mapping and is readable at once, while the mappings are forced to the storage device
+ * once per the given number of appends, on the {@link #flush()} and when a segment is full. The offsets
+ * of every {@code n}-th record of a segment are kept in memory, so the {@link #get(int)} method skips
+ * less than {@code n} record headers, and the iterators, the descending ones included, read the headers
+ * of a block of {@code n} records at a time, never a whole segment. The Sequence of the index interval
+ * of {@code 1} keeps the offsets of all the records and is a {@link RandomGet}.
+ * <p>
+ * A segment file consists of the header, {@code [int magic 0x454C5347][int version 1][long index of the
+ * first record]}, and the records {@code [int length + 1][int CRC32 of the bytes][bytes]}, ending with
+ * a zero. When a segment is full, its offsets are written into an index file next to it, and on opening
+ * the offsets of a segment are read from its index file, if it is intact, or rebuilt by reading the record
+ * headers otherwise. The records of the last segment are read up to the first torn or corrupt one,
+ * which, along with anything after it, is erased.
+ * <p>
+ * The Sequence may be appended by a single thread at a time and read concurrently by any threads;
+ * a view or an iterator covers the records appended before its creation.
+ *
+ * @param <E> the type of elements
+ *
+ * @see MappedSequence
+ */
+public class SegmentedSequence<E> implements TailedSequence<E>, Closeable, Flushable {
+
+    static final int MAGIC = 0x454C5347, INDEX_MAGIC = 0x454C5349, VERSION = 1, HEADER = 16, RECORD_HEADER = 8;
+
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 26, DEFAULT_INDEX_INTERVAL = 64, DEFAULT_SYNC_INTERVAL = 1024;
+    static final int MAXIMUM_SEGMENT_SIZE = 1 << 30;
+
+    private final Path directory;
+    private final Codec<E> codec;
+    private final int segmentSize, interval, syncInterval;
+    private final CRC32 crc = new CRC32();
+
+    private volatile Segment[] segments;
+    private volatile int size;
+    private int unsynced;
+    private boolean closed;
+
+    private SegmentedSequence(Path directory, Codec<E> codec, int segmentSize, int interval, int syncInterval) {
+        this.directory = directory; this.codec = codec;
+        this.segmentSize = segmentSize; this.interval = interval; this.syncInterval = syncInterval;
+    }
+
+    /**
+     * Return the Sequence of the segment files of the given directory, creating the directory if it does
+     * not exist, of the 64 MiB segments, the index interval of {@code 64} and the sync interval of {@code 1024}.
+     *
+     * @param directory the given directory
+     * @param codec the given {@link Codec}
+     * @return the Sequence of the segment files of the given directory
+     * @param <E> the type of elements
+     * @throws IOException if an I/O error occurs, or a segment file is not of the Sequence format
+     */
+    public static <E> SegmentedSequence<E> open(Path directory, Codec<E> codec) throws IOException {
+        return open(directory, codec, DEFAULT_SEGMENT_SIZE, DEFAULT_INDEX_INTERVAL, DEFAULT_SYNC_INTERVAL);
+    }
+
+    /**
+     * Return the Sequence of the segment files of the given directory, creating the directory if it does not exist.
+     *
+     * @param directory the given directory
+     * @param codec the given {@link Codec}
+     * @param segmentSize the number of bytes of the new segment files
+     * @param indexInterval the number of records per an offset kept in memory, {@code 1} for a {@link RandomGet}
+     * @param syncInterval the number of appends per forcing the mappings to the storage device
+     * @return the Sequence of the segment files of the given directory
+     * @param <E> the type of elements
+     * @throws IOException if an I/O error occurs, or a segment file is not of the Sequence format
+     * @throws IllegalArgumentException if the segment size is not greater than {@code 24} or is greater than
+     *         2<sup>30</sup>, or the index or the sync interval is not positive
+     */
+    public static <E> SegmentedSequence<E> open(Path directory, Codec<E> codec,
+                                                int segmentSize, int indexInterval, int syncInterval) throws IOException {
+        if (segmentSize <= HEADER + RECORD_HEADER || segmentSize > MAXIMUM_SEGMENT_SIZE)
+            throw new IllegalArgumentException(format("Illegal segment size: %d", segmentSize));
+        if (indexInterval < 1)
+            throw new IllegalArgumentException(format("Illegal index interval: %d", indexInterval));
+        if (syncInterval < 1)
+            throw new IllegalArgumentException(format("Illegal sync interval: %d", syncInterval));
+        requireNonNull(codec); Files.createDirectories(directory);
+        SegmentedSequence<E> sequence = indexInterval == 1
+                ? new Dense<>(directory, codec, segmentSize, syncInterval)
+                : new SegmentedSequence<>(directory, codec, segmentSize, indexInterval, syncInterval);
+        sequence.recover(); return sequence;
+    }
+
+    /**
+     * Append the given element.
+     *
+     * @param element the given element
+     * @return the index of the appended element
+     * @throws IOException if an I/O error occurs
+     * @throws NullPointerException if the element is {@code null}
+     * @throws IllegalArgumentException if the record of the element does not fit a segment
+     * @throws IllegalStateException if this Sequence is closed or full
+     */
+    public synchronized int append(E element) throws IOException {
+        if (closed)
+            throw new IllegalStateException("Sequence is closed");
+        if (size == Integer.MAX_VALUE)
+            throw new IllegalStateException("Sequence is full");
+        int length = codec.sizeOf(requireNonNull(element));
+        if (length > segmentSize - HEADER - RECORD_HEADER)
+            throw new IllegalArgumentException(format("Illegal record length: %d", length));
+        Segment segment = segments[segments.length - 1];
+        if (segment.buffer.capacity() - segment.end < RECORD_HEADER + length)
+            segment = roll();
+        ByteBuffer buffer = segment.buffer; int offset = segment.end;
+        codec.encode(element, buffer, offset + RECORD_HEADER);
+        buffer.putInt(offset + 4, checksum(buffer, offset + RECORD_HEADER, length));
+        buffer.putInt(offset, length + 1);
+        segment.end = offset + RECORD_HEADER + length; segment.add(offset, interval);
+        int index = size; size = index + 1;
+        if (++unsynced >= syncInterval) flush();
+        return index;
+    }
+
+    /**
+     * Append the elements of the given {@link Iterable}, forcing the mappings once per the sync interval.
+     *
+     * @param elements the given {@link Iterable} of elements
+     * @return the index of the last appended element, or {@code -1} if there are none
+     * @throws IOException if an I/O error occurs
+     * @throws NullPointerException if any of the elements is {@code null}
+     * @throws IllegalArgumentException if the record of any of the elements does not fit a segment
+     * @throws IllegalStateException if this Sequence is closed or full
+     */
+    public synchronized int appendAll(Iterable<? extends E> elements) throws IOException {
+        int index = -1;
+        for (E element : elements) index = append(element);
+        return index;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R extends E> R get(int index) {
+        int size = this.size;
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, size));
+        return (R) element(index);
+    }
+
+    @Override
+    public int getCount(Object o) {
+        return view(0, size).getCount(o);
+    }
+
+    @Override
+    public Iterator<E> getAll(Object o) {
+        return view(0, size).getAll(o);
+    }
+
+    @Override
+    public Iterator<E> getAllDescending(Object o) {
+        return view(0, size).getAllDescending(o);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the view of the elements within the specified range, created in constant time.
+     *
+     * @param fromIndex the start index of the range, inclusive
+     * @param toIndex the end index of the range, exclusive
+     * @return the view of the elements within the specified range
+     * @throws IndexOutOfBoundsException if the range is illegal
+     */
+    @Override
+    public TailedSequence<E> sub(int fromIndex, int toIndex) {
+        int size = this.size;
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+            throw new IndexOutOfBoundsException(format("From: %d, To: %d, Size: %d", fromIndex, toIndex, size));
+        return view(fromIndex, toIndex);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new RecordIterator(0, size, 0);
+    }
+
+    @Override
+    public TailedSequenceIterator<E> iterator(int index) {
+        int size = this.size;
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, size));
+        return new RecordIterator(0, size, index);
+    }
+
+    @Override
+    public int hashCode() {
+        return view(0, size).hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || view(0, size).equals(obj);
+    }
+
+    @Override
+    public String toString() {
+        return view(0, size).toString();
+    }
+
+    /**
+     * Force the mappings of the appended elements to the storage device.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if (unsynced > 0) {
+            ((MappedByteBuffer) segments[segments.length - 1].buffer).force(); unsynced = 0; }
+    }
+
+    /**
+     * Force the mappings of the appended elements to the storage device and prohibit further appends.
+     * The Sequence remains readable, while the mappings are released when it is collected.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        flush(); closed = true;
+    }
+
+    View view(int from, int to) {
+        return new View(from, to);
+    }
+
+    private E element(int index) {
+        Segment[] segments = this.segments; Segment segment = segments[segment(segments, index)];
+        int local = index - segment.base, offset = segment.sparse[local / interval];
+        for (int i = local % interval; i > 0; i--)
+            offset += RECORD_HEADER + segment.buffer.getInt(offset) - 1;
+        return decode(segment, offset);
+    }
+
+    private E decode(Segment segment, int offset) {
+        return codec.decode(segment.buffer, offset + RECORD_HEADER, segment.buffer.getInt(offset) - 1);
+    }
+
+    private int checksum(ByteBuffer buffer, int index, int length) {
+        ByteBuffer bytes = buffer.duplicate(); ((Buffer) bytes).limit(index + length).position(index);
+        crc.reset(); crc.update(bytes); return (int) crc.getValue();
+    }
+
+    /**
+     * Seal the last segment, forcing its mapping and writing its index file, and start a new one.
+     */
+    private Segment roll() throws IOException {
+        Segment[] segments = this.segments; Segment last = segments[segments.length - 1];
+        ((MappedByteBuffer) last.buffer).force(); unsynced = 0;
+        last.writeIndex(index(last.path), interval);
+        Segment next = create(size);
+        Segment[] grown = Arrays.copyOf(segments, segments.length + 1);
+        grown[segments.length] = next; this.segments = grown;
+        return next;
+    }
+
+    private Segment create(int base) throws IOException {
+        Path path = directory.resolve(format("%020d.seg", base));
+        try (FileChannel channel = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, READ, WRITE)) {
+            MappedByteBuffer buffer = channel.map(READ_WRITE, 0, segmentSize);
+            buffer.putInt(0, MAGIC); buffer.putInt(4, VERSION); buffer.putLong(8, base); buffer.force();
+            return new Segment(path, base, buffer);
+        }
+    }
+
+    /**
+     * Map the segment files, reading their offsets from the intact index files or rebuilding them,
+     * and erase the torn records of the last segment.
+     */
+    private void recover() throws IOException {
+        java.util.List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.seg")) {
+            for (Path path : files)
+                if (path.getFileName().toString().matches("\\d{20}\\.seg")) paths.add(path);
+        }
+        paths.sort(null);
+        java.util.List<Segment> segments = new ArrayList<>(); long base = 0;
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i); boolean last = i == paths.size() - 1;
+            if (Long.parseLong(path.getFileName().toString().substring(0, 20)) != base)
+                throw new IOException(format("Illegal segment file: %s", path));
+            ByteBuffer buffer;
+            try (FileChannel channel = last ? FileChannel.open(path, READ, WRITE) : FileChannel.open(path, READ)) {
+                if (channel.size() > MAXIMUM_SEGMENT_SIZE)
+                    throw new IOException(format("Illegal segment file: %s", path));
+                buffer = channel.map(last ? READ_WRITE : READ_ONLY, 0, channel.size());
+            }
+            if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getLong(8) != base) {
+                if (!last || buffer.capacity() >= HEADER && buffer.getInt(0) != 0)
+                    throw new IOException(format("Illegal segment file: %s", path));
+                segments.add(create((int) base)); break; // torn on creation
+            }
+            Segment segment = new Segment(path, (int) base, buffer);
+            if (last) {
+                segment.scan(crc, interval); segment.erase(); ((MappedByteBuffer) buffer).force();
+            } else if (!segment.readIndex(index(path), interval)) {
+                segment.scan(crc, interval); segment.writeIndex(index(path), interval);
+            }
+            segments.add(segment); base += segment.count;
+            if (base > Integer.MAX_VALUE)
+                throw new IOException(format("Illegal segment file: %s", path));
+        }
+        if (segments.isEmpty()) segments.add(create(0));
+        this.segments = segments.toArray(new Segment[0]); this.size = (int) base;
+    }
+
+    private static Path index(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - 4) + ".idx");
+    }
+
+    /**
+     * Return the position of the segment of the given element index, the last one of a lower or equal base.
+     */
+    private static int segment(Segment[] segments, int index) {
+        int low = 0, high = segments.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segments[mid].base <= index) low = mid; else high = mid - 1;
+        } return low;
+    }
+
+
+    /**
+     * A mapped segment file along with the offsets of every {@code interval}-th of its records.
+     */
+    static final class Segment {
+
+        final Path path;
+        final int base;
+        final ByteBuffer buffer;
+        volatile int[] sparse = new int[16];
+        int count, end = HEADER;
+
+        Segment(Path path, int base, ByteBuffer buffer) {
+            this.path = path; this.base = base; this.buffer = buffer;
+        }
+
+        /**
+         * Add the record at the given offset, keeping the offset if the record is an {@code interval}-th one.
+         */
+        void add(int offset, int interval) {
+            if (count % interval == 0) {
+                int slot = count / interval; int[] sparse = this.sparse;
+                if (slot == sparse.length) sparse = Arrays.copyOf(sparse, sparse.length << 1);
+                sparse[slot] = offset; this.sparse = sparse;
+            } count++;
+        }
+
+        /**
+         * Read the records up to the end, or to the first torn or corrupt one.
+         */
+        void scan(CRC32 crc, int interval) {
+            for (int capacity = buffer.capacity(); capacity - end >= RECORD_HEADER; ) {
+                int length = buffer.getInt(end) - 1;
+                if (length < 0 || length > capacity - end - RECORD_HEADER) return;
+                ByteBuffer bytes = buffer.duplicate();
+                ((Buffer) bytes).limit(end + RECORD_HEADER + length).position(end + RECORD_HEADER);
+                crc.reset(); crc.update(bytes);
+                if ((int) crc.getValue() != buffer.getInt(end + 4)) return;
+                add(end, interval); end += RECORD_HEADER + length;
+            }
+        }
+
+        /**
+         * Zero the non-zero bytes after the end, so no stale record is read after the following appends.
+         */
+        void erase() {
+            int i = end, capacity = buffer.capacity();
+            for (; i + Long.BYTES <= capacity; i += Long.BYTES)
+                if (buffer.getLong(i) != 0) buffer.putLong(i, 0);
+            for (; i < capacity; i++)
+                if (buffer.get(i) != 0) buffer.put(i, (byte) 0);
+        }
+
+        /**
+         * Write the offsets into the given index file atomically, as {@code [int magic 0x454C5349][int version 1]
+         * [int interval][int count][int end][int offsets...][int CRC32 of the preceding bytes]}.
+         */
+        void writeIndex(Path index, int interval) throws IOException {
+            int slots = (count + interval - 1) / interval; int[] sparse = this.sparse;
+            ByteBuffer data = ByteBuffer.allocate(24 + slots * Integer.BYTES);
+            data.putInt(0, INDEX_MAGIC); data.putInt(4, VERSION); data.putInt(8, interval);
+            data.putInt(12, count); data.putInt(16, end);
+            for (int i = 0; i < slots; i++) data.putInt(20 + i * Integer.BYTES, sparse[i]);
+            CRC32 crc = new CRC32(); crc.update(data.array(), 0, data.capacity() - 4);
+            data.putInt(data.capacity() - 4, (int) crc.getValue());
+            Path temporary = index.resolveSibling(index.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, CREATE, TRUNCATE_EXISTING, WRITE)) {
+                while (data.hasRemaining()) channel.write(data);
+                channel.force(true);
+            }
+            Files.move(temporary, index, ATOMIC_MOVE, REPLACE_EXISTING);
+        }
+
+        /**
+         * Read the offsets from the given index file.
+         *
+         * @return {@code false} if the index file does not exist, is not intact or is of another interval
+         */
+        boolean readIndex(Path index, int interval) throws IOException {
+            if (!Files.exists(index)) return false;
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(index));
+            if (data.capacity() < 24 || data.getInt(0) != INDEX_MAGIC || data.getInt(4) != VERSION
+                    || data.getInt(8) != interval) return false;
+            int count = data.getInt(12), end = data.getInt(16);
+            if (count < 0 || end < HEADER || end > buffer.capacity()
+                    || data.capacity() != 24 + (count + interval - 1) / interval * Integer.BYTES) return false;
+            CRC32 crc = new CRC32(); crc.update(data.array(), 0, data.capacity() - 4);
+            if ((int) crc.getValue() != data.getInt(data.capacity() - 4)) return false;
+            int[] sparse = new int[Math.max((count + interval - 1) / interval, 1)];
+            for (int i = 0; i < (count + interval - 1) / interval; i++) sparse[i] = data.getInt(20 + i * Integer.BYTES);
+            this.sparse = sparse; this.count = count; this.end = end;
+            return true;
+        }
+    }
+
+    /**
+     * The view of the elements within a range.
+     */
+    class View implements TailedSequence<E> {
+
+        final int from, to;
+
+        View(int from, int to) {
+            this.from = from; this.to = to;
+        }
+
+        @Override @SuppressWarnings("unchecked") public <R extends E> R get(int index) {
+            if (index < 0 || index >= to - from)
+                throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, to - from));
+            return (R) element(from + index); }
+
+        @Override public int getCount(Object o) {
+            int count = 0; for (E e : this) if (Objects.equals(e, o)) count++; return count; }
+
+        @Override public Iterator<E> getAll(Object o) {
+            return new MatchIterator(new RecordIterator(from, to, 0), o, false); }
+
+        @Override public Iterator<E> getAllDescending(Object o) {
+            return new MatchIterator(new RecordIterator(from, to, to - from), o, true); }
+
+        @Override public int size() { return to - from; }
+
+        @Override public TailedSequence<E> sub(int fromIndex, int toIndex) {
+            if (fromIndex < 0 || toIndex > to - from || fromIndex > toIndex)
+                throw new IndexOutOfBoundsException(format("From: %d, To: %d, Size: %d", fromIndex, toIndex, to - from));
+            return view(from + fromIndex, from + toIndex); }
+
+        @Override public Iterator<E> iterator() { return new RecordIterator(from, to, 0); }
+
+        @Override public TailedSequenceIterator<E> iterator(int index) {
+            if (index < 0 || index > to - from)
+                throw new IndexOutOfBoundsException(format("Index: %d, Size: %d", index, to - from));
+            return new RecordIterator(from, to, index); }
+
+        @Override public int hashCode() {
+            int hash = 1; for (E e : this) hash = 31 * hash + e.hashCode(); return hash; }
+
+        @Override public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (!(obj instanceof Sequence)) return false;
+            Sequence<?> s = (Sequence<?>) obj;
+            if (s.size() != size()) return false;
+            Iterator<?> it = s.iterator();
+            for (E e : this)
+                if (!it.hasNext() || !e.equals(it.next())) return false;
+            return !it.hasNext(); }
+
+        @Override public String toString() {
+            StringJoiner joiner = new StringJoiner(", ", "[", "]");
+            for (E e : this) joiner.add(String.valueOf(e));
+            return joiner.toString(); }
+    }
+
+    /**
+     * The {@link TailedSequenceIterator} over the elements within a range, reading the offsets of a block
+     * of the records between two kept offsets at a time.
+     */
+    private final class RecordIterator implements TailedSequenceIterator<E> {
+
+        final int from, to;
+        final int[] offsets = new int[interval];
+        Segment segment; int index, block, blockSize; // the element index of the first record of the block
+
+        RecordIterator(int from, int to, int index) {
+            this.from = from; this.to = to; this.index = index;
+        }
+
+        @Override public boolean hasNext() { return index < to - from; }
+        @Override public boolean hasPrevious() { return index > 0; }
+        @Override public int nextIndex() { return index; }
+        @Override public int previousIndex() { return index - 1; }
+
+        @Override public E next() {
+            if (index >= to - from) throw new NoSuchElementException();
+            return element(from + index++); }
+
+        @Override public E previous() {
+            if (index <= 0) throw new NoSuchElementException();
+            return element(from + --index); }
+
+        @Override public void remove() { throw new UnsupportedOperationException("remove"); }
+
+        private E element(int i) {
+            if (segment == null || i < block || i >= block + blockSize) {
+                Segment[] segments = SegmentedSequence.this.segments; int s = segment(segments, i);
+                segment = segments[s];
+                int local = i - segment.base, start = local / interval * interval;
+                int count = (s + 1 < segments.length ? segments[s + 1].base : to) - segment.base;
+                block = segment.base + start; blockSize = Math.min(interval, count - start);
+                int offset = segment.sparse[local / interval];
+                for (int j = 0; j < blockSize; j++) {
+                    offsets[j] = offset; offset += RECORD_HEADER + segment.buffer.getInt(offset) - 1; }
+            } return decode(segment, offsets[i - block]); }
+    }
+
+    /**
+     * The iterator over the elements equal to the given object, in either direction.
+     */
+    private final class MatchIterator implements Iterator<E> {
+
+        final RecordIterator iterator; final Object o; final boolean descending;
+        E next; boolean found;
+
+        MatchIterator(RecordIterator iterator, Object o, boolean descending) {
+            this.iterator = iterator; this.o = o; this.descending = descending;
+        }
+
+        @Override public boolean hasNext() {
+            while (!found && (descending ? iterator.hasPrevious() : iterator.hasNext()))
+                found = Objects.equals(next = descending ? iterator.previous() : iterator.next(), o);
+            return found; }
+
+        @Override public E next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            found = false; return next; }
+    }
+
+    /**
+     * The Sequence of the index interval of {@code 1}, keeping the offsets of all the records.
+     */
+    private static final class Dense<E> extends SegmentedSequence<E> implements RandomGet {
+
+        Dense(Path directory, Codec<E> codec, int segmentSize, int syncInterval) {
+            super(directory, codec, segmentSize, 1, syncInterval);
+        }
+
+        @Override View view(int from, int to) {
+            return new DenseView(from, to); }
+
+        private final class DenseView extends View implements RandomGet {
+            DenseView(int from, int to) { super(from, to); }
+        }
+    }
+}
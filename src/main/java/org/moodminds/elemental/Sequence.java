@@ -108,13 +108,17 @@ public interface Sequence<E> extends Ordered<E>, Container<E> {
     /**
      * Return a {@link Spliterator} over the elements described by this Sequence.
      *
-     * @implNote This Spliterator has {@link Spliterator#ORDERED} characteristic.
+     * @implNote This Spliterator has {@link Spliterator#ORDERED} characteristic. If this Sequence
+     * is a {@link RandomGet} one, the Spliterator reads the elements by the {@link #get(int)} method
+     * and splits by halving the index range, additionally having the {@link Spliterator#SIZED}
+     * and {@link Spliterator#SUBSIZED} characteristics.
      *
      * @return a {@code Spliterator} over the elements described by this Sequence
      */
     @Override
     default Spliterator<E> spliterator() {
-        return java.util.Spliterators.spliterator(iterator(), size(), ORDERED);
+        return this instanceof RandomGet ? new RandomGetSpliterator<>(this)
+                : java.util.Spliterators.spliterator(iterator(), size(), ORDERED);
     }
 
     /**
@@ -0,0 +1,228 @@
+package org.moodminds.elemental;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * The set algebra of {@link Container}s: the union, intersection and difference collected into
+ * a caller provided {@link java.util.Collection}, and the inclusion and disjointness checks.
+ * <p>
+ * Each operation picks its strategy by the capabilities of the operands:
+ * <ul>
+ *     <li>two {@link SortedContainer}s of equal comparators are merged by a linear pass over both,
+ *     or, if one is much smaller than the other and the other is a {@link RandomMatch} one, the smaller
+ *     is matched against the larger by its logarithmic lookups;</li>
+ *     <li>a {@link Sequence}, which matches its elements by the {@link Object#equals(Object)} method, is matched
+ *     against by a temporary {@link HashSet} of its elements if it is not a {@link RandomMatch} one and both
+ *     it and the number of the elements to look up exceed a few elements, so no such operation takes quadratic time;</li>
+ *     <li>any other operand is matched against by its own {@link Container#contains(Object)} lookups.</li>
+ * </ul>
+ * The elements of the first operand are kept with their occurrences; an element is considered present
+ * in a {@link SortedContainer} if it is equal to an element of it by its comparator, and present
+ * in any other Container by its {@link Container#contains(Object)} method.
+ */
+public final class SetAlgebra {
+
+    /**
+     * The marker of the exhausted iterator, returned by {@link #next(Iterator)}.
+     */
+    private static final Object END = new Object();
+
+    /**
+     * The number of elements up to which a sequentially matching {@link Sequence} is matched against
+     * by its own lookups, or the number of lookups up to which it is.
+     */
+    private static final int SCAN_THRESHOLD = 8;
+
+    private SetAlgebra() {}
+
+    /**
+     * Add to the given collection the elements of the first Container followed by the elements of the second
+     * Container which are absent in the first one. If both Containers are sorted by equal comparators,
+     * the elements are added in that order.
+     *
+     * @param a the first Container
+     * @param b the second Container
+     * @param into the given collection to add the result elements to
+     * @return the given collection
+     * @param <E> the type of elements
+     * @param <C> the type of the result collection
+     */
+    public static <E, C extends java.util.Collection<? super E>> C union(Container<? extends E> a, Container<? extends E> b, C into) {
+        if (ordered(a, b)) {
+            Comparator<Object> comparator = comparator(a);
+            Iterator<? extends E> i = a.iterator(), j = b.iterator();
+            E x = next(i), y = next(j);
+            while (x != END && y != END) {
+                int c = comparator.compare(x, y);
+                if (c < 0) { into.add(x); x = next(i); }
+                else if (c > 0) { into.add(y); y = next(j); }
+                else y = next(j);
+            }
+            for (; x != END; x = next(i)) into.add(x);
+            for (; y != END; y = next(j)) into.add(y);
+            return into;
+        }
+        for (E e : a) into.add(e);
+        Predicate<Object> present = membership(a, b.size());
+        for (E e : b) if (!present.test(e)) into.add(e);
+        return into;
+    }
+
+    /**
+     * Add to the given collection the elements of the first Container which are present in the second Container.
+     *
+     * @param a the first Container
+     * @param b the second Container
+     * @param into the given collection to add the result elements to
+     * @return the given collection
+     * @param <E> the type of elements
+     * @param <C> the type of the result collection
+     */
+    public static <E, C extends java.util.Collection<? super E>> C intersection(Container<? extends E> a, Container<?> b, C into) {
+        if (merging(a, b)) {
+            Comparator<Object> comparator = comparator(a);
+            Iterator<? extends E> i = a.iterator(); Iterator<?> j = b.iterator();
+            E x = next(i); Object y = next(j);
+            while (x != END && y != END) {
+                int c = comparator.compare(x, y);
+                if (c < 0) x = next(i);
+                else if (c > 0) y = next(j);
+                else { into.add(x); x = next(i); }
+            }
+            return into;
+        }
+        Predicate<Object> present = membership(b, a.size());
+        for (E e : a) if (present.test(e)) into.add(e);
+        return into;
+    }
+
+    /**
+     * Add to the given collection the elements of the first Container which are absent in the second Container.
+     *
+     * @param a the first Container
+     * @param b the second Container
+     * @param into the given collection to add the result elements to
+     * @return the given collection
+     * @param <E> the type of elements
+     * @param <C> the type of the result collection
+     */
+    public static <E, C extends java.util.Collection<? super E>> C difference(Container<? extends E> a, Container<?> b, C into) {
+        if (merging(a, b)) {
+            Comparator<Object> comparator = comparator(a);
+            Iterator<? extends E> i = a.iterator(); Iterator<?> j = b.iterator();
+            E x = next(i); Object y = next(j);
+            while (x != END && y != END) {
+                int c = comparator.compare(x, y);
+                if (c < 0) { into.add(x); x = next(i); }
+                else if (c > 0) y = next(j);
+                else x = next(i);
+            }
+            for (; x != END; x = next(i)) into.add(x);
+            return into;
+        }
+        Predicate<Object> present = membership(b, a.size());
+        for (E e : a) if (!present.test(e)) into.add(e);
+        return into;
+    }
+
+    /**
+     * Check if every element of the second Container is present in the first Container.
+     *
+     * @param a the first Container
+     * @param b the second Container
+     * @return {@code true} if every element of the second Container is present in the first Container
+     */
+    public static boolean containsAll(Container<?> a, Container<?> b) {
+        if (b.size() == 0) return true;
+        if (merging(b, a)) {
+            Comparator<Object> comparator = comparator(a);
+            Iterator<?> i = a.iterator(), j = b.iterator();
+            Object x = next(i);
+            for (Object y = next(j); y != END; y = next(j)) {
+                int c = -1;
+                while (x != END && (c = comparator.compare(x, y)) < 0) x = next(i);
+                if (c != 0) return false;
+            }
+            return true;
+        }
+        Predicate<Object> present = membership(a, b.size());
+        for (Object e : b) if (!present.test(e)) return false;
+        return true;
+    }
+
+    /**
+     * Check if no element of the first Container is present in the second Container, which is when the
+     * given Containers have no elements in common, provided they match the elements alike.
+     *
+     * @param a the first Container
+     * @param b the second Container
+     * @return {@code true} if no element of the first Container is present in the second Container
+     */
+    public static boolean disjoint(Container<?> a, Container<?> b) {
+        if (a.size() == 0 || b.size() == 0) return true;
+        if (ordered(a, b) && a.size() > b.size()) { Container<?> t = a; a = b; b = t; }
+        if (merging(a, b)) {
+            Comparator<Object> comparator = comparator(a);
+            Iterator<?> i = a.iterator(), j = b.iterator();
+            Object x = next(i), y = next(j);
+            while (x != END && y != END) {
+                int c = comparator.compare(x, y);
+                if (c < 0) x = next(i);
+                else if (c > 0) y = next(j);
+                else return false;
+            }
+            return true;
+        }
+        Predicate<Object> present = membership(b, a.size());
+        for (Object e : a) if (present.test(e)) return false;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E next(Iterator<? extends E> iterator) {
+        return iterator.hasNext() ? iterator.next() : (E) END;
+    }
+
+    /**
+     * Check if the given Containers are both {@link SortedContainer}s of equal comparators.
+     */
+    private static boolean ordered(Container<?> a, Container<?> b) {
+        return a instanceof SortedContainer && b instanceof SortedContainer
+                && Objects.equals(((SortedContainer<?>) a).comparator(), ((SortedContainer<?>) b).comparator());
+    }
+
+    /**
+     * Check if the elements of the first Container are to be matched against the second one by merging,
+     * which is when the Containers are {@link #ordered(Container, Container)} and the lookups of the first
+     * Container elements in the second one would not take less time.
+     */
+    private static boolean merging(Container<?> a, Container<?> b) {
+        if (!ordered(a, b)) return false;
+        if (!(b instanceof RandomMatch)) return true;
+        long m = a.size(), n = b.size();
+        return m * (64 - Long.numberOfLeadingZeros(n)) >= m + n;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Object> comparator(Container<?> sorted) {
+        Comparator<Object> comparator = (Comparator<Object>) ((SortedContainer<?>) sorted).comparator();
+        return comparator != null ? comparator : (x, y) -> ((Comparable<Object>) x).compareTo(y);
+    }
+
+    /**
+     * Return the membership check of the given Container for the given number of lookups, which is the
+     * {@link Container#contains(Object)} method unless the Container is a sequentially matching {@link Sequence}
+     * and hashing its elements once takes less time than scanning them on each lookup.
+     */
+    private static Predicate<Object> membership(Container<?> c, int lookups) {
+        if (c instanceof RandomMatch || !(c instanceof Sequence)
+                || c.size() <= SCAN_THRESHOLD || lookups <= SCAN_THRESHOLD) return c::contains;
+        HashSet<Object> elements = new HashSet<>(Math.max((int) (c.size() / .75f) + 1, 16));
+        for (Object e : c) elements.add(e);
+        return elements::contains;
+    }
+}
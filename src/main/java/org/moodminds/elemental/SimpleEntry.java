@@ -0,0 +1,36 @@
+package org.moodminds.elemental;
+
+import java.util.Objects;
+
+/**
+ * A snapshot entry of a mapping, shared by the {@link Map} and {@link Association} implementations.
+ * It is immutable, unless a subclass writes its key or value through to the backing structure.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+class SimpleEntry<K, V> implements Map.Entry<K, V> {
+
+    K key; V value;
+
+    SimpleEntry(K key, V value) {
+        this.key = key; this.value = value;
+    }
+
+    @Override public K getKey() { return key; }
+    @Override public V getValue() { return value; }
+    @Override public K setKey(K key) { throw new UnsupportedOperationException(); }
+    @Override public V setValue(V value) { throw new UnsupportedOperationException(); }
+
+    @Override public int hashCode() {
+        return Objects.hashCode(key) ^ Objects.hashCode(value); }
+
+    @Override public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof java.util.Map.Entry)) return false;
+        java.util.Map.Entry<?, ?> entry = (java.util.Map.Entry<?, ?>) obj;
+        return Objects.equals(key, entry.getKey()) && Objects.equals(value, entry.getValue()); }
+
+    @Override public String toString() {
+        return key + "=" + value; }
+}
@@ -0,0 +1,800 @@
+package org.moodminds.elemental;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.requireNonNull;
+import static org.moodminds.elemental.AbstractHashContainer.DEFAULT_CAPACITY;
+import static org.moodminds.elemental.AbstractHashContainer.DEFAULT_LOAD_FACTOR;
+import static org.moodminds.elemental.AbstractHashContainer.MAXIMUM_CAPACITY;
+import static org.moodminds.elemental.AbstractHashContainer.capacity;
+import static org.moodminds.elemental.AbstractHashContainer.spread;
+
+/**
+ * A hash {@link ConcurrentMap} of lock striped segments, which does not permit the {@code null}
+ * keys and values.
+ * <p>
+ * The map is partitioned by the high bits of the key hashes into a power of two number of segments,
+ * each being a chained hash table guarded by its own lock. The retrievals take no locks and see the
+ * latest completed updates, while the updates lock the segment of the key only. The {@link #compute},
+ * {@link #computeIfAbsent}, {@link #computeIfPresent} and {@link #merge} methods apply their functions
+ * under the segment lock once, so they are atomic and never retry, while the functions must be short
+ * and must not update this map. Each segment resizes its own table when it exceeds its load, so the
+ * resizing is incremental: it copies a single segment at a time and blocks the updates of that segment
+ * only, while the retrievals proceed on the previous table.
+ * <p>
+ * The {@link #forEach(long, BiConsumer)} and {@link #reduce(long, BiFunction, BiFunction)} methods traverse
+ * the segments in parallel on the common {@link ForkJoinPool} once the map size reaches the given threshold.
+ * The iterators are weakly consistent, never throwing {@link java.util.ConcurrentModificationException}.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public class StripedConcurrentMap<K, V> implements ConcurrentMap<K, V> {
+
+    static final int DEFAULT_CONCURRENCY_LEVEL = 16, MAXIMUM_SEGMENTS = 1 << 16;
+
+    private final Segment<K, V>[] segments;
+    private final int segmentShift, segmentMask;
+
+    /**
+     * Construct an empty map with the default expected size, load factor (0.75) and concurrency level (16).
+     */
+    public StripedConcurrentMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct an empty map able to hold the given number of mappings without resizing,
+     * with the default load factor (0.75) and concurrency level (16).
+     *
+     * @param expectedSize the expected number of mappings
+     * @throws IllegalArgumentException if the expected size is negative
+     */
+    public StripedConcurrentMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Construct an empty map able to hold the given number of mappings without resizing,
+     * with the given load factor and the number of segments of at least the given concurrency level.
+     *
+     * @param expectedSize the expected number of mappings
+     * @param loadFactor the load factor of each segment, greater than 0
+     * @param concurrencyLevel the expected number of the concurrently updating threads
+     * @throws IllegalArgumentException if the expected size is negative, the load factor
+     *         is illegal or the concurrency level is not positive
+     */
+    public StripedConcurrentMap(int expectedSize, float loadFactor, int concurrencyLevel) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException(format("Illegal expected size: %d", expectedSize));
+        if (!(loadFactor > 0))
+            throw new IllegalArgumentException(format("Illegal load factor: %s", loadFactor));
+        if (concurrencyLevel <= 0)
+            throw new IllegalArgumentException(format("Illegal concurrency level: %d", concurrencyLevel));
+        int count = 1, bits = 0;
+        while (count < Math.min(concurrencyLevel, MAXIMUM_SEGMENTS)) { count <<= 1; bits++; }
+        @SuppressWarnings("unchecked") Segment<K, V>[] segments = (Segment<K, V>[]) new Segment<?, ?>[count];
+        this.segments = segments;
+        this.segmentShift = 32 - bits; this.segmentMask = count - 1;
+        int capacity = Math.min(capacity((expectedSize + count - 1) / count, loadFactor), MAXIMUM_CAPACITY / count);
+        for (int i = 0; i < count; i++) segments[i] = new Segment<>(capacity, loadFactor);
+    }
+
+    /**
+     * Construct a map of the mappings of the given {@link java.util.Map}.
+     *
+     * @param m the given {@link java.util.Map}
+     */
+    public StripedConcurrentMap(java.util.Map<? extends K, ? extends V> m) {
+        this(m.size()); putAll(m);
+    }
+
+    @Override
+    public V get(Object key) {
+        int hash = spread(key); Node<K, V> e = segment(hash).find(key, hash);
+        return e == null ? null : e.value;
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        V value = get(key); return value == null ? defaultValue : value;
+    }
+
+    @Override
+    public int getCount(Object o) {
+        KeyValue<?, ?> kv = (KeyValue<?, ?>) o; return contains(kv.getKey(), kv.getValue()) ? 1 : 0;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> getAll(Object o) {
+        KeyValue<?, ?> kv = (KeyValue<?, ?>) o; Object key = kv.getKey(); int hash = spread(key);
+        Node<K, V> e = segment(hash).find(key, hash); V value;
+        return e != null && (value = e.value).equals(kv.getValue()) ? single(e.key, value) : emptyIterator();
+    }
+
+    @Override
+    public boolean contains(Object key, Object value) {
+        V v = get(key); return v != null && v.equals(value);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int hash = spread(key); return segment(hash).find(key, hash) != null;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        requireNonNull(value);
+        for (Segment<K, V> segment : segments) {
+            AtomicReferenceArray<Node<K, V>> table = segment.table;
+            for (int i = 0; i < table.length(); i++)
+                for (Node<K, V> e = table.get(i); e != null; e = e.next)
+                    if (value.equals(e.value)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) size += segment.count;
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Segment<K, V> segment : segments)
+            if (segment.count != 0) return false;
+        return true;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        requireNonNull(value); int hash = spread(key); return segment(hash).put(key, hash, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        requireNonNull(value); int hash = spread(key); return segment(hash).put(key, hash, value, true);
+    }
+
+    @Override
+    public void putAll(java.util.Map<? extends K, ? extends V> m) {
+        for (java.util.Map.Entry<? extends K, ? extends V> entry : m.entrySet())
+            put(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    public V remove(Object key) {
+        int hash = spread(key); return segment(hash).remove(key, hash, null);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        int hash = spread(key); return value != null && segment(hash).remove(key, hash, value) != null;
+    }
+
+    /**
+     * Return the value associated with the key, as the keys are not replaced by this map.
+     *
+     * @param key the key
+     * @return the value associated with the key, or {@code null} if there was no mapping for the key
+     */
+    @Override
+    public V replace(K key) {
+        return get(key);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        requireNonNull(value); int hash = spread(key); return segment(hash).replace(key, hash, null, value);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        requireNonNull(oldValue); requireNonNull(newValue); int hash = spread(key);
+        return segment(hash).replace(key, hash, oldValue, newValue) != null;
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        requireNonNull(function);
+        for (Segment<K, V> segment : segments) segment.replaceAll(function);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        requireNonNull(mappingFunction); int hash = spread(key);
+        Node<K, V> e = segment(hash).find(key, hash);
+        return e != null ? e.value : segment(hash).computeIfAbsent(key, hash, mappingFunction);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        requireNonNull(remappingFunction); int hash = spread(key);
+        return segment(hash).find(key, hash) == null ? null : segment(hash).compute(key, hash, remappingFunction, true);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        requireNonNull(remappingFunction); int hash = spread(key);
+        return segment(hash).compute(key, hash, remappingFunction, false);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        requireNonNull(value); requireNonNull(remappingFunction); int hash = spread(key);
+        return segment(hash).merge(key, hash, value, remappingFunction);
+    }
+
+    @Override
+    public void clear() {
+        for (Segment<K, V> segment : segments) segment.clear();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        requireNonNull(action);
+        for (Segment<K, V> segment : segments) segment.forEach(action);
+    }
+
+    /**
+     * Perform the given action for each mapping, traversing the segments in parallel on the common
+     * {@link ForkJoinPool} if the size of this map is not less than the given parallelism threshold,
+     * so the action must be thread-safe in that case.
+     *
+     * @param parallelismThreshold the size of this map from which the traversal is parallel
+     * @param action the given action
+     */
+    public void forEach(long parallelismThreshold, BiConsumer<? super K, ? super V> action) {
+        requireNonNull(action);
+        if (segments.length == 1 || size() < parallelismThreshold) forEach(action);
+        else ForkJoinPool.commonPool().invoke(new ForEachTask(0, segments.length, action));
+    }
+
+    /**
+     * Return the reduction of the non-{@code null} transformations of the mappings by the given reducer,
+     * traversing the segments in parallel on the common {@link ForkJoinPool} if the size of this map
+     * is not less than the given parallelism threshold, so the functions must be thread-safe in that case.
+     *
+     * @param parallelismThreshold the size of this map from which the traversal is parallel
+     * @param transformer the function transforming a mapping, or returning {@code null} to skip it
+     * @param reducer the associative function combining two transformations
+     * @return the reduction of the transformations, or {@code null} if there are none
+     * @param <U> the type of the transformations
+     */
+    public <U> U reduce(long parallelismThreshold, BiFunction<? super K, ? super V, ? extends U> transformer,
+                        BiFunction<? super U, ? super U, ? extends U> reducer) {
+        requireNonNull(transformer); requireNonNull(reducer);
+        if (segments.length == 1 || size() < parallelismThreshold) {
+            U result = null;
+            for (Segment<K, V> segment : segments) result = combine(result, segment.reduce(transformer, reducer), reducer);
+            return result;
+        }
+        return ForkJoinPool.commonPool().invoke(new ReduceTask<>(0, segments.length, transformer, reducer));
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return new KeySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new Values();
+    }
+
+    @Override
+    public Set<java.util.Map.Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new NodeIterator<Map.Entry<K, V>>() {
+            @Override Map.Entry<K, V> element(Node<K, V> e) { return new WriteEntry(e.key, e.value); }
+        };
+    }
+
+    @Override
+    public int hashCode() {
+        int[] hash = {0}; forEach((key, value) -> hash[0] += key.hashCode() ^ value.hashCode());
+        return hash[0];
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof java.util.Map)) return false;
+        java.util.Map<?, ?> m = (java.util.Map<?, ?>) obj;
+        if (m.size() != size()) return false;
+        try {
+            for (Segment<K, V> segment : segments) {
+                AtomicReferenceArray<Node<K, V>> table = segment.table;
+                for (int i = 0; i < table.length(); i++)
+                    for (Node<K, V> e = table.get(i); e != null; e = e.next)
+                        if (!e.value.equals(m.get(e.key))) return false;
+            }
+        } catch (ClassCastException | NullPointerException e) {
+            return false;
+        } return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEach((key, value) -> joiner.add((key == this ? "(this Map)" : String.valueOf(key))
+                + "=" + (value == this ? "(this Map)" : String.valueOf(value))));
+        return joiner.toString();
+    }
+
+    private Segment<K, V> segment(int hash) {
+        return segments[(hash >>> segmentShift) & segmentMask];
+    }
+
+    private Iterator<Map.Entry<K, V>> single(K key, V value) {
+        return new Iterator<Map.Entry<K, V>>() {
+            int state; // 0 - before, 1 - returned, 2 - removed
+            @Override public boolean hasNext() { return state == 0; }
+            @Override public Map.Entry<K, V> next() {
+                if (state != 0) throw new NoSuchElementException();
+                state = 1; return new WriteEntry(key, value); }
+            @Override public void remove() {
+                if (state != 1) throw new IllegalStateException();
+                state = 2; StripedConcurrentMap.this.remove(key, value); }
+        };
+    }
+
+    private static <U> U combine(U left, U right, BiFunction<? super U, ? super U, ? extends U> reducer) {
+        return left == null ? right : right == null ? left : reducer.apply(left, right);
+    }
+
+
+    /**
+     * A chain node of a segment table. The key and the hash are final, while the value and the link
+     * are volatile, so the lock-free retrievals see them once the node is reachable.
+     */
+    static final class Node<K, V> {
+
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash; this.key = key; this.value = value; this.next = next;
+        }
+    }
+
+    /**
+     * A segment of the map: a chained hash table, updated under the lock of the segment.
+     * The table is replaced by a resized copy, whose nodes are cloned except the trailing
+     * runs of the chains which keep their bins, so the retrievals on the previous table
+     * are not affected.
+     */
+    @SuppressWarnings("serial")
+    static final class Segment<K, V> extends ReentrantLock {
+
+        final float loadFactor;
+        volatile AtomicReferenceArray<Node<K, V>> table;
+        volatile int count;
+        int threshold;
+
+        Segment(int capacity, float loadFactor) {
+            this.loadFactor = loadFactor; allocate(capacity);
+        }
+
+        Node<K, V> find(Object key, int hash) {
+            AtomicReferenceArray<Node<K, V>> table = this.table;
+            for (Node<K, V> e = table.get(hash & (table.length() - 1)); e != null; e = e.next)
+                if (e.hash == hash && (e.key == key || key.equals(e.key))) return e;
+            return null;
+        }
+
+        V put(K key, int hash, V value, boolean onlyIfAbsent) {
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> table = this.table; int i = hash & (table.length() - 1);
+                Node<K, V> first = table.get(i);
+                for (Node<K, V> e = first; e != null; e = e.next)
+                    if (e.hash == hash && (e.key == key || key.equals(e.key))) {
+                        V old = e.value; if (!onlyIfAbsent) e.value = value; return old; }
+                insert(table, i, new Node<>(hash, key, value, first));
+                return null;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Remove the mapping of the key, if it is mapped to the given value or the value is {@code null}.
+         *
+         * @return the removed value, or {@code null} if nothing was removed
+         */
+        V remove(Object key, int hash, Object value) {
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> table = this.table; int i = hash & (table.length() - 1);
+                for (Node<K, V> e = table.get(i), p = null; e != null; p = e, e = e.next)
+                    if (e.hash == hash && (e.key == key || key.equals(e.key))) {
+                        V old = e.value;
+                        if (value != null && !value.equals(old)) return null;
+                        unlink(table, i, p, e); return old; }
+                return null;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Replace the value of the key, if it is mapped to the given old value or the old value is {@code null}.
+         *
+         * @return the replaced value, or {@code null} if nothing was replaced
+         */
+        V replace(K key, int hash, V oldValue, V newValue) {
+            lock();
+            try {
+                Node<K, V> e = find(key, hash); V old;
+                if (e == null || oldValue != null && !oldValue.equals(old = e.value)) return null;
+                old = e.value; e.value = newValue; return old;
+            } finally {
+                unlock();
+            }
+        }
+
+        V computeIfAbsent(K key, int hash, Function<? super K, ? extends V> function) {
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> table = this.table; int i = hash & (table.length() - 1);
+                Node<K, V> first = table.get(i);
+                for (Node<K, V> e = first; e != null; e = e.next)
+                    if (e.hash == hash && (e.key == key || key.equals(e.key))) return e.value;
+                V value = function.apply(key);
+                if (value != null) insert(table, i, new Node<>(hash, key, value, first));
+                return value;
+            } finally {
+                unlock();
+            }
+        }
+
+        V compute(K key, int hash, BiFunction<? super K, ? super V, ? extends V> function, boolean onlyIfPresent) {
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> table = this.table; int i = hash & (table.length() - 1);
+                Node<K, V> first = table.get(i);
+                for (Node<K, V> e = first, p = null; e != null; p = e, e = e.next)
+                    if (e.hash == hash && (e.key == key || key.equals(e.key))) {
+                        V value = function.apply(key, e.value);
+                        if (value != null) e.value = value; else unlink(table, i, p, e);
+                        return value; }
+                if (onlyIfPresent) return null;
+                V value = function.apply(key, null);
+                if (value != null) insert(table, i, new Node<>(hash, key, value, first));
+                return value;
+            } finally {
+                unlock();
+            }
+        }
+
+        V merge(K key, int hash, V value, BiFunction<? super V, ? super V, ? extends V> function) {
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> table = this.table; int i = hash & (table.length() - 1);
+                Node<K, V> first = table.get(i);
+                for (Node<K, V> e = first, p = null; e != null; p = e, e = e.next)
+                    if (e.hash == hash && (e.key == key || key.equals(e.key))) {
+                        V merged = function.apply(e.value, value);
+                        if (merged != null) e.value = merged; else unlink(table, i, p, e);
+                        return merged; }
+                insert(table, i, new Node<>(hash, key, value, first));
+                return value;
+            } finally {
+                unlock();
+            }
+        }
+
+        void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> table = this.table;
+                for (int i = 0; i < table.length(); i++)
+                    for (Node<K, V> e = table.get(i); e != null; e = e.next)
+                        e.value = requireNonNull(function.apply(e.key, e.value));
+            } finally {
+                unlock();
+            }
+        }
+
+        void clear() {
+            lock();
+            try {
+                allocate(table.length()); count = 0;
+            } finally {
+                unlock();
+            }
+        }
+
+        void forEach(BiConsumer<? super K, ? super V> action) {
+            AtomicReferenceArray<Node<K, V>> table = this.table;
+            for (int i = 0; i < table.length(); i++)
+                for (Node<K, V> e = table.get(i); e != null; e = e.next)
+                    action.accept(e.key, e.value);
+        }
+
+        <U> U reduce(BiFunction<? super K, ? super V, ? extends U> transformer, BiFunction<? super U, ? super U, ? extends U> reducer) {
+            AtomicReferenceArray<Node<K, V>> table = this.table; U result = null;
+            for (int i = 0; i < table.length(); i++)
+                for (Node<K, V> e = table.get(i); e != null; e = e.next)
+                    result = combine(result, transformer.apply(e.key, e.value), reducer);
+            return result;
+        }
+
+        private void insert(AtomicReferenceArray<Node<K, V>> table, int i, Node<K, V> node) {
+            table.set(i, node);
+            if ((count = count + 1) > threshold) resize();
+        }
+
+        private void unlink(AtomicReferenceArray<Node<K, V>> table, int i, Node<K, V> p, Node<K, V> e) {
+            if (p == null) table.set(i, e.next); else p.next = e.next;
+            count = count - 1;
+        }
+
+        private void resize() {
+            AtomicReferenceArray<Node<K, V>> old = table; int n = old.length();
+            if (n >= MAXIMUM_CAPACITY) { threshold = Integer.MAX_VALUE; return; }
+            AtomicReferenceArray<Node<K, V>> table = new AtomicReferenceArray<>(n << 1); int mask = (n << 1) - 1;
+            for (int i = 0; i < n; i++) {
+                Node<K, V> first = old.get(i); if (first == null) continue;
+                Node<K, V> run = first; int bin = first.hash & mask;
+                for (Node<K, V> e = first.next; e != null; e = e.next) {
+                    int b = e.hash & mask; if (b != bin) { bin = b; run = e; } }
+                table.lazySet(bin, run);
+                for (Node<K, V> e = first; e != run; e = e.next) {
+                    int b = e.hash & mask; table.lazySet(b, new Node<>(e.hash, e.key, e.value, table.get(b))); }
+            }
+            this.table = table; this.threshold = (int) Math.min((n << 1) * (double) loadFactor, Integer.MAX_VALUE);
+        }
+
+        private void allocate(int capacity) {
+            this.table = new AtomicReferenceArray<>(capacity);
+            this.threshold = (int) Math.min(capacity * (double) loadFactor, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * An entry of the iterated mapping, writing the value through to this map.
+     */
+    final class WriteEntry extends SimpleEntry<K, V> {
+
+        WriteEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override public V setValue(V value) {
+            requireNonNull(value); V old = this.value; this.value = value; put(key, value); return old; }
+    }
+
+    /**
+     * A weakly consistent iterator of the elements of the nodes, traversing the segments one by one.
+     *
+     * @param <T> the type of elements
+     */
+    abstract class NodeIterator<T> implements Iterator<T> {
+
+        int segment;
+        AtomicReferenceArray<Node<K, V>> table;
+        int bin;
+        Node<K, V> next, last;
+
+        NodeIterator() {
+            advance();
+        }
+
+        @Override public boolean hasNext() { return next != null; }
+
+        @Override public T next() {
+            Node<K, V> e = next; if (e == null) throw new NoSuchElementException();
+            last = e; advance(); return element(e); }
+
+        @Override public void remove() {
+            if (last == null) throw new IllegalStateException();
+            StripedConcurrentMap.this.remove(last.key); last = null; }
+
+        abstract T element(Node<K, V> e);
+
+        private void advance() {
+            if (next != null && (next = next.next) != null) return;
+            while (true) {
+                while (table != null && bin < table.length())
+                    if ((next = table.get(bin++)) != null) return;
+                if (segment == segments.length) return;
+                table = segments[segment++].table; bin = 0;
+            }
+        }
+    }
+
+    /**
+     * The base of the {@link Set} views of this map.
+     *
+     * @param <E> the type of elements
+     */
+    abstract class SetView<E> implements Set<E> {
+
+        @Override public int size() { return StripedConcurrentMap.this.size(); }
+        @Override public boolean isEmpty() { return StripedConcurrentMap.this.isEmpty(); }
+        @Override public boolean add(E e) { throw new UnsupportedOperationException(); }
+        @Override public void clear() { StripedConcurrentMap.this.clear(); }
+
+        @Override public int hashCode() {
+            int hash = 0; for (E e : this) hash += e.hashCode(); return hash; }
+
+        @Override public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (!(obj instanceof java.util.Set)) return false;
+            java.util.Set<?> set = (java.util.Set<?>) obj;
+            if (set.size() != size()) return false;
+            try {
+                return containsAll(set);
+            } catch (ClassCastException | NullPointerException e) {
+                return false;
+            } }
+
+        @Override public String toString() {
+            StringJoiner joiner = new StringJoiner(", ", "[", "]");
+            for (E e : this) joiner.add(String.valueOf(e));
+            return joiner.toString(); }
+    }
+
+    /**
+     * The {@link Set} view of the keys of this map.
+     */
+    final class KeySet extends SetView<K> {
+
+        @Override public boolean contains(Object o) { return containsKey(o); }
+
+        @Override public Iterator<K> getAll(Object o) {
+            int hash = spread(o); Node<K, V> e = segment(hash).find(o, hash);
+            if (e == null) return emptyIterator();
+            Iterator<Map.Entry<K, V>> single = single(e.key, e.value);
+            return new Iterator<K>() {
+                @Override public boolean hasNext() { return single.hasNext(); }
+                @Override public K next() { return single.next().getKey(); }
+                @Override public void remove() { single.remove(); }
+            }; }
+
+        @Override public boolean remove(Object o) { return StripedConcurrentMap.this.remove(o) != null; }
+
+        @Override public Iterator<K> iterator() {
+            return new NodeIterator<K>() {
+                @Override K element(Node<K, V> e) { return e.key; }
+            }; }
+    }
+
+    /**
+     * The {@link Set} view of the entries of this map.
+     */
+    final class EntrySet extends SetView<java.util.Map.Entry<K, V>> {
+
+        @Override public boolean contains(Object o) {
+            if (!(o instanceof java.util.Map.Entry)) return false;
+            java.util.Map.Entry<?, ?> entry = (java.util.Map.Entry<?, ?>) o;
+            return entry.getKey() != null && StripedConcurrentMap.this.contains(entry.getKey(), entry.getValue()); }
+
+        @Override public Iterator<java.util.Map.Entry<K, V>> getAll(Object o) {
+            if (!contains(o)) return emptyIterator();
+            java.util.Map.Entry<?, ?> entry = (java.util.Map.Entry<?, ?>) o;
+            return cast(StripedConcurrentMap.this.getAll(new SimpleEntry<>(entry.getKey(), entry.getValue()))); }
+
+        @Override public boolean remove(Object o) {
+            if (!(o instanceof java.util.Map.Entry)) return false;
+            java.util.Map.Entry<?, ?> entry = (java.util.Map.Entry<?, ?>) o;
+            return entry.getKey() != null && StripedConcurrentMap.this.remove(entry.getKey(), entry.getValue()); }
+
+        @Override public Iterator<java.util.Map.Entry<K, V>> iterator() { return cast(StripedConcurrentMap.this.iterator()); }
+
+        @SuppressWarnings("unchecked")
+        Iterator<java.util.Map.Entry<K, V>> cast(Iterator<Map.Entry<K, V>> iterator) {
+            return (Iterator<java.util.Map.Entry<K, V>>) (Iterator<?>) iterator; }
+    }
+
+    /**
+     * The {@link Collection} view of the values of this map.
+     */
+    final class Values implements Collection<V> {
+
+        @Override public int size() { return StripedConcurrentMap.this.size(); }
+        @Override public boolean isEmpty() { return StripedConcurrentMap.this.isEmpty(); }
+        @Override public boolean add(V v) { throw new UnsupportedOperationException(); }
+        @Override public void clear() { StripedConcurrentMap.this.clear(); }
+        @Override public boolean contains(Object o) { return containsValue(o); }
+
+        @Override public Iterator<V> iterator() {
+            return new NodeIterator<V>() {
+                @Override V element(Node<K, V> e) { return e.value; }
+            }; }
+
+        @Override public int getCount(Object o) {
+            int count = 0; for (Iterator<V> it = getAll(o); it.hasNext(); it.next()) count++; return count; }
+
+        @Override public Iterator<V> getAll(Object o) {
+            Iterator<V> values = iterator();
+            return new Iterator<V>() {
+                V next; boolean found;
+                @Override public boolean hasNext() {
+                    while (!found && values.hasNext())
+                        found = (next = values.next()).equals(o);
+                    return found; }
+                @Override public V next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    found = false; return next; }
+                @Override public void remove() { values.remove(); }
+            }; }
+
+        @Override public String toString() {
+            StringJoiner joiner = new StringJoiner(", ", "[", "]");
+            for (V v : this) joiner.add(String.valueOf(v));
+            return joiner.toString(); }
+    }
+
+    /**
+     * The task applying an action to the mappings of a range of segments.
+     */
+    @SuppressWarnings("serial")
+    final class ForEachTask extends RecursiveAction {
+
+        final int from, to;
+        final BiConsumer<? super K, ? super V> action;
+
+        ForEachTask(int from, int to, BiConsumer<? super K, ? super V> action) {
+            this.from = from; this.to = to; this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) segments[from].forEach(action);
+            else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ForEachTask(from, middle, action), new ForEachTask(middle, to, action));
+            }
+        }
+    }
+
+    /**
+     * The task reducing the mappings of a range of segments.
+     *
+     * @param <U> the type of the transformations
+     */
+    @SuppressWarnings("serial")
+    final class ReduceTask<U> extends RecursiveTask<U> {
+
+        final int from, to;
+        final BiFunction<? super K, ? super V, ? extends U> transformer;
+        final BiFunction<? super U, ? super U, ? extends U> reducer;
+
+        ReduceTask(int from, int to, BiFunction<? super K, ? super V, ? extends U> transformer,
+                   BiFunction<? super U, ? super U, ? extends U> reducer) {
+            this.from = from; this.to = to; this.transformer = transformer; this.reducer = reducer;
+        }
+
+        @Override
+        protected U compute() {
+            if (to - from == 1) return segments[from].reduce(transformer, reducer);
+            int middle = (from + to) >>> 1;
+            ReduceTask<U> left = new ReduceTask<>(from, middle, transformer, reducer);
+            left.fork(); U right = new ReduceTask<>(middle, to, transformer, reducer).compute();
+            return combine(left.join(), right, reducer);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.moodminds.elemental;
+
+import java.util.Comparator;
+import java.util.Iterator;
+
+import static java.util.Collections.emptyIterator;
+
+/**
+ * A balanced tree based {@link NavigableCollection}, which permits duplicates.
+ * This Collection is not a {@link java.util.SortedSet}. The elements are ordered using their
+ * {@linkplain Comparable natural ordering}, or by a {@link Comparator} provided at construction time.
+ * <p>
+ * Each distinct element is kept once in a tree node along with the number of its occurrences
+ * and the total number of occurrences within the node subtree, so adding a duplicate does not
+ * allocate, while the {@link #getCount(Object)}, {@link #add(Object)}, {@link #remove(Object)},
+ * positional {@link #get(int)} methods and the {@link #size()} of the range views take logarithmic
+ * time. The range views are created in constant time and are backed by this Collection. The number
+ * of elements less than a given one can be obtained in logarithmic time as {@code head(e).size()}.
+ * The {@link #firstAll()}, {@link #lastAll()}, {@link #lowerAll(Object)}, {@link #floorAll(Object)},
+ * {@link #ceilingAll(Object)} and {@link #higherAll(Object)} iterators return the equal elements
+ * of the found node without searching any further.
+ * <p>
+ * This implementation is not synchronized. The iterators are <i>fail-fast</i>.
+ *
+ * @param <E> the type of elements
+ *
+ * @see TreeContainer
+ */
+public class TreeCollection<E> extends AbstractTreeContainer<E> implements NavigableCollection<E> {
+
+    /**
+     * Construct an empty Collection, sorted according to the natural ordering of its elements.
+     */
+    public TreeCollection() {
+        this((Comparator<? super E>) null);
+    }
+
+    /**
+     * Construct an empty Collection, sorted according to the specified comparator.
+     *
+     * @param comparator the comparator to sort the elements, or {@code null} for the natural ordering
+     */
+    public TreeCollection(Comparator<? super E> comparator) {
+        super(new Tree<>(comparator));
+    }
+
+    /**
+     * Construct a Collection of the elements of the given {@link Iterable},
+     * sorted according to their natural ordering.
+     *
+     * @param elements the given {@link Iterable} of elements
+     * @throws ClassCastException if the elements are not mutually comparable
+     * @throws NullPointerException if any of the elements is {@code null}
+     */
+    public TreeCollection(Iterable<? extends E> elements) {
+        this(null, elements);
+    }
+
+    /**
+     * Construct a Collection of the elements of the given {@link Iterable},
+     * sorted according to the specified comparator.
+     *
+     * @param comparator the comparator to sort the elements, or {@code null} for the natural ordering
+     * @param elements the given {@link Iterable} of elements
+     * @throws ClassCastException if the elements are not mutually comparable
+     */
+    public TreeCollection(Comparator<? super E> comparator, Iterable<? extends E> elements) {
+        this(comparator); Object[] sorted = Tree.sort(elements, comparator);
+        tree.build(sorted, sorted.length);
+    }
+
+    private TreeCollection(Tree<E> tree, boolean fromStart, E lo, boolean loInclusive,
+                           boolean toEnd, E hi, boolean hiInclusive, boolean descending) {
+        super(tree, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, descending);
+    }
+
+    @Override
+    TreeCollection<E> view(boolean fromStart, E lo, boolean loInclusive,
+                           boolean toEnd, E hi, boolean hiInclusive, boolean descending) {
+        return new TreeCollection<>(tree, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, descending);
+    }
+
+    /**
+     * Add a single occurrence of the specified element to this Collection.
+     *
+     * @param e the element to add
+     * @return {@code true} always
+     * @throws ClassCastException if the element cannot be compared with the elements of this Collection
+     * @throws NullPointerException if the element is {@code null} and this Collection
+     *         does not permit {@code null} elements
+     * @throws IllegalArgumentException if the element is out of range of this view
+     */
+    @Override
+    public boolean add(E e) {
+        if (!inRange(e))
+            throw new IllegalArgumentException("element out of range");
+        tree.add(e, 1); return true;
+    }
+
+    /**
+     * Remove a single occurrence of the specified element from this Collection.
+     *
+     * @param o the element to remove an occurrence of
+     * @return {@code true} if an occurrence was removed
+     * @throws ClassCastException if the element cannot be compared with the elements of this Collection
+     * @throws NullPointerException if the element is {@code null} and this Collection
+     *         does not permit {@code null} elements
+     */
+    @Override
+    public boolean removeOne(Object o) {
+        Node<E> node = node(o);
+        if (node == null) return false;
+        tree.decrement(node); return true;
+    }
+
+    @Override
+    public E pollFirst() {
+        return pollFirstNode();
+    }
+
+    @Override
+    public E pollLast() {
+        return pollLastNode();
+    }
+
+    @Override
+    public void clear() {
+        if (fromStart && toEnd) tree.clear();
+        else for (Iterator<E> it = iterator(); it.hasNext(); ) {
+            it.next(); it.remove();
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return descending ? new TreeIterator(absHighest(), absLowFence(), false) {
+            @Override public void remove() { removeLast(); }
+        } : new TreeIterator(absLowest(), absHighFence(), true) {
+            @Override public void remove() { removeLast(); }
+        };
+    }
+
+    @Override
+    public TreeCollection<E> descending() {
+        return (TreeCollection<E>) descendingView();
+    }
+
+    @Override
+    public TreeCollection<E> sub(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        return (TreeCollection<E>) subView(fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    @Override
+    public TreeCollection<E> head(E toElement, boolean inclusive) {
+        return (TreeCollection<E>) headView(toElement, inclusive);
+    }
+
+    @Override
+    public TreeCollection<E> tail(E fromElement, boolean inclusive) {
+        return (TreeCollection<E>) tailView(fromElement, inclusive);
+    }
+
+    @Override
+    public TreeCollection<E> sub(E fromElement, E toElement) {
+        return sub(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public TreeCollection<E> head(E toElement) {
+        return head(toElement, false);
+    }
+
+    @Override
+    public TreeCollection<E> tail(E fromElement) {
+        return tail(fromElement, true);
+    }
+
+    @Override
+    Iterator<E> run(Node<E> node) {
+        return node != null ? new RunIterator(node) {
+            @Override public void remove() { removeLast(); }
+        } : emptyIterator();
+    }
+}
@@ -0,0 +1,127 @@
+package org.moodminds.elemental;
+
+import java.util.Comparator;
+
+import static java.util.Arrays.asList;
+
+/**
+ * An immutable balanced tree based {@link NavigableContainer}, which permits duplicates.
+ * The elements are ordered using their {@linkplain Comparable natural ordering}, or by
+ * a {@link Comparator} provided at construction time.
+ * <p>
+ * Each distinct element is kept once in a tree node along with the number of its occurrences
+ * and the total number of occurrences within the node subtree, so the {@link #getCount(Object)},
+ * positional {@link #get(int)} methods and the {@link #size()} of the range views take logarithmic
+ * time, while the range views are created in constant time. The number of elements less than
+ * a given one can be obtained in logarithmic time as {@code head(e).size()}. The {@link #firstAll()},
+ * {@link #lastAll()}, {@link #lowerAll(Object)}, {@link #floorAll(Object)}, {@link #ceilingAll(Object)}
+ * and {@link #higherAll(Object)} iterators return the equal elements of the found node without
+ * searching any further.
+ *
+ * @param <E> the type of elements
+ *
+ * @see TreeCollection
+ */
+public final class TreeContainer<E> extends AbstractTreeContainer<E> {
+
+    /**
+     * Construct the Container of the given elements, sorted according to their natural ordering.
+     *
+     * @param elements the given elements
+     * @throws ClassCastException if the elements are not mutually comparable
+     * @throws NullPointerException if any of the elements is {@code null}
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs") // the list view only reads the array
+    public TreeContainer(E... elements) {
+        this(null, asList(elements));
+    }
+
+    /**
+     * Construct the Container of the given elements, sorted according to the specified comparator.
+     *
+     * @param comparator the comparator to sort the elements, or {@code null} for the natural ordering
+     * @param elements the given elements
+     * @throws ClassCastException if the elements are not mutually comparable
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs") // the list view only reads the array
+    public TreeContainer(Comparator<? super E> comparator, E... elements) {
+        this(comparator, asList(elements));
+    }
+
+    /**
+     * Construct the Container of the elements of the given {@link Iterable},
+     * sorted according to their natural ordering.
+     *
+     * @param elements the given {@link Iterable} of elements
+     * @throws ClassCastException if the elements are not mutually comparable
+     * @throws NullPointerException if any of the elements is {@code null}
+     */
+    public TreeContainer(Iterable<? extends E> elements) {
+        this(null, elements);
+    }
+
+    /**
+     * Construct the Container of the elements of the given {@link Iterable},
+     * sorted according to the specified comparator.
+     *
+     * @param comparator the comparator to sort the elements, or {@code null} for the natural ordering
+     * @param elements the given {@link Iterable} of elements
+     * @throws ClassCastException if the elements are not mutually comparable
+     */
+    public TreeContainer(Comparator<? super E> comparator, Iterable<? extends E> elements) {
+        super(tree(comparator, elements));
+    }
+
+    private TreeContainer(Tree<E> tree, boolean fromStart, E lo, boolean loInclusive,
+                          boolean toEnd, E hi, boolean hiInclusive, boolean descending) {
+        super(tree, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, descending);
+    }
+
+    @Override
+    TreeContainer<E> view(boolean fromStart, E lo, boolean loInclusive,
+                          boolean toEnd, E hi, boolean hiInclusive, boolean descending) {
+        return new TreeContainer<>(tree, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, descending);
+    }
+
+    @Override
+    public TreeContainer<E> descending() {
+        return (TreeContainer<E>) descendingView();
+    }
+
+    @Override
+    public TreeContainer<E> sub(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        return (TreeContainer<E>) subView(fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    @Override
+    public TreeContainer<E> head(E toElement, boolean inclusive) {
+        return (TreeContainer<E>) headView(toElement, inclusive);
+    }
+
+    @Override
+    public TreeContainer<E> tail(E fromElement, boolean inclusive) {
+        return (TreeContainer<E>) tailView(fromElement, inclusive);
+    }
+
+    @Override
+    public TreeContainer<E> sub(E fromElement, E toElement) {
+        return sub(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public TreeContainer<E> head(E toElement) {
+        return head(toElement, false);
+    }
+
+    @Override
+    public TreeContainer<E> tail(E fromElement) {
+        return tail(fromElement, true);
+    }
+
+    private static <E> Tree<E> tree(Comparator<? super E> comparator, Iterable<? extends E> elements) {
+        Tree<E> tree = new Tree<>(comparator); Object[] sorted = Tree.sort(elements, comparator);
+        tree.build(sorted, sorted.length); return tree;
+    }
+}
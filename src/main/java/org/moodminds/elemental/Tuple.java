@@ -46,4 +46,160 @@ public interface Tuple extends Ordered<Object> {
      * @return {@code true} if the provided object is equal to this Tuple
      */
     boolean equals(Object o);
+
+
+    /**
+     * Return the field based {@link Tuple1} of the given value.
+     * The Tuple caches its hash code once it is calculated.
+     *
+     * @param value the value
+     * @return the 1-value width Tuple of the given value
+     * @param <V> the type of the value
+     */
+    static <V> Tuple1<V> of(V value) {
+        return new FieldTuple.Of1<>(value);
+    }
+
+    /**
+     * Return the field based {@link Tuple2} of the given values.
+     * The Tuple caches its hash code once it is calculated.
+     *
+     * @param value1 the value 1
+     * @param value2 the value 2
+     * @return the 2-values width Tuple of the given values
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     */
+    static <V1, V2> Tuple2<V1, V2> of(V1 value1, V2 value2) {
+        return new FieldTuple.Of2<>(value1, value2);
+    }
+
+    /**
+     * Return the field based {@link Tuple3} of the given values.
+     * The Tuple caches its hash code once it is calculated.
+     *
+     * @param value1 the value 1
+     * @param value2 the value 2
+     * @param value3 the value 3
+     * @return the 3-values width Tuple of the given values
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     */
+    static <V1, V2, V3> Tuple3<V1, V2, V3> of(V1 value1, V2 value2, V3 value3) {
+        return new FieldTuple.Of3<>(value1, value2, value3);
+    }
+
+    /**
+     * Return the field based {@link Tuple4} of the given values.
+     * The Tuple caches its hash code once it is calculated.
+     *
+     * @param value1 the value 1
+     * @param value2 the value 2
+     * @param value3 the value 3
+     * @param value4 the value 4
+     * @return the 4-values width Tuple of the given values
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     */
+    static <V1, V2, V3, V4> Tuple4<V1, V2, V3, V4> of(V1 value1, V2 value2, V3 value3, V4 value4) {
+        return new FieldTuple.Of4<>(value1, value2, value3, value4);
+    }
+
+    /**
+     * Return the field based {@link Tuple5} of the given values.
+     * The Tuple caches its hash code once it is calculated.
+     *
+     * @param value1 the value 1
+     * @param value2 the value 2
+     * @param value3 the value 3
+     * @param value4 the value 4
+     * @param value5 the value 5
+     * @return the 5-values width Tuple of the given values
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     * @param <V5> the type of value 5
+     */
+    static <V1, V2, V3, V4, V5> Tuple5<V1, V2, V3, V4, V5> of(V1 value1, V2 value2, V3 value3, V4 value4, V5 value5) {
+        return new FieldTuple.Of5<>(value1, value2, value3, value4, value5);
+    }
+
+    /**
+     * Return the field based {@link Tuple6} of the given values.
+     * The Tuple caches its hash code once it is calculated.
+     *
+     * @param value1 the value 1
+     * @param value2 the value 2
+     * @param value3 the value 3
+     * @param value4 the value 4
+     * @param value5 the value 5
+     * @param value6 the value 6
+     * @return the 6-values width Tuple of the given values
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     * @param <V5> the type of value 5
+     * @param <V6> the type of value 6
+     */
+    static <V1, V2, V3, V4, V5, V6> Tuple6<V1, V2, V3, V4, V5, V6> of(
+            V1 value1, V2 value2, V3 value3, V4 value4, V5 value5, V6 value6) {
+        return new FieldTuple.Of6<>(value1, value2, value3, value4, value5, value6);
+    }
+
+    /**
+     * Return the field based {@link Tuple7} of the given values.
+     * The Tuple caches its hash code once it is calculated.
+     *
+     * @param value1 the value 1
+     * @param value2 the value 2
+     * @param value3 the value 3
+     * @param value4 the value 4
+     * @param value5 the value 5
+     * @param value6 the value 6
+     * @param value7 the value 7
+     * @return the 7-values width Tuple of the given values
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     * @param <V5> the type of value 5
+     * @param <V6> the type of value 6
+     * @param <V7> the type of value 7
+     */
+    static <V1, V2, V3, V4, V5, V6, V7> Tuple7<V1, V2, V3, V4, V5, V6, V7> of(
+            V1 value1, V2 value2, V3 value3, V4 value4, V5 value5, V6 value6, V7 value7) {
+        return new FieldTuple.Of7<>(value1, value2, value3, value4, value5, value6, value7);
+    }
+
+    /**
+     * Return the field based {@link Tuple8} of the given values.
+     * The Tuple caches its hash code once it is calculated.
+     *
+     * @param value1 the value 1
+     * @param value2 the value 2
+     * @param value3 the value 3
+     * @param value4 the value 4
+     * @param value5 the value 5
+     * @param value6 the value 6
+     * @param value7 the value 7
+     * @param value8 the value 8
+     * @return the 8-values width Tuple of the given values
+     * @param <V1> the type of value 1
+     * @param <V2> the type of value 2
+     * @param <V3> the type of value 3
+     * @param <V4> the type of value 4
+     * @param <V5> the type of value 5
+     * @param <V6> the type of value 6
+     * @param <V7> the type of value 7
+     * @param <V8> the type of value 8
+     */
+    static <V1, V2, V3, V4, V5, V6, V7, V8> Tuple8<V1, V2, V3, V4, V5, V6, V7, V8> of(
+            V1 value1, V2 value2, V3 value3, V4 value4, V5 value5, V6 value6, V7 value7, V8 value8) {
+        return new FieldTuple.Of8<>(value1, value2, value3, value4, value5, value6, value7, value8);
+    }
 }
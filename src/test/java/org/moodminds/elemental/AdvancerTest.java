@@ -0,0 +1,43 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdvancerTest {
+
+    @Test
+    void spliteratorTransfersIntoArray() {
+        Advancer<Integer> advancer = Advancer.advancer(asList(0, 1, 2, 3, 4, 5, 6).spliterator());
+        Integer[] buffer = new Integer[5];
+        assertEquals(3, advancer.next(buffer, 1, 3));
+        assertArrayEquals(new Integer[] {null, 0, 1, 2, null}, buffer);
+        assertEquals(4, advancer.next(buffer, 0, 5));
+        assertArrayEquals(new Integer[] {3, 4, 5, 6, null}, buffer);
+        assertEquals(0, advancer.next(buffer, 0, 5));
+    }
+
+    @Test
+    void unsizedSpliteratorTransfersIntoArray() {
+        Advancer<Integer> advancer = Advancer.advancer(IntStream.range(0, 10).filter(i -> i % 2 == 0).boxed().spliterator());
+        Integer[] buffer = new Integer[8];
+        assertEquals(5, advancer.next(buffer, 0, 8));
+        assertArrayEquals(new Integer[] {0, 2, 4, 6, 8, null, null, null}, buffer);
+    }
+
+    @Test
+    void illegalArguments() {
+        Integer[] buffer = new Integer[4];
+        for (Advancer<Integer> advancer : asList(Advancer.advancer(1, 2), Advancer.advancer(asList(1, 2).iterator()),
+                Advancer.advancer(asList(1, 2).spliterator()), (Advancer<Integer>) consumer -> false)) {
+            assertThrows(IndexOutOfBoundsException.class, () -> advancer.next(buffer, 2, 3));
+            assertThrows(IndexOutOfBoundsException.class, () -> advancer.next(buffer, -1, 1));
+            assertThrows(IllegalArgumentException.class, () -> advancer.next(-1, v -> {}));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static java.util.Comparator.reverseOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BTreeMapTest {
+
+    static final int CAPACITY = BTreeMap.CAPACITY;
+
+    @Test
+    void splitsAndMergesAtNodeBoundaries() {
+        for (int size : new int[] {CAPACITY, CAPACITY + 1, CAPACITY * CAPACITY, CAPACITY * CAPACITY + 1}) {
+            BTreeMap<Integer, Integer> map = new BTreeMap<>(); TreeMap<Integer, Integer> expected = new TreeMap<>();
+            for (int i = 0; i < size; i++) { map.put(i, i); expected.put(i, i); } check(expected, map);
+            for (int i = size - 1; i >= 0; i--) { map.put(-i, i); expected.put(-i, i); } check(expected, map);
+            for (int i = 0; i < size; i += 2) assertEquals(expected.remove(i), map.remove(i)); check(expected, map);
+            for (int i = 1 - size; i < size; i++) assertEquals(expected.remove(i), map.remove(i)); check(expected, map);
+            assertTrue(map.isEmpty()); assertSame(map.tree.first, map.tree.root);
+        }
+    }
+
+    @Test
+    void matchesTreeMapThroughRandomInsertsAndDeletes() {
+        Random random = new Random(42);
+        BTreeMap<Integer, Integer> map = new BTreeMap<>(); TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 2000; i++) {
+                int key = random.nextInt(4000);
+                assertEquals(expected.put(key, i), map.put(key, i));
+            } check(expected, map);
+            for (int i = 0; i < 2500; i++) {
+                int key = random.nextInt(4000);
+                assertEquals(expected.remove(key), map.remove(key));
+            } check(expected, map);
+        }
+    }
+
+    @Test
+    void bulkLoadedTreeRebalancesOnDeletes() {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < CAPACITY * CAPACITY + 7; i++) expected.put(i, -i);
+        BTreeMap<Integer, Integer> map = new BTreeMap<>(expected); check(expected, map);
+        for (int i = 0; i < CAPACITY * CAPACITY + 7; i += 3) assertEquals(expected.remove(i), map.remove(i));
+        check(expected, map);
+        assertThrows(IllegalArgumentException.class, () -> new BTreeMap<>(expected.descendingMap().entrySet().iterator()));
+    }
+
+    @Test
+    void subMapViewsMatchTreeMap() {
+        BTreeMap<Integer, Integer> map = new BTreeMap<>(); TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 1000; i += 2) { map.put(i, i); expected.put(i, i); }
+        assertViews(expected.subMap(100, true, 300, false), map.subMap(100, true, 300, false));
+        assertViews(expected.subMap(101, false, 299, true), map.subMap(101, false, 299, true));
+        assertViews(expected.headMap(63, true), map.headMap(63, true));
+        assertViews(expected.tailMap(936, false), map.tailMap(936, false));
+        assertViews(expected.descendingMap().subMap(700, true, 500, true), map.descendingMap().subMap(700, true, 500, true));
+        assertViews(expected.subMap(10, true, 20, false).descendingMap().headMap(14, false), map.subMap(10, 20).descendingMap().headMap(14));
+
+        BTreeMap<Integer, Integer> sub = map.subMap(100, true, 300, false);
+        assertThrows(IllegalArgumentException.class, () -> sub.put(300, 0));
+        assertThrows(IllegalArgumentException.class, () -> sub.subMap(0, 200));
+        sub.put(101, 101); expected.put(101, 101);
+        assertEquals(expected.subMap(100, true, 300, false).pollFirstEntry(), sub.pollFirstEntry());
+        assertEquals(expected.subMap(100, true, 300, false).pollLastEntry(), sub.pollLastEntry());
+        sub.clear(); expected.subMap(100, 300).clear();
+        assertTrue(sub.isEmpty()); check(expected, map);
+    }
+
+    @Test
+    void iteratorRemovalAcrossLeaves() {
+        BTreeMap<Integer, Integer> map = new BTreeMap<>(); TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < CAPACITY * 10; i++) { map.put(i, i); expected.put(i, i); }
+        for (Iterator<java.util.Map.Entry<Integer, Integer>> it = map.entrySet().iterator(); it.hasNext(); )
+            if (it.next().getKey() % 3 != 0) it.remove();
+        expected.keySet().removeIf(key -> key % 3 != 0); check(expected, map);
+        for (Iterator<Integer> it = map.descendingKeySet().iterator(); it.hasNext(); )
+            if (it.next() % 2 == 0) it.remove();
+        expected.keySet().removeIf(key -> key % 2 == 0); check(expected, map);
+        for (Iterator<Integer> it = map.values().iterator(); it.hasNext(); ) { it.next(); it.remove(); }
+        assertTrue(map.isEmpty());
+
+        Iterator<Integer> it = new BTreeMap<>(expected).keySet().iterator();
+        assertThrows(IllegalStateException.class, it::remove);
+        it.next(); it.remove(); assertThrows(IllegalStateException.class, it::remove);
+    }
+
+    @Test
+    void comparatorOrderMatchesTreeMap() {
+        BTreeMap<String, Integer> map = new BTreeMap<>(reverseOrder()); TreeMap<String, Integer> expected = new TreeMap<>(reverseOrder());
+        for (int i = 0; i < 500; i++) { map.put("k" + i, i); expected.put("k" + i, i); }
+        check(expected, map);
+        assertEquals(expected.ceilingKey("k250"), map.ceilingKey("k250"));
+        assertEquals(expected.higherKey("k250"), map.higherKey("k250"));
+        assertEquals(expected.floorKey("k2500"), map.floorKey("k2500"));
+        assertNull(map.higherKey(expected.lastKey())); assertFalse(map.containsKey("absent"));
+    }
+
+    static <K, V> void assertViews(java.util.NavigableMap<K, V> expected, java.util.NavigableMap<K, V> actual) {
+        assertEquals(expected, actual); assertEquals(expected.size(), actual.size());
+        assertEquals(new java.util.ArrayList<>(expected.entrySet()), new java.util.ArrayList<>(actual.entrySet()));
+        assertEquals(new java.util.ArrayList<>(expected.descendingKeySet()), new java.util.ArrayList<>(actual.descendingKeySet()));
+        if (!expected.isEmpty()) {
+            assertEquals(expected.firstEntry(), actual.firstEntry()); assertEquals(expected.lastEntry(), actual.lastEntry());
+        }
+    }
+
+    /**
+     * Check the map equals the expected one, and the tree is balanced, ordered and linked.
+     */
+    static <K, V> void check(TreeMap<K, V> expected, BTreeMap<K, V> map) {
+        assertViews(expected, map);
+        BTreeMap.BTree<K, V> tree = map.tree; assertEquals(expected.size(), tree.size);
+        java.util.List<BTreeMap.Leaf> leaves = new java.util.ArrayList<>();
+        depth(tree, tree.root, null, null, true, leaves);
+        BTreeMap.Leaf prev = null;
+        for (BTreeMap.Leaf leaf : leaves) { assertSame(prev, leaf.prev); if (prev != null) assertSame(leaf, prev.next); prev = leaf; }
+        assertSame(leaves.get(0), tree.first); assertSame(prev, tree.last); assertNull(prev.next);
+    }
+
+    static int depth(BTreeMap.BTree<?, ?> tree, BTreeMap.Node node, Object lo, Object hi, boolean root, java.util.List<BTreeMap.Leaf> leaves) {
+        assertTrue(node.size <= CAPACITY); assertTrue(root || node.size > 0);
+        if (node instanceof BTreeMap.Leaf) {
+            for (int i = 0; i < node.size; i++) {
+                Object key = node.keys[i];
+                assertTrue(lo == null || tree.compare(lo, key) <= 0); assertTrue(hi == null || tree.compare(key, hi) < 0);
+                if (i > 0) assertTrue(tree.compare(node.keys[i - 1], key) < 0);
+            } leaves.add((BTreeMap.Leaf) node); return 0;
+        }
+        BTreeMap.Inner inner = (BTreeMap.Inner) node; assertTrue(inner.size >= 2); int depth = -1;
+        for (int i = 0; i < inner.size; i++) {
+            int child = depth(tree, inner.children[i], i > 0 ? inner.keys[i - 1] : lo, i < inner.size - 1 ? inner.keys[i] : hi, false, leaves);
+            assertTrue(depth < 0 || depth == child); depth = child;
+        } return depth + 1;
+    }
+}
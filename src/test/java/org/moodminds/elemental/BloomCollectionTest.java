@@ -0,0 +1,44 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomCollectionTest {
+
+    @Test
+    void comparatorMatchingCollectionHasNoFalseNegatives() {
+        TreeCollection<String> tree = new TreeCollection<>(CASE_INSENSITIVE_ORDER);
+        tree.add("apple"); tree.add("banana");
+        BloomCollection<String> collection = new BloomCollection<>(tree);
+        assertTrue(collection.contains("APPLE")); assertEquals(1, collection.getCount("Banana"));
+        assertTrue(collection.remove("BANANA")); assertFalse(collection.contains("banana"));
+        assertTrue(new BloomContainer<>(tree).contains("Apple"));
+    }
+
+    @Test
+    void hashCollectionFiltersAbsentElements() {
+        BloomCollection<Integer> collection = new BloomCollection<>(new HashCollection<>());
+        for (int i = 0; i < 1000; i++) assertTrue(collection.add(i));
+        for (int i = 0; i < 1000; i++) assertTrue(collection.contains(i));
+        for (int i = 0; i < 1000; i += 2) assertTrue(collection.remove(i));
+        for (int i = 0; i < 1000; i++) assertEquals(i % 2 != 0, collection.contains(i));
+        assertFalse(collection.remove(-1)); assertEquals(500, collection.size());
+    }
+
+    @Test
+    void randomMatchOnlyOfRandomMatchBacking() {
+        HashCollection<Integer> hash = new HashCollection<>(); hash.add(1);
+        assertInstanceOf(RandomMatch.class, BloomContainer.container(hash));
+        assertInstanceOf(RandomMatch.class, BloomCollection.collection(hash));
+        assertFalse(BloomContainer.container(RrbTreeSequence.sequence(1, 2, 3)) instanceof RandomMatch);
+        assertFalse(new BloomContainer<>(hash) instanceof RandomMatch);
+        assertFalse(new BloomCollection<>(hash) instanceof RandomMatch);
+        assertTrue(BloomContainer.container(RrbTreeSequence.sequence(1, 2, 3)).contains(2));
+        assertEquals(new BloomCollection<>(hash), BloomCollection.collection(hash));
+    }
+}
@@ -0,0 +1,91 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChannelWriterTest {
+
+    @TempDir
+    Path directory;
+
+    static java.util.List<String> elements() {
+        java.util.List<String> elements = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) elements.add(i % 100 == 0 ? null : "element-" + i);
+        char[] large = new char[BufferPool.BUFFER_SIZE * 2]; Arrays.fill(large, 'x');
+        elements.add(25_000, new String(large)); elements.add("");
+        return elements;
+    }
+
+    static java.util.List<String> read(ChannelReader<String> reader) throws IOException {
+        java.util.List<String> read = new ArrayList<>();
+        try (ChannelReader<String> r = reader) { r.each(read::add); }
+        return read;
+    }
+
+    @Test
+    void roundTripThroughStreams() throws IOException {
+        java.util.List<String> elements = elements(); ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ChannelWriter<String> writer = new ChannelWriter<>(Channels.newChannel(out), Codec.strings(), 2)) {
+            for (String element : elements) writer.write(element);
+        }
+        assertEquals(elements, read(new ChannelReader<>(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())), Codec.strings())));
+    }
+
+    @Test
+    void roundTripThroughFileChannels() throws IOException {
+        java.util.List<String> elements = elements(); Path path = directory.resolve("elements");
+        try (ChannelWriter<String> writer = new ChannelWriter<>(FileChannel.open(path, CREATE, WRITE), Codec.strings())) {
+            writer.writeAll(Advancer.advancer(elements.iterator()));
+        }
+        assertEquals(elements, read(new ChannelReader<>(FileChannel.open(path, READ), Codec.strings())));
+    }
+
+    @Test
+    void writeProvidedConcurrently() throws IOException {
+        String[] elements = new String[100_000];
+        for (int i = 0; i < elements.length; i++) elements[i] = Integer.toString(i);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ChannelWriter<String> writer = new ChannelWriter<>(Channels.newChannel(out), Codec.strings())) {
+            writer.writeProvided(ParallelProducer.producer(elements));
+        }
+        java.util.List<String> read = read(new ChannelReader<>(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())), Codec.strings()));
+        read.sort(java.util.Comparator.comparingInt(Integer::parseInt));
+        assertEquals(Arrays.asList(elements), read);
+    }
+
+    @Test
+    void closedAndTruncated() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ChannelWriter<String> writer = new ChannelWriter<>(Channels.newChannel(out), Codec.strings());
+        writer.write("abc").write("defgh").close(); writer.close();
+        assertThrows(IllegalStateException.class, () -> writer.write("x"));
+        assertThrows(IllegalArgumentException.class, () -> new ChannelWriter<>(Channels.newChannel(out), Codec.strings(), 0));
+
+        byte[] bytes = Arrays.copyOf(out.toByteArray(), out.size() - 2);
+        ChannelReader<String> reader = new ChannelReader<>(Channels.newChannel(new ByteArrayInputStream(bytes)), Codec.strings());
+        java.util.List<String> read = new ArrayList<>();
+        assertEquals(1, reader.next(1, read::add)); assertEquals(Arrays.asList("abc"), read);
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> reader.next(s -> {}));
+        assertInstanceOf(EOFException.class, e.getCause());
+        reader.close();
+        assertThrows(IllegalStateException.class, () -> reader.next(s -> {}));
+    }
+}
@@ -0,0 +1,40 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class CodecTest {
+
+    @Test
+    void stringsRoundTrip() {
+        for (String value : new String[] {"", "abc", "\u00E9t\u00E9", "\u20AC100", "\uD83D\uDE00 smile",
+                "a\uD800", "\uDC00b", "\uDBFF\uDBFF\uDFFF", "\uDFFF\uD800"}) {
+            ByteBuffer buffer = encode(value);
+            assertEquals(value, Codec.strings().decode(buffer, 0, buffer.capacity()));
+        }
+    }
+
+    @Test
+    void wellFormedStringsAreUtf8() {
+        String value = "a\u00E9\u20AC\uD83D\uDE00";
+        assertArrayEquals(value.getBytes(UTF_8), encode(value).array());
+    }
+
+    @Test
+    void unpairedSurrogatesHaveDistinctEncodings() {
+        assertFalse(encode("a\uD800").equals(encode("a?")));
+        assertFalse(encode("a\uD800").equals(encode("a\uFFFD")));
+    }
+
+    private static ByteBuffer encode(String value) {
+        ByteBuffer buffer = ByteBuffer.allocate(Codec.strings().sizeOf(value));
+        Codec.strings().encode(value, buffer, 0);
+        return buffer;
+    }
+}
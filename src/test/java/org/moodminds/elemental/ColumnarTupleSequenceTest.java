@@ -0,0 +1,61 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarTupleSequenceTest {
+
+    static final Class<?>[] TYPES = {int.class, long.class, String.class};
+
+    @Test
+    void rowsMatchSourceTuples() {
+        ArrayList<Tuple3<Integer, Long, String>> tuples = new ArrayList<>();
+        for (int i = 0; i < 100; i++) tuples.add(Tuple.of(i, i * 10L, i % 3 == 0 ? null : "s" + i));
+        ColumnarTupleSequence<Tuple3<Integer, Long, String>> sequence = ColumnarTupleSequence.sequence(TYPES, tuples);
+        assertEquals(100, sequence.size()); assertEquals(3, sequence.width());
+        for (int i = 0; i < 100; i++) {
+            Tuple3<Integer, Long, String> row = sequence.get(i);
+            assertInstanceOf(Tuple3.class, row); assertEquals(tuples.get(i), row); assertEquals(row, tuples.get(i));
+            assertEquals(tuples.get(i).hashCode(), row.hashCode()); assertEquals(i, (int) row.get1st());
+            assertEquals(i * 10L, sequence.getLong(i, 1)); assertEquals(tuples.get(i).get3rd(), sequence.get(i, 2));
+        }
+        assertEquals(RrbTreeSequence.sequence(tuples), sequence); assertEquals(sequence, RrbTreeSequence.sequence(tuples));
+        assertEquals(1, sequence.getCount(Tuple.of(5, 50L, "s5"))); assertFalse(sequence.contains(Tuple.of(5, 50L, "s6")));
+        assertFalse(sequence.contains(Tuple.of(5, 50L)));
+    }
+
+    @Test
+    void columnsAndSubViewsShareArrays() {
+        ColumnarTupleSequence.Builder<Tuple3<Integer, Long, String>> builder = ColumnarTupleSequence.builder(TYPES);
+        for (int i = 0; i < 50; i++) builder.addValues(i, (long) -i, "v" + i);
+        ColumnarTupleSequence<Tuple3<Integer, Long, String>> sequence = builder.build();
+        builder.addValues(50, -50L, "v50");
+        assertEquals(50, sequence.size()); assertEquals(51, builder.size());
+
+        ColumnarTupleSequence<Tuple3<Integer, Long, String>> sub = sequence.sub(10, 20);
+        assertEquals(Tuple.of(10, -10L, "v10"), sub.get(0)); assertEquals(10, sub.size());
+        assertEquals(145, sub.intColumn(0).intStream().sum()); assertEquals(-145, sub.longColumn(1).longStream().sum());
+        assertEquals(new IntArraySequence(12, 13), sub.sub(2, 4).intColumn(0));
+        assertThrows(IllegalArgumentException.class, () -> sequence.getInt(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> sequence.longColumn(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> sub.get(10));
+        assertThrows(IndexOutOfBoundsException.class, () -> sequence.get(0, 3));
+    }
+
+    @Test
+    void builderRejectsIllegalRows() {
+        ColumnarTupleSequence.Builder<Tuple3<Integer, Long, String>> builder = ColumnarTupleSequence.builder(TYPES);
+        assertThrows(IllegalArgumentException.class, () -> builder.addValues(1, 2L));
+        assertThrows(NullPointerException.class, () -> builder.addValues(null, 2L, "s"));
+        assertThrows(ClassCastException.class, () -> builder.addValues(1, 2, "s"));
+        assertThrows(IllegalArgumentException.class, () -> ColumnarTupleSequence.builder(int.class));
+        assertTrue(ColumnarTupleSequence.builder(int.class, int.class).build().size() == 0);
+    }
+}
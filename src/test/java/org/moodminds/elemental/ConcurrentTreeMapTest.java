@@ -0,0 +1,97 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentTreeMapTest {
+
+    @Test
+    void matchesTreeMap() {
+        Random random = new Random(5);
+        ConcurrentTreeMap<Integer, Integer> map = new ConcurrentTreeMap<>(); TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(5000);
+            switch (random.nextInt(6)) {
+                case 0: assertEquals(expected.remove(key), map.remove(key)); break;
+                case 1: assertEquals(expected.merge(key, 1, Integer::sum), map.merge(key, 1, Integer::sum)); break;
+                case 2: assertEquals(expected.putIfAbsent(key, i), map.putIfAbsent(key, i)); break;
+                case 3: assertEquals(expected.pollFirstEntry(), map.pollFirstEntry()); break;
+                case 4: assertEquals(expected.computeIfPresent(key, (k, v) -> v % 2 == 0 ? null : v + 1),
+                        map.computeIfPresent(key, (k, v) -> v % 2 == 0 ? null : v + 1)); break;
+                default: assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            if (i % 5000 == 0) check(expected, map);
+        }
+        check(expected, map);
+        for (int key = -1; key <= 5001; key += 7) {
+            assertEquals(expected.lowerKey(key), map.lowerKey(key)); assertEquals(expected.floorKey(key), map.floorKey(key));
+            assertEquals(expected.ceilingKey(key), map.ceilingKey(key)); assertEquals(expected.higherKey(key), map.higherKey(key));
+        }
+        assertEquals(expected.subMap(1000, true, 2000, false), map.subMap(1000, true, 2000, false));
+        assertEquals(expected.subMap(1000, true, 2000, false).size(), map.subMap(1000, true, 2000, false).size());
+        assertEquals(new java.util.ArrayList<>(expected.descendingMap().headMap(4000, true).keySet()),
+                new java.util.ArrayList<>(map.descendingMap().headMap(4000, true).keySet()));
+    }
+
+    @Test
+    void concurrentUpdatesLoseNothing() throws Exception {
+        int threads = 8, perThread = 20_000, counters = 16;
+        ConcurrentTreeMap<Integer, Integer> map = new ConcurrentTreeMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            java.util.List<Future<?>> futures = new java.util.ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int base = counters + t * perThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        assertNull(map.putIfAbsent(base + i, i));
+                        map.merge(i % counters, 1, Integer::sum);
+                        if (i % 2 == 1) assertEquals(i - 1, (int) map.remove(base + i - 1));
+                    } return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) future.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(counters + threads * perThread / 2, map.size());
+        for (int key = 0; key < counters; key++) assertEquals(threads * perThread / counters, (int) map.get(key));
+        for (int t = 0; t < threads; t++)
+            for (int i = 1; i < perThread; i += 2) assertEquals(i, (int) map.get(counters + t * perThread + i));
+        assertBalanced(map.tree, map.tree.get(), null, null);
+    }
+
+    static <K, V> void check(TreeMap<K, V> expected, ConcurrentTreeMap<K, V> map) {
+        assertEquals(expected, map); assertEquals(expected.size(), map.size());
+        assertEquals(new java.util.ArrayList<>(expected.entrySet()), new java.util.ArrayList<>(map.entrySet()));
+        assertBalanced(map.tree, map.tree.get(), null, null);
+    }
+
+    /**
+     * Check the subtree is ordered within the bounds, its sizes are consistent and its siblings are weight balanced.
+     *
+     * @return the size of the subtree
+     */
+    static int assertBalanced(ConcurrentTreeMap.Tree<?> tree, ConcurrentTreeMap.Node node, Object lo, Object hi) {
+        if (node == null) return 0;
+        assertTrue(lo == null || tree.compare(lo, node.key) < 0); assertTrue(hi == null || tree.compare(node.key, hi) < 0);
+        int ls = assertBalanced(tree, node.left, lo, node.key), rs = assertBalanced(tree, node.right, node.key, hi);
+        assertEquals(ls + rs + 1, node.size);
+        if (ls + rs > 1) assertTrue(ls <= ConcurrentTreeMap.DELTA * rs && rs <= ConcurrentTreeMap.DELTA * ls, ls + " / " + rs);
+        return node.size;
+    }
+}
@@ -0,0 +1,32 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirectMatchTest {
+
+    @Test
+    void hashCollectionRoutesThroughDirectMatch() {
+        HashCollection<String> collection = new HashCollection<>();
+        collection.addAll(asList("a", "b", "a", "c", "a"));
+        assertTrue(collection instanceof DirectMatch);
+        assertTrue(collection.contains("a")); assertFalse(collection.contains("d"));
+        assertTrue(collection.remove("a")); assertEquals(2, collection.getCount("a"));
+        assertTrue(collection.removeAll((Iterable<?>) asList("a", "d"))); assertFalse(collection.contains("a"));
+        assertEquals(2, collection.size());
+    }
+
+    @Test
+    void treeCollectionRoutesThroughDirectMatch() {
+        TreeCollection<Integer> collection = new TreeCollection<>(asList(3, 1, 2, 3, 3));
+        assertTrue(collection instanceof DirectMatch);
+        assertTrue(collection.contains(3)); assertFalse(collection.contains(4));
+        assertTrue(collection.remove(3)); assertEquals(2, collection.getCount(3));
+        assertTrue(collection.removeAll((Iterable<?>) asList(3, 1))); assertFalse(collection.remove(3));
+        assertEquals(1, collection.size());
+    }
+}
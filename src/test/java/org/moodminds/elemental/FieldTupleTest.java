@@ -0,0 +1,55 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FieldTupleTest {
+
+    @Test
+    void valuesWidthsAndBounds() {
+        Tuple[] tuples = {Tuple.of(1), Tuple.of(1, 2), Tuple.of(1, 2, 3), Tuple.of(1, 2, 3, 4),
+                Tuple.of(1, 2, 3, 4, 5), Tuple.of(1, 2, 3, 4, 5, 6), Tuple.of(1, 2, 3, 4, 5, 6, 7),
+                Tuple.of(1, 2, 3, 4, 5, 6, 7, 8)};
+        for (int w = 1; w <= 8; w++) {
+            Tuple tuple = tuples[w - 1]; int width = w;
+            assertEquals(width, tuple.width());
+            for (int i = 0; i < width; i++) assertEquals(i + 1, (int) tuple.get(i));
+            assertThrows(IndexOutOfBoundsException.class, () -> tuple.get(width));
+            assertThrows(IndexOutOfBoundsException.class, () -> tuple.get(-1));
+        }
+        assertEquals("(1, null, x)", Tuple.of(1, null, "x").toString());
+        assertEquals("b", Tuple.of("a", "b").get2nd());
+    }
+
+    @Test
+    void hashFollowsListAndIsCached() {
+        FieldTuple tuple = (FieldTuple) Tuple.of("a", null, 3L);
+        assertEquals(0, tuple.cachedHash());
+        int hash = tuple.hashCode();
+        assertEquals(asList("a", null, 3L).hashCode(), hash);
+        assertEquals(hash, tuple.cachedHash()); assertEquals(hash, tuple.hashCode());
+    }
+
+    @Test
+    void equalToAnyTupleOfSameValues() {
+        Tuple3<String, Integer, Long> tuple = Tuple.of("a", 1, 2L), other = Tuple.of("a", 1, 2L);
+        tuple.hashCode(); // one side cached, the other not
+        assertEquals(tuple, other); assertEquals(other, tuple);
+        other.hashCode();
+        assertEquals(tuple, other);
+        assertNotEquals(tuple, Tuple.of("a", 1, 3L)); assertNotEquals(Tuple.of("a", 1, 3L).hashCode(), tuple.hashCode());
+        assertNotEquals(tuple, Tuple.of("a", 1)); assertNotEquals(Tuple.of("a", 1), tuple);
+
+        Tuple foreign = new Tuple() {
+            final Object[] values = {"a", 1, 2L};
+            @Override @SuppressWarnings("unchecked") public <R> R get(int index) { return (R) values[index]; }
+            @Override public int width() { return values.length; }
+        };
+        assertEquals(tuple, foreign);
+        assertNotEquals(tuple, asList("a", 1, 2L));
+    }
+}
@@ -0,0 +1,72 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashCollectionTest {
+
+    @Test
+    void countsMatchThroughGrowthAndRemovals() {
+        Random random = new Random(1);
+        HashCollection<Integer> collection = new HashCollection<>(0); HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            Integer e = random.nextInt(50) == 0 ? null : random.nextInt(3000);
+            if (random.nextInt(3) == 0) {
+                boolean present = expected.containsKey(e);
+                assertEquals(present, collection.remove(e));
+                if (present) expected.compute(e, (k, c) -> c == 1 ? null : c - 1);
+            } else {
+                assertTrue(collection.add(e)); expected.merge(e, 1, Integer::sum);
+            }
+        }
+        check(expected, collection);
+    }
+
+    @Test
+    void iteratorRemovalVisitsEveryOccurrenceOnce() {
+        for (int size = 1; size < 2000; size = size * 3 + 1) {
+            Random random = new Random(size);
+            HashCollection<Integer> collection = new HashCollection<>(size); HashMap<Integer, Integer> expected = new HashMap<>();
+            for (int i = 0; i < size; i++) { int e = random.nextInt(size); collection.add(e); expected.merge(e, 1, Integer::sum); }
+            HashMap<Integer, Integer> visited = new HashMap<>();
+            for (Iterator<Integer> it = collection.iterator(); it.hasNext(); ) {
+                Integer e = it.next(); visited.merge(e, 1, Integer::sum);
+                if (e % 2 == 0) it.remove();
+            }
+            assertEquals(expected, visited);
+            expected.keySet().removeIf(e -> e % 2 == 0); check(expected, collection);
+        }
+    }
+
+    @Test
+    void runIteratorRemovesOccurrences() {
+        HashCollection<String> collection = new HashCollection<>(java.util.Arrays.asList("a", "b", "a", "a"));
+        Iterator<String> all = collection.getAll("a");
+        assertThrows(IllegalStateException.class, all::remove);
+        assertEquals("a", all.next()); all.remove(); assertEquals("a", all.next());
+        assertEquals(2, collection.getCount("a")); assertEquals(3, collection.size());
+        assertEquals(new HashContainer<>("b", "a", "a"), collection);
+        assertTrue(collection instanceof RandomMatch); assertFalse(collection.getAll("c").hasNext());
+    }
+
+    static <E> void check(HashMap<E, Integer> expected, HashCollection<E> collection) {
+        int size = 0;
+        for (java.util.Map.Entry<E, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), collection.getCount(entry.getKey()));
+            int all = 0; for (Iterator<E> it = collection.getAll(entry.getKey()); it.hasNext(); it.next()) all++;
+            assertEquals((int) entry.getValue(), all); size += entry.getValue();
+        }
+        assertEquals(size, collection.size());
+        HashMap<E, Integer> iterated = new HashMap<>(); for (E e : collection) iterated.merge(e, 1, Integer::sum);
+        assertEquals(expected, iterated);
+        assertEquals(new HashCollection<>(collection), collection); assertEquals(new HashCollection<>(collection).hashCode(), collection.hashCode());
+    }
+}
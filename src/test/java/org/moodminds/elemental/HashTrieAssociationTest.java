@@ -0,0 +1,107 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashTrieAssociationTest {
+
+    @Test
+    void collidingKeysShareCollisionNode() {
+        HashTrieAssociation<Key, Integer> association = HashTrieAssociation.empty();
+        HashMap<Key, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            Key key = new Key(i % 3, i); association = association.with(key, i); expected.put(key, i);
+        }
+        assertEquals(3, collisions(association.root)); check(expected, association);
+        association = association.with(new Key(0, 3), -3); expected.put(new Key(0, 3), -3); check(expected, association);
+        for (int i = 0; i < 30; i += 3) {
+            Key key = new Key(0, i); association = association.without(key); expected.remove(key); check(expected, association);
+        }
+        assertEquals(2, collisions(association.root));
+        assertSame(association, association.without(new Key(0, 0)));
+        assertSame(association, association.with(new Key(1, 1), expected.get(new Key(1, 1))));
+    }
+
+    @Test
+    void builderOwnsItsNodesOnly() {
+        HashTrie.Change change = new HashTrie.Change(); Object owner = new Object();
+        HashTrie.Node node = HashTrie.EMPTY.put(owner, "a", 1, HashTrie.hash("a"), 0, change);
+        assertNotSame(HashTrie.EMPTY, node); assertEquals(0, HashTrie.EMPTY.payloadArity());
+        assertSame(node, node.put(owner, "b", 2, HashTrie.hash("b"), 0, change));
+        assertSame(node, node.remove(owner, "a", HashTrie.hash("a"), 0, change));
+        HashTrie.Node copy = node.put(new Object(), "c", 3, HashTrie.hash("c"), 0, change);
+        assertNotSame(node, copy); assertEquals(1, node.payloadArity()); assertEquals(2, copy.payloadArity());
+        assertNotSame(node, node.put(null, "d", 4, HashTrie.hash("d"), 0, change));
+        assertEquals(1, node.payloadArity());
+    }
+
+    @Test
+    void builderDoesNotMutateEarlierVersions() {
+        Random random = new Random(7);
+        HashTrieAssociation.Builder<Integer, Integer> builder = HashTrieAssociation.builder();
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        java.util.List<HashTrieAssociation<Integer, Integer>> versions = new java.util.ArrayList<>();
+        java.util.List<HashMap<Integer, Integer>> snapshots = new java.util.ArrayList<>();
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 500; i++) {
+                int key = random.nextInt(1000);
+                if (random.nextInt(4) == 0) { builder.remove(key); expected.remove(key); }
+                else { builder.put(key, i); expected.put(key, i); }
+            }
+            assertEquals(expected.size(), builder.size());
+            versions.add(builder.build()); snapshots.add(new HashMap<>(expected));
+        }
+        HashTrieAssociation.Builder<Integer, Integer> derived = versions.get(4).toBuilder();
+        for (int i = 0; i < 1000; i++) derived.put(i, -i);
+        for (int i = 0; i < 1000; i += 2) derived.remove(i);
+        HashTrieAssociation<Integer, Integer> built = derived.build();
+        assertEquals(500, built.size()); assertEquals(-1, (int) built.get(1)); assertNull(built.get(2));
+        for (int i = 0; i < versions.size(); i++) check(snapshots.get(i), versions.get(i));
+    }
+
+    static <K, V> void check(HashMap<K, V> expected, HashTrieAssociation<K, V> association) {
+        assertEquals(expected.size(), association.size());
+        for (java.util.Map.Entry<K, V> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), association.get(entry.getKey()));
+            assertTrue(association.contains(entry.getKey(), entry.getValue()));
+        }
+        int count = 0;
+        for (KeyValue<K, V> kv : association) {
+            assertTrue(expected.containsKey(kv.getKey())); assertEquals(expected.get(kv.getKey()), kv.getValue()); count++;
+        }
+        assertEquals(expected.size(), count); assertFalse(association.containsKey(new Object()));
+    }
+
+    static int collisions(HashTrie.Node node) {
+        if (node instanceof HashTrie.CollisionNode) return 1;
+        int count = 0;
+        for (int i = 0; i < node.nodeArity(); i++) count += collisions(node.node(i));
+        return count;
+    }
+
+    /**
+     * A key of the hash code of its group.
+     */
+    static final class Key {
+
+        final int group, id;
+
+        Key(int group, int id) {
+            this.group = group; this.id = id;
+        }
+
+        @Override public int hashCode() { return group; }
+        @Override public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).group == group && ((Key) obj).id == id; }
+        @Override public String toString() { return group + ":" + id; }
+    }
+}
@@ -0,0 +1,41 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntObjectMapTest {
+
+    @Test
+    void valuesGetAllRemovesReturnedValueAfterLookAhead() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        for (int i = 0; i < 1000; i++) map.put(i, i % 3 == 0 ? "a" : "b");
+        Iterator<String> it = map.asMap().values().getAll("a");
+        int removed = 0;
+        while (it.hasNext()) {
+            assertEquals("a", it.next());
+            it.hasNext(); it.remove(); removed++;
+            assertThrows(IllegalStateException.class, it::remove);
+        }
+        assertEquals(334, removed);
+        assertEquals(666, map.size());
+        for (int i = 0; i < 1000; i++) assertEquals(i % 3 == 0 ? null : "b", map.get(i));
+        assertFalse(map.asMap().values().contains("a"));
+        assertEquals(666, map.asMap().values().getCount("b"));
+    }
+
+    @Test
+    void asMapWritesThrough() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Map<Integer, String> view = map.asMap();
+        assertEquals(null, view.put(0, "zero")); assertEquals(null, view.put(7, "seven"));
+        assertEquals("zero", map.get(0)); assertEquals(2, view.size());
+        assertTrue(view.keySet().remove(0)); assertEquals(1, map.size());
+        assertEquals("seven", view.remove(7)); assertTrue(map.isEmpty());
+    }
+}
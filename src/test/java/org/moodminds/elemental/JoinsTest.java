@@ -0,0 +1,118 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JoinsTest {
+
+    static BTreeMap<Integer, String> left() {
+        BTreeMap<Integer, String> left = new BTreeMap<>();
+        for (int i = 0; i < 100; i++) left.put(i, "l" + i);
+        return left;
+    }
+
+    static java.util.Map<Integer, Integer> rightMap() {
+        java.util.Map<Integer, Integer> right = new java.util.TreeMap<>();
+        for (int i = 0; i < 150; i += 3) right.put(i, i * 10);
+        right.put(99, null); // mapped to null, which is not absent
+        return right;
+    }
+
+    static java.util.List<Tuple3<Integer, String, Integer>> expectedInner() {
+        java.util.List<Tuple3<Integer, String, Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i += 3) expected.add(Tuple.of(i, "l" + i, i == 99 ? null : i * 10));
+        return expected;
+    }
+
+    static java.util.List<Tuple3<Integer, String, Integer>> expectedLeft() {
+        java.util.List<Tuple3<Integer, String, Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) expected.add(Tuple.of(i, "l" + i, i % 3 != 0 || i == 99 ? null : i * 10));
+        return expected;
+    }
+
+    static <V> java.util.List<V> list(Advancer<V> advancer) {
+        java.util.List<V> list = new ArrayList<>(); advancer.each(list::add); return list;
+    }
+
+    static java.util.List<Integer> keys(Advancer<? extends KeyValue<Integer, ?>> advancer) {
+        java.util.List<Integer> keys = new ArrayList<>(); advancer.each(kv -> keys.add(kv.getKey())); return keys;
+    }
+
+    void check(Association<Integer, Integer, ?> right) {
+        BTreeMap<Integer, String> left = left();
+        assertEquals(expectedInner(), list(Joins.inner(left, right)));
+        assertEquals(expectedLeft(), list(Joins.left(left, right)));
+        assertEquals(expectedInner().stream().map(Tuple3::get1st).collect(toList()), keys(Joins.semi(left, right)));
+        assertEquals(expectedLeft().stream().map(Tuple3::get1st).filter(k -> k % 3 != 0).collect(toList()),
+                keys(Joins.anti(left, right)));
+    }
+
+    @Test
+    void mergeJoinOfSortedAssociations() {
+        check(new BTreeMap<>(rightMap()));
+    }
+
+    @Test
+    void hashJoinProbingRight() {
+        BTreeMap<Integer, Integer> reversed = new BTreeMap<>(Comparator.reverseOrder()); reversed.putAll(rightMap());
+        check(reversed);
+        check(HashTrieAssociation.association(rightMap()));
+    }
+
+    @Test
+    void hashJoinHashingRight() {
+        check(new ScanOnly(rightMap()));
+    }
+
+    @Test
+    void parallelJoins() {
+        BTreeMap<Integer, String> left = left(); Association<Integer, Integer, ?> right = HashTrieAssociation.association(rightMap());
+        ConcurrentLinkedQueue<Tuple3<Integer, String, Integer>> tuples = new ConcurrentLinkedQueue<>();
+        Joins.parallelInner(left, right).provide(tuples::add);
+        assertEquals(new HashSet<>(expectedInner()), new HashSet<>(tuples)); assertEquals(expectedInner().size(), tuples.size());
+        tuples.clear(); Joins.parallelLeft(left, right).provide(tuples::add);
+        assertEquals(new HashSet<>(expectedLeft()), new HashSet<>(tuples)); assertEquals(100, tuples.size());
+        ConcurrentLinkedQueue<Integer> keys = new ConcurrentLinkedQueue<>();
+        Joins.parallelSemi(left, right).provide(kv -> keys.add(kv.getKey()));
+        assertEquals(34, keys.size());
+        keys.clear(); Joins.parallelAnti(left, right).provide(kv -> keys.add(kv.getKey()));
+        assertEquals(66, keys.size()); keys.forEach(k -> assertEquals(true, k % 3 != 0));
+    }
+
+    /**
+     * An Association supporting the traversal only, which the join has to hash in advance.
+     */
+    static final class ScanOnly implements Association<Integer, Integer, KeyValue<Integer, Integer>> {
+
+        final java.util.Map<Integer, Integer> map;
+
+        ScanOnly(java.util.Map<Integer, Integer> map) {
+            this.map = map;
+        }
+
+        @Override public int size() { return map.size(); }
+        @Override public Iterator<KeyValue<Integer, Integer>> iterator() {
+            Iterator<java.util.Map.Entry<Integer, Integer>> it = map.entrySet().iterator();
+            return new Iterator<KeyValue<Integer, Integer>>() {
+                @Override public boolean hasNext() { return it.hasNext(); }
+                @Override public KeyValue<Integer, Integer> next() {
+                    java.util.Map.Entry<Integer, Integer> e = it.next(); return new SimpleEntry<>(e.getKey(), e.getValue()); }
+            }; }
+
+        @Override public int getCount(Object o) { throw new UnsupportedOperationException(); }
+        @Override public Iterator<KeyValue<Integer, Integer>> getAll(Object o) { throw new UnsupportedOperationException(); }
+        @Override public <R extends Integer> R get(Object key) { throw new UnsupportedOperationException(); }
+        @Override public Container<Integer> keys() { throw new UnsupportedOperationException(); }
+        @Override public Container<Integer> values() { throw new UnsupportedOperationException(); }
+        @Override public boolean contains(Object key, Object value) { throw new UnsupportedOperationException(); }
+        @Override public boolean containsKey(Object key) { throw new UnsupportedOperationException(); }
+    }
+}
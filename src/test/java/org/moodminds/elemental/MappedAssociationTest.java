@@ -0,0 +1,45 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedAssociationTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeAndOpen() throws IOException {
+        Path path = directory.resolve("association");
+        java.util.Map<String, Long> map = new LinkedHashMap<>();
+        for (long i = 0; i < 1000; i++) map.put("k" + i, i);
+        MappedAssociation.write(path, map, Codec.strings(), Codec.longs());
+        MappedAssociation<String, Long> association = MappedAssociation.open(path, Codec.strings(), Codec.longs());
+        assertEquals(map.size(), association.size());
+        for (java.util.Map.Entry<String, Long> entry : map.entrySet()) {
+            assertEquals(entry.getValue(), association.get(entry.getKey()));
+            assertTrue(association.contains(entry.getKey(), entry.getValue()));
+        }
+        assertNull(association.get("absent")); assertFalse(association.containsKey("absent"));
+    }
+
+    @Test
+    void duplicateKeyLeavesUnopenableFile() throws IOException {
+        Path path = directory.resolve("duplicate");
+        MappedAssociation.Writer<String, Integer> writer = MappedAssociation.writer(path, Codec.strings(), Codec.ints());
+        for (int i = 0; i < 20; i++) writer.put("a" + i, i);
+        writer.put("a5", 5);
+        assertThrows(IllegalArgumentException.class, writer::close);
+        assertThrows(IOException.class, () -> MappedAssociation.open(path, Codec.strings(), Codec.ints()));
+    }
+}
@@ -0,0 +1,71 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapHashAssociationTest {
+
+    @Test
+    void clearThenGrowSizesByNewContents() {
+        OffHeapHashAssociation<Integer, Integer> association = new OffHeapHashAssociation<>(Codec.ints(), Codec.ints());
+        for (int i = 0; i < 500_000; i++) association.put(i, i);
+        association.clear();
+        assertEquals(0, association.size());
+        for (int i = 0; i < 5_000; i++) association.put(i, -i);
+        assertEquals(5_000, association.size());
+        assertTrue(association.allocated() < 1 << 20, "allocated " + association.allocated());
+        for (int i = 0; i < 5_000; i++) assertEquals(-i, (int) association.get(i));
+    }
+
+    @Test
+    void matchesHashMapThroughRebuilds() {
+        OffHeapHashAssociation<String, String> association = new OffHeapHashAssociation<>(Codec.strings(), Codec.strings(), 0);
+        java.util.Map<String, String> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            String key = "key-" + random.nextInt(5_000), value = "v" + random.nextInt(1 << random.nextInt(20));
+            if (random.nextInt(4) == 0)
+                assertEquals(expected.remove(key) != null, association.remove(key));
+            else assertEquals(expected.put(key, value) == null, association.put(key, value));
+        }
+        assertEquals(expected.size(), association.size());
+        for (java.util.Map.Entry<String, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), association.get(entry.getKey()));
+            assertTrue(association.contains(entry.getKey(), entry.getValue()));
+            assertFalse(association.contains(entry.getKey(), entry.getValue() + "x"));
+        }
+        int count = 0;
+        for (KeyValue<String, String> kv : association) { assertEquals(expected.get(kv.getKey()), kv.getValue()); count++; }
+        assertEquals(expected.size(), count);
+        assertNull(association.get("absent")); assertFalse(association.containsKey("absent"));
+    }
+
+    @Test
+    void resizedValuesAreCompacted() {
+        OffHeapHashAssociation<Integer, String> association = new OffHeapHashAssociation<>(Codec.ints(), Codec.strings(), 16);
+        StringBuilder value = new StringBuilder();
+        for (int round = 0; round < 2_000; round++) {
+            value.append('x');
+            for (int key = 0; key < 16; key++) association.put(key, value.toString());
+        }
+        assertEquals(16, association.size());
+        for (int key = 0; key < 16; key++) assertEquals(value.toString(), association.get(key));
+        assertTrue(association.allocated() < 4 << 20, "allocated " + association.allocated());
+    }
+
+    @Test
+    void sameSizeValuesAreOverwrittenInPlace() {
+        OffHeapHashAssociation<Long, Long> association = new OffHeapHashAssociation<>(Codec.longs(), Codec.longs(), 4);
+        long allocated = association.allocated();
+        for (long i = 0; i < 100_000; i++) association.put(i & 3, i);
+        assertEquals(allocated, association.allocated());
+        for (long key = 0; key < 4; key++) assertEquals(99_996 + key, (long) association.get(key));
+    }
+}
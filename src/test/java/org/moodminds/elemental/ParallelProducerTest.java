@@ -0,0 +1,52 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static java.time.Duration.ofSeconds;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelProducerTest {
+
+    @Test
+    void orderedProvidesInEncounterOrder() {
+        Integer[] values = IntStream.range(0, 100_000).boxed().toArray(Integer[]::new);
+        ArrayList<Integer> provided = new ArrayList<>();
+        ParallelProducer.producer(values).ordered().provide(provided::add);
+        assertEquals(IntStream.range(0, 100_000).boxed().collect(toList()), provided);
+    }
+
+    @Test
+    void orderedBuffersBoundedWindow() throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            AtomicLong traversed = new AtomicLong(), seen = new AtomicLong(-1);
+            ParallelProducer.producer(IntStream.range(0, 1_000_000).boxed().peek(i -> traversed.incrementAndGet()).spliterator())
+                    .ordered().on(pool).provide(i -> {
+                        if (i == 0) {
+                            try { Thread.sleep(200); } catch (InterruptedException e) { throw new IllegalStateException(e); }
+                            seen.set(traversed.get()); } });
+            assertTrue(seen.get() <= ((pool.getParallelism() << 2) + 1) * ParallelProducer.ORDERED_PART, "traversed: " + seen.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void orderedRethrowsConsumerFailure() {
+        Integer[] values = IntStream.range(0, 100_000).boxed().toArray(Integer[]::new);
+        assertTimeoutPreemptively(ofSeconds(10), () -> {
+            for (int failure : new int[] {0, 50_000, 99_999})
+                assertThrows(IllegalStateException.class, () -> ParallelProducer.producer(values).ordered().provide(i -> {
+                    if (i == failure) throw new IllegalStateException(); }));
+        });
+    }
+}
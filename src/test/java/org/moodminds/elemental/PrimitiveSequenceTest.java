@@ -0,0 +1,36 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrimitiveSequenceTest {
+
+    @Test
+    void equalitySymmetricWithOtherSequences() {
+        IntArraySequence ints = new IntArraySequence(1, 2, 3); LongArraySequence longs = new LongArraySequence(1, 2, 3);
+        RrbTreeSequence<Integer> boxedInts = RrbTreeSequence.sequence(1, 2, 3);
+        RrbTreeSequence<Long> boxedLongs = RrbTreeSequence.sequence(1L, 2L, 3L);
+        assertSymmetric(true, ints, boxedInts); assertSymmetric(true, longs, boxedLongs);
+        assertSymmetric(true, ints, new IntArraySequence(0, 1, 2, 3).sub(1, 4));
+        assertSymmetric(false, ints, longs); assertSymmetric(false, ints, boxedLongs); assertSymmetric(false, longs, boxedInts);
+        assertSymmetric(false, ints, RrbTreeSequence.sequence(1, 2)); assertSymmetric(false, ints, java.util.Arrays.asList(1, 2, 3));
+        assertEquals(boxedInts.hashCode(), ints.hashCode()); assertEquals(boxedLongs.hashCode(), longs.hashCode());
+    }
+
+    @Test
+    void arraySequencesMatchDirectly() {
+        IntArraySequence ints = new IntArraySequence(5, 6, 7).sub(1, 3); LongArraySequence longs = new LongArraySequence(5, 6, 7);
+        assertTrue(ints instanceof DirectMatch); assertTrue(longs instanceof DirectMatch);
+        assertTrue(ints.containsOne(6)); assertFalse(ints.containsOne(5)); assertFalse(ints.containsOne(6L));
+        assertTrue(longs.containsOne(7L)); assertFalse(longs.containsOne(7)); assertFalse(longs.containsOne(null));
+    }
+
+    static void assertSymmetric(boolean equal, Object a, Object b) {
+        if (equal) { assertEquals(a, b); assertEquals(b, a); }
+        else { assertNotEquals(a, b); assertNotEquals(b, a); }
+    }
+}
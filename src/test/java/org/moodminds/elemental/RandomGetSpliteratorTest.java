@@ -0,0 +1,59 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterator.SIZED;
+import static java.util.Spliterator.SUBSIZED;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RandomGetSpliteratorTest {
+
+    @Test
+    void randomGetSequenceSplitsByHalvingIndexRange() {
+        RrbTreeSequence<Integer> sequence = RrbTreeSequence.sequence(IntStream.range(0, 1001).boxed().collect(toList()));
+        Spliterator<Integer> spliterator = sequence.spliterator();
+        assertInstanceOf(RandomGetSpliterator.class, spliterator);
+        assertEquals(ORDERED | SIZED | SUBSIZED, spliterator.characteristics());
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertEquals(500, prefix.estimateSize()); assertEquals(501, spliterator.estimateSize());
+        ArrayList<Integer> traversed = new ArrayList<>();
+        assertTrue(prefix.tryAdvance(traversed::add)); prefix.forEachRemaining(traversed::add);
+        spliterator.forEachRemaining(traversed::add);
+        assertEquals(IntStream.range(0, 1001).boxed().collect(toList()), traversed);
+        assertEquals(0, spliterator.estimateSize());
+
+        Spliterator<Integer> single = RrbTreeSequence.sequence(7).spliterator();
+        assertNull(single.trySplit()); assertEquals(1, single.estimateSize());
+    }
+
+    @Test
+    void parallelStreamKeepsEncounterOrder() {
+        RrbTreeSequence<Integer> sequence = RrbTreeSequence.sequence(IntStream.range(0, 100_000).boxed().collect(toList()));
+        assertEquals(IntStream.range(0, 100_000).boxed().collect(toList()),
+                StreamSupport.stream(sequence.spliterator(), true).collect(toList()));
+        assertEquals(4_999_950_000L, StreamSupport.stream(sequence.spliterator(), true).mapToLong(Integer::longValue).sum());
+    }
+
+    @Test
+    void primitiveSpliteratorsSplitByIndexRange() {
+        IntArraySequence ints = new IntArraySequence(IntStream.range(0, 100).toArray());
+        Spliterator.OfInt spliterator = new RandomGetSpliterator.OfInt(ints);
+        Spliterator.OfInt prefix = spliterator.trySplit();
+        assertEquals(50, prefix.estimateSize()); assertEquals(ORDERED | SIZED | SUBSIZED, prefix.characteristics());
+        int[] sum = new int[1]; prefix.forEachRemaining((int v) -> sum[0] += v); spliterator.forEachRemaining((int v) -> sum[0] += v);
+        assertEquals(4950, sum[0]);
+        Spliterator.OfLong longs = new RandomGetSpliterator.OfLong(new LongArraySequence(1, 2, 3));
+        long[] total = new long[1]; assertTrue(longs.tryAdvance((long v) -> total[0] += v)); longs.forEachRemaining((long v) -> total[0] += v);
+        assertEquals(6, total[0]);
+    }
+}
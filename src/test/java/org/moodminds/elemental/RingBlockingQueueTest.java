@@ -0,0 +1,41 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBlockingQueueTest {
+
+    @Test
+    void singleCapacityKeepsUnconsumedElements() {
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            RingBlockingQueue<String> queue = new RingBlockingQueue<>(1);
+            assertEquals(2, queue.capacity());
+            assertTrue(queue.offer("a")); assertTrue(queue.offer("b")); assertFalse(queue.offer("c"));
+            assertEquals("a", queue.peek());
+            assertEquals("a", queue.poll()); assertEquals("b", queue.take()); assertNull(queue.poll());
+        });
+    }
+
+    @Test
+    void fullQueueRejectsOffers() {
+        RingBlockingQueue<Integer> queue = new RingBlockingQueue<>(4);
+        for (int i = 0; i < 4; i++) assertTrue(queue.offer(i));
+        assertFalse(queue.offer(4));
+        for (int i = 0; i < 4; i++) assertEquals(i, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void illegalCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBlockingQueue<>(0));
+        assertThrows(IllegalArgumentException.class, () -> new RingBlockingQueue<>((1 << 30) + 1));
+    }
+}
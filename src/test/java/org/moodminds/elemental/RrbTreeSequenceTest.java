@@ -0,0 +1,104 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RrbTreeSequenceTest {
+
+    static final int BITS = RrbTreeSequence.BITS, WIDTH = RrbTreeSequence.WIDTH;
+
+    @Test
+    void concatAndSliceChainsKeepContentsAndInvariants() {
+        Random random = new Random(11);
+        RrbTreeSequence<Integer> sequence = RrbTreeSequence.empty(); ArrayList<Integer> expected = new ArrayList<>();
+        int next = 0;
+        for (int step = 0; step < 400; step++) {
+            switch (random.nextInt(4)) {
+                case 0: {
+                    int n = random.nextInt(3) == 0 ? random.nextInt(5000) : random.nextInt(70);
+                    RrbTreeSequence<Integer> other = RrbTreeSequence.empty();
+                    for (int i = 0; i < n; i++) { other = other.append(next); expected.add(next++); }
+                    sequence = sequence.concat(other); break;
+                }
+                case 1: {
+                    int n = random.nextInt(40);
+                    for (int i = 0; i < n; i++) { sequence = sequence.prepend(next); expected.add(0, next++); }
+                    break;
+                }
+                case 2: {
+                    int from = random.nextInt(expected.size() / 8 + 1), to = expected.size() - random.nextInt(expected.size() / 8 + 1);
+                    sequence = sequence.sub(from, to); expected = new ArrayList<>(expected.subList(from, to)); break;
+                }
+                default: {
+                    int at = expected.size() == 0 ? 0 : random.nextInt(expected.size());
+                    sequence = sequence.sub(at, expected.size()).concat(sequence.sub(0, at));
+                    ArrayList<Integer> rotated = new ArrayList<>(expected.subList(at, expected.size()));
+                    rotated.addAll(expected.subList(0, at)); expected = rotated;
+                }
+            }
+            check(expected, sequence);
+        }
+    }
+
+    @Test
+    void concatOfRelaxedTreesStaysShallow() {
+        RrbTreeSequence<Integer> sequence = RrbTreeSequence.empty(); ArrayList<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            RrbTreeSequence<Integer> piece = RrbTreeSequence.empty();
+            for (int j = 0; j < i % 37 + 1; j++) { piece = piece.append(j); expected.add(j); }
+            sequence = sequence.concat(piece);
+        }
+        check(expected, sequence);
+        assertTrue(sequence.shift / BITS <= 4, "height: " + sequence.shift / BITS);
+    }
+
+    @Test
+    void prependAndSubMatchList() {
+        RrbTreeSequence<String> sequence = RrbTreeSequence.empty(); ArrayList<String> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) { sequence = sequence.prepend("p" + i); expected.add(0, "p" + i); }
+        sequence = sequence.append(null); expected.add(null); check(expected, sequence);
+        for (int from = 0; from < expected.size(); from += 97)
+            for (int to = from; to <= expected.size(); to += 131)
+                check(expected.subList(from, to), sequence.sub(from, to));
+        assertNull(sequence.get(2000)); assertEquals(1, sequence.getCount(null));
+        assertThrows(IndexOutOfBoundsException.class, () -> RrbTreeSequence.sequence(1, 2).sub(1, 3));
+    }
+
+    static <E> void check(java.util.List<E> expected, RrbTreeSequence<E> sequence) {
+        assertEquals(expected.size(), sequence.size());
+        for (int i = 0; i < expected.size(); i++) assertEquals(expected.get(i), sequence.get(i));
+        ArrayList<E> iterated = new ArrayList<>(); for (E e : sequence) iterated.add(e);
+        assertEquals(expected, iterated);
+        assertTrue(sequence.tail.length <= WIDTH);
+        if (sequence.root == null) assertEquals(0, sequence.treeSize);
+        else assertEquals(sequence.treeSize, check(sequence.root, sequence.shift));
+    }
+
+    /**
+     * Check the subtree is of the given height, its strict nodes are full but the last child,
+     * and the size tables of its relaxed nodes are the cumulative sizes of the children.
+     *
+     * @return the number of the elements of the subtree
+     */
+    static int check(Object node, int shift) {
+        if (shift == 0) {
+            int length = ((Object[]) node).length; assertTrue(length > 0 && length <= WIDTH); return length; }
+        RrbTreeSequence.Node n = (RrbTreeSequence.Node) node;
+        assertTrue(n.children.length > 0 && n.children.length <= WIDTH);
+        int total = 0;
+        for (int i = 0; i < n.children.length; i++) {
+            int size = check(n.children[i], shift - BITS); total += size;
+            if (n.sizes == null) assertTrue(i == n.children.length - 1 || size == 1 << shift);
+            else assertEquals(total, n.sizes[i]);
+        }
+        if (n.sizes != null) assertEquals(n.children.length, n.sizes.length);
+        assertEquals(total, RrbTreeSequence.size(node, shift)); return total;
+    }
+}
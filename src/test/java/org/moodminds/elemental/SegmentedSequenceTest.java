@@ -0,0 +1,149 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentedSequenceTest {
+
+    static final int RECORD = SegmentedSequence.RECORD_HEADER + Integer.BYTES;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendsRollOverSegments() throws IOException {
+        SegmentedSequence<String> sequence = SegmentedSequence.open(directory, Codec.strings(), 256, 4, 16);
+        ArrayList<String> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) { assertEquals(i, sequence.append("value-" + i)); expected.add("value-" + i); }
+        assertTrue(segments() > 10); assertEquals(segments() - 1, count("*.idx"));
+        check(expected, sequence);
+        assertThrows(IllegalArgumentException.class, () -> sequence.append(new String(new char[300])));
+        sequence.close(); assertThrows(IllegalStateException.class, () -> sequence.append("closed"));
+    }
+
+    @Test
+    void sparseIndexLookups() throws IOException {
+        for (int interval : new int[] {1, 3, 64}) {
+            Path path = directory.resolve("interval-" + interval);
+            SegmentedSequence<Integer> sequence = SegmentedSequence.open(path, Codec.ints(), 16 + RECORD * 100, interval, 1000);
+            ArrayList<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) { sequence.append(i * 7); expected.add(i * 7); }
+            assertEquals(interval == 1, sequence instanceof RandomGet);
+            Random random = new Random(interval);
+            for (int i = 0; i < 2000; i++) {
+                int index = random.nextInt(1000); assertEquals(expected.get(index), sequence.get(index)); }
+            for (int from = 0; from < 1000; from += 97) {
+                TailedSequence<Integer> sub = sequence.sub(from, Math.min(from + 150, 1000));
+                check(expected.subList(from, Math.min(from + 150, 1000)), sub);
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> sequence.get(1000));
+            sequence.close();
+        }
+    }
+
+    @Test
+    void reopensExistingDirectory() throws IOException {
+        SegmentedSequence<String> sequence = SegmentedSequence.open(directory, Codec.strings(), 512, 8, 1);
+        ArrayList<String> expected = new ArrayList<>();
+        for (int i = 0; i < 300; i++) { sequence.append("r" + i); expected.add("r" + i); }
+        sequence.close();
+
+        SegmentedSequence<String> reopened = SegmentedSequence.open(directory, Codec.strings(), 512, 8, 1);
+        check(expected, reopened);
+        for (int i = 300; i < 400; i++) { reopened.append("r" + i); expected.add("r" + i); }
+        reopened.close();
+
+        Path deleted = directory.resolve(String.format("%020d.idx", 0)), corrupted = directory.resolve(String.format("%020d.idx", firstBase(1)));
+        Files.delete(deleted); corrupt(corrupted, 20);
+        SegmentedSequence<String> rebuilt = SegmentedSequence.open(directory, Codec.strings(), 512, 8, 1);
+        check(expected, rebuilt); assertTrue(Files.exists(deleted)); rebuilt.close();
+        check(expected, SegmentedSequence.open(directory, Codec.strings(), 512, 3, 1));
+    }
+
+    @Test
+    void corruptRecordOfLastSegmentIsErased() throws IOException {
+        SegmentedSequence<Integer> sequence = SegmentedSequence.open(directory, Codec.ints(), 16 + RECORD * 100, 4, 1);
+        for (int i = 0; i < 150; i++) sequence.append(i);
+        sequence.close();
+        int base = firstBase(1);
+        corrupt(directory.resolve(String.format("%020d.seg", base)), 16 + RECORD * 20 + SegmentedSequence.RECORD_HEADER);
+
+        SegmentedSequence<Integer> reopened = SegmentedSequence.open(directory, Codec.ints(), 16 + RECORD * 100, 4, 1);
+        assertEquals(base + 20, reopened.size());
+        for (int i = 0; i < reopened.size(); i++) assertEquals(i, (int) reopened.get(i));
+        assertEquals(base + 20, reopened.append(-1)); assertEquals(-1, (int) reopened.get(base + 20));
+        reopened.close();
+        assertEquals(base + 21, SegmentedSequence.open(directory, Codec.ints(), 16 + RECORD * 100, 4, 1).size());
+    }
+
+    @Test
+    void corruptRecordOfSealedSegmentIsRejected() throws IOException {
+        SegmentedSequence<Integer> sequence = SegmentedSequence.open(directory, Codec.ints(), 16 + RECORD * 100, 4, 1);
+        for (int i = 0; i < 150; i++) sequence.append(i);
+        sequence.close();
+        Files.delete(directory.resolve(String.format("%020d.idx", 0)));
+        corrupt(directory.resolve(String.format("%020d.seg", 0)), 16 + RECORD * 50 + SegmentedSequence.RECORD_HEADER);
+        assertThrows(IOException.class, () -> SegmentedSequence.open(directory, Codec.ints(), 16 + RECORD * 100, 4, 1));
+    }
+
+    static <E> void check(java.util.List<E> expected, TailedSequence<E> sequence) {
+        assertEquals(expected.size(), sequence.size());
+        for (int i = 0; i < expected.size(); i++) assertEquals(expected.get(i), sequence.get(i));
+        ArrayList<E> iterated = new ArrayList<>(); for (E e : sequence) iterated.add(e);
+        assertEquals(expected, iterated);
+        ArrayList<E> descending = new ArrayList<>();
+        for (TailedSequenceIterator<E> it = sequence.iterator(sequence.size()); it.hasPrevious(); ) descending.add(0, it.previous());
+        assertEquals(expected, descending);
+        if (!expected.isEmpty()) {
+            E last = expected.get(expected.size() - 1); Iterator<E> all = sequence.getAllDescending(last);
+            assertTrue(all.hasNext()); assertEquals(last, all.next());
+        }
+        assertFalse(sequence.contains(new Object()));
+    }
+
+    /**
+     * Return the base index of the given segment file in the order of names.
+     */
+    int firstBase(int segment) throws IOException {
+        java.util.List<Path> paths = new ArrayList<>();
+        try (java.nio.file.DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.seg")) {
+            for (Path path : files) paths.add(path);
+        }
+        paths.sort(null); String name = paths.get(segment).getFileName().toString();
+        return Integer.parseInt(name.substring(0, 20));
+    }
+
+    int segments() throws IOException {
+        return count("*.seg");
+    }
+
+    int count(String glob) throws IOException {
+        int count = 0;
+        try (java.nio.file.DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+            for (Path ignored : files) count++;
+        } return count;
+    }
+
+    static void corrupt(Path path, int position) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ, WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1); channel.read(b, position);
+            b.put(0, (byte) ~b.get(0)); b.rewind(); channel.write(b, position);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SetAlgebraTest {
+
+    @Test
+    void comparatorMatchingReceiverKeepsItsLookups() {
+        for (int n : new int[] {4, 8, 9, 100}) {
+            BTreeMap<String, Integer> map = new BTreeMap<>(CASE_INSENSITIVE_ORDER);
+            for (int i = 0; i < n; i++) map.put("k" + i, i);
+            Container<String> keys = map.keySet();
+            assertTrue(keys.containsAll(RrbTreeSequence.sequence("K0", "K1", "K2", "K3")), "size " + n);
+            for (int lookups : new int[] {1, 20}) {
+                java.util.List<String> upper = new ArrayList<>();
+                for (int i = 0; i < lookups; i++) upper.add("K" + (i % n));
+                RrbTreeSequence<String> sequence = RrbTreeSequence.sequence(upper);
+                assertTrue(SetAlgebra.containsAll(keys, sequence));
+                assertEquals(upper, SetAlgebra.intersection(sequence, keys, new ArrayList<>()));
+                assertFalse(SetAlgebra.disjoint(sequence, keys));
+            }
+        }
+    }
+
+    @Test
+    void sequencesAreHashedConsistently() {
+        java.util.List<Integer> a = new ArrayList<>(), b = new ArrayList<>();
+        for (int i = 0; i < 100; i++) { a.add(i); if (i % 3 == 0) b.add(i); }
+        RrbTreeSequence<Integer> x = RrbTreeSequence.sequence(a), y = RrbTreeSequence.sequence(b);
+        assertTrue(SetAlgebra.containsAll(x, y)); assertFalse(SetAlgebra.containsAll(y, x));
+        assertEquals(b, SetAlgebra.intersection(x, y, new ArrayList<>()));
+        assertEquals(100 - b.size(), SetAlgebra.difference(x, y, new ArrayList<>()).size());
+        assertEquals(a, SetAlgebra.union(x, y, new ArrayList<>()));
+        assertTrue(SetAlgebra.disjoint(y, RrbTreeSequence.sequence(asList(1, 2, 4, 5, 7, 8, 10, 11, 13, 14))));
+    }
+}
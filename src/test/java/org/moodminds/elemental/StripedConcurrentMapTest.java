@@ -0,0 +1,100 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedConcurrentMapTest {
+
+    @Test
+    void matchesHashMap() {
+        Random random = new Random(3);
+        StripedConcurrentMap<Integer, Integer> map = new StripedConcurrentMap<>(0, 0.75f, 4);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(5000);
+            switch (random.nextInt(5)) {
+                case 0: assertEquals(expected.remove(key), map.remove(key)); break;
+                case 1: assertEquals(expected.merge(key, 1, Integer::sum), map.merge(key, 1, Integer::sum)); break;
+                case 2: assertEquals(expected.putIfAbsent(key, i), map.putIfAbsent(key, i)); break;
+                case 3: assertEquals(expected.computeIfPresent(key, (k, v) -> v % 2 == 0 ? null : v + 1),
+                        map.computeIfPresent(key, (k, v) -> v % 2 == 0 ? null : v + 1)); break;
+                default: assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+        assertEquals(expected, map); assertEquals(expected.size(), map.size());
+        assertEquals(expected.values().stream().mapToLong(v -> v).sum(), (long) map.reduce(1, (k, v) -> (long) v, Long::sum));
+        assertThrows(NullPointerException.class, () -> map.put(null, 0));
+        assertThrows(NullPointerException.class, () -> map.put(0, null));
+        assertNull(map.get(-1));
+    }
+
+    @Test
+    void concurrentInsertsAcrossSegmentResizes() throws Exception {
+        int threads = 8, perThread = 50_000;
+        StripedConcurrentMap<Integer, Integer> map = new StripedConcurrentMap<>(0, 0.75f, 4);
+        AtomicIntegerArray published = new AtomicIntegerArray(threads); AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            Future<?> reader = executor.submit(() -> {
+                start.await(); int last = 0; Random random = new Random();
+                while (!done.get()) {
+                    int size = map.size();
+                    assertTrue(size >= last && size <= threads * perThread, "size: " + size + " after " + last); last = size;
+                    int t = random.nextInt(threads), upTo = published.get(t);
+                    if (upTo > 0) {
+                        int key = t * perThread + random.nextInt(upTo); assertEquals(key, (int) map.get(key)); }
+                } return null;
+            });
+            java.util.List<Future<?>> writers = new java.util.ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int base = t * perThread, index = t;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        assertNull(map.put(base + i, base + i)); published.set(index, i + 1); }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) writer.get(60, TimeUnit.SECONDS);
+            done.set(true); reader.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * perThread, map.size());
+        for (int key = 0; key < threads * perThread; key++) assertEquals(key, (int) map.get(key));
+    }
+
+    @Test
+    void concurrentMergesLoseNoUpdates() throws Exception {
+        int threads = 8, keys = 64, rounds = keys * 300;
+        StripedConcurrentMap<Integer, Integer> map = new StripedConcurrentMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            java.util.List<Future<?>> futures = new java.util.ArrayList<>();
+            for (int t = 0; t < threads; t++)
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < rounds; i++) map.merge(i % keys, 1, Integer::sum); }));
+            for (Future<?> future : futures) future.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(keys, map.size());
+        for (int key = 0; key < keys; key++) assertEquals(threads * rounds / keys, (int) map.get(key));
+    }
+}
@@ -0,0 +1,80 @@
+package org.moodminds.elemental;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static java.util.Comparator.nullsFirst;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TreeCollectionTest {
+
+    @Test
+    void orderStatisticsMatchSortedList() {
+        Random random = new Random(2);
+        TreeCollection<Integer> collection = new TreeCollection<>(); ArrayList<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            int e = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                int at = Collections.binarySearch(expected, e);
+                assertEquals(at >= 0, collection.remove(e)); if (at >= 0) expected.remove(at);
+            } else {
+                collection.add(e); int at = Collections.binarySearch(expected, e); expected.add(at < 0 ? -at - 1 : at, e);
+            }
+        }
+        assertEquals(expected.size(), collection.size());
+        assertEquals(expected, new ArrayList<>(asList(collection.toArray())));
+        for (int i = 0; i < expected.size(); i += 17) assertEquals(expected.get(i), collection.get(i));
+        for (int e = -1; e <= 500; e += 7) {
+            int lower = lowerBound(expected, e), upper = lowerBound(expected, e + 1);
+            assertEquals(lower, collection.head(e, false).size()); assertEquals(upper, collection.head(e, true).size());
+            assertEquals(upper - lower, collection.getCount(e));
+            assertEquals(expected.size() - upper, collection.tail(e, false).size());
+            assertEquals(lowerBound(expected, e + 50) - lower, collection.sub(e, true, e + 50, false).size());
+        }
+    }
+
+    @Test
+    void rangeViewsAndRunsMatchSortedList() {
+        TreeCollection<Integer> collection = new TreeCollection<>(asList(5, 1, 3, 3, 7, 5, 5, 9));
+        assertEquals(asList(3, 3, 5, 5, 5), toList(collection.sub(3, true, 7, false)));
+        assertEquals(asList(7, 5, 5, 5, 3, 3), toList(collection.descending().sub(7, true, 3, true)));
+        assertEquals(asList(5, 5, 5), toList(collection.floorAll(6))); assertEquals(asList(3, 3), toList(collection.lowerAll(5)));
+        assertEquals(Integer.valueOf(5), collection.sub(4, true, 9, false).get(1));
+        assertEquals(1, (int) collection.pollFirst()); assertEquals(9, (int) collection.pollLast());
+        collection.sub(3, true, 5, true).clear(); assertEquals(asList(7), toList(collection));
+        assertThrows(IllegalArgumentException.class, () -> collection.head(5, true).add(6));
+    }
+
+    @Test
+    void naturalOrderingRejectsNull() {
+        assertThrows(NullPointerException.class, () -> new TreeCollection<Integer>(Collections.singletonList(null)));
+        assertThrows(NullPointerException.class, () -> new TreeCollection<Integer>(asList(1, null)));
+        assertThrows(NullPointerException.class, () -> new TreeContainer<Integer>((Integer) null));
+        assertThrows(NullPointerException.class, () -> new TreeCollection<Integer>().add(null));
+        TreeCollection<Integer> nullable = new TreeCollection<>(nullsFirst(Integer::compare), Collections.singletonList(null));
+        nullable.add(1); nullable.add(null);
+        assertEquals(2, nullable.getCount(null)); assertNull(nullable.first());
+    }
+
+    static int lowerBound(java.util.List<Integer> sorted, int e) {
+        int lo = 0, hi = sorted.size();
+        while (lo < hi) { int mid = (lo + hi) >>> 1; if (sorted.get(mid) < e) lo = mid + 1; else hi = mid; }
+        return lo;
+    }
+
+    static <E> java.util.List<E> toList(Iterable<E> iterable) {
+        ArrayList<E> list = new ArrayList<>(); for (E e : iterable) list.add(e); return list;
+    }
+
+    static <E> java.util.List<E> toList(Iterator<E> iterator) {
+        ArrayList<E> list = new ArrayList<>(); iterator.forEachRemaining(list::add); return list;
+    }
+}